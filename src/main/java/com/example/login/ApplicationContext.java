@@ -0,0 +1,405 @@
+package com.example.login;
+
+import com.example.login.assets.AssetCache;
+import com.example.login.controller.HealthController;
+import com.example.login.controller.LoginController;
+import com.example.login.controller.MetricsController;
+import com.example.login.controller.StaticFileHandler;
+import com.example.login.controller.ValidateController;
+import com.example.login.health.ErrorCountingFilter;
+import com.example.login.health.HealthChecker;
+import com.example.login.metrics.MetricsRegistry;
+import com.example.login.model.User;
+import com.example.login.security.CredentialCache;
+import com.example.login.security.HashingPool;
+import com.example.login.security.PasswordHasher;
+import com.example.login.security.RateLimiter;
+import com.example.login.server.AdaptiveConcurrencyLimiter;
+import com.example.login.server.BoundedExecutor;
+import com.example.login.server.ServerConfig;
+import com.example.login.service.MockAuthService;
+import com.example.login.session.CachedTokenService;
+import com.example.login.session.SessionStore;
+import com.example.login.session.SignedTokenService;
+import com.example.login.session.TokenGenerator;
+import com.example.login.session.TokenMode;
+import com.example.login.session.TokenService;
+import com.example.login.store.BloomFilteredUserStore;
+import com.example.login.store.CompactUserStore;
+import com.example.login.store.ConcurrentUserStore;
+import com.example.login.store.MappedUserStore;
+import com.example.login.store.UserStore;
+import com.example.login.store.UserStoreType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// The one service graph behind a LoginServer: every handler shares a single
+// user store, auth service, hashing pool and set of caches, built once from
+// the config. Nothing here binds a port, so the graph can be built and
+// warmed before the server starts taking traffic, and closed after it has
+// drained.
+public class ApplicationContext {
+    private final ServerConfig config;
+    private final BoundedExecutor executor;
+    private final UserStore userStore;
+    private final UserStore lookups;
+    private final HashingPool hashingPool;
+    private final MockAuthService authService;
+    private final RateLimiter byAddress;
+    private final RateLimiter byUsername;
+    private final AdaptiveConcurrencyLimiter loginLimiter;
+    private final AssetCache assetCache;
+    private final MetricsRegistry metrics;
+    private final ErrorCountingFilter errorCounter;
+    private final HealthChecker healthChecker;
+    private final LoginController loginController;
+    private final ValidateController validateController;
+    private final HealthController healthController;
+    private final StaticFileHandler staticFiles;
+    private final MetricsController metricsController;
+    
+    public ApplicationContext(ServerConfig config) throws IOException {
+        this.config = config;
+        // Requests are handed to a bounded pool; overflow is answered with 503
+        executor = BoundedExecutor.create(config);
+        // Every context is timed and its statuses counted when this is set
+        metrics = config.isMetrics() ? new MetricsRegistry() : null;
+        errorCounter = new ErrorCountingFilter();
+        
+        userStore = createUserStore();
+        lookups = config.isUserFilter() ? new BloomFilteredUserStore(userStore) : userStore;
+        // Password hashing gets its own threads so it cannot starve the request workers
+        hashingPool = new HashingPool(config.getHashThreads(), config.getHashQueueCapacity());
+        authService = new MockAuthService(lookups, hashingPool, new PasswordHasher(config.getHashIterations()));
+        if (config.isCredentialCache()) {
+            authService.setCredentialCache(new CredentialCache(config.getCredentialCacheSize(),
+                    TimeUnit.SECONDS.toMillis(config.getCredentialCacheTtlSeconds())));
+        }
+        // Issued tokens can expire and be revoked in either mode; validation
+        // is the hottest path, so recent results are cached in front
+        TokenService tokens = createTokenService();
+        if (config.getTokenCacheSize() > 0) {
+            tokens = new CachedTokenService(tokens, config.getTokenCacheSize(), config.getTokenCacheMillis());
+        }
+        authService.setTokenService(tokens);
+        
+        // Also serves /api/login/batch
+        loginController = new LoginController(authService, config.getLoginBatchSize(), config.getLoginBatchMillis());
+        if (config.isRateLimit()) {
+            // Throttle guessing before it costs a password hash
+            byAddress = new RateLimiter(config.getRateLimitAddressPerMinute(), config.getRateLimitAddressBurst(),
+                    config.getRateLimitKeys());
+            byUsername = new RateLimiter(config.getRateLimitUsernamePerMinute(), config.getRateLimitUsernameBurst(),
+                    config.getRateLimitKeys());
+            loginController.setRateLimiters(byAddress, byUsername);
+        } else {
+            byAddress = null;
+            byUsername = null;
+        }
+        // Sheds logins past what the hashing pool can turn round in time
+        loginLimiter = config.isConcurrencyLimit()
+                ? new AdaptiveConcurrencyLimiter(config.getConcurrencyInitialLimit(), config.getConcurrencyMinLimit(),
+                        config.getConcurrencyMaxLimit(), config.getConcurrencyTargetMillis())
+                : null;
+        validateController = new ValidateController(authService);
+        healthChecker = createHealthChecker();
+        healthController = new HealthController(healthChecker);
+        
+        assetCache = new AssetCache(config.getWebRoot(), config.getStaticCacheBytes(),
+                config.getStaticMaxEntryBytes(), config.getStaticRevalidateMillis());
+        staticFiles = new StaticFileHandler(assetCache);
+        
+        if (metrics != null) {
+            registerMetrics();
+            metricsController = new MetricsController(metrics);
+        } else {
+            metricsController = null;
+        }
+    }
+    
+    // Takes the first-request costs before the port opens: reads the web root
+    // into the asset cache, starts every hashing thread and gets PBKDF2
+    // compiled, touches each user (faulting in a mapped file) and primes the
+    // token generator. Best effort: a failure is logged and startup goes on.
+    // Returns the time taken in milliseconds.
+    public long warmUp() {
+        long started = System.nanoTime();
+        try {
+            warmAssets();
+            warmHashing();
+            warmUsers();
+            for (int i = 0; i < 10_000; i++) {
+                TokenGenerator.newToken();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warm-up failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+    
+    private void warmAssets() throws IOException {
+        Path root = assetCache.getRoot();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                assetCache.get("/" + root.relativize(file).toString().replace('\\', '/'));
+            }
+        }
+    }
+    
+    // One verify per hashing thread, all queued at once, so each thread is
+    // created and runs the hash at least once
+    private void warmHashing() throws InterruptedException {
+        String encoded = new PasswordHasher(config.getHashIterations()).hash("warm-up");
+        List<Future<Boolean>> jobs = new ArrayList<>();
+        for (int i = 0; i < hashingPool.getThreads(); i++) {
+            jobs.add(hashingPool.submit(() -> PasswordHasher.verify("warm-up", encoded)));
+        }
+        for (Future<Boolean> job : jobs) {
+            try {
+                job.get();
+            } catch (ExecutionException e) {
+                System.err.println("Hashing warm-up failed: " + e.getCause());
+            }
+        }
+    }
+    
+    private void warmUsers() {
+        for (User user : userStore.users()) {
+            lookups.find(user.getUsername());
+        }
+    }
+    
+    // Stops the background work and releases the user store. Call once the
+    // server has stopped handing requests to the handlers.
+    public void close() {
+        healthChecker.stop();
+        executor.shutdown();
+        hashingPool.shutdown();
+        if (userStore instanceof MappedUserStore) {
+            try {
+                ((MappedUserStore) userStore).close();
+            } catch (IOException e) {
+                System.err.println("Failed to close user database: " + e.getMessage());
+            }
+        }
+    }
+    
+    // Readiness: users are loaded, the executor has room and recent requests
+    // mostly succeed. Liveness has no checks.
+    private HealthChecker createHealthChecker() {
+        HealthChecker checker = new HealthChecker(config.getHealthIntervalMillis());
+        checker.addCheck("userStore", () -> lookups.size() > 0 ? null : "no users loaded");
+        int maxQueueDepth = (int) Math.max(1, (long) executor.getCapacity() * config.getHealthMaxQueuePercent() / 100);
+        checker.addCheck("executor", () -> {
+            int depth = executor.getQueueDepth();
+            return depth < maxQueueDepth ? null : depth + " of " + executor.getCapacity() + " slots in use";
+        });
+        checker.addErrorRateCheck("errorRate", errorCounter::getRequestCount, errorCounter::getErrorCount,
+                config.getHealthMaxErrorPercent() / 100.0, 20);
+        return checker;
+    }
+    
+    // Components keep their own counts; these are read only when scraped
+    private void registerMetrics() {
+        metrics.counter("login_auth_total", "Login attempts that checked a password, by outcome",
+                authService::getSuccessCount, "outcome", "success");
+        metrics.counter("login_auth_total", "Login attempts that checked a password, by outcome",
+                authService::getFailureCount, "outcome", "failure");
+        metrics.counter("login_static_bytes_total", "Static file body bytes sent", staticFiles::getBytesServed);
+        metrics.counter("login_static_cache_requests_total", "Static file lookups, by result",
+                assetCache::getHitCount, "result", "hit");
+        metrics.counter("login_static_cache_requests_total", "Static file lookups, by result",
+                assetCache::getMissCount, "result", "miss");
+        metrics.gauge("login_static_cache_bytes", "Bytes of static files held in memory", assetCache::getCachedBytes);
+        
+        metrics.gauge("login_executor_queue_depth", "Requests running or waiting for a worker",
+                executor::getQueueDepth);
+        metrics.gauge("login_executor_capacity", "Requests the executor admits before answering 503",
+                executor::getCapacity);
+        metrics.counter("login_executor_rejected_total", "Requests answered 503 because the executor was full",
+                executor::getRejectedCount);
+        metrics.gauge("login_hashing_queue_depth", "Password hashes waiting for a hashing thread",
+                hashingPool::getQueueDepth);
+        metrics.gauge("login_hashing_active", "Password hashes being computed", hashingPool::getActiveCount);
+        metrics.counter("login_hashing_rejected_total", "Password hashes refused because the queue was full",
+                hashingPool::getRejectedCount);
+        
+        CredentialCache credentials = authService.getCredentialCache();
+        if (credentials != null) {
+            metrics.counter("login_credential_cache_requests_total", "Credential cache lookups, by result",
+                    credentials::getHitCount, "result", "hit");
+            metrics.counter("login_credential_cache_requests_total", "Credential cache lookups, by result",
+                    credentials::getMissCount, "result", "miss");
+        }
+        TokenService tokens = authService.getTokenService();
+        if (tokens instanceof CachedTokenService) {
+            CachedTokenService cached = (CachedTokenService) tokens;
+            metrics.counter("login_token_cache_requests_total", "Token validation cache lookups, by result",
+                    cached::getHitCount, "result", "hit");
+            metrics.counter("login_token_cache_requests_total", "Token validation cache lookups, by result",
+                    cached::getMissCount, "result", "miss");
+            tokens = cached.getDelegate();
+        }
+        if (tokens instanceof SessionStore) {
+            metrics.gauge("login_sessions", "Live sessions", ((SessionStore) tokens)::size);
+        }
+        if (authService.getUserStore() instanceof BloomFilteredUserStore) {
+            BloomFilteredUserStore filtered = (BloomFilteredUserStore) authService.getUserStore();
+            metrics.counter("login_user_filter_lookups_total", "User lookups that went through the Bloom filter",
+                    filtered::getLookupCount);
+            metrics.counter("login_user_filter_rejected_total", "Lookups the Bloom filter answered alone",
+                    filtered::getRejectedCount);
+        }
+        metrics.gauge("login_users", "Accounts in the user store", authService.getUserStore()::size);
+        metrics.gauge("login_ready", "1 while the readiness checks pass", () -> healthChecker.isReady() ? 1 : 0);
+        metrics.counter("login_server_errors_total", "Requests answered 500, 502 or 504, or not at all",
+                errorCounter::getErrorCount);
+        
+        if (byAddress != null) {
+            metrics.counter("login_rate_limited_total", "Login attempts throttled, by key",
+                    byAddress::getRejectedCount, "key", "address");
+            metrics.counter("login_rate_limited_total", "Login attempts throttled, by key",
+                    byUsername::getRejectedCount, "key", "username");
+        }
+        if (loginLimiter != null) {
+            metrics.gauge("login_concurrency_limit", "Current adaptive limit on concurrent logins",
+                    loginLimiter::getLimit);
+            metrics.gauge("login_concurrency_in_flight", "Logins holding a concurrency slot",
+                    loginLimiter::getInFlight);
+            metrics.counter("login_concurrency_shed_total", "Logins answered 503 by the concurrency limit",
+                    loginLimiter::getShedCount);
+        }
+    }
+    
+    // The in-memory stores start from the demo users; the mapped store keeps
+    // whatever its file holds and is only seeded when the file is new
+    private UserStore createUserStore() throws IOException {
+        if (config.getUserStore() == UserStoreType.MAPPED) {
+            Path file = Paths.get(config.getUserDb());
+            boolean exists = Files.exists(file);
+            if (!exists && file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            MappedUserStore store = new MappedUserStore(file);
+            if (!exists) {
+                store.load(MockAuthService.defaultUsers());
+            }
+            return store;
+        }
+        int expected = MockAuthService.defaultUsers().size();
+        UserStore store = config.getUserStore() == UserStoreType.COMPACT
+                ? new CompactUserStore(expected) : new ConcurrentUserStore(expected);
+        store.load(MockAuthService.defaultUsers());
+        return store;
+    }
+    
+    // Signed mode takes its keys from login.tokenKeys as "id:base64,..." with
+    // the signing key first; without keys it signs with a random one, so its
+    // tokens only hold on this node until restart
+    private TokenService createTokenService() {
+        long ttlMillis = TimeUnit.SECONDS.toMillis(config.getSessionTtlSeconds());
+        if (config.getTokenMode() == TokenMode.SESSION) {
+            return new SessionStore(ttlMillis, config.getMaxSessions());
+        }
+        String keys = config.getTokenKeys().trim();
+        if (keys.isEmpty()) {
+            System.err.println("No login.tokenKeys set, signing tokens with a random key");
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            return new SignedTokenService(ttlMillis, "local", secret);
+        }
+        SignedTokenService service = null;
+        for (String entry : keys.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected id:base64 in login.tokenKeys but got: " + entry);
+            }
+            String keyId = entry.substring(0, separator).trim();
+            byte[] secret = Base64.getDecoder().decode(entry.substring(separator + 1).trim());
+            if (service == null) {
+                service = new SignedTokenService(ttlMillis, keyId, secret);
+            } else {
+                service.addKey(keyId, secret);
+            }
+        }
+        return service;
+    }
+    
+    public ServerConfig getConfig() {
+        return config;
+    }
+    
+    public BoundedExecutor getExecutor() {
+        return executor;
+    }
+    
+    public UserStore getUserStore() {
+        return userStore;
+    }
+    
+    public HashingPool getHashingPool() {
+        return hashingPool;
+    }
+    
+    public MockAuthService getAuthService() {
+        return authService;
+    }
+    
+    public AssetCache getAssetCache() {
+        return assetCache;
+    }
+    
+    public ErrorCountingFilter getErrorCounter() {
+        return errorCounter;
+    }
+    
+    public HealthChecker getHealthChecker() {
+        return healthChecker;
+    }
+    
+    public LoginController getLoginController() {
+        return loginController;
+    }
+    
+    public ValidateController getValidateController() {
+        return validateController;
+    }
+    
+    public HealthController getHealthController() {
+        return healthController;
+    }
+    
+    public StaticFileHandler getStaticFiles() {
+        return staticFiles;
+    }
+    
+    // Null when login.metrics is off
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+    
+    // Null when login.metrics is off
+    public MetricsController getMetricsController() {
+        return metricsController;
+    }
+    
+    // Null when login.concurrencyLimit is off
+    public AdaptiveConcurrencyLimiter getLoginLimiter() {
+        return loginLimiter;
+    }
+}
\ No newline at end of file
@@ -1,35 +1,81 @@
 package com.example.login;
 
-import com.example.login.controller.LoginController;
-import com.example.login.controller.StaticFileHandler;
-import com.sun.net.httpserver.HttpServer;
+import com.example.login.health.ErrorCountingFilter;
+import com.example.login.health.HealthChecker;
+import com.example.login.metrics.MetricsFilter;
+import com.example.login.metrics.MetricsRegistry;
+import com.example.login.server.AdaptiveConcurrencyLimiter;
+import com.example.login.server.BoundedExecutor;
+import com.example.login.server.ConcurrencyLimitFilter;
+import com.example.login.server.EngineType;
+import com.example.login.server.HttpEngine;
+import com.example.login.server.JdkHttpEngine;
+import com.example.login.server.OverloadFilter;
+import com.example.login.server.ServerConfig;
+import com.example.login.server.nio.NioHttpEngine;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class LoginServer {
     private static final int PORT = 12001;
     private static final String WEB_ROOT = "web";
     
+    private final ServerConfig config;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private ApplicationContext context;
+    private long warmUpMillis;
+    private HttpEngine engine;
+    private BoundedExecutor executor;
+    private AdaptiveConcurrencyLimiter loginLimiter;
+    private MetricsRegistry metrics;
+    private ErrorCountingFilter errorCounter;
+    private HealthChecker healthChecker;
+    
+    public LoginServer(ServerConfig config) {
+        this.config = config;
+    }
+    
     public static void main(String[] args) {
         try {
-            HttpServer server = HttpServer.create(new InetSocketAddress("0.0.0.0", PORT), 0);
-            
-            // API endpoints
-            server.createContext("/api/login", new LoginController());
-            server.createContext("/api/health", new LoginController());
-            
-            // Static file serving
-            server.createContext("/", new StaticFileHandler(WEB_ROOT));
-            
-            server.setExecutor(null);
-            server.start();
+            ServerConfig config = new ServerConfig(PORT, WEB_ROOT)
+                    .applyProperties(System.getProperties())
+                    .applyArguments(args);
+            LoginServer loginServer = new LoginServer(config);
+            loginServer.start();
+            // Ctrl+C and SIGTERM drain in-flight requests instead of dropping them
+            Runtime.getRuntime().addShutdownHook(new Thread(loginServer::shutdown, "login-shutdown"));
+            int port = loginServer.getPort();
             
             System.out.println("=================================");
             System.out.println("Login Server Started Successfully!");
             System.out.println("=================================");
-            System.out.println("Frontend: http://localhost:" + PORT);
-            System.out.println("API: http://localhost:" + PORT + "/api");
-            System.out.println("Health Check: http://localhost:" + PORT + "/api/health");
+            System.out.println("Frontend: http://localhost:" + port);
+            System.out.println("API: http://localhost:" + port + "/api");
+            System.out.println("Health Check: http://localhost:" + port + "/api/health (/live, /ready)");
+            System.out.println("Token Check: http://localhost:" + port + "/api/validate");
+            if (config.isMetrics()) {
+                System.out.println("Metrics: http://localhost:" + port + "/api/metrics");
+            }
+            System.out.println("Engine: " + config.getEngine());
+            System.out.println("Executor: " + config.getExecutorMode() + " (" + config.getWorkerThreads()
+                    + " workers, queue " + config.getQueueCapacity() + ")");
+            System.out.println("User store: " + config.getUserStore()
+                    + (config.isUserFilter() ? " behind a Bloom filter" : ""));
+            System.out.println("Tokens: " + config.getTokenMode());
+            System.out.println("Credential cache: " + (config.isCredentialCache() ? config.getCredentialCacheSize()
+                    + " entries, " + config.getCredentialCacheTtlSeconds() + "s TTL" : "off"));
+            System.out.println("Login rate limit: " + (config.isRateLimit()
+                    ? config.getRateLimitAddressPerMinute() + "/min per address, "
+                    + config.getRateLimitUsernamePerMinute() + "/min per username" : "off"));
+            System.out.println("Login concurrency: " + (config.isConcurrencyLimit() ? "adaptive, "
+                    + config.getConcurrencyMinLimit() + "-" + config.getConcurrencyMaxLimit() + ", "
+                    + config.getConcurrencyTargetMillis() + "ms target" : "unlimited"));
+            System.out.println("Warm-up: " + (config.isWarmUp() ? loginServer.getWarmUpMillis() + " ms" : "off")
+                    + ", shutdown drain " + config.getShutdownDrainSeconds() + "s");
             System.out.println();
             System.out.println("Test Users:");
             System.out.println("- admin / admin123 (ADMIN)");
@@ -41,9 +87,146 @@ public class LoginServer {
             System.out.println("Press Ctrl+C to stop the server");
             System.out.println("=================================");
             
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException e) {
             System.err.println("Failed to start server: " + e.getMessage());
             e.printStackTrace();
         }
     }
+    
+    public void start() throws IOException {
+        // One graph for every handler, built and warmed before the port opens
+        context = new ApplicationContext(config);
+        if (config.isWarmUp()) {
+            warmUpMillis = context.warmUp();
+        }
+        executor = context.getExecutor();
+        metrics = context.getMetrics();
+        errorCounter = context.getErrorCounter();
+        healthChecker = context.getHealthChecker();
+        loginLimiter = context.getLoginLimiter();
+        try {
+            engine = createEngine();
+        } catch (IOException e) {
+            context.close();
+            throw e;
+        }
+        
+        // API endpoints; /api/login also serves /api/login/batch
+        HttpContext loginContext = addContext("/api/login", context.getLoginController());
+        if (loginLimiter != null) {
+            // Sheds logins past what the hashing pool can turn round in time; /api/health is not limited
+            loginContext.getFilters().add(new ConcurrencyLimitFilter(loginLimiter));
+        }
+        addContext("/api/validate", context.getValidateController());
+        addContext("/api/health", context.getHealthController(), true);
+        
+        // Static file serving
+        addContext("/", context.getStaticFiles());
+        
+        if (context.getMetricsController() != null) {
+            addContext("/api/metrics", context.getMetricsController());
+        }
+        
+        // Ready as soon as the port opens, if the checks pass
+        healthChecker.checkNow();
+        engine.start();
+        healthChecker.start();
+    }
+    
+    private HttpEngine createEngine() throws IOException {
+        InetSocketAddress address = new InetSocketAddress("0.0.0.0", config.getPort());
+        if (config.getEngine() == EngineType.NIO) {
+            return new NioHttpEngine(address, config.getBacklog(), config.getSelectorThreads(), executor,
+                    config.getMaxRequestBytes());
+        }
+        return new JdkHttpEngine(address, config.getBacklog(), executor);
+    }
+    
+    private HttpContext addContext(String path, HttpHandler handler) {
+        return addContext(path, handler, false);
+    }
+    
+    // Probes are answered even when the executor is full: their replies are
+    // cached, so running one on the dispatcher thread costs no more than a
+    // 503 would. They are left out of the error rate they report on.
+    private HttpContext addContext(String path, HttpHandler handler, boolean probe) {
+        HttpContext context = engine.createContext(path, handler);
+        if (metrics != null) {
+            // First, so requests the later filters turn away are counted too
+            context.getFilters().add(new MetricsFilter(metrics, path));
+        }
+        if (!probe) {
+            context.getFilters().add(errorCounter);
+            context.getFilters().add(new OverloadFilter());
+        }
+        return context;
+    }
+    
+    // Graceful stop for deploys and SIGTERM: readiness goes DOWN first so
+    // load balancers move traffic away, then the listener closes and the
+    // requests already in flight get up to login.shutdownDrainSeconds to
+    // finish before the pools are shut down. Safe to call more than once.
+    public void shutdown() {
+        if (engine == null || !stopped.compareAndSet(false, true)) {
+            return;
+        }
+        long started = System.nanoTime();
+        healthChecker.setDraining(true);
+        if (config.getShutdownDelayMillis() > 0) {
+            try {
+                Thread.sleep(config.getShutdownDelayMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        engine.stop(Math.max(1, config.getShutdownDrainSeconds()));
+        context.close();
+        System.out.println("Login server stopped after " + errorCounter.getRequestCount() + " requests ("
+                + errorCounter.getErrorCount() + " server errors), drained in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
+        System.out.flush();
+        System.err.flush();
+    }
+    
+    // Stops without the readiness hand-off, waiting up to delaySeconds for
+    // in-flight requests
+    public void stop(int delaySeconds) {
+        if (engine == null || !stopped.compareAndSet(false, true)) {
+            return;
+        }
+        healthChecker.stop();
+        engine.stop(delaySeconds);
+        context.close();
+    }
+    
+    public int getPort() {
+        return engine.getAddress().getPort();
+    }
+    
+    public ApplicationContext getContext() {
+        return context;
+    }
+    
+    // Zero when login.warmUp is off
+    public long getWarmUpMillis() {
+        return warmUpMillis;
+    }
+    
+    public BoundedExecutor getExecutor() {
+        return executor;
+    }
+    
+    public HealthChecker getHealthChecker() {
+        return healthChecker;
+    }
+    
+    // Null when login.metrics is off
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+    
+    // Null when login.concurrencyLimit is off
+    public AdaptiveConcurrencyLimiter getLoginLimiter() {
+        return loginLimiter;
+    }
 }
\ No newline at end of file
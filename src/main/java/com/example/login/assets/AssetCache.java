@@ -0,0 +1,242 @@
+package com.example.login.assets;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caches files under the web root keyed by normalised relative path. Entries
+// are re-checked against the file's mtime and size at most once per
+// revalidate interval, so steady-state hits never touch the disk. In-memory
+// bytes, gzip variants included, are bounded by maxBytes; the least recently
+// used entries go first.
+public class AssetCache {
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+    public static final long DEFAULT_MAX_ENTRY_BYTES = 1024 * 1024;
+    public static final long DEFAULT_REVALIDATE_MILLIS = 1000;
+    
+    private final Path root;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final long revalidateMillis;
+    private final Map<String, StaticAsset> entries = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public AssetCache(String webRoot) {
+        this(webRoot, DEFAULT_MAX_BYTES, DEFAULT_MAX_ENTRY_BYTES, DEFAULT_REVALIDATE_MILLIS);
+    }
+    
+    public AssetCache(String webRoot, long maxBytes, long maxEntryBytes, long revalidateMillis) {
+        this.root = Paths.get(webRoot).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        this.revalidateMillis = revalidateMillis;
+    }
+    
+    // Returns the asset for a request path such as "/script.js", or null if
+    // there is no regular file there or the path escapes the web root
+    public StaticAsset get(String requestPath) throws IOException {
+        String key = normalise(requestPath);
+        if (key == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        StaticAsset asset = entries.get(key);
+        if (asset != null && (now - asset.getLastValidated() < revalidateMillis || isUnchanged(asset, now))) {
+            hits.increment();
+            asset.setLastAccess(now);
+            return asset;
+        }
+        if (asset != null) {
+            remove(key, asset);
+        }
+        
+        misses.increment();
+        StaticAsset loaded = load(root.resolve(key), now);
+        if (loaded == null) {
+            return null;
+        }
+        StaticAsset previous = entries.put(key, loaded);
+        cachedBytes.addAndGet(loaded.getCachedBytes() - (previous != null ? previous.getCachedBytes() : 0));
+        if (cachedBytes.get() > maxBytes) {
+            evict();
+        }
+        return loaded;
+    }
+    
+    public void invalidateAll() {
+        for (Map.Entry<String, StaticAsset> entry : entries.entrySet()) {
+            remove(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    public long getCachedBytes() {
+        return cachedBytes.get();
+    }
+    
+    public int getEntryCount() {
+        return entries.size();
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    public Path getRoot() {
+        return root;
+    }
+    
+    // Relative path inside the root with "." and ".." resolved, or null if it leaves the root
+    private String normalise(String requestPath) {
+        String relative = requestPath.startsWith("/") ? requestPath.substring(1) : requestPath;
+        try {
+            Path resolved = root.resolve(relative).normalize();
+            if (!resolved.startsWith(root) || resolved.equals(root)) {
+                return null;
+            }
+            return root.relativize(resolved).toString();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+    
+    private boolean isUnchanged(StaticAsset asset, long now) throws IOException {
+        StaticAsset gzip = asset.getGzip();
+        if (!matchesDisk(asset) || (gzip != null && gzip.getFile() != asset.getFile() && !matchesDisk(gzip))) {
+            return false;
+        }
+        asset.setLastValidated(now);
+        return true;
+    }
+    
+    private static boolean matchesDisk(StaticAsset asset) throws IOException {
+        BasicFileAttributes attributes = readAttributes(asset.getFile());
+        return attributes != null && attributes.isRegularFile()
+                && attributes.lastModifiedTime().toMillis() == asset.getFileTime()
+                && attributes.size() == asset.getLength();
+    }
+    
+    private StaticAsset load(Path file, long now) throws IOException {
+        BasicFileAttributes attributes = readAttributes(file);
+        if (attributes == null || !attributes.isRegularFile()) {
+            return null;
+        }
+        long fileTime = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        byte[] content = null;
+        String etag;
+        if (size > maxEntryBytes) {
+            // Too big to hold in memory: keep metadata only, with a size/mtime validator
+            etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(fileTime) + "\"";
+        } else {
+            content = readFile(file);
+            if (content == null) {
+                return null;
+            }
+            size = content.length;
+            etag = contentEtag(content);
+        }
+        StaticAsset gzip = loadGzip(file, fileTime, content, etag, now);
+        return new StaticAsset(file, content, size, fileTime, etag, gzip, now);
+    }
+    
+    // A fresh precompressed sibling ("ant precompress") wins; otherwise small
+    // compressible files are gzipped here once and kept next to the original
+    private StaticAsset loadGzip(Path file, long fileTime, byte[] content, String etag, long now)
+            throws IOException {
+        String variantEtag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+        Path sibling = file.resolveSibling(file.getFileName() + ".gz");
+        BasicFileAttributes attributes = readAttributes(sibling);
+        if (attributes != null && attributes.isRegularFile() && attributes.lastModifiedTime().toMillis() >= fileTime) {
+            long size = attributes.size();
+            byte[] bytes = size <= maxEntryBytes ? readFile(sibling) : null;
+            if (bytes != null || size > maxEntryBytes) {
+                return new StaticAsset(sibling, bytes, bytes != null ? bytes.length : size,
+                        attributes.lastModifiedTime().toMillis(), variantEtag, null, now);
+            }
+        }
+        if (content == null || !Precompressor.isCompressible(file.getFileName().toString())) {
+            return null;
+        }
+        byte[] compressed = Precompressor.compressIfSmaller(content);
+        if (compressed == null) {
+            return null;
+        }
+        return new StaticAsset(file, compressed, compressed.length, fileTime, variantEtag, null, now);
+    }
+    
+    private static byte[] readFile(Path file) throws IOException {
+        try {
+            return Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+    
+    private static BasicFileAttributes readAttributes(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+    
+    private void remove(String key, StaticAsset asset) {
+        if (entries.remove(key, asset)) {
+            cachedBytes.addAndGet(-asset.getCachedBytes());
+        }
+    }
+    
+    // Drops least recently used in-memory entries until the byte budget is met
+    private synchronized void evict() {
+        while (cachedBytes.get() > maxBytes) {
+            String oldestKey = null;
+            StaticAsset oldest = null;
+            for (Map.Entry<String, StaticAsset> entry : entries.entrySet()) {
+                StaticAsset candidate = entry.getValue();
+                if (candidate.getCachedBytes() > 0 && (oldest == null || candidate.getLastAccess() < oldest.getLastAccess())) {
+                    oldestKey = entry.getKey();
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            remove(oldestKey, oldest);
+        }
+    }
+    
+    // First 128 bits of the SHA-256 of the content, hex encoded and quoted
+    static String contentEtag(byte[] content) {
+        return "\"" + contentHash(content) + "\"";
+    }
+    
+    static String contentHash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
\ No newline at end of file
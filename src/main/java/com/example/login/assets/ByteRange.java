@@ -0,0 +1,124 @@
+package com.example.login.assets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// One satisfiable byte range of a representation, inclusive on both ends.
+public final class ByteRange {
+    // More parts than this after coalescing is treated as abuse and served in full
+    public static final int MAX_RANGES = 16;
+    
+    private final long first;
+    private final long last;
+    
+    public ByteRange(long first, long last) {
+        this.first = first;
+        this.last = last;
+    }
+    
+    // Parses a Range header against a representation of the given length.
+    // Returns null when the header should be ignored (absent, not "bytes",
+    // malformed or too many parts), an empty list when nothing is satisfiable
+    // (416), otherwise the sorted ranges with overlapping or adjacent ones merged.
+    public static List<ByteRange> parse(String header, long length) {
+        if (header == null) {
+            return null;
+        }
+        String value = header.trim();
+        if (!value.regionMatches(true, 0, "bytes=", 0, 6)) {
+            return null;
+        }
+        List<ByteRange> ranges = new ArrayList<>();
+        for (String spec : value.substring(6).split(",")) {
+            spec = spec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                String start = spec.substring(0, dash).trim();
+                String end = spec.substring(dash + 1).trim();
+                long first;
+                long last;
+                if (start.isEmpty()) {
+                    // Suffix range: the final N bytes
+                    long suffix = parseDigits(end);
+                    if (suffix == 0) {
+                        continue;
+                    }
+                    first = Math.max(0, length - suffix);
+                    last = length - 1;
+                } else {
+                    first = parseDigits(start);
+                    last = end.isEmpty() ? length - 1 : Math.min(parseDigits(end), length - 1);
+                    if (!end.isEmpty() && parseDigits(end) < first) {
+                        return null;
+                    }
+                }
+                if (first < length && first <= last) {
+                    ranges.add(new ByteRange(first, last));
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        List<ByteRange> merged = coalesce(ranges);
+        return merged.size() > MAX_RANGES ? null : merged;
+    }
+    
+    private static long parseDigits(String digits) {
+        if (digits.isEmpty() || digits.length() > 18) {
+            throw new NumberFormatException(digits);
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            if (digits.charAt(i) < '0' || digits.charAt(i) > '9') {
+                throw new NumberFormatException(digits);
+            }
+        }
+        return Long.parseLong(digits);
+    }
+    
+    private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        Collections.sort(ranges, Comparator.comparingLong(ByteRange::getFirst));
+        List<ByteRange> merged = new ArrayList<>();
+        ByteRange current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            ByteRange next = ranges.get(i);
+            if (next.first <= current.last + 1) {
+                current = new ByteRange(current.first, Math.max(current.last, next.last));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+    
+    public long getFirst() {
+        return first;
+    }
+    
+    public long getLast() {
+        return last;
+    }
+    
+    public long getLength() {
+        return last - first + 1;
+    }
+    
+    // Content-Range value, e.g. "bytes 0-499/1234"
+    public String toContentRange(long totalLength) {
+        return "bytes " + first + "-" + last + "/" + totalLength;
+    }
+    
+    @Override
+    public String toString() {
+        return first + "-" + last;
+    }
+}
\ No newline at end of file
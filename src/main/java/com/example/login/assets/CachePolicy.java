@@ -0,0 +1,44 @@
+package com.example.login.assets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Maps request paths to Cache-Control values; the first matching rule wins.
+// The defaults let browsers keep fingerprinted assets (name.1a2b3c4d.ext, see
+// Fingerprinter) for a year without revalidating, and make everything else,
+// HTML in particular, revalidate through its ETag on every use.
+public class CachePolicy {
+    public static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    public static final String NO_CACHE = "no-cache";
+    
+    private final List<Pattern> patterns = new ArrayList<>();
+    private final List<String> values = new ArrayList<>();
+    private final String fallback;
+    
+    public CachePolicy(String fallback) {
+        this.fallback = fallback;
+    }
+    
+    public static CachePolicy defaults() {
+        return new CachePolicy(NO_CACHE)
+                .add(".*\\.[0-9a-f]{" + Fingerprinter.HASH_LENGTH + "}\\.[A-Za-z0-9]+", IMMUTABLE)
+                .add(".*\\.html?", NO_CACHE);
+    }
+    
+    // Adds a rule for paths fully matching the regular expression
+    public CachePolicy add(String regex, String cacheControl) {
+        patterns.add(Pattern.compile(regex));
+        values.add(cacheControl);
+        return this;
+    }
+    
+    public String cacheControlFor(String path) {
+        for (int i = 0; i < patterns.size(); i++) {
+            if (patterns.get(i).matcher(path).matches()) {
+                return values.get(i);
+            }
+        }
+        return fallback;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.example.login.assets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Build-time tool behind "ant dist-web": copies a web directory and gives every
+// non-HTML asset a content-hashed twin (styles.css -> styles.1a2b3c4d.css),
+// then rewrites href/src references in the HTML pages to the hashed names.
+// Hashed files never change, so CachePolicy can let browsers keep them for a year.
+public class Fingerprinter {
+    static final int HASH_LENGTH = 8;
+    
+    private static final Pattern REFERENCE = Pattern.compile("(\\b(?:href|src)\\s*=\\s*)([\"'])([^\"']+)\\2",
+            Pattern.CASE_INSENSITIVE);
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: Fingerprinter <source directory> <output directory>");
+            System.exit(1);
+        }
+        Path source = Paths.get(args[0]).toAbsolutePath().normalize();
+        Path output = Paths.get(args[1]).toAbsolutePath().normalize();
+        int rewritten = run(source, output);
+        System.out.println("Fingerprinted " + source + " into " + output + ", " + rewritten + " reference(s) rewritten");
+    }
+    
+    // Returns the number of references rewritten
+    static int run(Path source, Path output) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        
+        // Assets first, so the pages can be rewritten against the complete mapping
+        Map<String, String> hashedNames = new HashMap<>();
+        for (Path file : files) {
+            String relative = source.relativize(file).toString().replace('\\', '/');
+            if (isPage(relative) || relative.endsWith(".gz")) {
+                continue;
+            }
+            byte[] content = Files.readAllBytes(file);
+            String hashed = hashedName(relative, AssetCache.contentHash(content).substring(0, HASH_LENGTH));
+            write(output.resolve(relative), content);
+            write(output.resolve(hashed), content);
+            hashedNames.put(relative, hashed);
+        }
+        
+        int rewritten = 0;
+        for (Path file : files) {
+            String relative = source.relativize(file).toString().replace('\\', '/');
+            if (!isPage(relative)) {
+                continue;
+            }
+            String html = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            StringBuilder result = new StringBuilder(html.length());
+            Matcher matcher = REFERENCE.matcher(html);
+            while (matcher.find()) {
+                String replacement = rewrite(relative, matcher.group(3), hashedNames);
+                if (replacement != null) {
+                    rewritten++;
+                } else {
+                    replacement = matcher.group(3);
+                }
+                matcher.appendReplacement(result, Matcher.quoteReplacement(
+                        matcher.group(1) + matcher.group(2) + replacement + matcher.group(2)));
+            }
+            matcher.appendTail(result);
+            write(output.resolve(relative), result.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return rewritten;
+    }
+    
+    // "css/site.css" + "1a2b3c4d" -> "css/site.1a2b3c4d.css"
+    static String hashedName(String relative, String hash) {
+        int slash = relative.lastIndexOf('/');
+        int dot = relative.lastIndexOf('.');
+        if (dot <= slash + 1) {
+            return relative + "." + hash;
+        }
+        return relative.substring(0, dot) + "." + hash + relative.substring(dot);
+    }
+    
+    // Hashed form of a reference found in page, or null if it is not a local asset we know
+    private static String rewrite(String page, String reference, Map<String, String> hashedNames) {
+        String lower = reference.toLowerCase(Locale.ROOT);
+        if (reference.startsWith("//") || reference.startsWith("#") || lower.startsWith("data:") || lower.contains("://")) {
+            return null;
+        }
+        int suffixStart = reference.length();
+        for (char c : new char[] {'?', '#'}) {
+            int index = reference.indexOf(c);
+            if (index >= 0 && index < suffixStart) {
+                suffixStart = index;
+            }
+        }
+        String path = reference.substring(0, suffixStart);
+        String suffix = reference.substring(suffixStart);
+        
+        String resolved;
+        if (path.startsWith("/")) {
+            resolved = path.substring(1);
+        } else {
+            int slash = page.lastIndexOf('/');
+            resolved = (slash >= 0 ? page.substring(0, slash + 1) : "") + path;
+        }
+        resolved = Paths.get(resolved).normalize().toString().replace('\\', '/');
+        String hashed = hashedNames.get(resolved);
+        if (hashed == null) {
+            return null;
+        }
+        // Keep the reference's own directory part and swap just the file name
+        int slash = path.lastIndexOf('/');
+        return path.substring(0, slash + 1) + hashed.substring(hashed.lastIndexOf('/') + 1) + suffix;
+    }
+    
+    private static boolean isPage(String relative) {
+        String lower = relative.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".html") || lower.endsWith(".htm");
+    }
+    
+    private static void write(Path target, byte[] content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.write(target, content);
+    }
+}
\ No newline at end of file
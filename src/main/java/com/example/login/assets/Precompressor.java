@@ -0,0 +1,92 @@
+package com.example.login.assets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Build-time tool behind "ant precompress": writes a maximum-compression .gz
+// sibling next to every compressible file under a directory, so the server can
+// send those bytes as-is. AssetCache uses the same rules for files that have
+// no precompressed copy.
+public class Precompressor {
+    // Below this, headers and the gzip framing eat most of the saving
+    static final int MIN_SIZE = 256;
+    
+    private static final String[] COMPRESSIBLE = {
+        ".html", ".htm", ".css", ".js", ".json", ".txt", ".svg", ".xml", ".map"
+    };
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: Precompressor <directory>");
+            System.exit(1);
+        }
+        Path root = Paths.get(args[0]);
+        int written = 0;
+        int skipped = 0;
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (!isCompressible(name)) {
+                continue;
+            }
+            Path target = file.resolveSibling(name + ".gz");
+            if (Files.exists(target)
+                    && Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(file)) >= 0) {
+                skipped++;
+                continue;
+            }
+            byte[] compressed = compressIfSmaller(Files.readAllBytes(file));
+            if (compressed == null) {
+                // Not worth it; make sure an old copy does not linger
+                Files.deleteIfExists(target);
+                continue;
+            }
+            Files.write(target, compressed);
+            written++;
+        }
+        System.out.println("Precompressed " + written + " file(s), " + skipped + " up to date, in " + root);
+    }
+    
+    public static boolean isCompressible(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (String extension : COMPRESSIBLE) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Gzipped bytes, or null if the input is too small or the result saves less than 10%
+    public static byte[] compressIfSmaller(byte[] data) throws IOException {
+        if (data.length < MIN_SIZE) {
+            return null;
+        }
+        byte[] compressed = gzip(data);
+        return compressed.length < data.length * 0.9 ? compressed : null;
+    }
+    
+    public static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.example.login.assets;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+// Snapshot of one file under the web root. Small files carry their bytes;
+// files over the cache's per-entry limit carry metadata plus a read-only
+// mapping created on first use and shared by every request for the file.
+public final class StaticAsset {
+    private final Path file;
+    private final byte[] content;
+    private final long length;
+    private final long fileTime;
+    private final long lastModifiedMillis;
+    private final String lastModified;
+    private final String etag;
+    private final StaticAsset gzip;
+    private volatile MappedByteBuffer mapped;
+    private volatile long lastValidated;
+    private volatile long lastAccess;
+    
+    StaticAsset(Path file, byte[] content, long length, long fileTime, String etag, StaticAsset gzip, long now) {
+        this.file = file;
+        this.content = content;
+        this.length = length;
+        this.fileTime = fileTime;
+        // HTTP dates have one second resolution; drop the rest so comparisons line up
+        this.lastModifiedMillis = fileTime - fileTime % 1000;
+        this.lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                Instant.ofEpochMilli(this.lastModifiedMillis).atOffset(ZoneOffset.UTC));
+        this.etag = etag;
+        this.gzip = gzip;
+        this.lastValidated = now;
+        this.lastAccess = now;
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    // File bytes, or null when the file is too large to keep in memory
+    public byte[] getContent() {
+        return content;
+    }
+    
+    public boolean isInMemory() {
+        return content != null;
+    }
+    
+    // Read-only view of the mapped file for assets not held in memory, or null
+    // if the file is too large to map in one piece. Each call returns an
+    // independent duplicate positioned at zero.
+    public ByteBuffer getMappedContent() throws IOException {
+        if (content != null || length > Integer.MAX_VALUE) {
+            return null;
+        }
+        MappedByteBuffer buffer = mapped;
+        if (buffer == null) {
+            synchronized (this) {
+                buffer = mapped;
+                if (buffer == null) {
+                    // The mapping stays valid after the channel is closed and is
+                    // released by the GC once the asset is evicted or replaced
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                    }
+                    mapped = buffer;
+                }
+            }
+        }
+        return buffer.duplicate();
+    }
+    
+    public long getLength() {
+        return length;
+    }
+    
+    public long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+    
+    // Pre-formatted Last-Modified header value
+    public String getLastModified() {
+        return lastModified;
+    }
+    
+    // Strong entity tag, already quoted
+    public String getEtag() {
+        return etag;
+    }
+    
+    // Raw modification time as read from disk, used to detect changes
+    long getFileTime() {
+        return fileTime;
+    }
+    
+    // Gzip-encoded representation with its own ETag, or null if there is none
+    public StaticAsset getGzip() {
+        return gzip;
+    }
+    
+    long getLastValidated() {
+        return lastValidated;
+    }
+    
+    void setLastValidated(long lastValidated) {
+        this.lastValidated = lastValidated;
+    }
+    
+    long getLastAccess() {
+        return lastAccess;
+    }
+    
+    void setLastAccess(long lastAccess) {
+        this.lastAccess = lastAccess;
+    }
+    
+    long getCachedBytes() {
+        return (content != null ? content.length : 0) + (gzip != null ? gzip.getCachedBytes() : 0);
+    }
+}
\ No newline at end of file
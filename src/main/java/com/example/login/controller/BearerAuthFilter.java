@@ -0,0 +1,72 @@
+package com.example.login.controller;
+
+import com.example.login.json.JsonWriter;
+import com.example.login.service.MockAuthService;
+import com.example.login.session.Session;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+// Guards a context with "Authorization: Bearer <token>". Valid requests go on
+// with the Session in the SESSION_ATTRIBUTE exchange attribute; a missing or
+// invalid token gets 401, a role outside the allowed set 403. With no roles
+// given any valid token passes.
+public class BearerAuthFilter extends Filter {
+    public static final String SESSION_ATTRIBUTE = "login.session";
+    
+    private static final String BEARER = "Bearer ";
+    private static final byte[] UNAUTHORIZED = JsonWriter.encode("{\"success\":false,\"message\":\"Authentication required\"}");
+    private static final byte[] FORBIDDEN = JsonWriter.encode("{\"success\":false,\"message\":\"Insufficient role\"}");
+    
+    private final MockAuthService authService;
+    private final Set<String> roles;
+    
+    public BearerAuthFilter(MockAuthService authService, String... roles) {
+        this.authService = authService;
+        this.roles = new HashSet<>(Arrays.asList(roles));
+    }
+    
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        Session session = authService.getSession(bearerToken(exchange.getRequestHeaders()));
+        if (session == null) {
+            exchange.getResponseHeaders().add("WWW-Authenticate", "Bearer");
+            reject(exchange, 401, UNAUTHORIZED);
+            return;
+        }
+        if (!roles.isEmpty() && !roles.contains(session.getRole())) {
+            reject(exchange, 403, FORBIDDEN);
+            return;
+        }
+        exchange.setAttribute(SESSION_ATTRIBUTE, session);
+        chain.doFilter(exchange);
+    }
+    
+    @Override
+    public String description() {
+        return "Requires a valid bearer token" + (roles.isEmpty() ? "" : " with role " + roles);
+    }
+    
+    // The token from an Authorization: Bearer header, or null
+    static String bearerToken(Headers headers) {
+        String authorization = headers.getFirst("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        String token = authorization.substring(BEARER.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+    
+    private static void reject(HttpExchange exchange, int statusCode, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        OutputStream os = exchange.getResponseBody();
+        os.write(body);
+        os.close();
+    }
+}
\ No newline at end of file
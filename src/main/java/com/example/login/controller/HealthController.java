@@ -0,0 +1,73 @@
+package com.example.login.controller;
+
+import com.example.login.health.HealthChecker;
+import com.example.login.json.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Probes, all GET (or HEAD) and all answered from bytes encoded in advance:
+//   /api/health        -> 200, the original status body the frontend checks
+//   /api/health/live   -> 200 while the process can serve requests at all
+//   /api/health/ready  -> 200 or 503 with the HealthChecker's latest report
+// Liveness deliberately ignores load: a saturated node is slow, not dead,
+// and restarting it would only move its traffic elsewhere.
+public class HealthController implements HttpHandler {
+    private static final byte[] HEALTH_OK = JsonWriter.encode("{\"status\":\"OK\",\"message\":\"Login service is running\"}");
+    private static final byte[] LIVE = JsonWriter.encode("{\"status\":\"UP\"}");
+    private static final byte[] NOT_FOUND = JsonWriter.encode("{\"error\":\"Not found\"}");
+    private static final byte[] METHOD_NOT_ALLOWED = JsonWriter.encode("{\"error\":\"Method not allowed\"}");
+    
+    private final HealthChecker checker;
+    
+    public HealthController(HealthChecker checker) {
+        this.checker = checker;
+    }
+    
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        String method = exchange.getRequestMethod();
+        boolean headRequest = "HEAD".equals(method);
+        if (!"GET".equals(method) && !headRequest) {
+            exchange.getResponseHeaders().add("Allow", "GET, HEAD");
+            sendResponse(exchange, 405, METHOD_NOT_ALLOWED, false);
+            return;
+        }
+        
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        if (path.endsWith("/health")) {
+            sendResponse(exchange, 200, HEALTH_OK, headRequest);
+        } else if (path.endsWith("/health/live")) {
+            sendResponse(exchange, 200, LIVE, headRequest);
+        } else if (path.endsWith("/health/ready")) {
+            HealthChecker.Report report = checker.getReport();
+            sendResponse(exchange, report.getStatusCode(), report.getBody(), headRequest);
+        } else {
+            sendResponse(exchange, 404, NOT_FOUND, headRequest);
+        }
+    }
+    
+    private void sendResponse(HttpExchange exchange, int statusCode, byte[] body, boolean headRequest)
+            throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("Cache-Control", "no-store");
+        if (headRequest) {
+            exchange.sendResponseHeaders(statusCode, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(statusCode, body.length);
+        OutputStream outputStream = exchange.getResponseBody();
+        outputStream.write(body);
+        outputStream.close();
+    }
+    
+    public HealthChecker getChecker() {
+        return checker;
+    }
+}
\ No newline at end of file
@@ -1,20 +1,98 @@
 package com.example.login.controller;
 
+import com.example.login.json.JsonParseException;
+import com.example.login.json.JsonReader;
+import com.example.login.json.JsonWriter;
 import com.example.login.model.LoginRequest;
 import com.example.login.model.LoginResponse;
+import com.example.login.security.RateLimiter;
+import com.example.login.server.ConcurrencyLimitFilter;
+import com.example.login.server.OverloadFilter;
 import com.example.login.service.MockAuthService;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+// POST /api/login authenticates one user; POST /api/login/batch takes
+// {"credentials":[{"username":...,"password":...}, ...]} for gateways that
+// log in many users at once and streams back {"results":[...]}, one login
+// response per pair in request order. Batch items run in parallel on the
+// hashing pool, a few per pool thread at a time so single logins keep their
+// share of the queue. Items still pending when the batch's time budget runs
+// out are cancelled and reported as timed out; an item whose authentication
+// threw is reported as an internal error.
+//
+// With rate limiters set, each request is charged to its remote address
+// before the body is read and each login to its username before any
+// password work; either running dry answers 429 with Retry-After. Every item
+// in a batch is charged to both, as if it had been sent on its own, so a
+// batch buys no extra guesses: the first item uses the address permit taken
+// before the body was read, and items past either limit are answered as
+// throttled in place.
 public class LoginController implements HttpHandler {
+    public static final int DEFAULT_MAX_BATCH = 100;
+    public static final long DEFAULT_BATCH_MILLIS = 2000;
+    
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final int MAX_BATCH_BODY_BYTES = 256 * 1024;
+    private static final String[] LOGIN_FIELDS = {"username", "password"};
+    private static final String[] BATCH_FIELDS = {"credentials"};
+    
+    // Canned bodies and fixed keys, encoded once
+    private static final byte[] METHOD_NOT_ALLOWED = JsonWriter.encode("{\"error\":\"Method not allowed\"}");
+    private static final byte[] TOO_LARGE = JsonWriter.encode("{\"success\":false,\"message\":\"Request body too large\"}");
+    private static final byte[] INVALID_REQUEST = JsonWriter.encode("{\"success\":false,\"message\":\"Invalid request format\"}");
+    private static final byte[] THROTTLED = JsonWriter.encode(
+            "{\"success\":false,\"message\":\"Too many login attempts, please retry later\"}");
+    private static final byte[] HEALTH_OK = JsonWriter.encode("{\"status\":\"OK\",\"message\":\"Login service is running\"}");
+    private static final byte[] SUCCESS_KEY = JsonWriter.encode("{\"success\":");
+    private static final byte[] MESSAGE_KEY = JsonWriter.encode(",\"message\":");
+    private static final byte[] TOKEN_KEY = JsonWriter.encode(",\"token\":");
+    private static final byte[] ROLE_KEY = JsonWriter.encode(",\"role\":");
+    private static final byte[] END_OBJECT = JsonWriter.encode("}");
+    private static final byte[] FAILED = JsonWriter.encode("{\"success\":false,\"message\":\"Internal server error\"}");
+    private static final byte[] TIMED_OUT = JsonWriter.encode("{\"success\":false,\"message\":\"Timed out, please retry\"}");
+    private static final byte[] RESULTS_START = JsonWriter.encode("{\"results\":[");
+    private static final byte[] COMMA = JsonWriter.encode(",");
+    private static final byte[] RESULTS_END = JsonWriter.encode("]}");
+    // Marks a batch item the hashing pool had no room for
+    private static final Future<LoginResponse> SHED = CompletableFuture.completedFuture(null);
+    // Marks a batch item whose address or username is out of attempts
+    private static final Future<LoginResponse> LIMITED = CompletableFuture.completedFuture(null);
+    
     private MockAuthService authService;
+    private final int maxBatch;
+    private final long batchNanos;
+    private final byte[] tooManyCredentials;
+    private volatile RateLimiter addressLimiter;
+    private volatile RateLimiter usernameLimiter;
     
     public LoginController() {
-        this.authService = new MockAuthService();
+        this(new MockAuthService());
+    }
+    
+    public LoginController(MockAuthService authService) {
+        this(authService, DEFAULT_MAX_BATCH, DEFAULT_BATCH_MILLIS);
+    }
+    
+    public LoginController(MockAuthService authService, int maxBatch, long batchMillis) {
+        this.authService = authService;
+        this.maxBatch = maxBatch;
+        this.batchNanos = TimeUnit.MILLISECONDS.toNanos(batchMillis);
+        this.tooManyCredentials = JsonWriter.encode(
+                "{\"success\":false,\"message\":\"At most " + maxBatch + " logins per batch\"}");
     }
     
     @Override
@@ -32,93 +110,294 @@ public class LoginController implements HttpHandler {
             return;
         }
         
-        if ("POST".equals(method)) {
+        if ("POST".equals(method) && ConcurrencyLimitFilter.isBatch(exchange)) {
+            handleBatch(exchange);
+        } else if ("POST".equals(method)) {
             handleLogin(exchange);
         } else if ("GET".equals(method)) {
             handleHealthCheck(exchange);
         } else {
-            sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            sendResponse(exchange, 405, METHOD_NOT_ALLOWED);
         }
     }
     
     private void handleLogin(HttpExchange exchange) throws IOException {
+        if (throttled(exchange, addressLimiter, remoteAddress(exchange))) {
+            return;
+        }
         try {
-            // Read request body
-            InputStream inputStream = exchange.getRequestBody();
-            String requestBody = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-            
-            // Parse JSON manually (simple parsing for username and password)
-            LoginRequest loginRequest = parseLoginRequest(requestBody);
+            // Parse JSON straight from the request stream
+            LoginRequest loginRequest = parseLoginRequest(exchange.getRequestBody());
+            if (throttled(exchange, usernameLimiter, usernameKey(loginRequest))) {
+                return;
+            }
             
             // Authenticate
             LoginResponse response = authService.authenticate(loginRequest);
             
-            // Convert response to JSON
-            String jsonResponse = toJson(response);
-            
-            // Send response
+            // Serialize into the thread's reusable buffer and send
             int statusCode = response.isSuccess() ? 200 : 401;
-            sendResponse(exchange, statusCode, jsonResponse);
+            JsonWriter writer = JsonWriter.acquire();
+            try {
+                writeJson(writer, response);
+                sendResponse(exchange, statusCode, writer);
+            } finally {
+                writer.release();
+            }
             
+        } catch (RejectedExecutionException e) {
+            // Password hashing pool is full: shed the login rather than queue it
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            sendResponse(exchange, 503, OverloadFilter.BUSY_BODY);
+        } catch (JsonParseException e) {
+            if (e.isTooLarge()) {
+                sendResponse(exchange, 413, TOO_LARGE);
+            } else {
+                sendResponse(exchange, 400, INVALID_REQUEST);
+            }
         } catch (Exception e) {
-            sendResponse(exchange, 400, "{\"success\":false,\"message\":\"Invalid request format\"}");
+            sendResponse(exchange, 400, INVALID_REQUEST);
+        }
+    }
+    
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        long deadline = System.nanoTime() + batchNanos;
+        Object address = remoteAddress(exchange);
+        if (throttled(exchange, addressLimiter, address)) {
+            return;
+        }
+        List<LoginRequest> requests;
+        try {
+            requests = parseBatch(exchange.getRequestBody());
+        } catch (JsonParseException e) {
+            sendResponse(exchange, e.isTooLarge() ? 413 : 400, e.isTooLarge() ? TOO_LARGE : INVALID_REQUEST);
+            return;
+        }
+        if (requests == null) {
+            sendResponse(exchange, 400, tooManyCredentials);
+            return;
+        }
+        
+        // Results are written as they complete in order, so the body length is unknown
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        int window = Math.max(2, authService.getHashingPool().getThreads() * 2);
+        List<Future<LoginResponse>> pending = new ArrayList<>(requests.size());
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            out.write(RESULTS_START);
+            for (int written = 0; written < requests.size(); written++) {
+                submit(requests, pending, written, window, deadline, address);
+                if (written > 0) {
+                    out.write(COMMA);
+                }
+                Future<LoginResponse> result = written < pending.size() ? pending.get(written) : null;
+                if (result == SHED || result == LIMITED) {
+                    out.write(result == SHED ? OverloadFilter.BUSY_BODY : THROTTLED);
+                    continue;
+                }
+                if (result != null && !result.isDone()) {
+                    // Let the client see what is ready before blocking on the rest
+                    out.flush();
+                }
+                LoginResponse response;
+                try {
+                    response = result != null ? await(result, deadline) : null;
+                } catch (ExecutionException e) {
+                    // A bug, not load: say so instead of inviting a retry
+                    System.err.println("Batch login failed: " + e.getCause());
+                    out.write(FAILED);
+                    continue;
+                }
+                if (response == null) {
+                    out.write(TIMED_OUT);
+                    continue;
+                }
+                writer.reset();
+                writeJson(writer, response);
+                writer.writeTo(out);
+            }
+            out.write(RESULTS_END);
+        } finally {
+            writer.release();
+            for (Future<LoginResponse> result : pending) {
+                result.cancel(true);
+            }
+            out.close();
+        }
+    }
+    
+    // Keeps up to window items from the next one to write in flight, and
+    // starts nothing once the deadline has passed. A full pool is waited out
+    // while earlier items are still running; a pool that is full with nothing
+    // of ours in it sheds the item.
+    private void submit(List<LoginRequest> requests, List<Future<LoginResponse>> pending, int written, int window,
+            long deadline, Object address) {
+        RateLimiter byAddress = addressLimiter;
+        RateLimiter byUsername = usernameLimiter;
+        while (pending.size() < requests.size() && pending.size() - written < window
+                && deadline - System.nanoTime() > 0) {
+            LoginRequest request = requests.get(pending.size());
+            // The first item was paid for when the request came in
+            boolean addressLimited = pending.size() > 0 && byAddress != null && address != null
+                    && byAddress.tryAcquire(address) > 0;
+            Object username = usernameKey(request);
+            if (addressLimited || byUsername != null && username != null && byUsername.tryAcquire(username) > 0) {
+                pending.add(LIMITED);
+                continue;
+            }
+            try {
+                pending.add(authService.authenticateAsync(request));
+            } catch (RejectedExecutionException e) {
+                if (pending.size() > written) {
+                    return;
+                }
+                pending.add(SHED);
+            }
         }
     }
     
+    // The response, or null if the deadline passed first; throws
+    // ExecutionException when authentication itself failed
+    private static LoginResponse await(Future<LoginResponse> result, long deadline) throws ExecutionException {
+        try {
+            return result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+    
+    // The pairs in request order, or null if there are more than maxBatch
+    private List<LoginRequest> parseBatch(InputStream body) throws IOException {
+        JsonReader reader = JsonReader.acquire(body, MAX_BATCH_BODY_BYTES);
+        try {
+            List<LoginRequest> requests = new ArrayList<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName(BATCH_FIELDS) != 0) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (requests.size() == maxBatch) {
+                        return null;
+                    }
+                    requests.add(readCredentials(reader));
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+            reader.endDocument();
+            return requests;
+        } finally {
+            reader.release();
+        }
+    }
+    
+    // Sends 429 and returns true if the key's bucket is empty
+    private boolean throttled(HttpExchange exchange, RateLimiter limiter, Object key) throws IOException {
+        if (limiter == null || key == null) {
+            return false;
+        }
+        long wait = limiter.tryAcquire(key);
+        if (wait == 0) {
+            return false;
+        }
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+        exchange.getResponseHeaders().add("Retry-After", Long.toString(seconds));
+        sendResponse(exchange, 429, THROTTLED);
+        return true;
+    }
+    
+    private static Object remoteAddress(HttpExchange exchange) {
+        InetSocketAddress remote = exchange.getRemoteAddress();
+        return remote != null ? remote.getAddress() : null;
+    }
+    
+    private static Object usernameKey(LoginRequest request) {
+        if (request.getUsername() == null) {
+            return null;
+        }
+        String username = request.getUsername().trim();
+        return username.isEmpty() ? null : username;
+    }
+    
     private void handleHealthCheck(HttpExchange exchange) throws IOException {
-        String response = "{\"status\":\"OK\",\"message\":\"Login service is running\"}";
-        sendResponse(exchange, 200, response);
+        sendResponse(exchange, 200, HEALTH_OK);
     }
     
-    private LoginRequest parseLoginRequest(String json) {
-        // Simple JSON parsing for username and password
-        String username = extractJsonValue(json, "username");
-        String password = extractJsonValue(json, "password");
-        return new LoginRequest(username, password);
+    private LoginRequest parseLoginRequest(InputStream body) throws IOException {
+        JsonReader reader = JsonReader.acquire(body, MAX_BODY_BYTES);
+        try {
+            LoginRequest request = readCredentials(reader);
+            reader.endDocument();
+            return request;
+        } finally {
+            reader.release();
+        }
     }
     
-    private String extractJsonValue(String json, String key) {
-        String searchKey = "\"" + key + "\"";
-        int keyIndex = json.indexOf(searchKey);
-        if (keyIndex == -1) return null;
-        
-        int colonIndex = json.indexOf(":", keyIndex);
-        if (colonIndex == -1) return null;
-        
-        int startQuote = json.indexOf("\"", colonIndex);
-        if (startQuote == -1) return null;
-        
-        int endQuote = json.indexOf("\"", startQuote + 1);
-        if (endQuote == -1) return null;
-        
-        return json.substring(startQuote + 1, endQuote);
+    private static LoginRequest readCredentials(JsonReader reader) throws IOException {
+        LoginRequest request = new LoginRequest();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName(LOGIN_FIELDS)) {
+                case 0:
+                    request.setUsername(reader.nextString());
+                    break;
+                case 1:
+                    request.setPassword(reader.nextString());
+                    break;
+                default:
+                    // Unknown fields are skipped without building Strings
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return request;
     }
     
-    private String toJson(LoginResponse response) {
-        StringBuilder json = new StringBuilder();
-        json.append("{");
-        json.append("\"success\":").append(response.isSuccess()).append(",");
-        json.append("\"message\":\"").append(response.getMessage()).append("\"");
+    static void writeJson(JsonWriter writer, LoginResponse response) {
+        writer.raw(SUCCESS_KEY).value(response.isSuccess());
+        writer.raw(MESSAGE_KEY).value(response.getMessage());
         
         if (response.getToken() != null) {
-            json.append(",\"token\":\"").append(response.getToken()).append("\"");
+            writer.raw(TOKEN_KEY).value(response.getToken());
         }
         
         if (response.getRole() != null) {
-            json.append(",\"role\":\"").append(response.getRole()).append("\"");
+            writer.raw(ROLE_KEY).value(response.getRole());
         }
         
-        json.append("}");
-        return json.toString();
+        writer.raw(END_OBJECT);
+    }
+    
+    // Login attempts are charged per remote address and per username; null turns either off
+    public void setRateLimiters(RateLimiter byAddress, RateLimiter byUsername) {
+        this.addressLimiter = byAddress;
+        this.usernameLimiter = byUsername;
+    }
+    
+    private void sendResponse(HttpExchange exchange, int statusCode, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        
+        OutputStream outputStream = exchange.getResponseBody();
+        outputStream.write(body);
+        outputStream.close();
     }
     
-    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
+    private void sendResponse(HttpExchange exchange, int statusCode, JsonWriter body) throws IOException {
         exchange.getResponseHeaders().add("Content-Type", "application/json");
-        byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
-        exchange.sendResponseHeaders(statusCode, responseBytes.length);
+        exchange.sendResponseHeaders(statusCode, body.size());
         
         OutputStream outputStream = exchange.getResponseBody();
-        outputStream.write(responseBytes);
+        body.writeTo(outputStream);
         outputStream.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.login.controller;
+
+import com.example.login.metrics.MetricsRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// GET /api/metrics: every registered metric in the Prometheus text format
+public class MetricsController implements HttpHandler {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    
+    private final MetricsRegistry registry;
+    
+    public MetricsController(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+    
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        boolean headRequest = "HEAD".equals(method);
+        if (!"GET".equals(method) && !headRequest) {
+            exchange.getResponseHeaders().add("Allow", "GET, HEAD");
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        
+        byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", CONTENT_TYPE);
+        exchange.getResponseHeaders().add("Cache-Control", "no-store");
+        if (headRequest) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        OutputStream os = exchange.getResponseBody();
+        os.write(body);
+        os.close();
+    }
+    
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+}
\ No newline at end of file
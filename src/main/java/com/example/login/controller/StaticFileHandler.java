@@ -1,22 +1,68 @@
 package com.example.login.controller;
 
+import com.example.login.assets.AssetCache;
+import com.example.login.assets.ByteRange;
+import com.example.login.assets.CachePolicy;
+import com.example.login.assets.StaticAsset;
+import com.example.login.server.ByteBufferSink;
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
 
 public class StaticFileHandler implements HttpHandler {
-    private String webRoot;
+    private static final byte[] NOT_FOUND =
+            "<html><body><h1>404 - File Not Found</h1></body></html>".getBytes(StandardCharsets.UTF_8);
+    
+    private static final String BOUNDARY = "login-range-" + Long.toHexString(new SecureRandom().nextLong());
+    private static final byte[] CLOSING_BOUNDARY = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+    // Files too large to map whole go to the NIO engine in mappings this big
+    static final long MAP_WINDOW_BYTES = 8L * 1024 * 1024;
+    // Reused per worker thread when an output stream cannot take a ByteBuffer
+    private static final ThreadLocal<byte[]> COPY_BUFFER = ThreadLocal.withInitial(() -> new byte[64 * 1024]);
+    
+    private AssetCache cache;
+    private CachePolicy cachePolicy;
+    private final LongAdder bytesServed = new LongAdder();
     
     public StaticFileHandler(String webRoot) {
-        this.webRoot = webRoot;
+        this(new AssetCache(webRoot));
+    }
+    
+    public StaticFileHandler(AssetCache cache) {
+        this(cache, CachePolicy.defaults());
+    }
+    
+    public StaticFileHandler(AssetCache cache, CachePolicy cachePolicy) {
+        this.cache = cache;
+        this.cachePolicy = cachePolicy;
     }
     
     @Override
     public void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        boolean headRequest = "HEAD".equals(method);
+        if (!"GET".equals(method) && !headRequest) {
+            exchange.getResponseHeaders().add("Allow", "GET, HEAD");
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        
         String path = exchange.getRequestURI().getPath();
         
         // Default to index.html for root path
@@ -24,37 +70,245 @@ public class StaticFileHandler implements HttpHandler {
             path = "/index.html";
         }
         
-        File file = new File(webRoot + path);
+        StaticAsset asset = cache.get(path);
         
-        if (!file.exists() || file.isDirectory()) {
+        if (asset == null) {
             // File not found
-            String notFound = "<html><body><h1>404 - File Not Found</h1></body></html>";
-            exchange.sendResponseHeaders(404, notFound.length());
+            exchange.sendResponseHeaders(404, NOT_FOUND.length);
             OutputStream os = exchange.getResponseBody();
-            os.write(notFound.getBytes());
+            bytesServed.add(NOT_FOUND.length);
+            os.write(NOT_FOUND);
             os.close();
             return;
         }
         
-        // Set content type based on file extension
+        // Pick the gzip representation when one exists and the client accepts it
+        Headers headers = exchange.getResponseHeaders();
+        StaticAsset representation = asset;
+        if (asset.getGzip() != null) {
+            headers.add("Vary", "Accept-Encoding");
+            if (acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                representation = asset.getGzip();
+                headers.add("Content-Encoding", "gzip");
+            }
+        }
+        
+        // Set content type and validators
+        Headers requestHeaders = exchange.getRequestHeaders();
         String contentType = getContentType(path);
-        exchange.getResponseHeaders().add("Content-Type", contentType);
+        headers.add("Content-Type", contentType);
+        headers.add("ETag", representation.getEtag());
+        headers.add("Last-Modified", asset.getLastModified());
+        headers.add("Accept-Ranges", "bytes");
+        headers.add("Cache-Control", cachePolicy.cacheControlFor(path));
         
-        // Send file
-        exchange.sendResponseHeaders(200, file.length());
-        OutputStream os = exchange.getResponseBody();
-        FileInputStream fis = new FileInputStream(file);
+        if (isNotModified(requestHeaders, representation.getEtag(), asset.getLastModifiedMillis())) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        
+        long length = representation.getLength();
+        List<ByteRange> ranges = null;
+        if (!headRequest && isRangeApplicable(requestHeaders.getFirst("If-Range"), representation.getEtag(),
+                asset.getLastModifiedMillis())) {
+            ranges = ByteRange.parse(requestHeaders.getFirst("Range"), length);
+        }
+        if (ranges != null && ranges.isEmpty()) {
+            headers.add("Content-Range", "bytes */" + length);
+            exchange.sendResponseHeaders(416, -1);
+            exchange.close();
+            return;
+        }
         
-        byte[] buffer = new byte[1024];
-        int bytesRead;
-        while ((bytesRead = fis.read(buffer)) != -1) {
-            os.write(buffer, 0, bytesRead);
+        if (headRequest || length == 0) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
         }
         
-        fis.close();
+        if (ranges == null) {
+            // Send file, from memory when cached and from the shared mapping otherwise
+            exchange.sendResponseHeaders(200, length);
+            OutputStream os = exchange.getResponseBody();
+            writeRegion(os, representation, 0, length);
+            os.close();
+        } else if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            headers.add("Content-Range", range.toContentRange(length));
+            exchange.sendResponseHeaders(206, range.getLength());
+            OutputStream os = exchange.getResponseBody();
+            writeRegion(os, representation, range.getFirst(), range.getLength());
+            os.close();
+        } else {
+            sendMultipart(exchange, representation, contentType, ranges);
+        }
+    }
+    
+    // 206 multipart/byteranges body; every part is written from its own offset
+    private void sendMultipart(HttpExchange exchange, StaticAsset representation, String contentType,
+            List<ByteRange> ranges) throws IOException {
+        long length = representation.getLength();
+        byte[][] partHeads = new byte[ranges.size()][];
+        long total = CLOSING_BOUNDARY.length;
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            partHeads[i] = ("\r\n--" + BOUNDARY + "\r\nContent-Type: " + contentType + "\r\nContent-Range: "
+                    + range.toContentRange(length) + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1);
+            total += partHeads[i].length + range.getLength();
+        }
+        
+        exchange.getResponseHeaders().set("Content-Type", "multipart/byteranges; boundary=" + BOUNDARY);
+        exchange.sendResponseHeaders(206, total);
+        OutputStream os = exchange.getResponseBody();
+        for (int i = 0; i < ranges.size(); i++) {
+            bytesServed.add(partHeads[i].length);
+            os.write(partHeads[i]);
+            writeRegion(os, representation, ranges.get(i).getFirst(), ranges.get(i).getLength());
+        }
+        bytesServed.add(CLOSING_BOUNDARY.length);
+        os.write(CLOSING_BOUNDARY);
         os.close();
     }
     
+    private void writeRegion(OutputStream os, StaticAsset asset, long position, long count) throws IOException {
+        bytesServed.add(count);
+        if (asset.isInMemory()) {
+            if (os instanceof ByteBufferSink) {
+                // Cached bytes are never modified, so they can be queued without a copy
+                ((ByteBufferSink) os).write(ByteBuffer.wrap(asset.getContent(), (int) position, (int) count));
+            } else {
+                os.write(asset.getContent(), (int) position, (int) count);
+            }
+            return;
+        }
+        ByteBuffer mapped = asset.getMappedContent();
+        if (mapped == null) {
+            // Too large to map in one piece. The NIO engine takes it as a run of
+            // mapped windows, queued one at a time as the client reads; anything
+            // else gets it streamed through the copy buffer.
+            try (FileChannel channel = FileChannel.open(asset.getFile(), StandardOpenOption.READ)) {
+                if (os instanceof ByteBufferSink) {
+                    long end = position + count;
+                    for (long at = position; at < end; at += MAP_WINDOW_BYTES) {
+                        long size = Math.min(MAP_WINDOW_BYTES, end - at);
+                        ((ByteBufferSink) os).write(channel.map(FileChannel.MapMode.READ_ONLY, at, size));
+                    }
+                } else {
+                    channel.position(position);
+                    copy(Channels.newInputStream(channel), os, count);
+                }
+            }
+            return;
+        }
+        mapped.position((int) position).limit((int) (position + count));
+        if (os instanceof ByteBufferSink) {
+            // NIO engine: the socket is written straight from the mapping
+            ((ByteBufferSink) os).write(mapped);
+            return;
+        }
+        byte[] chunk = COPY_BUFFER.get();
+        while (mapped.hasRemaining()) {
+            int length = Math.min(chunk.length, mapped.remaining());
+            mapped.get(chunk, 0, length);
+            os.write(chunk, 0, length);
+        }
+    }
+    
+    private static void copy(InputStream in, OutputStream os, long count) throws IOException {
+        byte[] chunk = COPY_BUFFER.get();
+        while (count > 0) {
+            int read = in.read(chunk, 0, (int) Math.min(chunk.length, count));
+            if (read < 0) {
+                throw new IOException("File shrank while being sent");
+            }
+            os.write(chunk, 0, read);
+            count -= read;
+        }
+    }
+    
+    // Response body bytes handed to the server, headers not included
+    public long getBytesServed() {
+        return bytesServed.sum();
+    }
+    
+    // If-None-Match wins over If-Modified-Since when both are present (RFC 7232 section 6)
+    static boolean isNotModified(Headers requestHeaders, String etag, long lastModifiedMillis) {
+        String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if ("*".equals(tag) || etag.equals(tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        String ifModifiedSince = requestHeaders.getFirst("If-Modified-Since");
+        if (ifModifiedSince != null) {
+            try {
+                long since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli();
+                return lastModifiedMillis <= since;
+            } catch (DateTimeParseException e) {
+                // Unparseable dates are ignored, as the spec requires
+            }
+        }
+        return false;
+    }
+    
+    // A Range header only applies if If-Range is absent or still matches: an
+    // exact strong ETag, or the current Last-Modified date
+    static boolean isRangeApplicable(String ifRange, String etag, long lastModifiedMillis) {
+        if (ifRange == null) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return value.equals(etag);
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+                    == lastModifiedMillis;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+    
+    // True unless gzip is absent from Accept-Encoding or explicitly refused with q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            boolean refused = false;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+                return !refused;
+            }
+            if ("*".equals(coding)) {
+                wildcard = !refused;
+            }
+        }
+        return wildcard;
+    }
+    
     private String getContentType(String path) {
         if (path.endsWith(".html")) {
             return "text/html";
@@ -0,0 +1,166 @@
+package com.example.login.controller;
+
+import com.example.login.json.JsonParseException;
+import com.example.login.json.JsonReader;
+import com.example.login.json.JsonWriter;
+import com.example.login.service.MockAuthService;
+import com.example.login.session.Session;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Token checks for other services.
+//   GET  with Authorization: Bearer <token>  -> 200 with the session, or 401
+//   POST {"tokens":["...", ...]}             -> 200 with one result per token, in order
+// A result is {"valid":true,"username":...,"role":...,"expiresAt":<epoch ms>}
+// or {"valid":false}. Lookups go through the service's token cache.
+public class ValidateController implements HttpHandler {
+    public static final int MAX_BATCH = 1000;
+    
+    private static final int MAX_BODY_BYTES = 256 * 1024;
+    private static final String[] BATCH_FIELDS = {"tokens"};
+    
+    private static final byte[] METHOD_NOT_ALLOWED = JsonWriter.encode("{\"error\":\"Method not allowed\"}");
+    private static final byte[] TOO_LARGE = JsonWriter.encode("{\"success\":false,\"message\":\"Request body too large\"}");
+    private static final byte[] INVALID_REQUEST = JsonWriter.encode("{\"success\":false,\"message\":\"Invalid request format\"}");
+    private static final byte[] TOO_MANY = JsonWriter.encode(
+            "{\"success\":false,\"message\":\"At most " + MAX_BATCH + " tokens per request\"}");
+    private static final byte[] INVALID = JsonWriter.encode("{\"valid\":false}");
+    private static final byte[] VALID_USERNAME = JsonWriter.encode("{\"valid\":true,\"username\":");
+    private static final byte[] ROLE_KEY = JsonWriter.encode(",\"role\":");
+    private static final byte[] EXPIRES_KEY = JsonWriter.encode(",\"expiresAt\":");
+    private static final byte[] END_OBJECT = JsonWriter.encode("}");
+    private static final byte[] RESULTS_START = JsonWriter.encode("{\"results\":[");
+    private static final byte[] COMMA = JsonWriter.encode(",");
+    private static final byte[] RESULTS_END = JsonWriter.encode("]}");
+    
+    private final MockAuthService authService;
+    
+    public ValidateController(MockAuthService authService) {
+        this.authService = authService;
+    }
+    
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
+        exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        
+        String method = exchange.getRequestMethod();
+        if ("OPTIONS".equals(method)) {
+            exchange.sendResponseHeaders(200, 0);
+            exchange.close();
+        } else if ("GET".equals(method)) {
+            handleSingle(exchange);
+        } else if ("POST".equals(method)) {
+            handleBatch(exchange);
+        } else {
+            sendResponse(exchange, 405, METHOD_NOT_ALLOWED);
+        }
+    }
+    
+    private void handleSingle(HttpExchange exchange) throws IOException {
+        Session session = authService.getSession(BearerAuthFilter.bearerToken(exchange.getRequestHeaders()));
+        if (session == null) {
+            exchange.getResponseHeaders().add("WWW-Authenticate", "Bearer");
+            sendResponse(exchange, 401, INVALID);
+            return;
+        }
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writeResult(writer, session);
+            sendResponse(exchange, 200, writer);
+        } finally {
+            writer.release();
+        }
+    }
+    
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        List<String> tokens;
+        try {
+            tokens = parseTokens(exchange.getRequestBody());
+        } catch (JsonParseException e) {
+            sendResponse(exchange, e.isTooLarge() ? 413 : 400, e.isTooLarge() ? TOO_LARGE : INVALID_REQUEST);
+            return;
+        }
+        if (tokens == null) {
+            sendResponse(exchange, 400, TOO_MANY);
+            return;
+        }
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writer.raw(RESULTS_START);
+            for (int i = 0; i < tokens.size(); i++) {
+                if (i > 0) {
+                    writer.raw(COMMA);
+                }
+                writeResult(writer, authService.getSession(tokens.get(i)));
+            }
+            writer.raw(RESULTS_END);
+            sendResponse(exchange, 200, writer);
+        } finally {
+            writer.release();
+        }
+    }
+    
+    // The tokens in request order, or null if there are more than MAX_BATCH
+    private static List<String> parseTokens(InputStream body) throws IOException {
+        JsonReader reader = JsonReader.acquire(body, MAX_BODY_BYTES);
+        try {
+            List<String> tokens = new ArrayList<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName(BATCH_FIELDS) != 0) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (tokens.size() == MAX_BATCH) {
+                        return null;
+                    }
+                    tokens.add(reader.nextString());
+                }
+                reader.endArray();
+            }
+            reader.endObject();
+            reader.endDocument();
+            return tokens;
+        } finally {
+            reader.release();
+        }
+    }
+    
+    private static void writeResult(JsonWriter writer, Session session) {
+        if (session == null) {
+            writer.raw(INVALID);
+            return;
+        }
+        writer.raw(VALID_USERNAME).value(session.getUsername());
+        writer.raw(ROLE_KEY).value(session.getRole());
+        writer.raw(EXPIRES_KEY).value(session.getExpiresAt());
+        writer.raw(END_OBJECT);
+    }
+    
+    private void sendResponse(HttpExchange exchange, int statusCode, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        
+        OutputStream outputStream = exchange.getResponseBody();
+        outputStream.write(body);
+        outputStream.close();
+    }
+    
+    private void sendResponse(HttpExchange exchange, int statusCode, JsonWriter body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, body.size());
+        
+        OutputStream outputStream = exchange.getResponseBody();
+        body.writeTo(outputStream);
+        outputStream.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.example.login.health;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts requests and server errors (500, 502 or 504, no answer at all, or a
+// handler that threw) so HealthChecker can work out a recent error rate.
+// 503 is left out on purpose: here it always means load was shed on purpose
+// (OverloadFilter, ConcurrencyLimitFilter, a full hashing pool), and failing
+// readiness for that would pull the node and push its load onto the others
+// until they shed too. One instance is shared by every context; recording is
+// two LongAdder adds.
+public class ErrorCountingFilter extends Filter {
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        boolean completed = false;
+        try {
+            chain.doFilter(exchange);
+            completed = true;
+        } finally {
+            requests.increment();
+            if (!completed || isServerError(exchange.getResponseCode())) {
+                errors.increment();
+            }
+        }
+    }
+    
+    static boolean isServerError(int status) {
+        return status < 0 || status == 500 || status == 502 || status == 504;
+    }
+    
+    @Override
+    public String description() {
+        return "Counts requests and server errors for the readiness check";
+    }
+    
+    public long getRequestCount() {
+        return requests.sum();
+    }
+    
+    public long getErrorCount() {
+        return errors.sum();
+    }
+}
\ No newline at end of file
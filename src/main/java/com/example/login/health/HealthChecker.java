@@ -0,0 +1,189 @@
+package com.example.login.health;
+
+import com.example.login.json.JsonWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Runs the readiness checks on a background thread every intervalMillis and
+// keeps the answer as a status code plus a pre-encoded JSON body, so a probe
+// costs one volatile read however loaded the server is, and a burst of
+// probes cannot add to the load. A check returns null when healthy or a short
+// reason when not; one that throws counts as failed. Until the first run
+// the service reports itself as starting, i.e. not ready.
+//
+//   200 {"status":"UP","checks":{"userStore":"UP","executor":"UP"}}
+//   503 {"status":"DOWN","checks":{"userStore":"UP","executor":"DOWN: 250 of 258 slots in use"}}
+public class HealthChecker {
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+    
+    private static final byte[] STARTING = JsonWriter.encode("{\"status\":\"STARTING\",\"checks\":{}}");
+    private static final byte[] STATUS_UP = JsonWriter.encode("{\"status\":\"UP\",\"checks\":{");
+    private static final byte[] STATUS_DOWN = JsonWriter.encode("{\"status\":\"DOWN\",\"checks\":{");
+    private static final byte[] COLON = JsonWriter.encode(":");
+    private static final byte[] COMMA = JsonWriter.encode(",");
+    private static final byte[] END = JsonWriter.encode("}}");
+    
+    private final long intervalMillis;
+    private final List<String> names = new ArrayList<>();
+    private final List<Supplier<String>> checks = new ArrayList<>();
+    private volatile Report report = new Report(false, STARTING);
+    private boolean draining;
+    private ScheduledExecutorService scheduler;
+    
+    public HealthChecker() {
+        this(DEFAULT_INTERVAL_MILLIS);
+    }
+    
+    public HealthChecker(long intervalMillis) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Health check interval must be positive");
+        }
+        this.intervalMillis = intervalMillis;
+    }
+    
+    // Checks run in the order added; add them all before start()
+    public synchronized void addCheck(String name, Supplier<String> check) {
+        names.add(name);
+        checks.add(check);
+    }
+    
+    // Fails when more than maxRate of the requests since the last run were
+    // errors. Quiet spells (fewer than minRequests) always pass, so a couple
+    // of failures on an idle node do not take it out of rotation.
+    public void addErrorRateCheck(String name, LongSupplier requests, LongSupplier errors, double maxRate,
+            long minRequests) {
+        long[] last = {requests.getAsLong(), errors.getAsLong()};
+        addCheck(name, () -> {
+            long total = requests.getAsLong();
+            long failed = errors.getAsLong();
+            long recentTotal = total - last[0];
+            long recentFailed = failed - last[1];
+            last[0] = total;
+            last[1] = failed;
+            if (recentTotal < minRequests || recentFailed <= maxRate * recentTotal) {
+                return null;
+            }
+            return recentFailed + " of " + recentTotal + " recent requests failed";
+        });
+    }
+    
+    // Runs every check now and publishes the result
+    public synchronized void checkNow() {
+        boolean ready = !draining;
+        String[] results = new String[checks.size()];
+        for (int i = 0; i < checks.size(); i++) {
+            String failure;
+            try {
+                failure = checks.get(i).get();
+            } catch (RuntimeException e) {
+                failure = "check failed: " + e;
+            }
+            results[i] = failure == null ? "UP" : "DOWN: " + failure;
+            ready &= failure == null;
+        }
+        
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writer.raw(ready ? STATUS_UP : STATUS_DOWN);
+            for (int i = 0; i < results.length; i++) {
+                if (i > 0) {
+                    writer.raw(COMMA);
+                }
+                writer.value(names.get(i)).raw(COLON).value(results[i]);
+            }
+            if (draining) {
+                if (results.length > 0) {
+                    writer.raw(COMMA);
+                }
+                writer.value("lifecycle").raw(COLON).value("DOWN: shutting down");
+            }
+            writer.raw(END);
+            report = new Report(ready, writer.toByteArray());
+        } finally {
+            writer.release();
+        }
+    }
+    
+    // Checks once straight away, then every interval on a daemon thread
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runChecks, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    // Marks the service as going away: readiness fails from now on whatever
+    // the checks say, so load balancers stop sending new requests while the
+    // ones in flight finish. Takes effect immediately, not at the next run.
+    public synchronized void setDraining(boolean draining) {
+        this.draining = draining;
+        checkNow();
+    }
+    
+    public synchronized boolean isDraining() {
+        return draining;
+    }
+    
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+    
+    private void runChecks() {
+        try {
+            checkNow();
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule, leaving a stale answer
+            System.err.println("Health check failed: " + e.getMessage());
+        }
+    }
+    
+    public boolean isReady() {
+        return report.ready;
+    }
+    
+    // The latest result; read it once per probe so status and body agree
+    public Report getReport() {
+        return report;
+    }
+    
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+    
+    public static final class Report {
+        private final boolean ready;
+        private final byte[] body;
+        
+        Report(boolean ready, byte[] body) {
+            this.ready = ready;
+            this.body = body;
+        }
+        
+        public boolean isReady() {
+            return ready;
+        }
+        
+        // 200 when ready, 503 otherwise
+        public int getStatusCode() {
+            return ready ? 200 : 503;
+        }
+        
+        // Shared by every probe, so callers must not modify it
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.login.json;
+
+import java.io.IOException;
+
+public class JsonParseException extends IOException {
+    private static final long serialVersionUID = 1L;
+    
+    private final boolean tooLarge;
+    
+    public JsonParseException(String message) {
+        this(message, false);
+    }
+    
+    private JsonParseException(String message, boolean tooLarge) {
+        super(message);
+        this.tooLarge = tooLarge;
+    }
+    
+    public static JsonParseException tooLarge(int maxBytes) {
+        return new JsonParseException("Request body exceeds " + maxBytes + " bytes", true);
+    }
+    
+    // True when parsing stopped because the body went over its size cap
+    public boolean isTooLarge() {
+        return tooLarge;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,533 @@
+package com.example.login.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+// Pull-style JSON tokenizer that decodes UTF-8 straight from the request stream.
+// Instances are reused per thread (acquire/release), so a parse allocates only
+// the String values the caller asks for; names are matched and unknown values
+// skipped without materialising Strings. This assumes pooled request
+// threads: with a thread per task (the VIRTUAL executor on Java 21) every
+// request builds a fresh reader and 4 KB buffer, so the reuse buys nothing.
+public final class JsonReader {
+    private static final ThreadLocal<JsonReader> LOCAL = ThreadLocal.withInitial(JsonReader::new);
+    private static final int BUFFER_SIZE = 4096;
+    private static final int MAX_RETAINED_SCRATCH = 64 * 1024;
+    private static final int MAX_DEPTH = 64;
+    private static final String[] NO_NAMES = new String[0];
+    
+    // Scope states kept on the nesting stack
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+    
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final int[] stack = new int[MAX_DEPTH + 1];
+    private char[] scratch = new char[128];
+    private int scratchLength;
+    private InputStream in;
+    private int pos;
+    private int limit;
+    private int consumed;
+    private int maxBytes;
+    private int depth;
+    private boolean pendingComma;
+    private boolean inUse;
+    
+    private JsonReader() {
+    }
+    
+    // Borrows this thread's reader; callers must release() it when done
+    public static JsonReader acquire(InputStream in, int maxBytes) {
+        JsonReader reader = LOCAL.get();
+        if (reader.inUse) {
+            // Nested parse on the same thread, fall back to a private instance
+            reader = new JsonReader();
+        }
+        reader.reset(in, maxBytes);
+        return reader;
+    }
+    
+    public void release() {
+        in = null;
+        inUse = false;
+        if (scratch.length > MAX_RETAINED_SCRATCH) {
+            scratch = new char[128];
+        }
+    }
+    
+    private void reset(InputStream in, int maxBytes) {
+        this.in = in;
+        this.maxBytes = maxBytes;
+        this.pos = 0;
+        this.limit = 0;
+        this.consumed = 0;
+        this.depth = 1;
+        this.stack[0] = EMPTY_DOCUMENT;
+        this.pendingComma = false;
+        this.inUse = true;
+    }
+    
+    // ---- structure ----
+    
+    public void beginObject() throws IOException {
+        beforeValue();
+        expect('{');
+        push(EMPTY_OBJECT);
+    }
+    
+    public void endObject() throws IOException {
+        int top = stack[depth - 1];
+        if (top != EMPTY_OBJECT && top != NONEMPTY_OBJECT) {
+            throw error("Not inside an object");
+        }
+        if (pendingComma) {
+            throw error("Trailing comma");
+        }
+        expect('}');
+        depth--;
+    }
+    
+    public void beginArray() throws IOException {
+        beforeValue();
+        expect('[');
+        push(EMPTY_ARRAY);
+    }
+    
+    public void endArray() throws IOException {
+        int top = stack[depth - 1];
+        if (top != EMPTY_ARRAY && top != NONEMPTY_ARRAY) {
+            throw error("Not inside an array");
+        }
+        if (pendingComma) {
+            throw error("Trailing comma");
+        }
+        expect(']');
+        depth--;
+    }
+    
+    // True if the current object or array has another member; consumes the separating comma
+    public boolean hasNext() throws IOException {
+        int c = peek();
+        if (c == '}' || c == ']') {
+            if (pendingComma) {
+                throw error("Trailing comma");
+            }
+            return false;
+        }
+        int top = stack[depth - 1];
+        if ((top == NONEMPTY_OBJECT || top == NONEMPTY_ARRAY) && !pendingComma) {
+            if (c != ',') {
+                throw error("Expected ','");
+            }
+            pos++;
+            pendingComma = true;
+            return hasNext();
+        }
+        if (c == -1) {
+            throw error("Unexpected end of input");
+        }
+        return true;
+    }
+    
+    // Reads a member name and returns its index in names, or -1 for an unknown name
+    public int nextName(String[] names) throws IOException {
+        int top = stack[depth - 1];
+        if (top != EMPTY_OBJECT && top != NONEMPTY_OBJECT) {
+            throw error("Expected a value, not a name");
+        }
+        if (!hasNext()) {
+            throw error("No more members");
+        }
+        expect('"');
+        int match = -1;
+        int end = scanSimpleString();
+        if (end >= 0) {
+            // Plain ASCII name: compare the buffered bytes without decoding
+            for (int i = 0; i < names.length && match < 0; i++) {
+                if (bufferEquals(pos, end, names[i])) {
+                    match = i;
+                }
+            }
+            pos = end + 1;
+        } else {
+            readString();
+            for (int i = 0; i < names.length && match < 0; i++) {
+                if (scratchEquals(names[i])) {
+                    match = i;
+                }
+            }
+        }
+        expect(':');
+        stack[depth - 1] = DANGLING_NAME;
+        pendingComma = false;
+        return match;
+    }
+    
+    // Returns the next string value, or null for a JSON null
+    public String nextString() throws IOException {
+        beforeValue();
+        int c = peek();
+        if (c == 'n') {
+            expectLiteral("null");
+            return null;
+        }
+        if (c != '"') {
+            throw error("Expected a string");
+        }
+        pos++;
+        int end = scanSimpleString();
+        if (end >= 0) {
+            String value = new String(buffer, pos, end - pos, StandardCharsets.ISO_8859_1);
+            pos = end + 1;
+            return value;
+        }
+        readString();
+        return new String(scratch, 0, scratchLength);
+    }
+    
+    public boolean nextBoolean() throws IOException {
+        beforeValue();
+        int c = peek();
+        if (c == 't') {
+            expectLiteral("true");
+            return true;
+        }
+        if (c == 'f') {
+            expectLiteral("false");
+            return false;
+        }
+        throw error("Expected a boolean");
+    }
+    
+    public void skipValue() throws IOException {
+        int top = stack[depth - 1];
+        if ((top == EMPTY_ARRAY || top == NONEMPTY_ARRAY) && !hasNext()) {
+            throw error("No more elements");
+        }
+        int c = peek();
+        switch (c) {
+            case '{':
+                beginObject();
+                while (hasNext()) {
+                    nextName(NO_NAMES);
+                    skipValue();
+                }
+                endObject();
+                break;
+            case '[':
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case '"':
+                beforeValue();
+                pos++;
+                skipString();
+                break;
+            case 't':
+                beforeValue();
+                expectLiteral("true");
+                break;
+            case 'f':
+                beforeValue();
+                expectLiteral("false");
+                break;
+            case 'n':
+                beforeValue();
+                expectLiteral("null");
+                break;
+            default:
+                beforeValue();
+                skipNumber();
+        }
+    }
+    
+    // Verifies nothing but whitespace follows the top-level value
+    public void endDocument() throws IOException {
+        if (depth != 1 || stack[0] != NONEMPTY_DOCUMENT) {
+            throw error("Incomplete document");
+        }
+        if (peek() != -1) {
+            throw error("Unexpected data after document");
+        }
+    }
+    
+    private void beforeValue() throws IOException {
+        int top = stack[depth - 1];
+        switch (top) {
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case DANGLING_NAME:
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                break;
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY:
+                if (!hasNext()) {
+                    throw error("No more elements");
+                }
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_DOCUMENT:
+                throw error("Multiple top-level values");
+            default:
+                throw error("Expected a name");
+        }
+        pendingComma = false;
+    }
+    
+    private void push(int state) throws JsonParseException {
+        if (depth == MAX_DEPTH) {
+            throw error("Nesting too deep");
+        }
+        stack[depth++] = state;
+    }
+    
+    // ---- strings ----
+    
+    // Index of the closing quote when the string at pos is already buffered and is
+    // plain ASCII without escapes, otherwise -1 and the decoding path takes over
+    private int scanSimpleString() {
+        for (int i = pos; i < limit; i++) {
+            byte b = buffer[i];
+            if (b == '"') {
+                return i;
+            }
+            if (b == '\\' || b < 0x20) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+    
+    // Decodes the string body after the opening quote into scratch
+    private void readString() throws IOException {
+        scratchLength = 0;
+        while (true) {
+            int b = read();
+            if (b == '"') {
+                return;
+            }
+            if (b == '\\') {
+                append(readEscape());
+            } else if (b < 0x20) {
+                throw error(b < 0 ? "Unterminated string" : "Control character in string");
+            } else if (b < 0x80) {
+                append((char) b);
+            } else {
+                appendUtf8(b);
+            }
+        }
+    }
+    
+    private void skipString() throws IOException {
+        while (true) {
+            int b = read();
+            if (b == '"') {
+                return;
+            }
+            if (b == '\\') {
+                readEscape();
+            } else if (b < 0x20) {
+                throw error(b < 0 ? "Unterminated string" : "Control character in string");
+            }
+        }
+    }
+    
+    private char readEscape() throws IOException {
+        int b = read();
+        switch (b) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                // Surrogate pairs arrive as two escapes and land as two chars, i.e. valid UTF-16
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    value = (value << 4) | hexValue(read());
+                }
+                return (char) value;
+            default:
+                throw error("Invalid escape sequence");
+        }
+    }
+    
+    private int hexValue(int b) throws JsonParseException {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        throw error("Invalid unicode escape");
+    }
+    
+    private void appendUtf8(int lead) throws IOException {
+        int codePoint;
+        int continuation;
+        int min;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            codePoint = lead & 0x1F;
+            continuation = 1;
+            min = 0x80;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            codePoint = lead & 0x0F;
+            continuation = 2;
+            min = 0x800;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            codePoint = lead & 0x07;
+            continuation = 3;
+            min = 0x10000;
+        } else {
+            throw error("Invalid UTF-8");
+        }
+        for (int i = 0; i < continuation; i++) {
+            int b = read();
+            if ((b & 0xC0) != 0x80) {
+                throw error("Invalid UTF-8");
+            }
+            codePoint = (codePoint << 6) | (b & 0x3F);
+        }
+        if (codePoint < min || codePoint > 0x10FFFF || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+            throw error("Invalid UTF-8");
+        }
+        if (codePoint >= 0x10000) {
+            append(Character.highSurrogate(codePoint));
+            append(Character.lowSurrogate(codePoint));
+        } else {
+            append((char) codePoint);
+        }
+    }
+    
+    private void append(char c) {
+        if (scratchLength == scratch.length) {
+            char[] grown = new char[scratch.length * 2];
+            System.arraycopy(scratch, 0, grown, 0, scratchLength);
+            scratch = grown;
+        }
+        scratch[scratchLength++] = c;
+    }
+    
+    private boolean bufferEquals(int start, int end, String name) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (buffer[i] != name.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean scratchEquals(String name) {
+        if (name.length() != scratchLength) {
+            return false;
+        }
+        for (int i = 0; i < scratchLength; i++) {
+            if (name.charAt(i) != scratch[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // ---- literals and numbers ----
+    
+    private void expectLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw error("Invalid literal");
+            }
+        }
+    }
+    
+    private void skipNumber() throws IOException {
+        int start = consumed + pos;
+        while (true) {
+            if (pos == limit && !fill()) {
+                break;
+            }
+            byte b = buffer[pos];
+            if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (consumed + pos == start) {
+            throw error("Unexpected character");
+        }
+    }
+    
+    // ---- input ----
+    
+    private void expect(char c) throws IOException {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+    
+    // Next non-whitespace byte without consuming it, or -1 at end of input
+    private int peek() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            byte b = buffer[pos];
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                pos++;
+            } else {
+                return b & 0xFF;
+            }
+        }
+    }
+    
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+    
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        // Read one byte past the cap so an oversized body is detected, not truncated
+        int allowed = (int) Math.min(buffer.length, (long) maxBytes - consumed + 1);
+        if (allowed <= 0) {
+            throw JsonParseException.tooLarge(maxBytes);
+        }
+        int read = in.read(buffer, 0, allowed);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        if ((long) consumed + limit > maxBytes) {
+            throw JsonParseException.tooLarge(maxBytes);
+        }
+        return true;
+    }
+    
+    private JsonParseException error(String message) {
+        return new JsonParseException(message + " at byte " + (consumed + pos));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.example.login.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Append-only UTF-8 JSON buffer. Like JsonReader, instances are reused per
+// thread (acquire/release) so serialising a response allocates nothing once
+// the buffer has grown to fit. Fixed keys and punctuation are written as
+// pre-encoded fragments from encode(); only string values are escaped. The
+// saving depends on pooled request threads; with a thread per task each
+// request starts from a new 512-byte buffer.
+public final class JsonWriter {
+    private static final ThreadLocal<JsonWriter> LOCAL = ThreadLocal.withInitial(JsonWriter::new);
+    private static final int INITIAL_SIZE = 512;
+    private static final int MAX_RETAINED_SIZE = 64 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = encode("true");
+    private static final byte[] FALSE = encode("false");
+    private static final byte[] NULL = encode("null");
+    private static final byte[] MIN_LONG = encode(Long.toString(Long.MIN_VALUE));
+    
+    private byte[] buffer = new byte[INITIAL_SIZE];
+    private int size;
+    private boolean inUse;
+    
+    private JsonWriter() {
+    }
+    
+    // Borrows this thread's writer; callers must release() it when done
+    public static JsonWriter acquire() {
+        JsonWriter writer = LOCAL.get();
+        if (writer.inUse) {
+            // Nested use on the same thread, fall back to a private instance
+            writer = new JsonWriter();
+        }
+        writer.size = 0;
+        writer.inUse = true;
+        return writer;
+    }
+    
+    public void release() {
+        inUse = false;
+        if (buffer.length > MAX_RETAINED_SIZE) {
+            buffer = new byte[INITIAL_SIZE];
+        }
+    }
+    
+    // Encodes a constant fragment once, e.g. "{\"success\":"
+    public static byte[] encode(String fragment) {
+        return fragment.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    public JsonWriter raw(byte[] fragment) {
+        ensureCapacity(fragment.length);
+        System.arraycopy(fragment, 0, buffer, size, fragment.length);
+        size += fragment.length;
+        return this;
+    }
+    
+    public JsonWriter value(boolean value) {
+        return raw(value ? TRUE : FALSE);
+    }
+    
+    // Writes decimal digits straight into the buffer, no Long.toString
+    public JsonWriter value(long value) {
+        ensureCapacity(20);
+        if (value == Long.MIN_VALUE) {
+            return raw(MIN_LONG);
+        }
+        byte[] out = buffer;
+        int p = size;
+        if (value < 0) {
+            out[p++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = p + digits - 1; i >= p; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size = p + digits;
+        return this;
+    }
+    
+    // Writes a quoted, escaped string, or null
+    public JsonWriter value(String value) {
+        if (value == null) {
+            return raw(NULL);
+        }
+        int length = value.length();
+        // Worst case is a six byte unicode escape per char, checked once up front
+        ensureCapacity(length * 6L + 2);
+        byte[] out = buffer;
+        int p = size;
+        out[p++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    out[p++] = (byte) c;
+                } else {
+                    p = writeEscape(out, p, c);
+                }
+            } else if (c < 0x800) {
+                out[p++] = (byte) (0xC0 | (c >> 6));
+                out[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[p++] = (byte) (0xF0 | (codePoint >> 18));
+                out[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[p++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Lone surrogate cannot be encoded as UTF-8, escape it instead
+                p = writeUnicodeEscape(out, p, c);
+            } else {
+                out[p++] = (byte) (0xE0 | (c >> 12));
+                out[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        out[p++] = '"';
+        size = p;
+        return this;
+    }
+    
+    // Empties the buffer for reuse, e.g. between items streamed one at a time
+    public void reset() {
+        size = 0;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+    
+    public byte[] toByteArray() {
+        byte[] copy = new byte[size];
+        System.arraycopy(buffer, 0, copy, 0, size);
+        return copy;
+    }
+    
+    private static int writeEscape(byte[] out, int p, char c) {
+        out[p++] = '\\';
+        switch (c) {
+            case '"': out[p++] = '"'; return p;
+            case '\\': out[p++] = '\\'; return p;
+            case '\n': out[p++] = 'n'; return p;
+            case '\r': out[p++] = 'r'; return p;
+            case '\t': out[p++] = 't'; return p;
+            case '\b': out[p++] = 'b'; return p;
+            case '\f': out[p++] = 'f'; return p;
+            default:
+                return writeUnicodeEscape(out, p - 1, c);
+        }
+    }
+    
+    private static int writeUnicodeEscape(byte[] out, int p, char c) {
+        out[p++] = '\\';
+        out[p++] = 'u';
+        out[p++] = HEX[(c >> 12) & 0xF];
+        out[p++] = HEX[(c >> 8) & 0xF];
+        out[p++] = HEX[(c >> 4) & 0xF];
+        out[p++] = HEX[c & 0xF];
+        return p;
+    }
+    
+    private void ensureCapacity(long extra) {
+        long needed = size + extra;
+        if (needed <= buffer.length) {
+            return;
+        }
+        long grown = Math.max(needed, (long) buffer.length * 2);
+        if (grown > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("JSON output too large");
+        }
+        byte[] replacement = new byte[(int) grown];
+        System.arraycopy(buffer, 0, replacement, 0, size);
+        buffer = replacement;
+    }
+}
\ No newline at end of file
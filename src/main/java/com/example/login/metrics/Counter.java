@@ -0,0 +1,21 @@
+package com.example.login.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// A monotonic count. Backed by a LongAdder, so threads that count at the
+// same time write to different cells instead of fighting over one.
+public final class Counter {
+    private final LongAdder count = new LongAdder();
+    
+    public void increment() {
+        count.increment();
+    }
+    
+    public void add(long amount) {
+        count.add(amount);
+    }
+    
+    public long get() {
+        return count.sum();
+    }
+}
\ No newline at end of file
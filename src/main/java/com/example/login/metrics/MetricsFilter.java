@@ -0,0 +1,57 @@
+package com.example.login.metrics;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Times every request to one context and counts its responses by status
+// code. The latency summary's _count is the endpoint's request count. The
+// counter for each status is looked up the first time it is seen and kept
+// here, so the hot path is a clock read, one histogram record and one
+// counter increment. Requests whose handler threw before sending a status
+// are counted as status "none".
+public class MetricsFilter extends Filter {
+    public static final String LATENCY = "login_http_request_duration_seconds";
+    public static final String RESPONSES = "login_http_responses_total";
+    
+    private static final int MAX_STATUS = 600;
+    
+    private final MetricsRegistry registry;
+    private final String endpoint;
+    private final LatencyHistogram latency;
+    private final AtomicReferenceArray<Counter> statuses = new AtomicReferenceArray<>(MAX_STATUS + 1);
+    
+    public MetricsFilter(MetricsRegistry registry, String endpoint) {
+        this.registry = registry;
+        this.endpoint = endpoint;
+        this.latency = registry.histogram(LATENCY, "Time to handle a request, by endpoint", "endpoint", endpoint);
+    }
+    
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            latency.recordSince(start);
+            status(exchange.getResponseCode()).increment();
+        }
+    }
+    
+    private Counter status(int code) {
+        int slot = code >= 100 && code < MAX_STATUS ? code : MAX_STATUS;
+        Counter counter = statuses.get(slot);
+        if (counter == null) {
+            counter = registry.counter(RESPONSES, "Responses sent, by endpoint and status code",
+                    "endpoint", endpoint, "status", slot == MAX_STATUS ? "none" : Integer.toString(code));
+            statuses.set(slot, counter);
+        }
+        return counter;
+    }
+    
+    @Override
+    public String description() {
+        return "Records request latency and response status for " + endpoint;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.example.login.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+// Named metrics, written out in the Prometheus text format (version 0.0.4).
+// A metric is a family (name, help, type) with one series per label set,
+// given as alternating names and values. Asking for a series that exists
+// returns it, so callers can look series up lazily; callers on a hot path
+// should still keep hold of what they get back, as lookups take a lock.
+//
+// Components that already count for themselves (caches, pools, limiters)
+// are registered as suppliers and read only when the metrics are scraped.
+// Histograms are written as summaries in seconds with fixed quantiles.
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    private final Map<String, Family> families = new LinkedHashMap<>();
+    
+    public synchronized Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, "counter").series(labels, Counter.class);
+    }
+    
+    // A counter read from a component's own running total
+    public synchronized void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, "counter").put(labels, value);
+    }
+    
+    public synchronized void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").put(labels, value);
+    }
+    
+    public synchronized LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, "summary").series(labels, LatencyHistogram.class);
+    }
+    
+    public synchronized String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : families.values()) {
+            family.writeTo(out);
+        }
+        return out.toString();
+    }
+    
+    private Family family(String name, String help, String type) {
+        Family family = families.get(name);
+        if (family == null) {
+            if (!isValidName(name)) {
+                throw new IllegalArgumentException("Invalid metric name: " + name);
+            }
+            family = new Family(name, help, type);
+            families.put(name, family);
+        } else if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type + ", not a " + type);
+        }
+        return family;
+    }
+    
+    private static boolean isValidName(String name) {
+        if (name == null || name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':';
+            if (!letter && !(i > 0 && c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // k1="v1",k2="v2" with values escaped, without the braces
+    private static String labelText(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name, value pairs");
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (!isValidName(labels[i]) || labels[i].indexOf(':') >= 0) {
+                throw new IllegalArgumentException("Invalid label name: " + labels[i]);
+            }
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    text.append('\\').append(c);
+                } else if (c == '\n') {
+                    text.append("\\n");
+                } else {
+                    text.append(c);
+                }
+            }
+            text.append('"');
+        }
+        return text.toString();
+    }
+    
+    private static void sample(StringBuilder out, String name, String labels, String extraLabel, String value) {
+        out.append(name);
+        if (!labels.isEmpty() || extraLabel != null) {
+            out.append('{').append(labels);
+            if (extraLabel != null) {
+                out.append(labels.isEmpty() ? "" : ",").append(extraLabel);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+    
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+    
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final Map<String, Object> series = new LinkedHashMap<>();
+        
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+        
+        Object series(String[] labels, Class<?> kind) {
+            String key = labelText(labels);
+            Object existing = series.get(key);
+            if (existing == null) {
+                existing = kind == Counter.class ? new Counter() : new LatencyHistogram();
+                series.put(key, existing);
+            } else if (!kind.isInstance(existing)) {
+                throw new IllegalArgumentException("Metric " + name + "{" + key + "} is read from a supplier");
+            }
+            return existing;
+        }
+        
+        // Replaces any earlier supplier for the same labels
+        void put(String[] labels, Object supplier) {
+            series.put(labelText(labels), supplier);
+        }
+        
+        void writeTo(StringBuilder out) {
+            out.append("# HELP ").append(name).append(' ')
+                    .append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+            for (Map.Entry<String, Object> entry : series.entrySet()) {
+                String labels = entry.getKey();
+                Object metric = entry.getValue();
+                if (metric instanceof Counter) {
+                    sample(out, name, labels, null, Long.toString(((Counter) metric).get()));
+                } else if (metric instanceof LongSupplier) {
+                    sample(out, name, labels, null, Long.toString(((LongSupplier) metric).getAsLong()));
+                } else if (metric instanceof DoubleSupplier) {
+                    sample(out, name, labels, null, format(((DoubleSupplier) metric).getAsDouble()));
+                } else {
+                    LatencyHistogram.Snapshot snapshot = ((LatencyHistogram) metric).snapshot();
+                    for (double quantile : QUANTILES) {
+                        sample(out, name, labels, "quantile=\"" + quantile + "\"",
+                                format(snapshot.getValueAtQuantile(quantile) / NANOS_PER_SECOND));
+                    }
+                    sample(out, name + "_sum", labels, null, format(snapshot.getSumNanos() / NANOS_PER_SECOND));
+                    sample(out, name + "_count", labels, null, Long.toString(snapshot.getCount()));
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
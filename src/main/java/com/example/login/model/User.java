@@ -3,6 +3,7 @@ package com.example.login.model;
 public class User {
     private String username;
     private String password;
+    private String passwordHash;
     private String role;
     
     public User() {}
@@ -29,6 +30,15 @@ public class User {
         this.password = password;
     }
     
+    // Salted hash from PasswordHasher; stores keep this, never the plain password
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+    
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+    
     public String getRole() {
         return role;
     }
@@ -0,0 +1,192 @@
+package com.example.login.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+// Remembers recent successful password checks so a client that logs in again
+// within the TTL costs one HMAC instead of a full PBKDF2 run. Entries are
+// keyed by HMAC-SHA256(username, password) under a random per-process key,
+// so the cache never holds anything that can be brute forced offline.
+//
+// Each entry records the password hash it was verified against; a hit only
+// counts while the user's current hash is still that one, so changing a
+// password invalidates every entry for the old one without a scan. All
+// entries share one TTL, so insertion order is expiry order and the size
+// bound evicts from the head of a FIFO queue.
+public class CredentialCache {
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    public CredentialCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+    
+    public CredentialCache(int maxEntries, long ttlMillis) {
+        if (maxEntries < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("Credential cache needs a positive size and TTL");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+    
+    // True if this password was verified for this user within the TTL and the
+    // user's hash has not changed since
+    public boolean isVerified(String username, String password, String passwordHash) {
+        Key lookup = key(username, password);
+        Entry entry = entries.get(lookup);
+        if (entry != null && entry.passwordHash.equals(passwordHash) && System.nanoTime() - entry.expiresAt < 0) {
+            hits.increment();
+            return true;
+        }
+        if (entry != null) {
+            entries.remove(lookup, entry);
+        }
+        misses.increment();
+        return false;
+    }
+    
+    // Records a successful verification against passwordHash
+    public void verified(String username, String password, String passwordHash) {
+        if (passwordHash == null) {
+            return;
+        }
+        Entry entry = new Entry(key(username, password), passwordHash, System.nanoTime() + ttlNanos);
+        entries.put(entry.key, entry);
+        insertionOrder.add(entry);
+        queued.incrementAndGet();
+        trim();
+    }
+    
+    public void invalidateAll() {
+        entries.clear();
+        insertionOrder.clear();
+        queued.set(0);
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+    
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : hitCount / (double) total;
+    }
+    
+    // Drops expired entries from the head of the queue, then the oldest live
+    // ones while over the size bound. Nodes for entries that were replaced
+    // since are dropped as they reach the head; the queue is also capped at
+    // twice the bound so repeated re-logins cannot grow it without limit.
+    private void trim() {
+        long now = System.nanoTime();
+        Entry head;
+        while ((head = insertionOrder.peek()) != null) {
+            if (entries.get(head.key) == head && now - head.expiresAt < 0 && entries.size() <= maxEntries
+                    && queued.get() <= maxEntries * 2) {
+                return;
+            }
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (entries.remove(oldest.key, oldest) && now - oldest.expiresAt < 0) {
+                evictions.increment();
+            }
+        }
+    }
+    
+    private Key key(String username, String password) {
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        // Separator keeps ("ab", "c") and ("a", "bc") apart
+        mac.update((byte) 0);
+        return new Key(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+    
+    private static final class Key {
+        private final byte[] mac;
+        private final int hash;
+        
+        Key(byte[] mac) {
+            this.mac = mac;
+            this.hash = (mac[0] & 0xFF) | (mac[1] & 0xFF) << 8 | (mac[2] & 0xFF) << 16 | mac[3] << 24;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && MessageDigest.isEqual(mac, ((Key) other).mac);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+    
+    private static final class Entry {
+        private final Key key;
+        private final String passwordHash;
+        private final long expiresAt;
+        
+        Entry(Key key, String passwordHash, long expiresAt) {
+            this.key = key;
+            this.passwordHash = passwordHash;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
\ No newline at end of file
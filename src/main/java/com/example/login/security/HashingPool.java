@@ -0,0 +1,108 @@
+package com.example.login.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs password hashing on its own small pool so a burst of logins can only
+// ever occupy these threads, leaving request workers free for static files
+// and health checks. At most queueCapacity jobs wait; past that, callers get
+// a RejectedExecutionException straight away, which the API answers with 503.
+public class HashingPool {
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    
+    private static volatile HashingPool shared;
+    
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+    
+    public HashingPool(int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Hashing pool needs at least one thread and one queue slot");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    // One pool per core for services that are not given one
+    public static HashingPool shared() {
+        HashingPool pool = shared;
+        if (pool == null) {
+            synchronized (HashingPool.class) {
+                pool = shared;
+                if (pool == null) {
+                    pool = new HashingPool(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+                    shared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+    
+    public boolean verify(String password, String encoded) {
+        return call(() -> PasswordHasher.verify(password, encoded));
+    }
+    
+    public String hash(PasswordHasher hasher, String password) {
+        return call(() -> hasher.hash(password));
+    }
+    
+    // Queues the job without waiting; throws RejectedExecutionException when the queue is full
+    public <T> Future<T> submit(Callable<T> job) {
+        try {
+            return executor.submit(job);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+    
+    // Runs the job on the pool and waits for it
+    public <T> T call(Callable<T> job) {
+        Future<T> future = submit(job);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+    
+    public int getThreads() {
+        return executor.getCorePoolSize();
+    }
+    
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+    
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+    
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+    
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
\ No newline at end of file
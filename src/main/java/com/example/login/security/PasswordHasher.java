@@ -0,0 +1,87 @@
+package com.example.login.security;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// Salted PBKDF2-HMAC-SHA256 password hashes, encoded as
+//   pbkdf2-sha256$<iterations>$<base64 salt>$<base64 hash>
+// The iteration count travels with each hash, so raising the work factor
+// only affects hashes created afterwards. Comparison is constant time.
+public class PasswordHasher {
+    public static final String PREFIX = "pbkdf2-sha256$";
+    // Tuned with PasswordHashBenchmark for about 25 logins/sec per core
+    public static final int DEFAULT_ITERATIONS = 100_000;
+    // Only for the demo accounts, whose passwords are printed on the login page
+    public static final int DEMO_ITERATIONS = 100;
+    
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+    
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    
+    public PasswordHasher() {
+        this(DEFAULT_ITERATIONS);
+    }
+    
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+    
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return PREFIX + iterations + "$" + ENCODER.encodeToString(salt) + "$"
+                + ENCODER.encodeToString(derive(password, salt, iterations));
+    }
+    
+    // False for a wrong password and for anything that is not a hash from hash()
+    public static boolean verify(String password, String encoded) {
+        if (password == null || !isHash(encoded)) {
+            return false;
+        }
+        String[] parts = encoded.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[0]);
+            byte[] salt = DECODER.decode(parts[1]);
+            byte[] expected = DECODER.decode(parts[2]);
+            if (iterations < 1 || expected.length * 8 != HASH_BITS) {
+                return false;
+            }
+            return MessageDigest.isEqual(expected, derive(password, salt, iterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    public static boolean isHash(String value) {
+        return value != null && value.startsWith(PREFIX);
+    }
+    
+    public int getIterations() {
+        return iterations;
+    }
+    
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
\ No newline at end of file
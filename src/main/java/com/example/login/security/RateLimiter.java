@@ -0,0 +1,140 @@
+package com.example.login.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Token buckets per key (a remote address, a username) with no locks. Each
+// bucket is a single "theoretical arrival time" (the GCRA form of a token
+// bucket): a request is allowed while that time is no more than the burst
+// ahead of now, and pushes it on by one emission interval. Allowing a request
+// is one CAS on that long.
+//
+// Buckets live in a fixed table of small sets (4 slots per set, chosen by
+// the key's hash), so memory stays the same however many distinct keys are
+// seen. A new key takes the slot in its set with the earliest arrival time:
+// an idle bucket that has refilled loses nothing by going, and a key being
+// throttled holds the latest time in its set, so flooding the table with
+// spoofed keys pushes out everyone else's idle buckets before it frees an
+// attacker's own.
+public class RateLimiter {
+    private static final int WAYS = 4;
+    private static final AtomicLongFieldUpdater<Bucket> ARRIVAL =
+            AtomicLongFieldUpdater.newUpdater(Bucket.class, "arrival");
+    
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int setMask;
+    private final AtomicReferenceArray<Bucket> slots;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    
+    // permitsPerMinute refill rate, burst requests allowed back to back, at
+    // least capacity keys tracked at once
+    public RateLimiter(int permitsPerMinute, int burst, int capacity) {
+        if (permitsPerMinute < 1 || burst < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Rate limiter needs a positive rate, burst and capacity");
+        }
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / permitsPerMinute;
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS - 1)) << 1;
+        this.setMask = sets - 1;
+        this.slots = new AtomicReferenceArray<>(sets * WAYS);
+    }
+    
+    // 0 if the request may go ahead, otherwise the nanoseconds until it would
+    public long tryAcquire(Object key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+    
+    long tryAcquire(Object key, long now) {
+        Bucket bucket = bucket(key, now);
+        while (true) {
+            long arrival = bucket.arrival;
+            long start = arrival - now > 0 ? arrival : now;
+            long wait = start - toleranceNanos - now;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (ARRIVAL.compareAndSet(bucket, arrival, start + intervalNanos)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+    
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+    
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+    
+    // Buckets replaced before they had refilled, i.e. state that was lost
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+    
+    public int getCapacity() {
+        return slots.length();
+    }
+    
+    public int size() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private Bucket bucket(Object key, long now) {
+        int hash = key.hashCode();
+        int base = ((hash ^ (hash >>> 16)) & setMask) * WAYS;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            int victim = -1;
+            int empty = -1;
+            Bucket oldest = null;
+            for (int i = base; i < base + WAYS; i++) {
+                Bucket candidate = slots.get(i);
+                if (candidate == null) {
+                    empty = empty < 0 ? i : empty;
+                } else if (candidate.key.equals(key)) {
+                    return candidate;
+                } else if (oldest == null || candidate.arrival - oldest.arrival < 0) {
+                    victim = i;
+                    oldest = candidate;
+                }
+            }
+            if (empty >= 0) {
+                victim = empty;
+                oldest = null;
+            }
+            Bucket created = new Bucket(key, now);
+            if (slots.compareAndSet(victim, oldest, created)) {
+                if (oldest != null && oldest.arrival - now > 0) {
+                    evicted.increment();
+                }
+                return created;
+            }
+            // Lost a race for the slot, perhaps to the same key; look again
+        }
+        // Still contended: let this request use a bucket of its own
+        return new Bucket(key, now);
+    }
+    
+    private static final class Bucket {
+        private final Object key;
+        private volatile long arrival;
+        
+        Bucket(Object key, long now) {
+            this.key = key;
+            this.arrival = now;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.example.login.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caps how many requests run at once and finds the cap by AIMD on latency.
+// Each completed request is a sample: one slower than the target, or one the
+// server itself had to drop, cuts the limit by a tenth; a faster one while
+// the limit was at least half used adds 1/limit, so the limit grows by about
+// one per round of requests.
+//
+// Only requests that started after the last cut can cut again, so a single
+// overload spell shrinks the limit once per round trip rather than once for
+// every request that was already in flight. The target is a fixed latency
+// rather than one learned from the fastest replies: rejections and cache
+// hits answer in microseconds and would make every real login look slow.
+public class AdaptiveConcurrencyLimiter {
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 2;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    public static final long DEFAULT_TARGET_MILLIS = 250;
+    
+    private static final double BACKOFF = 0.9;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+    private volatile int limit;
+    // Guarded by this
+    private double estimate;
+    private long lastCutAt;
+    
+    public AdaptiveConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_TARGET_MILLIS);
+    }
+    
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetMillis) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (targetMillis < 1) {
+            throw new IllegalArgumentException("Latency target must be positive");
+        }
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimate = initialLimit;
+        this.lastCutAt = System.nanoTime();
+    }
+    
+    // Takes a slot if one is free; false means shed the request
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    // Frees the slot taken at startNanos. dropped means the request failed
+    // for lack of capacity further in, which counts as overload.
+    public void release(long startNanos, boolean dropped) {
+        int used = inFlight.getAndDecrement();
+        sample(startNanos, System.nanoTime(), used, dropped);
+    }
+    
+    // Frees a slot without a latency sample, for requests whose running time
+    // says nothing about load, e.g. a batch of many logins
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+    
+    synchronized void sample(long startNanos, long endNanos, int used, boolean dropped) {
+        if (dropped || endNanos - startNanos > targetNanos) {
+            if (startNanos - lastCutAt > 0) {
+                estimate = Math.max(minLimit, estimate * BACKOFF);
+                lastCutAt = endNanos;
+                limit = (int) estimate;
+            }
+        } else if (used * 2 >= limit) {
+            estimate = Math.min(maxLimit, estimate + 1.0 / estimate);
+            limit = (int) estimate;
+        }
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public long getShedCount() {
+        return shed.sum();
+    }
+    
+    public int getMinLimit() {
+        return minLimit;
+    }
+    
+    public long getTargetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(targetNanos);
+    }
+    
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+}
\ No newline at end of file
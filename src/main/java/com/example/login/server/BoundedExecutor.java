@@ -0,0 +1,151 @@
+package com.example.login.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caps the number of requests that are running or waiting for a worker.
+// Once the cap is reached the task runs on the calling (dispatcher) thread with
+// a rejection flag set, so OverloadFilter answers 503 instead of queueing more.
+public class BoundedExecutor implements Executor {
+    private static final ThreadLocal<Boolean> REJECTED = new ThreadLocal<>();
+    
+    private final ExecutorMode mode;
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int capacity;
+    private final LongAdder rejectedCount = new LongAdder();
+    
+    BoundedExecutor(ExecutorMode mode, ExecutorService delegate, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.mode = mode;
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+    }
+    
+    public static BoundedExecutor create(ExecutorMode mode, int workerThreads, int queueCapacity) {
+        if (workerThreads < 1) {
+            throw new IllegalArgumentException("Worker threads must be positive: " + workerThreads);
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity cannot be negative: " + queueCapacity);
+        }
+        return new BoundedExecutor(mode, newDelegate(mode, workerThreads), workerThreads + queueCapacity);
+    }
+    
+    public static BoundedExecutor create(ServerConfig config) {
+        return create(config.getExecutorMode(), config.getWorkerThreads(), config.getQueueCapacity());
+    }
+    
+    private static ExecutorService newDelegate(ExecutorMode mode, int workerThreads) {
+        switch (mode) {
+            case WORK_STEALING:
+                return Executors.newWorkStealingPool(workerThreads);
+            case VIRTUAL:
+                return newVirtualThreadExecutor();
+            case FIXED:
+            default:
+                return new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(), new WorkerThreadFactory("login-worker-"));
+        }
+    }
+    
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Looked up reflectively so the build keeps working on pre-21 JDKs
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.err.println("Virtual threads are not available on this JVM, using a cached thread pool");
+            return Executors.newCachedThreadPool(new WorkerThreadFactory("login-vworker-"));
+        }
+    }
+    
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            runRejected(task);
+            return;
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            runRejected(task);
+        }
+    }
+    
+    private void runRejected(Runnable task) {
+        rejectedCount.increment();
+        REJECTED.set(Boolean.TRUE);
+        try {
+            task.run();
+        } finally {
+            REJECTED.remove();
+        }
+    }
+    
+    // True while a task that did not get a worker slot runs on the caller thread
+    public static boolean isRejected() {
+        return REJECTED.get() != null;
+    }
+    
+    public ExecutorMode getMode() {
+        return mode;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    // Requests currently running or waiting for a worker
+    public int getQueueDepth() {
+        return capacity - permits.availablePermits();
+    }
+    
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+    
+    public void shutdown() {
+        delegate.shutdown();
+    }
+    
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+    
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        WorkerThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
\ No newline at end of file
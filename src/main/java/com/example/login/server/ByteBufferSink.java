@@ -0,0 +1,13 @@
+package com.example.login.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Implemented by response body streams that can queue a ByteBuffer for the
+// socket as-is. Handlers holding a shared (e.g. memory-mapped) buffer check for
+// this to skip the copy through a heap array that OutputStream.write needs.
+public interface ByteBufferSink {
+    // Consumes the buffer's remaining bytes; the caller must not modify its
+    // contents afterwards, since they may still be queued for writing
+    void write(ByteBuffer buffer) throws IOException;
+}
\ No newline at end of file
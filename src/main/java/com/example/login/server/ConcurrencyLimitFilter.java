@@ -0,0 +1,62 @@
+package com.example.login.server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.net.URI;
+
+// Runs POSTs under an AdaptiveConcurrencyLimiter and answers 503 at once
+// when it is full, before any body is read. Other methods (the GET health
+// check, CORS preflight) always go through. A request the handler itself
+// answers with 503 feeds back as overload. Batch requests hold a slot but
+// give no latency sample, as their running time grows with the batch, and
+// neither do requests that failed with an exception, e.g. a client that
+// went away.
+public class ConcurrencyLimitFilter extends Filter {
+    private final AdaptiveConcurrencyLimiter limiter;
+    
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+    
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            chain.doFilter(exchange);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            OverloadFilter.sendBusy(exchange);
+            return;
+        }
+        
+        boolean batch = isBatch(exchange);
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            chain.doFilter(exchange);
+            completed = true;
+        } finally {
+            if (batch || !completed) {
+                limiter.release();
+            } else {
+                limiter.release(start, exchange.getResponseCode() == 503);
+            }
+        }
+    }
+    
+    @Override
+    public String description() {
+        return "Caps concurrent POSTs with an adaptive limit and sheds the rest with 503";
+    }
+    
+    // LoginController routes on this too, so both agree on what a batch is
+    public static boolean isBatch(HttpExchange exchange) {
+        URI uri = exchange.getRequestURI();
+        return uri != null && uri.getPath().endsWith("/batch");
+    }
+    
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.login.server;
+
+public enum EngineType {
+    // com.sun.net.httpserver.HttpServer
+    JDK,
+    // Selector-per-core engine in com.example.login.server.nio
+    NIO;
+    
+    public static EngineType fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return JDK;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown engine: " + value);
+        }
+    }
+}
\ No newline at end of file
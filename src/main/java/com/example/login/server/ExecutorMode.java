@@ -0,0 +1,23 @@
+package com.example.login.server;
+
+public enum ExecutorMode {
+    // Fixed-size pool of platform threads
+    FIXED,
+    // ForkJoin work-stealing pool sized to the worker thread count
+    WORK_STEALING,
+    // One virtual thread per request (falls back to a cached pool before Java 21)
+    VIRTUAL;
+    
+    public static ExecutorMode fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return FIXED;
+        }
+        String normalized = value.trim().toUpperCase().replace('-', '_');
+        for (ExecutorMode mode : values()) {
+            if (mode.name().equals(normalized)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown executor mode: " + value);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.login.server;
+
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+// Minimal surface LoginServer needs from an HTTP front end, so the JDK server
+// and the NIO engine can be swapped without touching the handlers
+public interface HttpEngine {
+    HttpContext createContext(String path, HttpHandler handler);
+    
+    void start() throws IOException;
+    
+    void stop(int delaySeconds);
+    
+    InetSocketAddress getAddress();
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.example.login.server;
+
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JdkHttpEngine implements HttpEngine {
+    private final HttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    public JdkHttpEngine(InetSocketAddress address, int backlog, Executor executor) throws IOException {
+        this.server = HttpServer.create(address, backlog);
+        // Counted around the executor so stop() can tell when the last exchange is done
+        this.server.setExecutor(task -> {
+            inFlight.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            } catch (RuntimeException e) {
+                inFlight.decrementAndGet();
+                throw e;
+            }
+        });
+    }
+    
+    @Override
+    public HttpContext createContext(String path, HttpHandler handler) {
+        return server.createContext(path, handler);
+    }
+    
+    @Override
+    public void start() {
+        server.start();
+    }
+    
+    // HttpServer.stop(delay) closes the listener and then sits out the whole
+    // delay on JDK 17 even when nothing is in flight. So the delayed stop runs
+    // on its own thread to close the listener, we wait here only until the
+    // exchanges drain, and stop(0) then ends both.
+    @Override
+    public void stop(int delaySeconds) {
+        if (delaySeconds <= 0) {
+            server.stop(0);
+            return;
+        }
+        Thread stopper = new Thread(() -> server.stop(delaySeconds), "http-server-stop");
+        stopper.setDaemon(true);
+        stopper.start();
+        
+        long deadline = System.currentTimeMillis() + delaySeconds * 1000L;
+        while (inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        server.stop(0);
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    @Override
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.login.server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.example.login.json.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class OverloadFilter extends Filter {
+    // The one "busy, retry" body, also sent by ConcurrencyLimitFilter and for shed logins
+    public static final byte[] BUSY_BODY = JsonWriter.encode("{\"success\":false,\"message\":\"Server is busy, please retry\"}");
+    
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!BoundedExecutor.isRejected()) {
+            chain.doFilter(exchange);
+            return;
+        }
+        
+        // Worker pool is saturated: answer fast instead of queueing more work
+        sendBusy(exchange);
+    }
+    
+    // Answers 503 with BUSY_BODY and asks the client to retry in a second
+    public static void sendBusy(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("Retry-After", "1");
+        exchange.sendResponseHeaders(503, BUSY_BODY.length);
+        OutputStream os = exchange.getResponseBody();
+        os.write(BUSY_BODY);
+        os.close();
+    }
+    
+    @Override
+    public String description() {
+        return "Rejects requests with 503 when the worker pool is saturated";
+    }
+}
\ No newline at end of file
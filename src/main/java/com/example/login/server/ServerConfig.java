@@ -0,0 +1,544 @@
+package com.example.login.server;
+
+import com.example.login.session.TokenMode;
+import com.example.login.store.UserStoreType;
+import java.util.Properties;
+
+public class ServerConfig {
+    public static final String PREFIX = "login.";
+    
+    private int port;
+    private String webRoot;
+    private ExecutorMode executorMode = ExecutorMode.FIXED;
+    private int workerThreads = Runtime.getRuntime().availableProcessors() * 2;
+    private int queueCapacity = 256;
+    private EngineType engine = EngineType.JDK;
+    private int selectorThreads = Runtime.getRuntime().availableProcessors();
+    private int backlog = 1024;
+    private int maxRequestBytes = 1024 * 1024;
+    private int staticCacheBytes = 16 * 1024 * 1024;
+    private int staticMaxEntryBytes = 1024 * 1024;
+    private int staticRevalidateMillis = 1000;
+    private UserStoreType userStore = UserStoreType.MAP;
+    private String userDb = "data/users.db";
+    private boolean userFilter;
+    private int hashThreads = Runtime.getRuntime().availableProcessors();
+    private int hashQueueCapacity = 64;
+    private int hashIterations = 100_000;
+    private boolean credentialCache;
+    private int credentialCacheSize = 10_000;
+    private int credentialCacheTtlSeconds = 300;
+    private int sessionTtlSeconds = 1800;
+    private int maxSessions = 1_000_000;
+    private TokenMode tokenMode = TokenMode.SESSION;
+    private String tokenKeys = "";
+    private int tokenCacheSize = 100_000;
+    private int tokenCacheMillis = 1000;
+    private int loginBatchSize = 100;
+    private int loginBatchMillis = 2000;
+    private boolean rateLimit = true;
+    private int rateLimitAddressPerMinute = 600;
+    private int rateLimitAddressBurst = 60;
+    private int rateLimitUsernamePerMinute = 10;
+    private int rateLimitUsernameBurst = 5;
+    private int rateLimitKeys = 100_000;
+    private boolean concurrencyLimit = true;
+    private int concurrencyInitialLimit = 20;
+    private int concurrencyMinLimit = 2;
+    private int concurrencyMaxLimit = 200;
+    private int concurrencyTargetMillis = 250;
+    private boolean metrics = true;
+    private int healthIntervalMillis = 1000;
+    private int healthMaxQueuePercent = 90;
+    private int healthMaxErrorPercent = 50;
+    private boolean warmUp = true;
+    private int shutdownDelayMillis = 0;
+    private int shutdownDrainSeconds = 10;
+    
+    public ServerConfig(int port, String webRoot) {
+        this.port = port;
+        this.webRoot = webRoot;
+    }
+    
+    // Overrides defaults from "login."-prefixed properties, e.g. -Dlogin.executor=virtual
+    public ServerConfig applyProperties(Properties properties) {
+        port = intValue(properties, "port", port);
+        webRoot = properties.getProperty(PREFIX + "webRoot", webRoot);
+        String mode = properties.getProperty(PREFIX + "executor");
+        if (mode != null) {
+            executorMode = ExecutorMode.fromString(mode);
+        }
+        workerThreads = intValue(properties, "workerThreads", workerThreads);
+        queueCapacity = intValue(properties, "queueCapacity", queueCapacity);
+        String engineName = properties.getProperty(PREFIX + "engine");
+        if (engineName != null) {
+            engine = EngineType.fromString(engineName);
+        }
+        selectorThreads = intValue(properties, "selectorThreads", selectorThreads);
+        backlog = intValue(properties, "backlog", backlog);
+        maxRequestBytes = intValue(properties, "maxRequestBytes", maxRequestBytes);
+        staticCacheBytes = intValue(properties, "staticCacheBytes", staticCacheBytes);
+        staticMaxEntryBytes = intValue(properties, "staticMaxEntryBytes", staticMaxEntryBytes);
+        staticRevalidateMillis = intValue(properties, "staticRevalidateMillis", staticRevalidateMillis);
+        String storeName = properties.getProperty(PREFIX + "userStore");
+        if (storeName != null) {
+            userStore = UserStoreType.fromString(storeName);
+        }
+        userDb = properties.getProperty(PREFIX + "userDb", userDb);
+        userFilter = booleanValue(properties, "userFilter", userFilter);
+        hashThreads = intValue(properties, "hashThreads", hashThreads);
+        hashQueueCapacity = intValue(properties, "hashQueueCapacity", hashQueueCapacity);
+        hashIterations = intValue(properties, "hashIterations", hashIterations);
+        credentialCache = booleanValue(properties, "credentialCache", credentialCache);
+        credentialCacheSize = intValue(properties, "credentialCacheSize", credentialCacheSize);
+        credentialCacheTtlSeconds = intValue(properties, "credentialCacheTtlSeconds", credentialCacheTtlSeconds);
+        sessionTtlSeconds = intValue(properties, "sessionTtlSeconds", sessionTtlSeconds);
+        maxSessions = intValue(properties, "maxSessions", maxSessions);
+        String tokens = properties.getProperty(PREFIX + "tokens");
+        if (tokens != null) {
+            tokenMode = TokenMode.fromString(tokens);
+        }
+        tokenKeys = properties.getProperty(PREFIX + "tokenKeys", tokenKeys);
+        tokenCacheSize = intValue(properties, "tokenCacheSize", tokenCacheSize);
+        tokenCacheMillis = intValue(properties, "tokenCacheMillis", tokenCacheMillis);
+        loginBatchSize = intValue(properties, "loginBatchSize", loginBatchSize);
+        loginBatchMillis = intValue(properties, "loginBatchMillis", loginBatchMillis);
+        rateLimit = booleanValue(properties, "rateLimit", rateLimit);
+        rateLimitAddressPerMinute = intValue(properties, "rateLimitAddressPerMinute", rateLimitAddressPerMinute);
+        rateLimitAddressBurst = intValue(properties, "rateLimitAddressBurst", rateLimitAddressBurst);
+        rateLimitUsernamePerMinute = intValue(properties, "rateLimitUsernamePerMinute", rateLimitUsernamePerMinute);
+        rateLimitUsernameBurst = intValue(properties, "rateLimitUsernameBurst", rateLimitUsernameBurst);
+        rateLimitKeys = intValue(properties, "rateLimitKeys", rateLimitKeys);
+        concurrencyLimit = booleanValue(properties, "concurrencyLimit", concurrencyLimit);
+        concurrencyInitialLimit = intValue(properties, "concurrencyInitialLimit", concurrencyInitialLimit);
+        concurrencyMinLimit = intValue(properties, "concurrencyMinLimit", concurrencyMinLimit);
+        concurrencyMaxLimit = intValue(properties, "concurrencyMaxLimit", concurrencyMaxLimit);
+        concurrencyTargetMillis = intValue(properties, "concurrencyTargetMillis", concurrencyTargetMillis);
+        metrics = booleanValue(properties, "metrics", metrics);
+        healthIntervalMillis = intValue(properties, "healthIntervalMillis", healthIntervalMillis);
+        healthMaxQueuePercent = intValue(properties, "healthMaxQueuePercent", healthMaxQueuePercent);
+        healthMaxErrorPercent = intValue(properties, "healthMaxErrorPercent", healthMaxErrorPercent);
+        warmUp = booleanValue(properties, "warmUp", warmUp);
+        shutdownDelayMillis = intValue(properties, "shutdownDelayMillis", shutdownDelayMillis);
+        shutdownDrainSeconds = intValue(properties, "shutdownDrainSeconds", shutdownDrainSeconds);
+        return this;
+    }
+    
+    // Command line arguments use the same keys without the prefix, e.g. --executor=virtual
+    public ServerConfig applyArguments(String[] args) {
+        Properties properties = new Properties();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            properties.setProperty(PREFIX + arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return applyProperties(properties);
+    }
+    
+    private static int intValue(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(PREFIX + key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer for " + PREFIX + key + ": " + value);
+        }
+    }
+    
+    private static boolean booleanValue(Properties properties, String key, boolean defaultValue) {
+        String value = properties.getProperty(PREFIX + key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!value.trim().equalsIgnoreCase("true") && !value.trim().equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Invalid boolean for " + PREFIX + key + ": " + value);
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+    
+    public int getPort() {
+        return port;
+    }
+    
+    public void setPort(int port) {
+        this.port = port;
+    }
+    
+    public String getWebRoot() {
+        return webRoot;
+    }
+    
+    public void setWebRoot(String webRoot) {
+        this.webRoot = webRoot;
+    }
+    
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+    
+    public void setExecutorMode(ExecutorMode executorMode) {
+        this.executorMode = executorMode;
+    }
+    
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+    
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public EngineType getEngine() {
+        return engine;
+    }
+    
+    public void setEngine(EngineType engine) {
+        this.engine = engine;
+    }
+    
+    public int getSelectorThreads() {
+        return selectorThreads;
+    }
+    
+    public void setSelectorThreads(int selectorThreads) {
+        this.selectorThreads = selectorThreads;
+    }
+    
+    public int getBacklog() {
+        return backlog;
+    }
+    
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+    
+    public int getMaxRequestBytes() {
+        return maxRequestBytes;
+    }
+    
+    public void setMaxRequestBytes(int maxRequestBytes) {
+        this.maxRequestBytes = maxRequestBytes;
+    }
+    
+    public int getStaticCacheBytes() {
+        return staticCacheBytes;
+    }
+    
+    public void setStaticCacheBytes(int staticCacheBytes) {
+        this.staticCacheBytes = staticCacheBytes;
+    }
+    
+    public int getStaticMaxEntryBytes() {
+        return staticMaxEntryBytes;
+    }
+    
+    public void setStaticMaxEntryBytes(int staticMaxEntryBytes) {
+        this.staticMaxEntryBytes = staticMaxEntryBytes;
+    }
+    
+    public int getStaticRevalidateMillis() {
+        return staticRevalidateMillis;
+    }
+    
+    public void setStaticRevalidateMillis(int staticRevalidateMillis) {
+        this.staticRevalidateMillis = staticRevalidateMillis;
+    }
+    
+    public UserStoreType getUserStore() {
+        return userStore;
+    }
+    
+    public void setUserStore(UserStoreType userStore) {
+        this.userStore = userStore;
+    }
+    
+    public String getUserDb() {
+        return userDb;
+    }
+    
+    public void setUserDb(String userDb) {
+        this.userDb = userDb;
+    }
+    
+    public boolean isUserFilter() {
+        return userFilter;
+    }
+    
+    public void setUserFilter(boolean userFilter) {
+        this.userFilter = userFilter;
+    }
+    
+    public int getHashThreads() {
+        return hashThreads;
+    }
+    
+    public void setHashThreads(int hashThreads) {
+        this.hashThreads = hashThreads;
+    }
+    
+    public int getHashQueueCapacity() {
+        return hashQueueCapacity;
+    }
+    
+    public void setHashQueueCapacity(int hashQueueCapacity) {
+        this.hashQueueCapacity = hashQueueCapacity;
+    }
+    
+    public int getHashIterations() {
+        return hashIterations;
+    }
+    
+    public void setHashIterations(int hashIterations) {
+        this.hashIterations = hashIterations;
+    }
+    
+    public boolean isCredentialCache() {
+        return credentialCache;
+    }
+    
+    public void setCredentialCache(boolean credentialCache) {
+        this.credentialCache = credentialCache;
+    }
+    
+    public int getCredentialCacheSize() {
+        return credentialCacheSize;
+    }
+    
+    public void setCredentialCacheSize(int credentialCacheSize) {
+        this.credentialCacheSize = credentialCacheSize;
+    }
+    
+    public int getCredentialCacheTtlSeconds() {
+        return credentialCacheTtlSeconds;
+    }
+    
+    public void setCredentialCacheTtlSeconds(int credentialCacheTtlSeconds) {
+        this.credentialCacheTtlSeconds = credentialCacheTtlSeconds;
+    }
+    
+    public int getSessionTtlSeconds() {
+        return sessionTtlSeconds;
+    }
+    
+    public void setSessionTtlSeconds(int sessionTtlSeconds) {
+        this.sessionTtlSeconds = sessionTtlSeconds;
+    }
+    
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+    
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+    
+    public TokenMode getTokenMode() {
+        return tokenMode;
+    }
+    
+    public void setTokenMode(TokenMode tokenMode) {
+        this.tokenMode = tokenMode;
+    }
+    
+    public String getTokenKeys() {
+        return tokenKeys;
+    }
+    
+    public void setTokenKeys(String tokenKeys) {
+        this.tokenKeys = tokenKeys;
+    }
+    
+    public int getTokenCacheSize() {
+        return tokenCacheSize;
+    }
+    
+    public void setTokenCacheSize(int tokenCacheSize) {
+        this.tokenCacheSize = tokenCacheSize;
+    }
+    
+    public int getTokenCacheMillis() {
+        return tokenCacheMillis;
+    }
+    
+    public void setTokenCacheMillis(int tokenCacheMillis) {
+        this.tokenCacheMillis = tokenCacheMillis;
+    }
+    
+    public int getLoginBatchSize() {
+        return loginBatchSize;
+    }
+    
+    public void setLoginBatchSize(int loginBatchSize) {
+        this.loginBatchSize = loginBatchSize;
+    }
+    
+    public int getLoginBatchMillis() {
+        return loginBatchMillis;
+    }
+    
+    public void setLoginBatchMillis(int loginBatchMillis) {
+        this.loginBatchMillis = loginBatchMillis;
+    }
+    
+    public boolean isRateLimit() {
+        return rateLimit;
+    }
+    
+    public void setRateLimit(boolean rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+    
+    public int getRateLimitAddressPerMinute() {
+        return rateLimitAddressPerMinute;
+    }
+    
+    public void setRateLimitAddressPerMinute(int rateLimitAddressPerMinute) {
+        this.rateLimitAddressPerMinute = rateLimitAddressPerMinute;
+    }
+    
+    public int getRateLimitAddressBurst() {
+        return rateLimitAddressBurst;
+    }
+    
+    public void setRateLimitAddressBurst(int rateLimitAddressBurst) {
+        this.rateLimitAddressBurst = rateLimitAddressBurst;
+    }
+    
+    public int getRateLimitUsernamePerMinute() {
+        return rateLimitUsernamePerMinute;
+    }
+    
+    public void setRateLimitUsernamePerMinute(int rateLimitUsernamePerMinute) {
+        this.rateLimitUsernamePerMinute = rateLimitUsernamePerMinute;
+    }
+    
+    public int getRateLimitUsernameBurst() {
+        return rateLimitUsernameBurst;
+    }
+    
+    public void setRateLimitUsernameBurst(int rateLimitUsernameBurst) {
+        this.rateLimitUsernameBurst = rateLimitUsernameBurst;
+    }
+    
+    public int getRateLimitKeys() {
+        return rateLimitKeys;
+    }
+    
+    public void setRateLimitKeys(int rateLimitKeys) {
+        this.rateLimitKeys = rateLimitKeys;
+    }
+    
+    public boolean isConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+    
+    public void setConcurrencyLimit(boolean concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+    
+    public int getConcurrencyInitialLimit() {
+        return concurrencyInitialLimit;
+    }
+    
+    public void setConcurrencyInitialLimit(int concurrencyInitialLimit) {
+        this.concurrencyInitialLimit = concurrencyInitialLimit;
+    }
+    
+    public int getConcurrencyMinLimit() {
+        return concurrencyMinLimit;
+    }
+    
+    public void setConcurrencyMinLimit(int concurrencyMinLimit) {
+        this.concurrencyMinLimit = concurrencyMinLimit;
+    }
+    
+    public int getConcurrencyMaxLimit() {
+        return concurrencyMaxLimit;
+    }
+    
+    public void setConcurrencyMaxLimit(int concurrencyMaxLimit) {
+        this.concurrencyMaxLimit = concurrencyMaxLimit;
+    }
+    
+    public int getConcurrencyTargetMillis() {
+        return concurrencyTargetMillis;
+    }
+    
+    public void setConcurrencyTargetMillis(int concurrencyTargetMillis) {
+        this.concurrencyTargetMillis = concurrencyTargetMillis;
+    }
+    
+    public boolean isMetrics() {
+        return metrics;
+    }
+    
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+    
+    public int getHealthIntervalMillis() {
+        return healthIntervalMillis;
+    }
+    
+    public void setHealthIntervalMillis(int healthIntervalMillis) {
+        this.healthIntervalMillis = healthIntervalMillis;
+    }
+    
+    // Readiness fails once this share of the executor's capacity is in use
+    public int getHealthMaxQueuePercent() {
+        return healthMaxQueuePercent;
+    }
+    
+    public void setHealthMaxQueuePercent(int healthMaxQueuePercent) {
+        this.healthMaxQueuePercent = healthMaxQueuePercent;
+    }
+    
+    // Readiness fails when more than this share of recent requests were server errors
+    public int getHealthMaxErrorPercent() {
+        return healthMaxErrorPercent;
+    }
+    
+    public void setHealthMaxErrorPercent(int healthMaxErrorPercent) {
+        this.healthMaxErrorPercent = healthMaxErrorPercent;
+    }
+    
+    // Load the caches, hashing threads and user pages before the port opens
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+    
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+    
+    // How long shutdown reports not ready before it stops accepting, so load
+    // balancers polling /api/health/ready can take the node out first
+    public int getShutdownDelayMillis() {
+        return shutdownDelayMillis;
+    }
+    
+    public void setShutdownDelayMillis(int shutdownDelayMillis) {
+        this.shutdownDelayMillis = shutdownDelayMillis;
+    }
+    
+    // Longest shutdown waits for in-flight requests once it stops accepting
+    public int getShutdownDrainSeconds() {
+        return shutdownDrainSeconds;
+    }
+    
+    public void setShutdownDrainSeconds(int shutdownDrainSeconds) {
+        this.shutdownDrainSeconds = shutdownDrainSeconds;
+    }
+}
\ No newline at end of file
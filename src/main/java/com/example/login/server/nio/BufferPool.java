@@ -0,0 +1,35 @@
+package com.example.login.server.nio;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+// Direct read buffers recycled by a single selector loop; not thread-safe by design
+final class BufferPool {
+    private final int bufferSize;
+    private final int maxRetained;
+    private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+    
+    BufferPool(int bufferSize, int maxRetained) {
+        this.bufferSize = bufferSize;
+        this.maxRetained = maxRetained;
+    }
+    
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.pollFirst();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+    
+    void release(ByteBuffer buffer) {
+        if (free.size() < maxRetained) {
+            free.offerFirst(buffer);
+        }
+    }
+    
+    int getBufferSize() {
+        return bufferSize;
+    }
+}
\ No newline at end of file
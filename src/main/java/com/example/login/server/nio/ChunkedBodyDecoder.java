@@ -0,0 +1,118 @@
+package com.example.login.server.nio;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Decodes a chunked request body on the loop thread as it arrives. Chunk
+// extensions and trailer fields are read and dropped, as HttpServer does. The
+// decoded body is held in one array that never grows past maxBytes.
+final class ChunkedBodyDecoder {
+    private enum State { SIZE, DATA, DATA_END, TRAILER, DONE }
+    
+    private static final int MAX_LINE_BYTES = 1024;
+    private static final int MAX_TRAILER_BYTES = 8 * 1024;
+    
+    private final int maxBytes;
+    private final StringBuilder line = new StringBuilder();
+    private State state = State.SIZE;
+    private byte[] body = new byte[256];
+    private int length;
+    private long chunkLeft;
+    private int trailerBytes;
+    
+    ChunkedBodyDecoder(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+    
+    // Consumes what it can from the buffer; true once the last chunk and trailers are in
+    boolean decode(ByteBuffer buffer) throws RequestHead.HttpParseException {
+        while (state != State.DONE && buffer.hasRemaining()) {
+            if (state == State.DATA) {
+                int count = (int) Math.min(buffer.remaining(), chunkLeft);
+                buffer.get(body, length, count);
+                length += count;
+                chunkLeft -= count;
+                if (chunkLeft == 0) {
+                    state = State.DATA_END;
+                }
+                continue;
+            }
+            if (!readLine(buffer)) {
+                break;
+            }
+            if (state == State.SIZE) {
+                startChunk(parseSize(line.toString()));
+            } else if (state == State.DATA_END) {
+                if (line.length() > 0) {
+                    throw new RequestHead.HttpParseException(400, "Missing CRLF after chunk data");
+                }
+                state = State.SIZE;
+            } else if (line.length() == 0) {
+                state = State.DONE;
+            } else {
+                trailerBytes += line.length();
+                if (trailerBytes > MAX_TRAILER_BYTES) {
+                    throw new RequestHead.HttpParseException(431, "Chunked trailer too large");
+                }
+            }
+            line.setLength(0);
+        }
+        return state == State.DONE;
+    }
+    
+    byte[] getBody() {
+        return length == body.length ? body : Arrays.copyOf(body, length);
+    }
+    
+    private void startChunk(long size) throws RequestHead.HttpParseException {
+        if (size == 0) {
+            state = State.TRAILER;
+            return;
+        }
+        if (size > maxBytes - length) {
+            throw new RequestHead.HttpParseException(413, "Chunked body too large");
+        }
+        if (length + size > body.length) {
+            body = Arrays.copyOf(body, (int) Math.min(maxBytes, Math.max(length + size, 2L * body.length)));
+        }
+        chunkLeft = size;
+        state = State.DATA;
+    }
+    
+    // Appends up to the next LF to the current line; false if the line is still incomplete
+    private boolean readLine(ByteBuffer buffer) throws RequestHead.HttpParseException {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                int last = line.length() - 1;
+                if (last >= 0 && line.charAt(last) == '\r') {
+                    line.setLength(last);
+                }
+                return true;
+            }
+            if (line.length() == MAX_LINE_BYTES) {
+                throw new RequestHead.HttpParseException(400, "Chunk line too long");
+            }
+            line.append((char) (b & 0xFF));
+        }
+        return false;
+    }
+    
+    // Hex digits only: no sign, no spaces inside, nothing Long.parseLong would also let through
+    private static long parseSize(String sizeLine) throws RequestHead.HttpParseException {
+        int extension = sizeLine.indexOf(';');
+        String digits = (extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim();
+        if (digits.isEmpty() || digits.length() > 15) {
+            throw new RequestHead.HttpParseException(400, "Invalid chunk size");
+        }
+        long size = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            int digit = Character.digit(digits.charAt(i), 16);
+            if (digit < 0) {
+                throw new RequestHead.HttpParseException(400, "Invalid chunk size");
+            }
+            size = size * 16 + digit;
+        }
+        return size;
+    }
+}
\ No newline at end of file
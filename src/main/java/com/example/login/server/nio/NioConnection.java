@@ -0,0 +1,360 @@
+package com.example.login.server.nio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One keep-alive connection. Requests are parsed on the loop thread and handed
+// to the engine one at a time; pipelined requests stay in the read buffer until
+// the previous response has been written, which keeps responses in order.
+// Workers block once more than WRITE_HIGH_WATER_BYTES are queued, so a big
+// response to a slow client waits for the socket instead of filling the heap.
+final class NioConnection {
+    private static final byte[] EMPTY_BODY = new byte[0];
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+    // Sentinels placed in the outbound queue by worker threads
+    private static final ByteBuffer END_OF_RESPONSE = ByteBuffer.allocate(0);
+    private static final ByteBuffer CLOSE_CONNECTION = ByteBuffer.allocate(0);
+    static final int WRITE_HIGH_WATER_BYTES = 256 * 1024;
+    static final int WRITE_LOW_WATER_BYTES = WRITE_HIGH_WATER_BYTES / 2;
+    
+    private final NioHttpEngine engine;
+    private final SelectorLoop loop;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final InetSocketAddress remoteAddress;
+    private final InetSocketAddress localAddress;
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    // Bytes in outbound not yet written; workers wait on drained while it is high
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicLong waitingWriters = new AtomicLong();
+    private final Object drained = new Object();
+    private ByteBuffer readBuffer;
+    private ByteBuffer currentWrite;
+    private RequestHead pendingHead;
+    private byte[] pendingBody;
+    private int pendingBodyLength;
+    private ChunkedBodyDecoder pendingChunks;
+    private boolean exchangeInFlight;
+    private boolean closeAfterResponse;
+    private volatile boolean closed;
+    // Set by a worker that gave up on a stalled client; the loop closes at once
+    private volatile boolean closeRequested;
+    private long lastActivity = System.currentTimeMillis();
+    
+    NioConnection(NioHttpEngine engine, SelectorLoop loop, SocketChannel channel, SelectionKey key)
+            throws IOException {
+        this.engine = engine;
+        this.loop = loop;
+        this.channel = channel;
+        this.key = key;
+        this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+        this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+    }
+    
+    // ---- loop thread ----
+    
+    void onReadable() {
+        if (readBuffer == null) {
+            readBuffer = loop.getBufferPool().acquire();
+        }
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        if (read < 0) {
+            close();
+            return;
+        }
+        lastActivity = System.currentTimeMillis();
+        processInput();
+    }
+    
+    // Parses as many complete requests as possible; buffer is in write mode on entry and exit
+    private void processInput() {
+        readBuffer.flip();
+        try {
+            while (!exchangeInFlight && !closed && readBuffer.hasRemaining()) {
+                if (pendingChunks != null) {
+                    if (!pendingChunks.decode(readBuffer)) {
+                        break;
+                    }
+                    RequestHead head = pendingHead;
+                    byte[] body = pendingChunks.getBody();
+                    pendingHead = null;
+                    pendingChunks = null;
+                    dispatch(head, body);
+                    continue;
+                }
+                if (pendingHead != null) {
+                    int count = Math.min(readBuffer.remaining(), pendingBody.length - pendingBodyLength);
+                    readBuffer.get(pendingBody, pendingBodyLength, count);
+                    pendingBodyLength += count;
+                    if (pendingBodyLength < pendingBody.length) {
+                        break;
+                    }
+                    RequestHead head = pendingHead;
+                    byte[] body = pendingBody;
+                    pendingHead = null;
+                    pendingBody = null;
+                    dispatch(head, body);
+                    continue;
+                }
+                
+                // Tolerate stray line breaks between pipelined requests
+                byte next = readBuffer.get(readBuffer.position());
+                if (next == '\r' || next == '\n') {
+                    readBuffer.get();
+                    continue;
+                }
+                
+                int headEnd = RequestHead.findEnd(readBuffer);
+                if (headEnd < 0) {
+                    if (readBuffer.remaining() == readBuffer.capacity()) {
+                        sendErrorAndClose(431);
+                    }
+                    break;
+                }
+                RequestHead head = RequestHead.parse(readBuffer, headEnd);
+                // Throws 400 for conflicting lengths, or a length next to Transfer-Encoding
+                long length = head.contentLength();
+                if (head.hasTransferEncoding()) {
+                    if (!head.isChunked()) {
+                        sendErrorAndClose(501);
+                        break;
+                    }
+                    if (head.expectsContinue() && !readBuffer.hasRemaining()) {
+                        write(ByteBuffer.wrap(CONTINUE));
+                    }
+                    // Decoded here as it arrives, bounded by maxRequestBytes like a fixed body
+                    pendingHead = head;
+                    pendingChunks = new ChunkedBodyDecoder(engine.getMaxRequestBytes());
+                    continue;
+                }
+                if (length > engine.getMaxRequestBytes()) {
+                    sendErrorAndClose(413);
+                    break;
+                }
+                if (length == 0) {
+                    dispatch(head, EMPTY_BODY);
+                } else {
+                    if (head.expectsContinue() && readBuffer.remaining() < length) {
+                        write(ByteBuffer.wrap(CONTINUE));
+                    }
+                    pendingHead = head;
+                    pendingBody = new byte[(int) length];
+                    pendingBodyLength = 0;
+                }
+            }
+        } catch (RequestHead.HttpParseException e) {
+            sendErrorAndClose(e.getStatus());
+        }
+        
+        if (readBuffer == null) {
+            return;
+        }
+        if (readBuffer.hasRemaining()) {
+            readBuffer.compact();
+        } else {
+            loop.getBufferPool().release(readBuffer);
+            readBuffer = null;
+        }
+    }
+    
+    private void dispatch(RequestHead head, byte[] body) {
+        NioContext context = engine.findContext(head.getUri().getPath());
+        if (context == null) {
+            sendError(404, !head.isKeepAlive());
+            return;
+        }
+        closeAfterResponse = !head.isKeepAlive();
+        startExchange();
+        engine.dispatch(new NioHttpExchange(this, context, head, body, closeAfterResponse));
+    }
+    
+    private void startExchange() {
+        exchangeInFlight = true;
+        if (key.isValid()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+    
+    private void sendErrorAndClose(int status) {
+        sendError(status, true);
+    }
+    
+    private void sendError(int status, boolean close) {
+        closeAfterResponse |= close;
+        startExchange();
+        String response = "HTTP/1.1 " + status + " " + NioHttpExchange.reasonPhrase(status) + "\r\n"
+                + "Content-Length: 0\r\n"
+                + (closeAfterResponse ? "Connection: close\r\n" : "")
+                + "\r\n";
+        write(ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)));
+        endResponse();
+    }
+    
+    void flush() {
+        if (closed) {
+            outbound.clear();
+            queuedBytes.set(0);
+            return;
+        }
+        if (closeRequested) {
+            close();
+            return;
+        }
+        try {
+            while (true) {
+                if (currentWrite == null) {
+                    currentWrite = outbound.poll();
+                    if (currentWrite == null) {
+                        break;
+                    }
+                    if (currentWrite == CLOSE_CONNECTION) {
+                        close();
+                        return;
+                    }
+                    if (currentWrite == END_OF_RESPONSE) {
+                        currentWrite = null;
+                        onResponseComplete();
+                        if (closed) {
+                            return;
+                        }
+                        continue;
+                    }
+                }
+                int written = channel.write(currentWrite);
+                if (queuedBytes.addAndGet(-written) <= WRITE_LOW_WATER_BYTES && waitingWriters.get() > 0) {
+                    wakeWriters();
+                }
+                if (currentWrite.hasRemaining()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                currentWrite = null;
+                lastActivity = System.currentTimeMillis();
+            }
+            if (key.isValid()) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+    
+    private void onResponseComplete() {
+        exchangeInFlight = false;
+        lastActivity = System.currentTimeMillis();
+        if (closeAfterResponse) {
+            close();
+            return;
+        }
+        // Serve the next pipelined request, if one is already buffered
+        if (readBuffer != null) {
+            processInput();
+        }
+        if (!exchangeInFlight && !closed && key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+    
+    boolean isIdleSince(long threshold) {
+        return !exchangeInFlight && lastActivity < threshold;
+    }
+    
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already broken, nothing more to release
+        }
+        if (readBuffer != null) {
+            loop.getBufferPool().release(readBuffer);
+            readBuffer = null;
+        }
+        outbound.clear();
+        queuedBytes.set(0);
+        wakeWriters();
+        loop.onClosed(this);
+    }
+    
+    private void wakeWriters() {
+        synchronized (drained) {
+            drained.notifyAll();
+        }
+    }
+    
+    // ---- any thread ----
+    
+    void write(ByteBuffer buffer) {
+        queuedBytes.addAndGet(buffer.remaining());
+        outbound.add(buffer);
+        loop.requestFlush(this);
+    }
+    
+    // Called by workers before queuing body bytes. Blocks while the queue is
+    // above the high-water mark until the loop drains it to the low-water mark;
+    // a client that reads nothing for IDLE_TIMEOUT_MILLIS is disconnected.
+    void awaitWritable() throws IOException {
+        if (queuedBytes.get() <= WRITE_HIGH_WATER_BYTES) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + NioHttpEngine.IDLE_TIMEOUT_MILLIS;
+        waitingWriters.incrementAndGet();
+        try {
+            synchronized (drained) {
+                while (!closed && queuedBytes.get() > WRITE_HIGH_WATER_BYTES) {
+                    long left = deadline - System.currentTimeMillis();
+                    if (left <= 0) {
+                        // abort() would queue behind the bytes the client is not reading
+                        closeRequested = true;
+                        loop.requestFlush(this);
+                        throw new IOException("Client stopped reading the response");
+                    }
+                    drained.wait(left);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the client to read");
+        } finally {
+            waitingWriters.decrementAndGet();
+        }
+        if (closed) {
+            throw new IOException("Connection closed");
+        }
+    }
+    
+    void endResponse() {
+        write(END_OF_RESPONSE);
+    }
+    
+    // Drops the connection once earlier output has been flushed
+    void abort() {
+        write(CLOSE_CONNECTION);
+    }
+    
+    InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+    
+    InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.example.login.server.nio;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+final class NioContext extends HttpContext {
+    private final String path;
+    private volatile HttpHandler handler;
+    private final List<Filter> filters = new CopyOnWriteArrayList<>();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private volatile Authenticator authenticator;
+    
+    NioContext(String path, HttpHandler handler) {
+        this.path = path;
+        this.handler = handler;
+    }
+    
+    @Override
+    public HttpHandler getHandler() {
+        return handler;
+    }
+    
+    @Override
+    public void setHandler(HttpHandler handler) {
+        this.handler = handler;
+    }
+    
+    @Override
+    public String getPath() {
+        return path;
+    }
+    
+    // There is no com.sun HttpServer behind this engine
+    @Override
+    public HttpServer getServer() {
+        return null;
+    }
+    
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+    
+    @Override
+    public List<Filter> getFilters() {
+        return filters;
+    }
+    
+    @Override
+    public Authenticator setAuthenticator(Authenticator auth) {
+        Authenticator previous = authenticator;
+        authenticator = auth;
+        return previous;
+    }
+    
+    @Override
+    public Authenticator getAuthenticator() {
+        return authenticator;
+    }
+}
\ No newline at end of file
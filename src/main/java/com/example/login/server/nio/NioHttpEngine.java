@@ -0,0 +1,167 @@
+package com.example.login.server.nio;
+
+import com.example.login.server.HttpEngine;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Non-blocking HTTP/1.1 front end: one selector loop per configured thread,
+// pooled direct read buffers, keep-alive with pipelined requests answered in
+// order. Handlers run on the supplied executor exactly as with HttpServer.
+public class NioHttpEngine implements HttpEngine {
+    static final int READ_BUFFER_SIZE = 16 * 1024;
+    static final long IDLE_TIMEOUT_MILLIS = 30_000;
+    
+    private final InetSocketAddress address;
+    private final int backlog;
+    private final int loopCount;
+    private final Executor executor;
+    private final int maxRequestBytes;
+    private final List<NioContext> contexts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private ServerSocketChannel serverChannel;
+    private SelectorLoop[] loops;
+    
+    public NioHttpEngine(InetSocketAddress address, int backlog, int loopCount, Executor executor,
+                         int maxRequestBytes) {
+        if (loopCount < 1) {
+            throw new IllegalArgumentException("Selector loop count must be positive: " + loopCount);
+        }
+        this.address = address;
+        this.backlog = backlog;
+        this.loopCount = loopCount;
+        this.executor = executor;
+        this.maxRequestBytes = maxRequestBytes;
+    }
+    
+    @Override
+    public HttpContext createContext(String path, HttpHandler handler) {
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Context path must start with /: " + path);
+        }
+        for (NioContext context : contexts) {
+            if (context.getPath().equals(path)) {
+                throw new IllegalArgumentException("Context already exists: " + path);
+            }
+        }
+        NioContext context = new NioContext(path, handler);
+        contexts.add(context);
+        return context;
+    }
+    
+    @Override
+    public void start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address, backlog);
+        
+        loops = new SelectorLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new SelectorLoop(this, i);
+        }
+        // The first loop also owns the listening socket and deals out connections
+        loops[0].registerAcceptor(serverChannel);
+        for (SelectorLoop loop : loops) {
+            loop.start();
+        }
+    }
+    
+    @Override
+    public void stop(int delaySeconds) {
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to close listening socket: " + e.getMessage());
+        }
+        
+        // Give in-flight exchanges up to the delay to finish, as HttpServer.stop does
+        long deadline = System.currentTimeMillis() + delaySeconds * 1000L;
+        while (inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        
+        if (loops != null) {
+            for (SelectorLoop loop : loops) {
+                loop.shutdown();
+            }
+        }
+    }
+    
+    @Override
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            return address;
+        }
+    }
+    
+    void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)].register(channel);
+        }
+    }
+    
+    // Longest matching prefix wins, mirroring HttpServer context selection
+    NioContext findContext(String path) {
+        NioContext best = null;
+        for (NioContext context : contexts) {
+            if (path.startsWith(context.getPath())
+                    && (best == null || context.getPath().length() > best.getPath().length())) {
+                best = context;
+            }
+        }
+        return best;
+    }
+    
+    void dispatch(NioHttpExchange exchange) {
+        inFlight.incrementAndGet();
+        Runnable task = () -> {
+            try {
+                NioContext context = exchange.getNioContext();
+                new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(exchange);
+            } catch (Throwable t) {
+                exchange.fail(t);
+            } finally {
+                exchange.close();
+                inFlight.decrementAndGet();
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            exchange.sendError(503);
+        }
+    }
+    
+    int getMaxRequestBytes() {
+        return maxRequestBytes;
+    }
+    
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
\ No newline at end of file
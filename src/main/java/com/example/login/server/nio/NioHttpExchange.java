@@ -0,0 +1,267 @@
+package com.example.login.server.nio;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// HttpExchange backed by an NioConnection, so existing HttpHandlers and Filters
+// run unchanged on the NIO engine
+final class NioHttpExchange extends HttpExchange {
+    private static volatile long cachedDateSecond;
+    private static volatile String cachedDate;
+    
+    private final NioConnection connection;
+    private final NioContext context;
+    private final RequestHead head;
+    private final boolean closeConnection;
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final ResponseBodyStream responseBody;
+    private InputStream requestBody;
+    private OutputStream userResponseBody;
+    private int responseCode = -1;
+    private boolean headersSent;
+    private boolean closed;
+    
+    NioHttpExchange(NioConnection connection, NioContext context, RequestHead head, byte[] body,
+                    boolean closeConnection) {
+        this.connection = connection;
+        this.context = context;
+        this.head = head;
+        this.closeConnection = closeConnection;
+        this.requestBody = new ByteArrayInputStream(body);
+        this.responseBody = new ResponseBodyStream(connection);
+    }
+    
+    @Override
+    public Headers getRequestHeaders() {
+        return head.getHeaders();
+    }
+    
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+    
+    @Override
+    public URI getRequestURI() {
+        return head.getUri();
+    }
+    
+    @Override
+    public String getRequestMethod() {
+        return head.getMethod();
+    }
+    
+    @Override
+    public HttpContext getHttpContext() {
+        return context;
+    }
+    
+    NioContext getNioContext() {
+        return context;
+    }
+    
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+    
+    @Override
+    public OutputStream getResponseBody() {
+        return userResponseBody != null ? userResponseBody : responseBody;
+    }
+    
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        if (headersSent) {
+            throw new IOException("Response headers already sent");
+        }
+        headersSent = true;
+        responseCode = rCode;
+        
+        boolean bodyAllowed = rCode >= 200 && rCode != 204 && rCode != 304;
+        boolean headRequest = "HEAD".equals(head.getMethod());
+        boolean close = closeConnection;
+        
+        StringBuilder builder = new StringBuilder(256);
+        builder.append("HTTP/1.1 ").append(rCode).append(' ').append(reasonPhrase(rCode)).append("\r\n");
+        if (!responseHeaders.containsKey("Date")) {
+            builder.append("Date: ").append(currentDate()).append("\r\n");
+        }
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            for (String value : header.getValue()) {
+                builder.append(header.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        
+        ResponseBodyStream.Mode mode;
+        if (!bodyAllowed) {
+            mode = ResponseBodyStream.Mode.NONE;
+        } else if (responseLength > 0) {
+            builder.append("Content-Length: ").append(responseLength).append("\r\n");
+            mode = headRequest ? ResponseBodyStream.Mode.NONE : ResponseBodyStream.Mode.FIXED;
+        } else if (responseLength == 0 && !headRequest) {
+            if (head.isHttp10()) {
+                // HTTP/1.0 clients cannot decode chunks; delimit the body by closing
+                close = true;
+                mode = ResponseBodyStream.Mode.RAW;
+            } else {
+                builder.append("Transfer-Encoding: chunked\r\n");
+                mode = ResponseBodyStream.Mode.CHUNKED;
+            }
+        } else {
+            builder.append("Content-Length: 0\r\n");
+            mode = ResponseBodyStream.Mode.NONE;
+        }
+        if (close) {
+            builder.append("Connection: close\r\n");
+        }
+        builder.append("\r\n");
+        
+        connection.write(ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.ISO_8859_1)));
+        responseBody.begin(mode, responseLength, close);
+    }
+    
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            requestBody.close();
+            if (!headersSent) {
+                // Same as HttpServer: an exchange closed without a response drops the connection
+                connection.abort();
+                return;
+            }
+            if (userResponseBody != null) {
+                userResponseBody.close();
+            }
+            responseBody.close();
+        } catch (IOException e) {
+            connection.abort();
+        }
+    }
+    
+    // Handler failed: answer 500 if nothing was sent yet, otherwise cut the connection
+    void fail(Throwable cause) {
+        System.err.println("Handler error for " + head.getMethod() + " " + head.getUri() + ": " + cause);
+        if (!headersSent) {
+            sendError(500);
+        } else {
+            connection.abort();
+        }
+    }
+    
+    void sendError(int status) {
+        try {
+            responseHeaders.clear();
+            sendResponseHeaders(status, -1);
+        } catch (IOException e) {
+            connection.abort();
+        }
+        close();
+    }
+    
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+    
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+    
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return connection.getLocalAddress();
+    }
+    
+    @Override
+    public String getProtocol() {
+        return head.getProtocol();
+    }
+    
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+    
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+    
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        if (i != null) {
+            requestBody = i;
+        }
+        if (o != null) {
+            userResponseBody = o;
+        }
+    }
+    
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+    
+    // RFC 1123 date, formatted at most once per second across all exchanges
+    private static String currentDate() {
+        long second = System.currentTimeMillis() / 1000;
+        String date = cachedDate;
+        if (date == null || second != cachedDateSecond) {
+            date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC));
+            cachedDate = date;
+            cachedDateSecond = second;
+        }
+        return date;
+    }
+    
+    static String reasonPhrase(int status) {
+        switch (status) {
+            case 100: return "Continue";
+            case 200: return "OK";
+            case 204: return "No Content";
+            case 206: return "Partial Content";
+            case 304: return "Not Modified";
+            case 400: return "Bad Request";
+            case 401: return "Unauthorized";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 413: return "Payload Too Large";
+            case 416: return "Range Not Satisfiable";
+            case 429: return "Too Many Requests";
+            case 431: return "Request Header Fields Too Large";
+            case 500: return "Internal Server Error";
+            case 501: return "Not Implemented";
+            case 503: return "Service Unavailable";
+            case 505: return "HTTP Version Not Supported";
+            default: return "Status " + status;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.example.login.server.nio;
+
+import com.sun.net.httpserver.Headers;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+// Request line and headers of one HTTP/1.x request
+final class RequestHead {
+    private final String method;
+    private final URI uri;
+    private final String protocol;
+    private final Headers headers;
+    
+    private RequestHead(String method, URI uri, String protocol, Headers headers) {
+        this.method = method;
+        this.uri = uri;
+        this.protocol = protocol;
+        this.headers = headers;
+    }
+    
+    // Returns the index just past the blank line ending the head, or -1 if incomplete
+    static int findEnd(ByteBuffer buffer) {
+        int limit = buffer.limit();
+        for (int i = buffer.position(); i + 3 < limit; i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n'
+                    && buffer.get(i + 2) == '\r' && buffer.get(i + 3) == '\n') {
+                return i + 4;
+            }
+        }
+        return -1;
+    }
+    
+    // Consumes the head from the buffer, leaving its position at the first body byte
+    static RequestHead parse(ByteBuffer buffer, int end) throws HttpParseException {
+        byte[] bytes = new byte[end - buffer.position()];
+        buffer.get(bytes);
+        
+        int lineEnd = indexOfCrlf(bytes, 0);
+        String requestLine = new String(bytes, 0, lineEnd, StandardCharsets.ISO_8859_1);
+        int firstSpace = requestLine.indexOf(' ');
+        int lastSpace = requestLine.lastIndexOf(' ');
+        if (firstSpace <= 0 || lastSpace == firstSpace) {
+            throw new HttpParseException(400, "Malformed request line");
+        }
+        String method = requestLine.substring(0, firstSpace);
+        String target = requestLine.substring(firstSpace + 1, lastSpace);
+        String protocol = requestLine.substring(lastSpace + 1);
+        if (!protocol.startsWith("HTTP/1.")) {
+            throw new HttpParseException(505, "Unsupported protocol " + protocol);
+        }
+        
+        URI uri;
+        try {
+            uri = new URI(target);
+        } catch (URISyntaxException e) {
+            throw new HttpParseException(400, "Malformed request target");
+        }
+        if (uri.getPath() == null || !uri.getPath().startsWith("/")) {
+            throw new HttpParseException(400, "Unsupported request target");
+        }
+        
+        Headers headers = new Headers();
+        int pos = lineEnd + 2;
+        while (pos < bytes.length) {
+            int eol = indexOfCrlf(bytes, pos);
+            if (eol == pos) {
+                break;
+            }
+            int colon = -1;
+            for (int i = pos; i < eol; i++) {
+                if (bytes[i] == ':') {
+                    colon = i;
+                    break;
+                }
+            }
+            if (colon <= pos) {
+                throw new HttpParseException(400, "Malformed header line");
+            }
+            String name = new String(bytes, pos, colon - pos, StandardCharsets.ISO_8859_1);
+            String value = new String(bytes, colon + 1, eol - colon - 1, StandardCharsets.ISO_8859_1).trim();
+            headers.add(name, value);
+            pos = eol + 2;
+        }
+        return new RequestHead(method, uri, protocol, headers);
+    }
+    
+    private static int indexOfCrlf(byte[] bytes, int from) {
+        for (int i = from; i + 1 < bytes.length; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+    
+    // Repeated or comma-separated lengths are accepted only when they all
+    // agree, and never next to Transfer-Encoding: a proxy in front may pick a
+    // different one, and the difference would smuggle a second request.
+    long contentLength() throws HttpParseException {
+        List<String> values = headers.get("Content-Length");
+        if (values == null || values.isEmpty()) {
+            return 0;
+        }
+        if (hasTransferEncoding()) {
+            throw new HttpParseException(400, "Content-Length with Transfer-Encoding");
+        }
+        long length = -1;
+        for (String value : values) {
+            for (String part : value.split(",", -1)) {
+                long parsed = parseLength(part);
+                if (length >= 0 && parsed != length) {
+                    throw new HttpParseException(400, "Conflicting Content-Length values");
+                }
+                length = parsed;
+            }
+        }
+        return length;
+    }
+    
+    private static long parseLength(String value) throws HttpParseException {
+        try {
+            long length = Long.parseLong(value.trim());
+            if (length < 0) {
+                throw new HttpParseException(400, "Negative Content-Length");
+            }
+            return length;
+        } catch (NumberFormatException e) {
+            throw new HttpParseException(400, "Invalid Content-Length");
+        }
+    }
+    
+    boolean hasTransferEncoding() {
+        return headers.containsKey("Transfer-Encoding");
+    }
+    
+    // Only plain "chunked" is decoded; any other coding, alone or stacked, gets a 501
+    boolean isChunked() {
+        List<String> values = headers.get("Transfer-Encoding");
+        int codings = 0;
+        boolean chunked = false;
+        for (String value : values) {
+            for (String part : value.split(",")) {
+                if (!part.isBlank()) {
+                    codings++;
+                    chunked = "chunked".equalsIgnoreCase(part.trim());
+                }
+            }
+        }
+        return codings == 1 && chunked;
+    }
+    
+    boolean expectsContinue() {
+        return "100-continue".equalsIgnoreCase(headers.getFirst("Expect"));
+    }
+    
+    boolean isHttp10() {
+        return "HTTP/1.0".equals(protocol);
+    }
+    
+    boolean isKeepAlive() {
+        String connection = headers.getFirst("Connection");
+        String tokens = connection == null ? "" : connection.toLowerCase(Locale.ROOT);
+        if (isHttp10()) {
+            return tokens.contains("keep-alive");
+        }
+        return !tokens.contains("close");
+    }
+    
+    String getMethod() {
+        return method;
+    }
+    
+    URI getUri() {
+        return uri;
+    }
+    
+    String getProtocol() {
+        return protocol;
+    }
+    
+    Headers getHeaders() {
+        return headers;
+    }
+    
+    static final class HttpParseException extends IOException {
+        private static final long serialVersionUID = 1L;
+        
+        private final int status;
+        
+        HttpParseException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+        
+        int getStatus() {
+            return status;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.example.login.server.nio;
+
+import com.example.login.server.ByteBufferSink;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Response body writer used by worker threads. Bytes are batched into chunks and
+// queued on the connection; the selector loop does the actual socket writes.
+// Each write first waits for the connection's queue to drain below its
+// high-water mark, so a handler can never run far ahead of the client.
+final class ResponseBodyStream extends OutputStream implements ByteBufferSink {
+    enum Mode { PENDING, FIXED, CHUNKED, RAW, NONE }
+    
+    private static final int CHUNK_SIZE = 8192;
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+    
+    private final NioConnection connection;
+    private Mode mode = Mode.PENDING;
+    private long remaining;
+    private boolean closeWhenDone;
+    private byte[] buffer;
+    private int count;
+    private boolean closed;
+    
+    ResponseBodyStream(NioConnection connection) {
+        this.connection = connection;
+    }
+    
+    void begin(Mode mode, long length, boolean closeWhenDone) {
+        this.mode = mode;
+        this.remaining = length;
+        this.closeWhenDone = closeWhenDone;
+    }
+    
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+    
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (!accept(length)) {
+            return;
+        }
+        
+        if (buffer == null) {
+            // Small fixed-length bodies get an exactly sized buffer
+            int size = mode == Mode.FIXED ? (int) Math.min(CHUNK_SIZE, remaining + length) : CHUNK_SIZE;
+            buffer = new byte[Math.max(size, 1)];
+        }
+        if (count + length > buffer.length) {
+            flushBuffer();
+            if (length >= CHUNK_SIZE) {
+                byte[] copy = new byte[length];
+                System.arraycopy(bytes, offset, copy, 0, length);
+                emit(copy, length);
+                return;
+            }
+            buffer = new byte[CHUNK_SIZE];
+        }
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+    
+    // Queues the buffer itself, e.g. a slice of a mapped file, so the selector
+    // loop writes straight from it without a copy into a heap chunk
+    @Override
+    public void write(ByteBuffer data) throws IOException {
+        int length = data.remaining();
+        if (!accept(length)) {
+            data.position(data.limit());
+            return;
+        }
+        flushBuffer();
+        connection.awaitWritable();
+        ByteBuffer slice = data.slice();
+        data.position(data.limit());
+        if (mode == Mode.CHUNKED) {
+            connection.write(ByteBuffer.wrap((Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.ISO_8859_1)));
+            connection.write(slice);
+            connection.write(ByteBuffer.wrap(CRLF));
+        } else {
+            connection.write(slice);
+        }
+    }
+    
+    // Checks state and Content-Length accounting; false means the bytes are to be dropped
+    private boolean accept(int length) throws IOException {
+        if (closed) {
+            throw new IOException("Response body already closed");
+        }
+        if (mode == Mode.PENDING) {
+            throw new IOException("Response headers not sent");
+        }
+        if (mode == Mode.NONE || length == 0) {
+            return false;
+        }
+        if (mode == Mode.FIXED) {
+            if (length > remaining) {
+                throw new IOException("Response body exceeds declared Content-Length");
+            }
+            remaining -= length;
+        }
+        return true;
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+    
+    private void flushBuffer() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        emit(buffer, count);
+        // The array now belongs to the outbound queue
+        buffer = null;
+        count = 0;
+    }
+    
+    private void emit(byte[] data, int length) throws IOException {
+        connection.awaitWritable();
+        if (mode == Mode.CHUNKED) {
+            byte[] size = (Integer.toHexString(length) + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+            connection.write(ByteBuffer.wrap(size));
+            connection.write(ByteBuffer.wrap(data, 0, length));
+            connection.write(ByteBuffer.wrap(CRLF));
+        } else {
+            connection.write(ByteBuffer.wrap(data, 0, length));
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (closed || mode == Mode.PENDING) {
+            return;
+        }
+        closed = true;
+        flushBuffer();
+        if (mode == Mode.CHUNKED) {
+            connection.write(ByteBuffer.wrap(LAST_CHUNK));
+        }
+        if (closeWhenDone || (mode == Mode.FIXED && remaining > 0)) {
+            // Close-delimited body, or the handler wrote less than it declared
+            connection.abort();
+        } else {
+            connection.endResponse();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.example.login.server.nio;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Single-threaded event loop. Everything touching a connection's channel, key
+// or read buffer happens here; worker threads only enqueue output and wake us.
+final class SelectorLoop implements Runnable {
+    private final NioHttpEngine engine;
+    private final Selector selector;
+    private final Thread thread;
+    private final BufferPool bufferPool = new BufferPool(NioHttpEngine.READ_BUFFER_SIZE, 256);
+    private final Queue<SocketChannel> pendingChannels = new ConcurrentLinkedQueue<>();
+    private final Queue<NioConnection> pendingFlushes = new ConcurrentLinkedQueue<>();
+    private final Set<NioConnection> connections = new HashSet<>();
+    private volatile boolean running = true;
+    private long lastIdleScan = System.currentTimeMillis();
+    
+    SelectorLoop(NioHttpEngine engine, int index) throws IOException {
+        this.engine = engine;
+        this.selector = Selector.open();
+        this.thread = new Thread(this, "nio-loop-" + index);
+    }
+    
+    void start() {
+        thread.start();
+    }
+    
+    void registerAcceptor(ServerSocketChannel serverChannel) throws IOException {
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+    
+    void register(SocketChannel channel) {
+        pendingChannels.add(channel);
+        selector.wakeup();
+    }
+    
+    // Called after response bytes are queued; on the loop thread itself the
+    // wakeup simply makes the next select return immediately
+    void requestFlush(NioConnection connection) {
+        pendingFlushes.add(connection);
+        selector.wakeup();
+    }
+    
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select(1000);
+                registerPendingChannels();
+                processPendingFlushes();
+                processSelectedKeys();
+                closeIdleConnections();
+            } catch (IOException e) {
+                System.err.println("Selector loop error: " + e.getMessage());
+            }
+        }
+        for (NioConnection connection : new ArrayList<>(connections)) {
+            connection.close();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close selector: " + e.getMessage());
+        }
+    }
+    
+    private void registerPendingChannels() {
+        SocketChannel channel;
+        while ((channel = pendingChannels.poll()) != null) {
+            try {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                NioConnection connection = new NioConnection(engine, this, channel, key);
+                key.attach(connection);
+                connections.add(connection);
+            } catch (IOException e) {
+                closeQuietly(channel);
+            }
+        }
+    }
+    
+    private void processPendingFlushes() {
+        NioConnection connection;
+        while ((connection = pendingFlushes.poll()) != null) {
+            connection.flush();
+        }
+    }
+    
+    private void processSelectedKeys() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            try {
+                if (key.isAcceptable()) {
+                    engine.accept();
+                    continue;
+                }
+                NioConnection connection = (NioConnection) key.attachment();
+                if (key.isWritable()) {
+                    connection.flush();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.onReadable();
+                }
+            } catch (CancelledKeyException e) {
+                // Connection closed while its key was being processed
+            }
+        }
+    }
+    
+    private void closeIdleConnections() {
+        long now = System.currentTimeMillis();
+        if (now - lastIdleScan < 1000) {
+            return;
+        }
+        lastIdleScan = now;
+        for (NioConnection connection : new ArrayList<>(connections)) {
+            if (connection.isIdleSince(now - NioHttpEngine.IDLE_TIMEOUT_MILLIS)) {
+                connection.close();
+            }
+        }
+    }
+    
+    void onClosed(NioConnection connection) {
+        connections.remove(connection);
+    }
+    
+    BufferPool getBufferPool() {
+        return bufferPool;
+    }
+    
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing useful left to do with a channel we failed to register
+        }
+    }
+}
\ No newline at end of file
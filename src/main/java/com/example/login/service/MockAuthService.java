@@ -3,57 +3,235 @@ package com.example.login.service;
 import com.example.login.model.User;
 import com.example.login.model.LoginRequest;
 import com.example.login.model.LoginResponse;
+import com.example.login.security.CredentialCache;
+import com.example.login.security.HashingPool;
+import com.example.login.security.PasswordHasher;
+import com.example.login.session.Session;
+import com.example.login.session.TokenGenerator;
+import com.example.login.session.TokenService;
+import com.example.login.store.ConcurrentUserStore;
+import com.example.login.store.UserStore;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 
 public class MockAuthService {
-    private Map<String, User> users;
+    private static final String[][] DEMO_ACCOUNTS = {
+        {"admin", "admin123", "ADMIN"},
+        {"user", "password", "USER"},
+        {"demo", "demo", "USER"},
+        {"test", "test123", "USER"},
+        {"manager", "manager123", "MANAGER"}
+    };
+    
+    private final UserStore users;
+    private final HashingPool hashingPool;
+    private final PasswordHasher hasher;
+    private volatile CredentialCache credentialCache;
+    private volatile TokenService tokens;
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
     
     public MockAuthService() {
-        initializeUsers();
+        this(new ConcurrentUserStore());
+        users.load(defaultUsers());
+    }
+    
+    // Uses the store as given, e.g. one bulk loaded from a user file
+    public MockAuthService(UserStore users) {
+        this(users, HashingPool.shared(), new PasswordHasher());
+    }
+    
+    // Passwords are verified and hashed on hashingPool; new hashes use hasher's work factor
+    public MockAuthService(UserStore users, HashingPool hashingPool, PasswordHasher hasher) {
+        this.users = users;
+        this.hashingPool = hashingPool;
+        this.hasher = hasher;
     }
     
-    private void initializeUsers() {
-        users = new HashMap<>();
-        users.put("admin", new User("admin", "admin123", "ADMIN"));
-        users.put("user", new User("user", "password", "USER"));
-        users.put("demo", new User("demo", "demo", "USER"));
-        users.put("test", new User("test", "test123", "USER"));
-        users.put("manager", new User("manager", "manager123", "MANAGER"));
+    // The demo accounts listed on the login page. Their passwords are public,
+    // so they are hashed with a token work factor to keep startup and tests fast.
+    public static List<User> defaultUsers() {
+        PasswordHasher demoHasher = new PasswordHasher(PasswordHasher.DEMO_ITERATIONS);
+        List<User> accounts = new ArrayList<>(DEMO_ACCOUNTS.length);
+        for (String[] account : DEMO_ACCOUNTS) {
+            User user = new User(account[0], null, account[2]);
+            user.setPasswordHash(demoHasher.hash(account[1]));
+            accounts.add(user);
+        }
+        return accounts;
     }
     
     public LoginResponse authenticate(LoginRequest request) {
-        if (request == null || request.getUsername() == null || request.getPassword() == null) {
-            return new LoginResponse(false, "Username and password are required");
+        LoginResponse invalid = checkRequest(request);
+        if (invalid != null) {
+            return invalid;
         }
         
-        String username = request.getUsername().trim();
-        String password = request.getPassword().trim();
-        
-        if (username.isEmpty() || password.isEmpty()) {
-            return new LoginResponse(false, "Username and password cannot be empty");
+        User user = users.find(request.getUsername().trim());
+        if (user != null && verify(user, request.getPassword().trim())) {
+            return loggedIn(user);
         }
         
-        User user = users.get(username);
-        if (user != null && user.getPassword().equals(password)) {
-            String token = generateToken();
-            return new LoginResponse(true, "Login successful", token, user.getRole());
+        return invalidCredentials();
+    }
+    
+    // Starts an authentication without waiting for it, for callers that run
+    // many at once. Requests that need no password hash (malformed, unknown
+    // user, cached credentials) come back already completed; the rest run on
+    // the hashing pool. Throws RejectedExecutionException when the pool is full.
+    public Future<LoginResponse> authenticateAsync(LoginRequest request) {
+        LoginResponse invalid = checkRequest(request);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(invalid);
         }
         
+        String password = request.getPassword().trim();
+        User user = users.find(request.getUsername().trim());
+        if (user == null) {
+            return CompletableFuture.completedFuture(invalidCredentials());
+        }
+        CredentialCache cache = credentialCache;
+        if (cache != null && cache.isVerified(user.getUsername(), password, user.getPasswordHash())) {
+            return CompletableFuture.completedFuture(loggedIn(user));
+        }
+        return hashingPool.submit(() -> verifyHash(user, password)
+                ? loggedIn(user) : invalidCredentials());
+    }
+    
+    // Adds or replaces an account, hashing the password with the configured work factor
+    public void addUser(String username, String password, String role) {
+        User user = new User(username, null, role);
+        user.setPasswordHash(hashingPool.hash(hasher, password));
+        users.put(user);
+    }
+    
+    // Replaces the password of an existing account; false if there is none.
+    // Cached verifications of the old password stop matching the new hash.
+    public boolean changePassword(String username, String newPassword) {
+        User current = users.find(username);
+        if (current == null) {
+            return false;
+        }
+        User user = new User(username, null, current.getRole());
+        user.setPasswordHash(hashingPool.hash(hasher, newPassword));
+        users.put(user);
+        return true;
+    }
+    
+    // Throws RejectedExecutionException when the hashing pool is saturated
+    private boolean verify(User user, String password) {
+        CredentialCache cache = credentialCache;
+        if (cache != null && cache.isVerified(user.getUsername(), password, user.getPasswordHash())) {
+            return true;
+        }
+        return hashingPool.call(() -> verifyHash(user, password));
+    }
+    
+    // Runs on the hashing pool; successes are remembered for the credential cache
+    private boolean verifyHash(User user, String password) {
+        String passwordHash = user.getPasswordHash();
+        if (!PasswordHasher.verify(password, passwordHash)) {
+            return false;
+        }
+        CredentialCache cache = credentialCache;
+        if (cache != null) {
+            cache.verified(user.getUsername(), password, passwordHash);
+        }
+        return true;
+    }
+    
+    private static LoginResponse checkRequest(LoginRequest request) {
+        if (request == null || request.getUsername() == null || request.getPassword() == null) {
+            return new LoginResponse(false, "Username and password are required");
+        }
+        if (request.getUsername().trim().isEmpty() || request.getPassword().trim().isEmpty()) {
+            return new LoginResponse(false, "Username and password cannot be empty");
+        }
+        return null;
+    }
+    
+    private LoginResponse loggedIn(User user) {
+        succeeded.increment();
+        TokenService service = tokens;
+        String token = service != null ? service.issue(user.getUsername(), user.getRole()).getToken()
+                : TokenGenerator.newToken();
+        return new LoginResponse(true, "Login successful", token, user.getRole());
+    }
+    
+    private LoginResponse invalidCredentials() {
+        failed.increment();
         return new LoginResponse(false, "Invalid username or password");
     }
     
+    // With a token service only issued, unexpired, unrevoked tokens pass;
+    // without one any well-formed token does, as before
     public boolean validateToken(String token) {
-        // Simple mock token validation
+        TokenService service = tokens;
+        if (service != null) {
+            return service.validate(token) != null;
+        }
         return token != null && token.startsWith("token_") && token.length() > 10;
     }
     
-    private String generateToken() {
-        return "token_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+    // Session behind a token, or null; requires a token service
+    public Session getSession(String token) {
+        TokenService service = tokens;
+        return service != null ? service.validate(token) : null;
+    }
+    
+    // Ends a session; false if the token was not live or there is no token service
+    public boolean logout(String token) {
+        TokenService service = tokens;
+        return service != null && service.revoke(token);
     }
     
+    // Defensive copy; iterate getUserStore().users() to avoid copying
     public Map<String, User> getAllUsers() {
-        return new HashMap<>(users);
+        Map<String, User> copy = new HashMap<>(users.size() * 4 / 3 + 1);
+        for (User user : users.users()) {
+            copy.put(user.getUsername(), user);
+        }
+        return copy;
+    }
+    
+    public UserStore getUserStore() {
+        return users;
+    }
+    
+    public HashingPool getHashingPool() {
+        return hashingPool;
+    }
+    
+    public long getSuccessCount() {
+        return succeeded.sum();
+    }
+    
+    // Wrong password or unknown user; malformed and throttled requests are not counted
+    public long getFailureCount() {
+        return failed.sum();
+    }
+    
+    public CredentialCache getCredentialCache() {
+        return credentialCache;
+    }
+    
+    // Opt-in; null turns caching off
+    public void setCredentialCache(CredentialCache credentialCache) {
+        this.credentialCache = credentialCache;
+    }
+    
+    public TokenService getTokenService() {
+        return tokens;
+    }
+    
+    // Issues tokens that can be validated, expire and be revoked: a
+    // SessionStore or a SignedTokenService
+    public void setTokenService(TokenService tokens) {
+        this.tokens = tokens;
     }
 }
\ No newline at end of file
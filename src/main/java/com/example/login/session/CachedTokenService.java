@@ -0,0 +1,103 @@
+package com.example.login.session;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Remembers recent validation results in front of another TokenService, so
+// the tokens a busy client presents on every request skip the signature
+// check (signed mode) or the session table (session mode). A hit still
+// checks the session's own expiry. Entries live for at most cacheMillis;
+// revocations through this service drop the entry at once, revocations that
+// bypass it are seen within cacheMillis. When the table reaches maxEntries
+// it is simply cleared: that costs O(1) per insert amortised, and the hot
+// tokens are back after one validation each.
+public class CachedTokenService implements TokenService {
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    public static final long DEFAULT_CACHE_MILLIS = 1000;
+    
+    private final TokenService delegate;
+    private final int maxEntries;
+    private final long cacheMillis;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public CachedTokenService(TokenService delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_CACHE_MILLIS);
+    }
+    
+    public CachedTokenService(TokenService delegate, int maxEntries, long cacheMillis) {
+        if (maxEntries < 1 || cacheMillis < 1) {
+            throw new IllegalArgumentException("Token cache needs a positive size and lifetime");
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.cacheMillis = cacheMillis;
+    }
+    
+    @Override
+    public Session issue(String username, String role) {
+        return delegate.issue(username, role);
+    }
+    
+    @Override
+    public Session validate(String token) {
+        if (token == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(token);
+        if (entry != null && now < entry.cachedUntil && now < entry.session.getExpiresAt()) {
+            hits.increment();
+            return entry.session;
+        }
+        misses.increment();
+        Session session = delegate.validate(token);
+        if (session == null) {
+            if (entry != null) {
+                entries.remove(token, entry);
+            }
+            return null;
+        }
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+        entries.put(token, new Entry(session, now + cacheMillis));
+        return session;
+    }
+    
+    @Override
+    public boolean revoke(String token) {
+        if (token != null) {
+            entries.remove(token);
+        }
+        return delegate.revoke(token);
+    }
+    
+    public TokenService getDelegate() {
+        return delegate;
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    private static final class Entry {
+        private final Session session;
+        private final long cachedUntil;
+        
+        Entry(Session session, long cachedUntil) {
+            this.session = session;
+            this.cachedUntil = cachedUntil;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.login.session;
+
+// One issued token and who it was issued to. Times are epoch milliseconds;
+// for server-side sessions the expiry slides forward while in use.
+public class Session {
+    private final String token;
+    private final String username;
+    private final String role;
+    private final long createdAt;
+    private volatile long expiresAt;
+    
+    Session(String token, String username, String role, long createdAt, long expiresAt) {
+        this.token = token;
+        this.username = username;
+        this.role = role;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+    
+    public String getToken() {
+        return token;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getRole() {
+        return role;
+    }
+    
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+    
+    void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.example.login.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Issued tokens mapped to their sessions. Validation is one hash lookup plus
+// a deadline check. Expiry uses a hashed timing wheel: each session sits in
+// the bucket for the tick its deadline falls in, and advancing the wheel only
+// visits the buckets whose ticks have passed, never the whole table.
+//
+// Sliding expiry just moves the deadline; the session stays in its old
+// bucket and is re-filed when that bucket comes round with the deadline
+// still ahead. Revoked sessions leave the map at once and are skipped when
+// their bucket is reached. The wheel advances on writes, so no thread is
+// needed; at maxSessions the session closest to expiry makes room.
+public class SessionStore implements TokenService {
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    public static final int DEFAULT_MAX_SESSIONS = 1_000_000;
+    
+    private static final int WHEEL_SIZE = 512;
+    
+    private final long ttlMillis;
+    private final int maxSessions;
+    private final long tickMillis;
+    private final Map<String, Session> sessions;
+    private final Queue<Session>[] wheel;
+    private final ReentrantLock advanceLock = new ReentrantLock();
+    private volatile long processedTick;
+    private final LongAdder created = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder revoked = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    
+    public SessionStore() {
+        this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_SESSIONS);
+    }
+    
+    public SessionStore(long ttlMillis, int maxSessions) {
+        if (ttlMillis < 1 || maxSessions < 1) {
+            throw new IllegalArgumentException("Session store needs a positive TTL and size");
+        }
+        this.ttlMillis = ttlMillis;
+        this.maxSessions = maxSessions;
+        // One rotation spans the TTL, so a fresh deadline is always less than a turn away
+        this.tickMillis = Math.max(1, (ttlMillis + WHEEL_SIZE - 1) / WHEEL_SIZE);
+        this.sessions = new ConcurrentHashMap<>(Math.min(maxSessions, 1 << 16));
+        this.wheel = newWheel();
+        this.processedTick = System.currentTimeMillis() / tickMillis;
+    }
+    
+    // Java cannot create a generic array directly; the cast is safe because
+    // the array never leaves this class and only ever holds Queue<Session>
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Queue<Session>[] newWheel() {
+        Queue<Session>[] wheel = new Queue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        return wheel;
+    }
+    
+    @Override
+    public Session issue(String username, String role) {
+        while (true) {
+            try {
+                return create(TokenGenerator.newToken(), username, role);
+            } catch (IllegalStateException e) {
+                // Token collision, draw another
+            }
+        }
+    }
+    
+    public Session create(String token, String username, String role) {
+        long now = System.currentTimeMillis();
+        advance(now);
+        if (sessions.size() >= maxSessions) {
+            evictSoonest();
+        }
+        Session session = new Session(token, username, role, now, now + ttlMillis);
+        if (sessions.putIfAbsent(token, session) != null) {
+            throw new IllegalStateException("Duplicate session token");
+        }
+        schedule(session);
+        created.increment();
+        return session;
+    }
+    
+    // The live session for this token, with its expiry pushed out, or null
+    @Override
+    public Session validate(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = session.getExpiresAt();
+        if (expiresAt - now <= 0) {
+            if (sessions.remove(token, session)) {
+                expired.increment();
+            }
+            return null;
+        }
+        // Write the new deadline at most once per tick to keep hot sessions cheap
+        if (now + ttlMillis - expiresAt >= tickMillis) {
+            session.setExpiresAt(now + ttlMillis);
+        }
+        return session;
+    }
+    
+    @Override
+    public boolean revoke(String token) {
+        if (token == null || sessions.remove(token) == null) {
+            return false;
+        }
+        revoked.increment();
+        return true;
+    }
+    
+    public int size() {
+        return sessions.size();
+    }
+    
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+    
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+    
+    public long getCreatedCount() {
+        return created.sum();
+    }
+    
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+    
+    public long getRevokedCount() {
+        return revoked.sum();
+    }
+    
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+    
+    // Reaps everything that has expired by now; create() does this as it goes
+    public void expire() {
+        advanceLock.lock();
+        try {
+            advanceTo(System.currentTimeMillis() / tickMillis);
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+    
+    private void advance(long now) {
+        if (now / tickMillis > processedTick && advanceLock.tryLock()) {
+            try {
+                advanceTo(now / tickMillis);
+            } finally {
+                advanceLock.unlock();
+            }
+        }
+    }
+    
+    // Caller holds advanceLock
+    private void advanceTo(long tick) {
+        long from = processedTick;
+        // After a long idle spell every bucket is due, but each needs visiting only once
+        long first = Math.max(from + 1, tick - WHEEL_SIZE + 1);
+        long now = System.currentTimeMillis();
+        for (long t = first; t <= tick; t++) {
+            processedTick = t;
+            processBucket(wheel[(int) (t & (WHEEL_SIZE - 1))], now);
+        }
+        processedTick = Math.max(processedTick, tick);
+    }
+    
+    private void processBucket(Queue<Session> bucket, long now) {
+        List<Session> due = new ArrayList<>();
+        Session session;
+        while ((session = bucket.poll()) != null) {
+            due.add(session);
+        }
+        for (Session candidate : due) {
+            if (sessions.get(candidate.getToken()) != candidate) {
+                // Revoked, evicted or already reaped by validate()
+                continue;
+            }
+            if (candidate.getExpiresAt() - now <= 0) {
+                if (sessions.remove(candidate.getToken(), candidate)) {
+                    expired.increment();
+                }
+            } else {
+                schedule(candidate);
+            }
+        }
+    }
+    
+    private void schedule(Session session) {
+        long tick = Math.max((session.getExpiresAt() + tickMillis - 1) / tickMillis, processedTick + 1);
+        wheel[(int) (tick & (WHEEL_SIZE - 1))].add(session);
+    }
+    
+    // Drops the live session nearest to expiry, walking the wheel from the
+    // next due bucket. Sessions whose deadline slid past their bucket are
+    // re-filed on the way.
+    private void evictSoonest() {
+        advanceLock.lock();
+        try {
+            long start = processedTick + 1;
+            for (long t = start; t < start + WHEEL_SIZE && sessions.size() >= maxSessions; t++) {
+                Queue<Session> bucket = wheel[(int) (t & (WHEEL_SIZE - 1))];
+                List<Session> later = new ArrayList<>();
+                Session session;
+                while (sessions.size() >= maxSessions && (session = bucket.poll()) != null) {
+                    if (sessions.get(session.getToken()) != session) {
+                        continue;
+                    }
+                    long tick = (session.getExpiresAt() + tickMillis - 1) / tickMillis;
+                    if (tick > t) {
+                        later.add(session);
+                    } else if (sessions.remove(session.getToken(), session)) {
+                        evicted.increment();
+                    }
+                }
+                for (Session moved : later) {
+                    schedule(moved);
+                }
+            }
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.example.login.session;
+
+import com.example.login.store.CountingBloomFilter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+// Stateless tokens any node holding the key can check without a lookup:
+//   token_<key id>.<base64url payload>.<base64url signature>
+// The payload is issued-at and expiry (epoch millis), the role and the
+// username; the signature is HMAC-SHA256 over "<key id>.<payload>", cut to
+// 128 bits. Each key keeps a per-thread Mac already initialised with it.
+//
+// Rotation: rotate() makes a new key the signing key while older ones still
+// verify until removeKey(). Revocation: revoked tokens are kept until they
+// would have expired anyway, behind a counting Bloom filter so the common
+// case of a token that was never revoked costs no map lookup.
+public class SignedTokenService implements TokenService {
+    public static final int DEFAULT_EXPECTED_REVOCATIONS = 10_000;
+    
+    private static final String PREFIX = "token_";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 16;
+    private static final Pattern KEY_ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    
+    private final long ttlMillis;
+    private volatile Map<String, SigningKey> keys = Collections.emptyMap();
+    private volatile SigningKey activeKey;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final CountingBloomFilter revokedFilter;
+    
+    public SignedTokenService(long ttlMillis, String keyId, byte[] secret) {
+        this(ttlMillis, keyId, secret, DEFAULT_EXPECTED_REVOCATIONS);
+    }
+    
+    public SignedTokenService(long ttlMillis, String keyId, byte[] secret, int expectedRevocations) {
+        if (ttlMillis < 1) {
+            throw new IllegalArgumentException("Token TTL must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        this.revokedFilter = new CountingBloomFilter(expectedRevocations, 0.01);
+        rotate(keyId, secret);
+    }
+    
+    // Adds a key that verifies tokens but does not sign new ones
+    public synchronized void addKey(String keyId, byte[] secret) {
+        if (keyId == null || !KEY_ID.matcher(keyId).matches()) {
+            throw new IllegalArgumentException("Key id must be 1-32 letters, digits, '_' or '-': " + keyId);
+        }
+        if (secret == null || secret.length < 32) {
+            throw new IllegalArgumentException("Signing key must be at least 256 bits");
+        }
+        Map<String, SigningKey> updated = new HashMap<>(keys);
+        updated.put(keyId, new SigningKey(keyId, secret));
+        keys = Collections.unmodifiableMap(updated);
+    }
+    
+    // Signs new tokens with this key from now on; tokens under older keys stay valid
+    public synchronized void rotate(String keyId, byte[] secret) {
+        addKey(keyId, secret);
+        activeKey = keys.get(keyId);
+    }
+    
+    // Tokens signed with this key stop validating. The signing key cannot be removed.
+    public synchronized boolean removeKey(String keyId) {
+        if (!keys.containsKey(keyId) || activeKey.id.equals(keyId)) {
+            return false;
+        }
+        Map<String, SigningKey> updated = new HashMap<>(keys);
+        updated.remove(keyId);
+        keys = Collections.unmodifiableMap(updated);
+        return true;
+    }
+    
+    @Override
+    public Session issue(String username, String role) {
+        long now = System.currentTimeMillis();
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        byte[] roleBytes = role != null ? role.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (roleBytes.length > 254) {
+            throw new IllegalArgumentException("Role too long for a token");
+        }
+        ByteBuffer payload = ByteBuffer.allocate(17 + roleBytes.length + name.length);
+        payload.putLong(now).putLong(now + ttlMillis);
+        payload.put((byte) (role != null ? roleBytes.length : 0xFF)).put(roleBytes).put(name);
+        
+        SigningKey key = activeKey;
+        String signed = key.id + "." + ENCODER.encodeToString(payload.array());
+        byte[] signature = key.sign(signed.getBytes(StandardCharsets.US_ASCII), 0, signed.length());
+        String token = PREFIX + signed + "." + ENCODER.encodeToString(signature);
+        return new Session(token, username, role, now, now + ttlMillis);
+    }
+    
+    @Override
+    public Session validate(String token) {
+        if (token == null || !token.startsWith(PREFIX)) {
+            return null;
+        }
+        int keyEnd = token.indexOf('.', PREFIX.length());
+        int payloadEnd = token.lastIndexOf('.');
+        if (keyEnd < 0 || payloadEnd <= keyEnd) {
+            return null;
+        }
+        SigningKey key = keys.get(token.substring(PREFIX.length(), keyEnd));
+        if (key == null) {
+            return null;
+        }
+        try {
+            byte[] raw = token.getBytes(StandardCharsets.ISO_8859_1);
+            byte[] expected = key.sign(raw, PREFIX.length(), payloadEnd - PREFIX.length());
+            ByteBuffer signature = DECODER.decode(ByteBuffer.wrap(raw, payloadEnd + 1, raw.length - payloadEnd - 1));
+            byte[] actual = new byte[signature.remaining()];
+            signature.get(actual);
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+            ByteBuffer payload = DECODER.decode(ByteBuffer.wrap(raw, keyEnd + 1, payloadEnd - keyEnd - 1));
+            long issuedAt = payload.getLong();
+            long expiresAt = payload.getLong();
+            if (expiresAt - System.currentTimeMillis() <= 0) {
+                return null;
+            }
+            if (revokedFilter.mightContain(token) && revoked.containsKey(token)) {
+                return null;
+            }
+            int roleLength = payload.get() & 0xFF;
+            String role = null;
+            if (roleLength != 0xFF) {
+                role = new String(payload.array(), payload.position(), roleLength, StandardCharsets.UTF_8);
+                payload.position(payload.position() + roleLength);
+            }
+            String username = new String(payload.array(), payload.position(), payload.remaining(), StandardCharsets.UTF_8);
+            return new Session(token, username, role, issuedAt, expiresAt);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            // Not valid base64 or a truncated payload; the signature check makes the latter unlikely
+            return null;
+        }
+    }
+    
+    @Override
+    public synchronized boolean revoke(String token) {
+        Session session = validate(token);
+        if (session == null) {
+            return false;
+        }
+        purgeExpiredRevocations();
+        revoked.put(token, session.getExpiresAt());
+        revokedFilter.add(token);
+        return true;
+    }
+    
+    public String getActiveKeyId() {
+        return activeKey.id;
+    }
+    
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+    
+    // Revoked tokens that have not expired yet
+    public int getRevokedCount() {
+        return revoked.size();
+    }
+    
+    public long getRevocationFilterBytes() {
+        return revokedFilter.getMemoryBytes();
+    }
+    
+    // Caller holds the monitor
+    private void purgeExpiredRevocations() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Map.Entry<String, Long>> it = revoked.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Long> entry = it.next();
+            if (entry.getValue() - now <= 0) {
+                it.remove();
+                revokedFilter.remove(entry.getKey());
+            }
+        }
+    }
+    
+    private static final class SigningKey {
+        private final String id;
+        private final ThreadLocal<Mac> macs;
+        
+        SigningKey(String id, byte[] secret) {
+            this.id = id;
+            SecretKeySpec spec = new SecretKeySpec(secret.clone(), ALGORITHM);
+            this.macs = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac mac = Mac.getInstance(ALGORITHM);
+                    mac.init(spec);
+                    return mac;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(ALGORITHM + " not available", e);
+                }
+            });
+        }
+        
+        byte[] sign(byte[] data, int offset, int length) {
+            Mac mac = macs.get();
+            mac.update(data, offset, length);
+            byte[] full = mac.doFinal();
+            byte[] truncated = new byte[SIGNATURE_BYTES];
+            System.arraycopy(full, 0, truncated, 0, SIGNATURE_BYTES);
+            return truncated;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.login.session;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+// Random login tokens: "token_" and 128 bits from a CSPRNG as 32 hex digits.
+// A fixed set of DRBG instances, twice as many as CPUs, each behind its own
+// lock and picked by thread id, so concurrent logins rarely queue on the same
+// generator. They are deliberately not per thread: with a thread per request
+// (the VIRTUAL executor) a ThreadLocal would seed a new DRBG for every login.
+// Random bytes are drawn 32 tokens' worth at a time, since each DRBG call has
+// a fixed cost well above that of the bytes, and are encoded into a
+// preallocated buffer; the returned String is the only allocation.
+public final class TokenGenerator {
+    public static final String PREFIX = "token_";
+    
+    private static final int RANDOM_BYTES = 16;
+    private static final int POOL_BYTES = RANDOM_BYTES * 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final TokenGenerator[] STRIPES = newStripes();
+    
+    private final SecureRandom random;
+    private final byte[] pool = new byte[POOL_BYTES];
+    private int used = POOL_BYTES;
+    private final char[] chars = new char[PREFIX.length() + RANDOM_BYTES * 2];
+    
+    private TokenGenerator() {
+        random = newRandom();
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+    }
+    
+    public static String newToken() {
+        TokenGenerator generator = STRIPES[(int) (Thread.currentThread().getId() & (STRIPES.length - 1))];
+        synchronized (generator) {
+            return generator.next();
+        }
+    }
+    
+    private static TokenGenerator[] newStripes() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        TokenGenerator[] stripes = new TokenGenerator[Math.min(64, Integer.highestOneBit(cpus) << 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new TokenGenerator();
+        }
+        return stripes;
+    }
+    
+    private String next() {
+        if (used == POOL_BYTES) {
+            random.nextBytes(pool);
+            used = 0;
+        }
+        int p = PREFIX.length();
+        for (int i = used; i < used + RANDOM_BYTES; i++) {
+            byte b = pool[i];
+            chars[p++] = HEX[(b >> 4) & 0xF];
+            chars[p++] = HEX[b & 0xF];
+            // Each byte is handed out once
+            pool[i] = 0;
+        }
+        used += RANDOM_BYTES;
+        return new String(chars);
+    }
+    
+    // DRBG keeps its state per instance; the platform default may share one
+    // native source behind a global lock
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
\ No newline at end of file
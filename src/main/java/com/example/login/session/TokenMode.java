@@ -0,0 +1,19 @@
+package com.example.login.session;
+
+public enum TokenMode {
+    // Random tokens looked up in a SessionStore on this node
+    SESSION,
+    // Self-contained HMAC-signed tokens, see SignedTokenService
+    SIGNED;
+    
+    public static TokenMode fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return SESSION;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown token mode: " + value);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.login.session;
+
+// Issues and checks login tokens. SessionStore keeps server-side state per
+// token; SignedTokenService keeps none and verifies a signature instead.
+public interface TokenService {
+    
+    Session issue(String username, String role);
+    
+    // The session behind a live token, or null if it is unknown, expired or revoked
+    Session validate(String token);
+    
+    // False if the token was not live
+    boolean revoke(String token);
+}
\ No newline at end of file
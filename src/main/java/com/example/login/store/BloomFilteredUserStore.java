@@ -0,0 +1,156 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+// Puts a counting Bloom filter over another store so usernames that were
+// never added are rejected without touching it, which is most of a
+// credential-stuffing run. Writes keep the filter in step: a key is added to
+// the filter before the store and removed after, so a concurrent find never
+// sees a false negative. The filter is rebuilt at twice the size whenever
+// the user count outgrows what it was sized for.
+public class BloomFilteredUserStore implements UserStore {
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_EXPECTED_USERS = 1024;
+    
+    private final UserStore delegate;
+    private final double falsePositiveRate;
+    private final Object writeLock = new Object();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile CountingBloomFilter filter;
+    private long expectedUsers;
+    
+    public BloomFilteredUserStore(UserStore delegate) {
+        this(delegate, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+    
+    // Filters the users already in the delegate
+    public BloomFilteredUserStore(UserStore delegate, double falsePositiveRate) {
+        this.delegate = delegate;
+        this.falsePositiveRate = falsePositiveRate;
+        synchronized (writeLock) {
+            rebuild(delegate.size());
+        }
+    }
+    
+    @Override
+    public User find(String username) {
+        if (username == null) {
+            return null;
+        }
+        lookups.increment();
+        if (!filter.mightContain(username)) {
+            rejected.increment();
+            return null;
+        }
+        User user = delegate.find(username);
+        if (user == null) {
+            falsePositives.increment();
+        }
+        return user;
+    }
+    
+    @Override
+    public void put(User user) {
+        synchronized (writeLock) {
+            if (delegate.find(user.getUsername()) == null) {
+                if (delegate.size() + 1 > expectedUsers) {
+                    rebuild(delegate.size() + 1);
+                }
+                filter.add(user.getUsername());
+            }
+            delegate.put(user);
+        }
+    }
+    
+    @Override
+    public boolean remove(String username) {
+        synchronized (writeLock) {
+            if (!delegate.remove(username)) {
+                return false;
+            }
+            filter.remove(username);
+            return true;
+        }
+    }
+    
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+    
+    @Override
+    public Iterable<User> users() {
+        return delegate.users();
+    }
+    
+    // The new filter must cover both the old and new users until the delegate
+    // has switched over, so it is built from both
+    @Override
+    public void load(Collection<? extends User> users) {
+        synchronized (writeLock) {
+            CountingBloomFilter combined = newFilter(delegate.size() + users.size());
+            for (User user : delegate.users()) {
+                combined.add(user.getUsername());
+            }
+            for (User user : users) {
+                combined.add(user.getUsername());
+            }
+            filter = combined;
+            delegate.load(users);
+            rebuild(users.size());
+        }
+    }
+    
+    public UserStore getDelegate() {
+        return delegate;
+    }
+    
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+    
+    // Lookups answered by the filter alone
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+    
+    // Lookups the filter let through for users that do not exist
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+    
+    public double getRejectRate() {
+        long total = lookups.sum();
+        return total == 0 ? 0 : rejected.sum() / (double) total;
+    }
+    
+    // Share of unknown usernames the filter failed to reject
+    public double getFalsePositiveRate() {
+        long misses = falsePositives.sum();
+        long unknown = misses + rejected.sum();
+        return unknown == 0 ? 0 : misses / (double) unknown;
+    }
+    
+    public long getFilterBytes() {
+        return filter.getMemoryBytes();
+    }
+    
+    // Sizes for twice the current count so steady growth rebuilds rarely;
+    // callers hold the write lock
+    private void rebuild(long users) {
+        expectedUsers = Math.max(MIN_EXPECTED_USERS, users * 2);
+        CountingBloomFilter rebuilt = newFilter(expectedUsers);
+        for (User user : delegate.users()) {
+            rebuilt.add(user.getUsername());
+        }
+        filter = rebuilt;
+    }
+    
+    private CountingBloomFilter newFilter(long expected) {
+        return new CountingBloomFilter(Math.max(MIN_EXPECTED_USERS, expected), falsePositiveRate);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,375 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+
+// UserStore for millions of accounts. Records (see UserRecord) are appended to
+// 16MB direct-memory slabs, and the index is a single long[] of open-addressed
+// slots holding a 24-bit hash tag and a 40-bit record offset. Per user the
+// heap only carries one index slot, so the collector has nothing to trace.
+// Lookups are lock-free optimistic reads that fall back to a read lock if a
+// writer got in the way; writes are serialised. Replaced or removed records
+// are reclaimed by compacting once they outweigh the live ones.
+public class CompactUserStore implements UserStore {
+    private static final int SLAB_BITS = 24;
+    private static final int SLAB_SIZE = 1 << SLAB_BITS;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    
+    private final StampedLock lock = new StampedLock();
+    private final RoleTable roles = new RoleTable();
+    private Arena arena = new Arena();
+    private long[] slots;
+    private int size;
+    private long liveBytes;
+    
+    public CompactUserStore() {
+        this(MIN_CAPACITY);
+    }
+    
+    public CompactUserStore(int expectedUsers) {
+        this.slots = new long[capacityFor(expectedUsers)];
+    }
+    
+    @Override
+    public User find(String username) {
+        if (username == null) {
+            return null;
+        }
+        byte[] key = UserRecord.encode(username);
+        long hash = UserRecord.hash(key);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                User user = lookup(username, key, hash);
+                if (lock.validate(stamp)) {
+                    return user;
+                }
+            } catch (RuntimeException e) {
+                // Torn read while a writer was resizing or compacting, retry under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return lookup(username, key, hash);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    @Override
+    public void put(User user) {
+        byte[] key = UserRecord.encode(user.getUsername());
+        byte[] credential = UserRecord.encode(user.getPasswordHash());
+        int recordSize = UserRecord.size(key, credential);
+        long stamp = lock.writeLock();
+        try {
+            insert(key, credential, roles.ordinal(user.getRole()), recordSize);
+            maybeCompact();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    @Override
+    public boolean remove(String username) {
+        if (username == null) {
+            return false;
+        }
+        byte[] key = UserRecord.encode(username);
+        long hash = UserRecord.hash(key);
+        long stamp = lock.writeLock();
+        try {
+            int index = indexOf(key, hash);
+            if (index < 0) {
+                return false;
+            }
+            liveBytes -= recordSize(slots[index]);
+            deleteSlot(index);
+            size--;
+            maybeCompact();
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    // Walks the index captured when iteration starts; concurrent writes may or
+    // may not be seen, and an entry shifted by a concurrent remove can be missed
+    @Override
+    public Iterable<User> users() {
+        return UserIterator::new;
+    }
+    
+    @Override
+    public void load(Collection<? extends User> users) {
+        long stamp = lock.writeLock();
+        try {
+            arena = new Arena();
+            slots = new long[capacityFor(users.size())];
+            size = 0;
+            liveBytes = 0;
+            for (User user : users) {
+                byte[] key = UserRecord.encode(user.getUsername());
+                byte[] credential = UserRecord.encode(user.getPasswordHash());
+                insert(key, credential, roles.ordinal(user.getRole()), UserRecord.size(key, credential));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    // Direct memory held by record slabs
+    public long getOffHeapBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) arena.slabCount * SLAB_SIZE;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    // Heap held by the index
+    public long getIndexBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) slots.length * Long.BYTES;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    private User lookup(String username, byte[] key, long hash) {
+        Arena records = arena;
+        long[] table = slots;
+        int mask = table.length - 1;
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            long slot = table[i];
+            if (slot == 0) {
+                return null;
+            }
+            if (UserRecord.tagMatches(slot, hash)) {
+                long ref = UserRecord.ref(slot);
+                ByteBuffer slab = records.slab(ref);
+                int offset = Arena.offset(ref);
+                if (UserRecord.usernameEquals(slab, offset, key)) {
+                    return UserRecord.read(slab, offset, username, roles);
+                }
+            }
+        }
+    }
+    
+    // Slot index holding the username, or -1; callers hold the write lock
+    private int indexOf(byte[] key, long hash) {
+        int mask = slots.length - 1;
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == 0) {
+                return -1;
+            }
+            if (UserRecord.tagMatches(slot, hash)) {
+                long ref = UserRecord.ref(slot);
+                if (UserRecord.usernameEquals(arena.slab(ref), Arena.offset(ref), key)) {
+                    return i;
+                }
+            }
+        }
+    }
+    
+    private void insert(byte[] key, byte[] credential, int role, int recordSize) {
+        long hash = UserRecord.hash(key);
+        int index = indexOf(key, hash);
+        long ref = arena.append(recordSize);
+        UserRecord.write(arena.slab(ref), Arena.offset(ref), role, key, credential);
+        long slot = UserRecord.slot(hash, ref);
+        if (index >= 0) {
+            liveBytes -= recordSize(slots[index]);
+            slots[index] = slot;
+        } else {
+            if ((size + 1) * 4L > slots.length * 3L) {
+                resize(slots.length * 2);
+            }
+            placeSlot(slots, slot, hash);
+            size++;
+        }
+        liveBytes += recordSize;
+    }
+    
+    private static void placeSlot(long[] table, long slot, long hash) {
+        int mask = table.length - 1;
+        int i = (int) hash & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot;
+    }
+    
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void deleteSlot(int index) {
+        int mask = slots.length - 1;
+        int hole = index;
+        for (int i = (hole + 1) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            int home = (int) hashOf(slots[i]) & mask;
+            // Move the entry back if its home is not within (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                slots[hole] = slots[i];
+                hole = i;
+            }
+        }
+        slots[hole] = 0;
+    }
+    
+    private void resize(int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("User store is full");
+        }
+        long[] table = new long[capacity];
+        for (long slot : slots) {
+            if (slot != 0) {
+                placeSlot(table, slot, hashOf(slot));
+            }
+        }
+        slots = table;
+    }
+    
+    // Copies live records into fresh slabs once dead ones take up more space
+    // than live ones, so update-heavy workloads do not grow without bound
+    private void maybeCompact() {
+        long garbage = arena.usedBytes() - liveBytes;
+        if (garbage < SLAB_SIZE || garbage < liveBytes) {
+            return;
+        }
+        Arena compacted = new Arena();
+        long[] table = new long[slots.length];
+        for (long slot : slots) {
+            if (slot != 0) {
+                long ref = UserRecord.ref(slot);
+                ByteBuffer slab = arena.slab(ref);
+                int offset = Arena.offset(ref);
+                int length = UserRecord.size(slab, offset);
+                long copy = compacted.append(length);
+                compacted.slab(copy).put(Arena.offset(copy), slab, offset, length);
+                long hash = UserRecord.hash(slab, offset);
+                placeSlot(table, UserRecord.slot(hash, copy), hash);
+            }
+        }
+        arena = compacted;
+        slots = table;
+    }
+    
+    private long hashOf(long slot) {
+        long ref = UserRecord.ref(slot);
+        return UserRecord.hash(arena.slab(ref), Arena.offset(ref));
+    }
+    
+    private int recordSize(long slot) {
+        long ref = UserRecord.ref(slot);
+        return UserRecord.size(arena.slab(ref), Arena.offset(ref));
+    }
+    
+    private static int capacityFor(int expectedUsers) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedUsers * 4 / 3 + 1);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many users: " + expectedUsers);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+    
+    // Append-only run of direct slabs; a record never straddles two slabs
+    private static final class Arena {
+        private ByteBuffer[] slabs = new ByteBuffer[4];
+        private int slabCount;
+        private int slabUsed = SLAB_SIZE;
+        
+        long append(int length) {
+            if (slabUsed + length > SLAB_SIZE) {
+                if (slabCount == slabs.length) {
+                    ByteBuffer[] grown = new ByteBuffer[slabCount * 2];
+                    System.arraycopy(slabs, 0, grown, 0, slabCount);
+                    slabs = grown;
+                }
+                slabs[slabCount++] = ByteBuffer.allocateDirect(SLAB_SIZE);
+                slabUsed = 0;
+            }
+            long ref = (long) (slabCount - 1) << SLAB_BITS | slabUsed;
+            slabUsed += length;
+            return ref;
+        }
+        
+        ByteBuffer slab(long ref) {
+            return slabs[(int) (ref >>> SLAB_BITS)];
+        }
+        
+        static int offset(long ref) {
+            return (int) ref & (SLAB_SIZE - 1);
+        }
+        
+        long usedBytes() {
+            return slabCount == 0 ? 0 : (long) (slabCount - 1) * SLAB_SIZE + slabUsed;
+        }
+    }
+    
+    private final class UserIterator implements Iterator<User> {
+        private final long[] table;
+        private final Arena records;
+        private int position = -1;
+        private User next;
+        
+        UserIterator() {
+            long stamp = lock.readLock();
+            try {
+                table = slots;
+                records = arena;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            advance();
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+        
+        @Override
+        public User next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            User current = next;
+            advance();
+            return current;
+        }
+        
+        private void advance() {
+            next = null;
+            long stamp = lock.readLock();
+            try {
+                while (++position < table.length) {
+                    long slot = table[position];
+                    if (slot != 0) {
+                        long ref = UserRecord.ref(slot);
+                        next = UserRecord.read(records.slab(ref), Arena.offset(ref), null, roles);
+                        return;
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
\ No newline at end of file
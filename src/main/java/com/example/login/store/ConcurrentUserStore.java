@@ -0,0 +1,64 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+// UserStore on a ConcurrentHashMap: lookups never lock and writers only
+// contend on the bin they touch. load() fills a table pre-sized for the
+// user count and swaps it in, so a bulk load never rehashes.
+public class ConcurrentUserStore implements UserStore {
+    private static final int DEFAULT_EXPECTED_USERS = 16;
+    
+    private volatile ConcurrentHashMap<String, User> users;
+    
+    public ConcurrentUserStore() {
+        this(DEFAULT_EXPECTED_USERS);
+    }
+    
+    public ConcurrentUserStore(int expectedUsers) {
+        this.users = newTable(expectedUsers);
+    }
+    
+    @Override
+    public User find(String username) {
+        return username != null ? users.get(username) : null;
+    }
+    
+    @Override
+    public void put(User user) {
+        users.put(user.getUsername(), user);
+    }
+    
+    @Override
+    public boolean remove(String username) {
+        return username != null && users.remove(username) != null;
+    }
+    
+    @Override
+    public int size() {
+        return users.size();
+    }
+    
+    @Override
+    public Iterable<User> users() {
+        return Collections.unmodifiableCollection(users.values());
+    }
+    
+    @Override
+    public void load(Collection<? extends User> loaded) {
+        ConcurrentHashMap<String, User> table = newTable(loaded.size());
+        for (User user : loaded) {
+            table.put(user.getUsername(), user);
+        }
+        users = table;
+    }
+    
+    // The constructor treats the capacity as an element count and applies the
+    // load factor itself, so the table holds expectedUsers without resizing
+    private static ConcurrentHashMap<String, User> newTable(int expectedUsers) {
+        return new ConcurrentHashMap<>(Math.max(expectedUsers, DEFAULT_EXPECTED_USERS), 0.75f,
+                Runtime.getRuntime().availableProcessors());
+    }
+}
\ No newline at end of file
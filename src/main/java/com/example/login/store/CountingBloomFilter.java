@@ -0,0 +1,112 @@
+package com.example.login.store;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter with 4-bit counters instead of bits, so keys can be removed.
+// Sixteen counters share a long and are updated with CAS, so add, remove and
+// mightContain never lock. A counter that reaches 15 sticks there: it can no
+// longer be decremented, which keeps the filter free of false negatives at
+// the cost of a slightly higher false positive rate. remove() must only be
+// called for keys that were added.
+public class CountingBloomFilter {
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long COUNTER_MASK = 0xF;
+    private static final long MAX_COUNT = 15;
+    
+    private final AtomicLongArray words;
+    private final long mask;
+    private final int hashCount;
+    
+    public CountingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Need expectedInsertions >= 1 and 0 < falsePositiveRate < 1");
+        }
+        // Standard sizing m = -n ln p / (ln 2)^2, rounded up to a power of two
+        double optimal = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long counters = Math.max(COUNTERS_PER_WORD, Long.highestOneBit((long) Math.ceil(optimal) - 1) << 1);
+        if (counters / COUNTERS_PER_WORD > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter too large for " + expectedInsertions + " keys");
+        }
+        this.words = new AtomicLongArray((int) (counters / COUNTERS_PER_WORD));
+        this.mask = counters - 1;
+        this.hashCount = Math.max(1, (int) Math.round(optimal / expectedInsertions * Math.log(2)));
+    }
+    
+    public void add(String key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashCount; i++) {
+            update(index(hash, i), 1);
+        }
+    }
+    
+    public void remove(String key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashCount; i++) {
+            update(index(hash, i), -1);
+        }
+    }
+    
+    // False means the key was never added (or has been removed)
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash, i);
+            if (counter(words.get((int) (index / COUNTERS_PER_WORD)), index) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public long getCounterCount() {
+        return mask + 1;
+    }
+    
+    public int getHashCount() {
+        return hashCount;
+    }
+    
+    public long getMemoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+    
+    private void update(long index, int delta) {
+        int word = (int) (index / COUNTERS_PER_WORD);
+        int shift = (int) (index % COUNTERS_PER_WORD) * 4;
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & COUNTER_MASK;
+            if (count == MAX_COUNT || (delta < 0 && count == 0)) {
+                return;
+            }
+            if (words.compareAndSet(word, current, current + ((long) delta << shift))) {
+                return;
+            }
+        }
+    }
+    
+    private static long counter(long word, long index) {
+        return (word >>> ((index % COUNTERS_PER_WORD) * 4)) & COUNTER_MASK;
+    }
+    
+    // Double hashing (Kirsch-Mitzenmacher) from the two halves of one 64-bit hash
+    private long index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return (h1 + (long) i * h2) & mask;
+    }
+    
+    // FNV-1a over the chars with a murmur3 finaliser; no encoding, no allocation
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
\ No newline at end of file
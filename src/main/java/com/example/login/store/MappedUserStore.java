@@ -0,0 +1,419 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// UserStore backed by a memory-mapped user database file, so startup only maps
+// the file and replays a short log however many users there are. Runtime
+// changes are appended (and fsynced) to "<file>.log" and kept in an overlay
+// map that shadows the file. Once the log passes compactLogBytes it is rotated
+// to "<file>.log.old" and a background thread writes a new database file with
+// the changes merged in, swaps it into place and deletes the old log. A crash
+// at any point leaves logs whose replay, oldest first, restores the same state.
+// If a compaction fails the old log stays and is retried before any new rotation.
+public class MappedUserStore implements UserStore, Closeable {
+    public static final long DEFAULT_COMPACT_LOG_BYTES = 4L * 1024 * 1024;
+    
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int NULL_LENGTH = 0xFFFF;
+    // Replay reads the log in chunks this big, which is enough for the largest entry
+    private static final int REPLAY_BUFFER_BYTES = 1 << 18;
+    // Overlay marker for a removed user
+    private static final User REMOVED = new User();
+    
+    private final Path file;
+    private final Path logFile;
+    private final Path oldLogFile;
+    private final long compactLogBytes;
+    private final Object writeLock = new Object();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-db-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private volatile UserDatabase base;
+    // Changes in the log being compacted; lookups check active, then frozen, then base
+    private volatile Map<String, User> frozen = new ConcurrentHashMap<>();
+    private volatile Map<String, User> active = new ConcurrentHashMap<>();
+    private volatile int size;
+    private FileChannel log;
+    private boolean compacting;
+    // After a failed compaction, log size at which to try again
+    private long retryLogBytes;
+    private int generation;
+    
+    public MappedUserStore(Path file) throws IOException {
+        this(file, DEFAULT_COMPACT_LOG_BYTES);
+    }
+    
+    // Opens the database, creating an empty one if the file does not exist
+    public MappedUserStore(Path file, long compactLogBytes) throws IOException {
+        this.file = file;
+        this.logFile = file.resolveSibling(file.getFileName() + ".log");
+        this.oldLogFile = file.resolveSibling(file.getFileName() + ".log.old");
+        this.compactLogBytes = compactLogBytes;
+        if (!Files.exists(file)) {
+            new UserDatabaseWriter(file).close();
+        }
+        base = UserDatabase.open(file);
+        boolean interrupted = Files.exists(oldLogFile);
+        if (interrupted) {
+            replay(oldLogFile, frozen);
+        }
+        replay(logFile, active);
+        size = countUsers();
+        log = openLog();
+        if (interrupted) {
+            // A compaction was cut short; finish it from the old log
+            synchronized (writeLock) {
+                compacting = true;
+                compactor.execute(this::compact);
+            }
+        }
+    }
+    
+    @Override
+    public User find(String username) {
+        if (username == null) {
+            return null;
+        }
+        User user = active.get(username);
+        if (user == null) {
+            user = frozen.get(username);
+        }
+        if (user != null) {
+            return user == REMOVED ? null : user;
+        }
+        byte[] key = UserRecord.encode(username);
+        return base.find(username, key, UserRecord.hash(key));
+    }
+    
+    @Override
+    public void put(User user) {
+        synchronized (writeLock) {
+            boolean existed = find(user.getUsername()) != null;
+            append(PUT, user);
+            active.put(user.getUsername(), user);
+            if (!existed) {
+                size++;
+            }
+            maybeCompact();
+        }
+    }
+    
+    @Override
+    public boolean remove(String username) {
+        synchronized (writeLock) {
+            if (find(username) == null) {
+                return false;
+            }
+            append(REMOVE, new User(username, null, null));
+            active.put(username, REMOVED);
+            size--;
+            maybeCompact();
+            return true;
+        }
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    // Overlay entries first, then file entries they do not shadow
+    @Override
+    public Iterable<User> users() {
+        return () -> {
+            Map<String, User> newest = active;
+            Map<String, User> older = frozen;
+            UserDatabase file = base;
+            Stream<User> changed = Stream.concat(newest.values().stream(),
+                    older.entrySet().stream().filter(e -> !newest.containsKey(e.getKey())).map(Map.Entry::getValue));
+            Stream<User> unchanged = file.users()
+                    .filter(u -> !newest.containsKey(u.getUsername()) && !older.containsKey(u.getUsername()));
+            return Stream.concat(changed.filter(u -> u != REMOVED), unchanged).iterator();
+        };
+    }
+    
+    // Rewrites the database file with exactly these users and clears the log
+    @Override
+    public void load(Collection<? extends User> users) {
+        Path temp = file.resolveSibling(file.getFileName() + ".load.tmp");
+        try {
+            try (UserDatabaseWriter writer = new UserDatabaseWriter(temp)) {
+                for (User user : users) {
+                    writer.add(user);
+                }
+            }
+            synchronized (writeLock) {
+                generation++;
+                log.close();
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(oldLogFile);
+                Files.deleteIfExists(logFile);
+                base = UserDatabase.open(file);
+                frozen = new ConcurrentHashMap<>();
+                active = new ConcurrentHashMap<>();
+                retryLogBytes = 0;
+                size = base.size();
+                log = openLog();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load user database " + file, e);
+        }
+    }
+    
+    // Waits for a running compaction and closes the log
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            log.close();
+        }
+    }
+    
+    // Bytes of changes waiting to be compacted into the file
+    public long getLogBytes() {
+        synchronized (writeLock) {
+            try {
+                return log.size() + (Files.exists(oldLogFile) ? Files.size(oldLogFile) : 0);
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+    }
+    
+    public boolean isCompacting() {
+        synchronized (writeLock) {
+            return compacting;
+        }
+    }
+    
+    private void maybeCompact() {
+        try {
+            if (compacting || log.size() < Math.max(compactLogBytes, retryLogBytes)) {
+                return;
+            }
+            if (Files.exists(oldLogFile)) {
+                // The last compaction failed; frozen and the old log still hold its
+                // changes, so retry it rather than rotate the current log over them
+                compacting = true;
+                compactor.execute(this::compact);
+                return;
+            }
+            log.close();
+            Files.move(logFile, oldLogFile, StandardCopyOption.ATOMIC_MOVE);
+            log = openLog();
+            frozen = active;
+            active = new ConcurrentHashMap<>();
+            compacting = true;
+            compactor.execute(this::compact);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rotate user log " + logFile, e);
+        }
+    }
+    
+    private void compact() {
+        Path temp = file.resolveSibling(file.getFileName() + ".compact.tmp");
+        int startGeneration;
+        UserDatabase source;
+        Map<String, User> changes;
+        synchronized (writeLock) {
+            startGeneration = generation;
+            source = base;
+            changes = frozen;
+        }
+        try {
+            try (UserDatabaseWriter writer = new UserDatabaseWriter(temp)) {
+                Iterator<User> unchanged = source.users().iterator();
+                while (unchanged.hasNext()) {
+                    User user = unchanged.next();
+                    if (!changes.containsKey(user.getUsername())) {
+                        writer.add(user);
+                    }
+                }
+                for (User user : changes.values()) {
+                    if (user != REMOVED) {
+                        writer.add(user);
+                    }
+                }
+            }
+            synchronized (writeLock) {
+                if (generation != startGeneration) {
+                    // load() replaced everything while this ran
+                    Files.deleteIfExists(temp);
+                    return;
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                // Base before frozen, so a reader that misses frozen finds the change in the new base
+                base = UserDatabase.open(file);
+                frozen = new ConcurrentHashMap<>();
+                Files.deleteIfExists(oldLogFile);
+                retryLogBytes = 0;
+            }
+        } catch (IOException | RuntimeException e) {
+            // The old log stays in place and is compacted on the next attempt or restart
+            System.err.println("User database compaction failed: " + e.getMessage());
+            synchronized (writeLock) {
+                try {
+                    retryLogBytes = log.size() + compactLogBytes;
+                } catch (IOException sizeFailure) {
+                    retryLogBytes = compactLogBytes;
+                }
+            }
+        } finally {
+            synchronized (writeLock) {
+                compacting = false;
+            }
+        }
+    }
+    
+    private int countUsers() {
+        int count = base.size();
+        Set<String> changed = ConcurrentHashMap.newKeySet();
+        changed.addAll(frozen.keySet());
+        changed.addAll(active.keySet());
+        for (String username : changed) {
+            byte[] key = UserRecord.encode(username);
+            boolean inBase = base.find(username, key, UserRecord.hash(key)) != null;
+            boolean exists = find(username) != null;
+            count += (exists ? 1 : 0) - (inBase ? 1 : 0);
+        }
+        return count;
+    }
+    
+    private FileChannel openLog() throws IOException {
+        return FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+    
+    // Entry: payload length (4), CRC32 of payload (4), payload of op (1) then
+    // role, username and credential, each a 2-byte length and UTF-8 bytes
+    private void append(byte op, User user) {
+        byte[] role = UserRecord.encode(user.getRole());
+        byte[] username = UserRecord.encode(user.getUsername());
+        byte[] credential = UserRecord.encode(user.getPasswordHash());
+        UserRecord.validate(username, credential);
+        int payload = 1 + 6 + length(role) + username.length + length(credential);
+        ByteBuffer entry = ByteBuffer.allocate(8 + payload);
+        entry.position(8);
+        entry.put(op);
+        putField(entry, role);
+        putField(entry, username);
+        putField(entry, credential);
+        CRC32 crc = new CRC32();
+        crc.update(entry.array(), 8, payload);
+        entry.putInt(0, payload).putInt(4, (int) crc.getValue());
+        entry.flip();
+        try {
+            while (entry.hasRemaining()) {
+                log.write(entry);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to user log " + logFile, e);
+        }
+    }
+    
+    // Applies every intact entry; a torn or corrupt tail from a crash is cut off
+    private void replay(Path path, Map<String, User> into) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(REPLAY_BUFFER_BYTES);
+            buffer.flip();
+            long good = 0;
+            CRC32 crc = new CRC32();
+            while (fill(channel, buffer, 8)) {
+                int start = buffer.position();
+                int payload = buffer.getInt(start);
+                if (payload <= 0 || payload > buffer.capacity() - 8) {
+                    break;
+                }
+                if (!fill(channel, buffer, 8 + payload)) {
+                    break;
+                }
+                start = buffer.position();
+                crc.reset();
+                crc.update(buffer.slice(start + 8, payload));
+                if ((int) crc.getValue() != buffer.getInt(start + 4)) {
+                    break;
+                }
+                buffer.position(start + 8);
+                byte op = buffer.get();
+                String role = getField(buffer);
+                String username = getField(buffer);
+                String credential = getField(buffer);
+                into.put(username, op == REMOVE ? REMOVED : UserRecord.user(username, credential, role));
+                good += 8 + payload;
+                buffer.position(start + 8 + payload);
+            }
+            if (good < channel.size()) {
+                System.err.println("Discarding " + (channel.size() - good) + " damaged bytes at the end of " + path);
+                channel.truncate(good);
+            }
+        }
+    }
+    
+    // Reads more of the log until at least needed bytes are buffered; false at end of file
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < needed && channel.read(buffer) >= 0) {
+            // keep reading
+        }
+        buffer.flip();
+        return buffer.remaining() >= needed;
+    }
+    
+    private static int length(byte[] field) {
+        return field != null ? field.length : 0;
+    }
+    
+    private static void putField(ByteBuffer buffer, byte[] field) {
+        if (field == null) {
+            buffer.putShort((short) NULL_LENGTH);
+        } else {
+            buffer.putShort((short) field.length).put(field);
+        }
+    }
+    
+    private static String getField(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
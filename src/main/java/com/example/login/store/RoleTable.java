@@ -0,0 +1,41 @@
+package com.example.login.store;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Interns role names to a one-byte ordinal. Ordinal 0 stands for a null role.
+// Writers are serialised by the owning store; readers see an immutable array.
+final class RoleTable {
+    static final int MAX_ROLES = 255;
+    
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private volatile String[] names = {null};
+    
+    int ordinal(String role) {
+        if (role == null) {
+            return 0;
+        }
+        Integer ordinal = ordinals.get(role);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        String[] current = names;
+        if (current.length > MAX_ROLES) {
+            throw new IllegalStateException("More than " + MAX_ROLES + " distinct roles");
+        }
+        String[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = role;
+        names = grown;
+        ordinals.put(role, current.length);
+        return current.length;
+    }
+    
+    String name(int ordinal) {
+        return names[ordinal];
+    }
+    
+    int size() {
+        return names.length - 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Read-only view of a user database file written by UserDatabaseWriter:
+//   header (64 bytes): magic, version, user count, slot count,
+//                      records length, index offset, roles offset
+//   records: UserRecords, never straddling a 1GB segment boundary
+//   index: open-addressed slots (see UserRecord), one long each
+//   roles: count, then length-prefixed UTF-8 names in ordinal order
+// Opening maps the records and index and reads only the header and roles,
+// so it costs the same at ten users or ten million.
+final class UserDatabase {
+    static final int MAGIC = 0x4C554442;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int SEGMENT_BITS = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    
+    private final ByteBuffer[] segments;
+    private final LongBuffer index;
+    private final int mask;
+    private final int count;
+    private final RoleTable roles = new RoleTable();
+    
+    private UserDatabase(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (channel.read(header, 0) != HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a user database: " + file);
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IOException("Unsupported user database version " + header.getInt(4) + ": " + file);
+        }
+        count = header.getInt(8);
+        int slotCount = header.getInt(12);
+        long recordsLength = header.getLong(16);
+        long indexOffset = header.getLong(24);
+        long rolesOffset = header.getLong(32);
+        if (Integer.bitCount(slotCount) != 1 || rolesOffset > channel.size()) {
+            throw new IOException("Corrupt user database header: " + file);
+        }
+        
+        segments = new ByteBuffer[(int) ((recordsLength + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + start,
+                    Math.min(SEGMENT_SIZE, recordsLength - start));
+        }
+        index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, (long) slotCount * Long.BYTES).asLongBuffer();
+        mask = slotCount - 1;
+        
+        ByteBuffer roleBytes = ByteBuffer.allocate((int) (channel.size() - rolesOffset));
+        channel.read(roleBytes, rolesOffset);
+        roleBytes.flip();
+        int roleCount = roleBytes.getShort() & 0xFFFF;
+        for (int i = 0; i < roleCount; i++) {
+            byte[] name = new byte[roleBytes.getShort() & 0xFFFF];
+            roleBytes.get(name);
+            roles.ordinal(new String(name, StandardCharsets.UTF_8));
+        }
+    }
+    
+    // The mapping outlives the channel, so nothing needs closing afterwards
+    static UserDatabase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new UserDatabase(channel, file);
+        }
+    }
+    
+    User find(String username, byte[] key, long hash) {
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            long slot = index.get(i);
+            if (slot == 0) {
+                return null;
+            }
+            if (UserRecord.tagMatches(slot, hash)) {
+                long ref = UserRecord.ref(slot);
+                ByteBuffer segment = segment(ref);
+                int offset = offset(ref);
+                if (UserRecord.usernameEquals(segment, offset, key)) {
+                    return UserRecord.read(segment, offset, username, roles);
+                }
+            }
+        }
+    }
+    
+    int size() {
+        return count;
+    }
+    
+    // Users in index order; the file may hold superseded records, the index never does
+    Stream<User> users() {
+        return IntStream.range(0, mask + 1).mapToLong(index::get).filter(slot -> slot != 0).mapToObj(slot -> {
+            long ref = UserRecord.ref(slot);
+            return UserRecord.read(segment(ref), offset(ref), null, roles);
+        });
+    }
+    
+    private ByteBuffer segment(long ref) {
+        return segments[(int) (ref >>> SEGMENT_BITS)];
+    }
+    
+    private static int offset(long ref) {
+        return (int) (ref & (SEGMENT_SIZE - 1));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import com.example.login.security.PasswordHasher;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+// Offline builder for the user database: reads "username,password,role" lines
+// (an optional header line with those names is skipped) and writes the file
+// MappedUserStore maps at startup. A password field that is already a
+// PasswordHasher hash is kept as is; anything else is hashed, which at a real
+// work factor takes a while for large dumps. Any change log next to the
+// target is removed, since it described the database being replaced.
+// Usage: UserDatabaseTool <users.csv> <users.db> [iterations]
+public class UserDatabaseTool {
+    
+    public static void main(String[] args) {
+        if (args.length != 2 && args.length != 3) {
+            System.err.println("Usage: UserDatabaseTool <users.csv> <users.db> [iterations]");
+            System.exit(2);
+        }
+        try {
+            long start = System.nanoTime();
+            PasswordHasher hasher = args.length == 3 ? new PasswordHasher(Integer.parseInt(args[2])) : new PasswordHasher();
+            int count = build(Paths.get(args[0]), Paths.get(args[1]), hasher);
+            System.out.printf("Wrote %d users to %s in %.1f s%n", count, args[1], (System.nanoTime() - start) / 1e9);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Failed to build user database: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    public static int build(Path csv, Path database, PasswordHasher hasher) throws IOException {
+        Path parent = database.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = database.resolveSibling(database.getFileName() + ".build.tmp");
+        int count;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+                UserDatabaseWriter writer = new UserDatabaseWriter(temp)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || (lineNumber == 1 && line.trim().equalsIgnoreCase("username,password,role"))) {
+                    continue;
+                }
+                writer.add(parse(line, lineNumber, hasher));
+            }
+            count = writer.getAddedCount();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, database, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(database.resolveSibling(database.getFileName() + ".log"));
+        Files.deleteIfExists(database.resolveSibling(database.getFileName() + ".log.old"));
+        return count;
+    }
+    
+    // The role is the last field and the username the first, so a password may contain commas
+    static User parse(String line, int lineNumber, PasswordHasher hasher) {
+        int first = line.indexOf(',');
+        int last = line.lastIndexOf(',');
+        if (first <= 0 || first == last || last == line.length() - 1) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected username,password,role");
+        }
+        String password = line.substring(first + 1, last);
+        return UserRecord.user(line.substring(0, first).trim(),
+                PasswordHasher.isHash(password) ? password : hasher.hash(password), line.substring(last + 1).trim());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Streams users into a new database file (format in UserDatabase). Records
+// are written as they arrive; the index is built on close() from the hashes
+// and offsets collected on the way, so only 16 bytes per user stay in memory.
+// A username added twice keeps the last record.
+public class UserDatabaseWriter implements Closeable {
+    private final FileChannel channel;
+    private final OutputStream out;
+    private final RoleTable roles = new RoleTable();
+    private final byte[] recordBuffer = new byte[UserRecord.HEADER_BYTES + 2 * UserRecord.MAX_FIELD_BYTES];
+    private long[] hashes = new long[1024];
+    private long[] refs = new long[1024];
+    private int added;
+    private long recordsLength;
+    private boolean closed;
+    
+    public UserDatabaseWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(UserDatabase.HEADER_BYTES);
+        out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+    }
+    
+    public void add(User user) throws IOException {
+        byte[] key = UserRecord.encode(user.getUsername());
+        byte[] credential = UserRecord.encode(user.getPasswordHash());
+        int size = UserRecord.size(key, credential);
+        long segmentLeft = UserDatabase.SEGMENT_SIZE - (recordsLength & (UserDatabase.SEGMENT_SIZE - 1));
+        if (size > segmentLeft) {
+            // Pad so no record straddles two mappings
+            out.write(new byte[(int) segmentLeft]);
+            recordsLength += segmentLeft;
+        }
+        UserRecord.write(ByteBuffer.wrap(recordBuffer), 0, roles.ordinal(user.getRole()), key, credential);
+        out.write(recordBuffer, 0, size);
+        
+        if (added == hashes.length) {
+            hashes = Arrays.copyOf(hashes, added * 2);
+            refs = Arrays.copyOf(refs, added * 2);
+        }
+        hashes[added] = UserRecord.hash(key);
+        refs[added] = recordsLength;
+        added++;
+        recordsLength += size;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.flush();
+            long[] slots = buildIndex();
+            long indexOffset = (UserDatabase.HEADER_BYTES + recordsLength + 7) & ~7L;
+            writeIndex(slots, indexOffset);
+            long rolesOffset = indexOffset + (long) slots.length * Long.BYTES;
+            writeRoles(rolesOffset);
+            
+            ByteBuffer header = ByteBuffer.allocate(UserDatabase.HEADER_BYTES);
+            header.putInt(UserDatabase.MAGIC).putInt(UserDatabase.VERSION).putInt(countSlots(slots))
+                    .putInt(slots.length).putLong(recordsLength).putLong(indexOffset).putLong(rolesOffset);
+            header.clear();
+            writeFully(header, 0);
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+    
+    // Users added so far, counting repeated usernames each time
+    public int getAddedCount() {
+        return added;
+    }
+    
+    private long[] buildIndex() throws IOException {
+        int capacity = Integer.highestOneBit((int) Math.max(16, (long) added * 4 / 3 + 1) - 1) << 1;
+        long[] slots = new long[capacity];
+        ByteBuffer[] segments = mapRecords();
+        int mask = capacity - 1;
+        for (int n = 0; n < added; n++) {
+            long hash = hashes[n];
+            long ref = refs[n];
+            int i = (int) hash & mask;
+            while (slots[i] != 0 && !(UserRecord.tagMatches(slots[i], hash) && sameUsername(segments, slots[i], ref))) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = UserRecord.slot(hash, ref);
+        }
+        return slots;
+    }
+    
+    private ByteBuffer[] mapRecords() throws IOException {
+        ByteBuffer[] segments = new ByteBuffer[(int) ((recordsLength + UserDatabase.SEGMENT_SIZE - 1)
+                >>> UserDatabase.SEGMENT_BITS)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << UserDatabase.SEGMENT_BITS;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, UserDatabase.HEADER_BYTES + start,
+                    Math.min(UserDatabase.SEGMENT_SIZE, recordsLength - start));
+        }
+        return segments;
+    }
+    
+    private static boolean sameUsername(ByteBuffer[] segments, long slot, long ref) {
+        long existing = UserRecord.ref(slot);
+        ByteBuffer a = segments[(int) (existing >>> UserDatabase.SEGMENT_BITS)];
+        ByteBuffer b = segments[(int) (ref >>> UserDatabase.SEGMENT_BITS)];
+        int offsetA = (int) (existing & (UserDatabase.SEGMENT_SIZE - 1));
+        int offsetB = (int) (ref & (UserDatabase.SEGMENT_SIZE - 1));
+        byte[] username = new byte[b.getShort(offsetB + 1) & 0xFFFF];
+        b.get(offsetB + UserRecord.HEADER_BYTES, username);
+        return UserRecord.usernameEquals(a, offsetA, username);
+    }
+    
+    private void writeIndex(long[] slots, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        for (long slot : slots) {
+            if (!buffer.hasRemaining()) {
+                buffer.flip();
+                position += writeFully(buffer, position);
+                buffer.clear();
+            }
+            buffer.putLong(slot);
+        }
+        buffer.flip();
+        writeFully(buffer, position);
+    }
+    
+    private void writeRoles(long position) throws IOException {
+        byte[][] names = new byte[roles.size()][];
+        int size = 2;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = roles.name(i + 1).getBytes(StandardCharsets.UTF_8);
+            size += 2 + names[i].length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putShort((short) names.length);
+        for (byte[] name : names) {
+            buffer.putShort((short) name.length).put(name);
+        }
+        buffer.flip();
+        writeFully(buffer, position);
+    }
+    
+    private int writeFully(ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+    
+    private static int countSlots(long[] slots) {
+        int count = 0;
+        for (long slot : slots) {
+            if (slot != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
\ No newline at end of file
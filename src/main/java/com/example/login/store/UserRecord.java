@@ -0,0 +1,139 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Packed user record shared by the compact and file-backed stores:
+//   role ordinal (1 byte), username length (2), credential length (2),
+//   username UTF-8, credential UTF-8
+// The credential is the user's password hash; a length of 0xFFFF marks null. Indexes over records
+// use 64-bit slots: the top 24 bits of the username hash as a tag, then the
+// record offset plus one, so an all-zero slot is empty.
+final class UserRecord {
+    static final int HEADER_BYTES = 5;
+    static final int REF_BITS = 40;
+    private static final long REF_MASK = (1L << REF_BITS) - 1;
+    static final int MAX_FIELD_BYTES = 0xFFFE;
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    private UserRecord() {
+    }
+    
+    static long slot(long hash, long ref) {
+        return (hash >>> REF_BITS) << REF_BITS | (ref + 1);
+    }
+    
+    static long ref(long slot) {
+        return (slot & REF_MASK) - 1;
+    }
+    
+    static boolean tagMatches(long slot, long hash) {
+        return slot >>> REF_BITS == hash >>> REF_BITS;
+    }
+    
+    static byte[] encode(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+    
+    // Rejects fields too long for a record
+    static void validate(byte[] username, byte[] credential) {
+        if (username.length > MAX_FIELD_BYTES || (credential != null && credential.length > MAX_FIELD_BYTES)) {
+            throw new IllegalArgumentException("Username or credential longer than " + MAX_FIELD_BYTES + " bytes");
+        }
+    }
+    
+    static int size(byte[] username, byte[] credential) {
+        validate(username, credential);
+        return HEADER_BYTES + username.length + (credential != null ? credential.length : 0);
+    }
+    
+    static void write(ByteBuffer buffer, int offset, int role, byte[] username, byte[] credential) {
+        buffer.put(offset, (byte) role);
+        buffer.putShort(offset + 1, (short) username.length);
+        buffer.putShort(offset + 3, (short) (credential != null ? credential.length : NULL_LENGTH));
+        buffer.put(offset + HEADER_BYTES, username);
+        if (credential != null) {
+            buffer.put(offset + HEADER_BYTES + username.length, credential);
+        }
+    }
+    
+    static int size(ByteBuffer buffer, int offset) {
+        int credentialLength = buffer.getShort(offset + 3) & 0xFFFF;
+        return HEADER_BYTES + usernameLength(buffer, offset) + (credentialLength == NULL_LENGTH ? 0 : credentialLength);
+    }
+    
+    static boolean usernameEquals(ByteBuffer buffer, int offset, byte[] username) {
+        if (usernameLength(buffer, offset) != username.length) {
+            return false;
+        }
+        int start = offset + HEADER_BYTES;
+        for (int i = 0; i < username.length; i++) {
+            if (buffer.get(start + i) != username[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Materialises the record; a caller that already holds the username passes
+    // it in so only the credential is decoded
+    static User read(ByteBuffer buffer, int offset, String username, RoleTable roles) {
+        int usernameLength = usernameLength(buffer, offset);
+        int credentialLength = buffer.getShort(offset + 3) & 0xFFFF;
+        if (username == null) {
+            username = decode(buffer, offset + HEADER_BYTES, usernameLength);
+        }
+        String credential = credentialLength == NULL_LENGTH ? null
+                : decode(buffer, offset + HEADER_BYTES + usernameLength, credentialLength);
+        return user(username, credential, roles.name(buffer.get(offset) & 0xFF));
+    }
+    
+    static User user(String username, String passwordHash, String role) {
+        User user = new User(username, null, role);
+        user.setPasswordHash(passwordHash);
+        return user;
+    }
+    
+    static long hash(byte[] username) {
+        long h = FNV_OFFSET;
+        for (byte b : username) {
+            h = (h ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return mix(h);
+    }
+    
+    // Same hash as hash(byte[]) over the username stored at offset
+    static long hash(ByteBuffer buffer, int offset) {
+        int length = usernameLength(buffer, offset);
+        int start = offset + HEADER_BYTES;
+        long h = FNV_OFFSET;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ (buffer.get(start + i) & 0xFF)) * FNV_PRIME;
+        }
+        return mix(h);
+    }
+    
+    // FNV-1a alone has weak low bits; the murmur3 finaliser spreads them for
+    // power-of-two tables
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    private static int usernameLength(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset + 1) & 0xFFFF;
+    }
+    
+    private static String decode(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
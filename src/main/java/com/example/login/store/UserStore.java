@@ -0,0 +1,24 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import java.util.Collection;
+
+// Where MockAuthService looks users up. Implementations are safe for
+// concurrent reads and writes, and users() iterates the live contents
+// (weakly consistent) instead of copying them.
+public interface UserStore {
+    User find(String username);
+    
+    // Adds the user, or replaces the one with the same username
+    void put(User user);
+    
+    boolean remove(String username);
+    
+    int size();
+    
+    Iterable<User> users();
+    
+    // Replaces the contents in one step, sizing the tables for users.size()
+    // up front. Meant for startup and reloads; writes racing a load may be lost.
+    void load(Collection<? extends User> users);
+}
\ No newline at end of file
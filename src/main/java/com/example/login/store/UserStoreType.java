@@ -0,0 +1,21 @@
+package com.example.login.store;
+
+public enum UserStoreType {
+    // ConcurrentHashMap of User objects
+    MAP,
+    // Packed records in direct memory, for multi-million user sets
+    COMPACT,
+    // Memory-mapped database file plus change log, see MappedUserStore
+    MAPPED;
+    
+    public static UserStoreType fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return MAP;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown user store: " + value);
+        }
+    }
+}
\ No newline at end of file
@@ -9,6 +9,37 @@ import com.example.login.model.LoginRequestTest;
 import com.example.login.model.LoginResponseTest;
 import com.example.login.service.MockAuthServiceTest;
 import com.example.login.controller.LoginControllerTest;
+import com.example.login.controller.StaticFileHandlerTest;
+import com.example.login.controller.ValidateControllerTest;
+import com.example.login.controller.MetricsControllerTest;
+import com.example.login.controller.HealthControllerTest;
+import com.example.login.assets.AssetCacheTest;
+import com.example.login.assets.ByteRangeTest;
+import com.example.login.assets.FingerprinterTest;
+import com.example.login.assets.PrecompressorTest;
+import com.example.login.json.JsonReaderTest;
+import com.example.login.json.JsonWriterTest;
+import com.example.login.health.HealthCheckerTest;
+import com.example.login.metrics.LatencyHistogramTest;
+import com.example.login.metrics.MetricsRegistryTest;
+import com.example.login.security.CredentialCacheTest;
+import com.example.login.security.HashingPoolTest;
+import com.example.login.security.PasswordHasherTest;
+import com.example.login.security.RateLimiterTest;
+import com.example.login.session.SessionStoreTest;
+import com.example.login.session.SignedTokenServiceTest;
+import com.example.login.session.TokenGeneratorTest;
+import com.example.login.session.CachedTokenServiceTest;
+import com.example.login.server.AdaptiveConcurrencyLimiterTest;
+import com.example.login.server.BoundedExecutorTest;
+import com.example.login.server.JdkHttpEngineTest;
+import com.example.login.server.ServerConfigTest;
+import com.example.login.server.nio.NioHttpEngineTest;
+import com.example.login.store.BloomFilteredUserStoreTest;
+import com.example.login.store.CompactUserStoreTest;
+import com.example.login.store.ConcurrentUserStoreTest;
+import com.example.login.store.CountingBloomFilterTest;
+import com.example.login.store.MappedUserStoreTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({
@@ -16,7 +47,39 @@ import com.example.login.controller.LoginControllerTest;
     LoginRequestTest.class,
     LoginResponseTest.class,
     MockAuthServiceTest.class,
-    LoginControllerTest.class
+    LoginControllerTest.class,
+    StaticFileHandlerTest.class,
+    AssetCacheTest.class,
+    ByteRangeTest.class,
+    FingerprinterTest.class,
+    PrecompressorTest.class,
+    JsonReaderTest.class,
+    JsonWriterTest.class,
+    ServerConfigTest.class,
+    BoundedExecutorTest.class,
+    NioHttpEngineTest.class,
+    ConcurrentUserStoreTest.class,
+    CompactUserStoreTest.class,
+    MappedUserStoreTest.class,
+    CountingBloomFilterTest.class,
+    BloomFilteredUserStoreTest.class,
+    PasswordHasherTest.class,
+    HashingPoolTest.class,
+    CredentialCacheTest.class,
+    SessionStoreTest.class,
+    SignedTokenServiceTest.class,
+    TokenGeneratorTest.class,
+    CachedTokenServiceTest.class,
+    ValidateControllerTest.class,
+    RateLimiterTest.class,
+    AdaptiveConcurrencyLimiterTest.class,
+    LatencyHistogramTest.class,
+    MetricsRegistryTest.class,
+    MetricsControllerTest.class,
+    HealthCheckerTest.class,
+    HealthControllerTest.class,
+    JdkHttpEngineTest.class,
+    LoginServerTest.class
 })
 public class AllTestSuite {
     // This class remains empty, it is used only as a holder for the above annotations
@@ -0,0 +1,84 @@
+package com.example.login;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import com.example.login.server.ServerConfig;
+import com.example.login.session.Session;
+
+public class LoginServerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private LoginServer server;
+    
+    @Before
+    public void setUp() throws IOException {
+        File root = folder.newFolder("web");
+        Files.write(new File(root, "index.html").toPath(), "<html></html>".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(root, "script.js").toPath(), "// app".getBytes(StandardCharsets.UTF_8));
+        ServerConfig config = new ServerConfig(0, root.getPath());
+        config.setHashIterations(100);
+        config.setHashThreads(2);
+        server = new LoginServer(config);
+        server.start();
+    }
+    
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    public void testHandlersShareOneServiceGraph() throws IOException {
+        Session session = server.getContext().getAuthService().getTokenService().issue("alice", "USER");
+        HttpURLConnection connection = open("/api/validate");
+        connection.setRequestProperty("Authorization", "Bearer " + session.getToken());
+        
+        assertEquals("A token issued by the shared auth service should validate over HTTP", 200,
+                connection.getResponseCode());
+        assertSame("The server should expose the context's executor", server.getContext().getExecutor(),
+                server.getExecutor());
+    }
+    
+    @Test
+    public void testWarmUpRunsBeforePortOpens() throws IOException {
+        assertEquals("Both web files should be cached before the first request", 2,
+                server.getContext().getAssetCache().getEntryCount());
+        assertTrue("Should be ready as soon as it starts", server.getHealthChecker().isReady());
+        
+        HttpURLConnection connection = open("/index.html");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("First request should be a cache hit", 1, server.getContext().getAssetCache().getHitCount());
+    }
+    
+    @Test
+    public void testShutdownFailsReadinessThenCloses() throws IOException {
+        int port = server.getPort();
+        server.shutdown();
+        
+        assertTrue("Readiness should report draining", server.getHealthChecker().isDraining());
+        assertFalse("Should no longer be ready", server.getHealthChecker().isReady());
+        try {
+            new URL("http://127.0.0.1:" + port + "/api/health").openConnection().getInputStream();
+            fail("Listener should be closed");
+        } catch (ConnectException expected) {
+            // closed
+        }
+        server.shutdown();
+    }
+    
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+    }
+}
\ No newline at end of file
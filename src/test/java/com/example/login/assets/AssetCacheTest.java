@@ -0,0 +1,223 @@
+package com.example.login.assets;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+
+public class AssetCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private File root;
+    
+    @Before
+    public void setUp() throws IOException {
+        root = folder.newFolder("web");
+    }
+    
+    @Test
+    public void testLoadsAndCachesFile() throws IOException {
+        write("index.html", "<html></html>");
+        AssetCache cache = new AssetCache(root.getPath(), 1024, 1024, 60_000);
+        
+        StaticAsset first = cache.get("/index.html");
+        StaticAsset second = cache.get("/index.html");
+        
+        assertNotNull("File should be found", first);
+        assertSame("Second lookup should be served from the cache", first, second);
+        assertEquals("Content should be kept in memory", "<html></html>",
+                new String(first.getContent(), StandardCharsets.UTF_8));
+        assertEquals("One miss then one hit", 1, cache.getHitCount());
+        assertEquals("One miss then one hit", 1, cache.getMissCount());
+        assertEquals("Cached bytes should be tracked", 13, cache.getCachedBytes());
+    }
+    
+    @Test
+    public void testStrongEtagDependsOnContent() throws IOException {
+        write("a.css", "body{}");
+        write("b.css", "body{}");
+        write("c.css", "p{}");
+        AssetCache cache = new AssetCache(root.getPath());
+        
+        String etag = cache.get("/a.css").getEtag();
+        
+        assertTrue("ETag should be quoted", etag.startsWith("\"") && etag.endsWith("\""));
+        assertFalse("ETag should be strong", etag.startsWith("W/"));
+        assertEquals("Same content should give the same ETag", etag, cache.get("/b.css").getEtag());
+        assertNotEquals("Different content should give a different ETag", etag, cache.get("/c.css").getEtag());
+    }
+    
+    @Test
+    public void testLastModifiedIsHttpDate() throws IOException {
+        File file = write("index.html", "x");
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(784111777_000L));
+        AssetCache cache = new AssetCache(root.getPath());
+        
+        assertEquals("Last-Modified should be an RFC 1123 date", "Sun, 6 Nov 1994 08:49:37 GMT",
+                cache.get("/index.html").getLastModified());
+    }
+    
+    @Test
+    public void testChangedFileIsReloaded() throws IOException {
+        File file = write("script.js", "one");
+        AssetCache cache = new AssetCache(root.getPath(), 1024, 1024, 0);
+        StaticAsset before = cache.get("/script.js");
+        
+        write("script.js", "changed");
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(before.getFileTime() + 5000));
+        StaticAsset after = cache.get("/script.js");
+        
+        assertEquals("New content should be served", "changed", new String(after.getContent(), StandardCharsets.UTF_8));
+        assertNotEquals("ETag should change with the content", before.getEtag(), after.getEtag());
+    }
+    
+    @Test
+    public void testChangesIgnoredWithinRevalidateInterval() throws IOException {
+        File file = write("script.js", "one");
+        AssetCache cache = new AssetCache(root.getPath(), 1024, 1024, 60_000);
+        StaticAsset before = cache.get("/script.js");
+        
+        write("script.js", "changed");
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(before.getFileTime() + 5000));
+        
+        assertSame("Disk should not be checked inside the interval", before, cache.get("/script.js"));
+    }
+    
+    @Test
+    public void testDeletedFileIsDropped() throws IOException {
+        File file = write("gone.txt", "bye");
+        AssetCache cache = new AssetCache(root.getPath(), 1024, 1024, 0);
+        assertNotNull("File should be found first", cache.get("/gone.txt"));
+        
+        assertTrue("Test file should be deleted", file.delete());
+        
+        assertNull("Deleted file should no longer be served", cache.get("/gone.txt"));
+        assertEquals("Bytes should be released", 0, cache.getCachedBytes());
+    }
+    
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() throws Exception {
+        write("a.txt", repeat('a', 400));
+        write("b.txt", repeat('b', 400));
+        write("c.txt", repeat('c', 400));
+        AssetCache cache = new AssetCache(root.getPath(), 1000, 1000, 60_000);
+        
+        cache.get("/a.txt");
+        Thread.sleep(5);
+        cache.get("/b.txt");
+        Thread.sleep(5);
+        cache.get("/a.txt");
+        Thread.sleep(5);
+        cache.get("/c.txt");
+        
+        assertTrue("Cache should stay within budget", cache.getCachedBytes() <= 1000);
+        assertEquals("Only two entries fit", 2, cache.getEntryCount());
+        long misses = cache.getMissCount();
+        cache.get("/a.txt");
+        assertEquals("Recently used entry should survive", misses, cache.getMissCount());
+        cache.get("/b.txt");
+        assertEquals("Least recently used entry should be evicted", misses + 1, cache.getMissCount());
+    }
+    
+    @Test
+    public void testLargeFileKeepsMetadataOnly() throws IOException {
+        write("big.bin", repeat('z', 2048));
+        AssetCache cache = new AssetCache(root.getPath(), 4096, 1024, 60_000);
+        
+        StaticAsset asset = cache.get("/big.bin");
+        
+        assertFalse("Large file should not be held in memory", asset.isInMemory());
+        assertEquals("Length should still be known", 2048, asset.getLength());
+        assertNotNull("Large file should still have an ETag", asset.getEtag());
+        assertEquals("No bytes should be counted", 0, cache.getCachedBytes());
+    }
+    
+    @Test
+    public void testMissingDirectoryAndEscapingPaths() throws IOException {
+        folder.newFile("secret.txt");
+        new File(root, "sub").mkdir();
+        AssetCache cache = new AssetCache(root.getPath());
+        
+        assertNull("Missing file", cache.get("/missing.html"));
+        assertNull("Directory", cache.get("/sub"));
+        assertNull("Root itself", cache.get("/"));
+        assertNull("Path traversal", cache.get("/../secret.txt"));
+        assertNull("Nested traversal", cache.get("/sub/../../secret.txt"));
+    }
+    
+    @Test
+    public void testEquivalentPathsShareAnEntry() throws IOException {
+        new File(root, "sub").mkdir();
+        write("sub/app.js", "x");
+        AssetCache cache = new AssetCache(root.getPath());
+        
+        assertSame("Dot segments should normalise to one entry", cache.get("/sub/app.js"), cache.get("/sub/./app.js"));
+        assertEquals("Only one entry should exist", 1, cache.getEntryCount());
+    }
+    
+    @Test
+    public void testCompressibleFileGetsGzipVariant() throws IOException {
+        String css = repeat('a', 2000);
+        write("styles.css", css);
+        write("small.css", "p{}");
+        AssetCache cache = new AssetCache(root.getPath());
+        
+        StaticAsset asset = cache.get("/styles.css");
+        StaticAsset gzip = asset.getGzip();
+        
+        assertNotNull("Compressible file should get a gzip variant", gzip);
+        assertEquals("Variant should decompress to the original", css,
+                new String(PrecompressorTest.gunzip(gzip.getContent()), StandardCharsets.UTF_8));
+        assertNotEquals("Variant needs its own ETag", asset.getEtag(), gzip.getEtag());
+        assertEquals("Variant bytes should count against the budget",
+                asset.getLength() + gzip.getLength(), cache.getCachedBytes());
+        assertNull("Tiny files should not get a variant", cache.get("/small.css").getGzip());
+    }
+    
+    @Test
+    public void testPrecompressedSiblingIsPreferred() throws IOException {
+        write("script.js", repeat('b', 2000));
+        File gz = new File(root, "script.js.gz");
+        Files.write(gz.toPath(), Precompressor.gzip(repeat('b', 2000).getBytes(StandardCharsets.UTF_8)));
+        AssetCache cache = new AssetCache(root.getPath());
+        
+        StaticAsset gzip = cache.get("/script.js").getGzip();
+        
+        assertEquals("Precompressed sibling should be used", gz.toPath().toAbsolutePath().normalize(), gzip.getFile());
+    }
+    
+    @Test
+    public void testOutdatedSiblingIsIgnored() throws IOException {
+        File source = write("script.js", repeat('c', 2000));
+        File gz = new File(root, "script.js.gz");
+        Files.write(gz.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(gz.toPath(), FileTime.fromMillis(source.lastModified() - 10_000));
+        AssetCache cache = new AssetCache(root.getPath());
+        
+        StaticAsset gzip = cache.get("/script.js").getGzip();
+        
+        assertEquals("Outdated sibling should be replaced by on-the-fly gzip", source.toPath().toAbsolutePath().normalize(),
+                gzip.getFile());
+    }
+    
+    private File write(String name, String content) throws IOException {
+        File file = new File(root, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+    
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.example.login.assets;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.List;
+
+public class ByteRangeTest {
+    
+    @Test
+    public void testSimpleRanges() {
+        assertEquals("Closed range", "[0-99]", ByteRange.parse("bytes=0-99", 1000).toString());
+        assertEquals("Open-ended range", "[900-999]", ByteRange.parse("bytes=900-", 1000).toString());
+        assertEquals("Suffix range", "[950-999]", ByteRange.parse("bytes=-50", 1000).toString());
+        assertEquals("Unit should be case-insensitive", "[0-0]", ByteRange.parse("Bytes=0-0", 1000).toString());
+    }
+    
+    @Test
+    public void testRangesAreClampedToLength() {
+        assertEquals("Last byte past the end", "[500-999]", ByteRange.parse("bytes=500-5000", 1000).toString());
+        assertEquals("Suffix longer than the file", "[0-999]", ByteRange.parse("bytes=-5000", 1000).toString());
+    }
+    
+    @Test
+    public void testMultipleRangesAreSortedAndCoalesced() {
+        List<ByteRange> ranges = ByteRange.parse("bytes=500-599, 0-99, 50-150, 151-160", 1000);
+        
+        assertEquals("Overlapping and adjacent ranges should merge", "[0-160, 500-599]", ranges.toString());
+        assertEquals("Length should be inclusive", 161, ranges.get(0).getLength());
+    }
+    
+    @Test
+    public void testUnsatisfiableRanges() {
+        assertTrue("Start past the end", ByteRange.parse("bytes=1000-", 1000).isEmpty());
+        assertTrue("Zero-length suffix", ByteRange.parse("bytes=-0", 1000).isEmpty());
+        assertEquals("Satisfiable parts are kept", "[0-9]", ByteRange.parse("bytes=2000-3000,0-9", 1000).toString());
+    }
+    
+    @Test
+    public void testInvalidHeadersAreIgnored() {
+        assertNull("Missing header", ByteRange.parse(null, 1000));
+        assertNull("Other unit", ByteRange.parse("items=0-5", 1000));
+        assertNull("No dash", ByteRange.parse("bytes=5", 1000));
+        assertNull("Reversed range", ByteRange.parse("bytes=10-5", 1000));
+        assertNull("Not a number", ByteRange.parse("bytes=a-b", 1000));
+        assertNull("Signed number", ByteRange.parse("bytes=+1-5", 1000));
+        assertNull("Empty set", ByteRange.parse("bytes=", 1000));
+    }
+    
+    @Test
+    public void testTooManyRangesAreIgnored() {
+        StringBuilder header = new StringBuilder("bytes=");
+        for (int i = 0; i <= ByteRange.MAX_RANGES; i++) {
+            header.append(i == 0 ? "" : ",").append(i * 10).append('-').append(i * 10 + 1);
+        }
+        
+        assertNull("Excessive range counts should fall back to a full response", ByteRange.parse(header.toString(), 1000));
+    }
+    
+    @Test
+    public void testContentRange() {
+        assertEquals("Content-Range format", "bytes 0-499/1234", new ByteRange(0, 499).toContentRange(1234));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.example.login.assets;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class FingerprinterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private Path source;
+    private Path output;
+    
+    @Before
+    public void setUp() throws IOException {
+        source = folder.newFolder("web").toPath();
+        output = folder.getRoot().toPath().resolve("dist");
+    }
+    
+    @Test
+    public void testHashedName() {
+        assertEquals("Hash goes before the extension", "styles.1a2b3c4d.css", Fingerprinter.hashedName("styles.css", "1a2b3c4d"));
+        assertEquals("Directories are kept", "js/app.min.1a2b3c4d.js", Fingerprinter.hashedName("js/app.min.js", "1a2b3c4d"));
+        assertEquals("Names without extension get a suffix", "LICENSE.1a2b3c4d", Fingerprinter.hashedName("LICENSE", "1a2b3c4d"));
+    }
+    
+    @Test
+    public void testRewritesReferencesToHashedCopies() throws IOException {
+        write("styles.css", "body{}");
+        write("js/app.js", "run();");
+        write("index.html", "<link rel=\"stylesheet\" href=\"styles.css\">\n"
+                + "<script src='js/app.js?v=1'></script>\n"
+                + "<a href=\"https://example.com/styles.css\">x</a>\n"
+                + "<img src=\"missing.png\">");
+        
+        int rewritten = Fingerprinter.run(source, output);
+        
+        String cssHash = AssetCache.contentHash("body{}".getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+        String jsHash = AssetCache.contentHash("run();".getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+        assertEquals("Two local references should be rewritten", 2, rewritten);
+        assertEquals("Page should point at hashed names",
+                "<link rel=\"stylesheet\" href=\"styles." + cssHash + ".css\">\n"
+                        + "<script src='js/app." + jsHash + ".js?v=1'></script>\n"
+                        + "<a href=\"https://example.com/styles.css\">x</a>\n"
+                        + "<img src=\"missing.png\">",
+                read("index.html"));
+        assertEquals("Hashed copy should exist", "body{}", read("styles." + cssHash + ".css"));
+        assertEquals("Original name should still be served", "body{}", read("styles.css"));
+        assertEquals("Nested hashed copy should exist", "run();", read("js/app." + jsHash + ".js"));
+    }
+    
+    @Test
+    public void testNestedPagesResolveRelativeAndRootPaths() throws IOException {
+        write("styles.css", "p{}");
+        write("help/index.html", "<link href=\"../styles.css\"><link href=\"/styles.css\">");
+        
+        Fingerprinter.run(source, output);
+        
+        String hash = AssetCache.contentHash("p{}".getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+        assertEquals("Relative and absolute references should both be rewritten",
+                "<link href=\"../styles." + hash + ".css\"><link href=\"/styles." + hash + ".css\">",
+                read("help/index.html"));
+    }
+    
+    @Test
+    public void testHashChangesWithContent() throws IOException {
+        write("app.js", "one");
+        write("index.html", "<script src=\"app.js\"></script>");
+        Fingerprinter.run(source, output);
+        String first = read("index.html");
+        
+        write("app.js", "two");
+        Fingerprinter.run(source, output);
+        
+        assertNotEquals("New content should produce a new URL", first, read("index.html"));
+    }
+    
+    @Test
+    public void testDefaultCachePolicy() {
+        CachePolicy policy = CachePolicy.defaults();
+        
+        assertEquals("Hashed assets are immutable", CachePolicy.IMMUTABLE, policy.cacheControlFor("/styles.d847df8b.css"));
+        assertEquals("HTML always revalidates", CachePolicy.NO_CACHE, policy.cacheControlFor("/index.html"));
+        assertEquals("Unhashed assets revalidate", CachePolicy.NO_CACHE, policy.cacheControlFor("/script.js"));
+        assertEquals("Custom rules come first", "max-age=60",
+                new CachePolicy(CachePolicy.NO_CACHE).add("/api-docs/.*", "max-age=60").cacheControlFor("/api-docs/a.json"));
+    }
+    
+    private void write(String relative, String content) throws IOException {
+        Path file = source.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String read(String relative) throws IOException {
+        File file = output.resolve(relative).toFile();
+        assertTrue("Expected output file " + relative, file.exists());
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.example.login.assets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPInputStream;
+
+public class PrecompressorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void testCompressibleExtensions() {
+        assertTrue("HTML should be compressible", Precompressor.isCompressible("index.html"));
+        assertTrue("Extension match should ignore case", Precompressor.isCompressible("APP.JS"));
+        assertFalse("PNG is already compressed", Precompressor.isCompressible("logo.png"));
+        assertFalse("Existing gzip files should be left alone", Precompressor.isCompressible("app.js.gz"));
+    }
+    
+    @Test
+    public void testCompressIfSmaller() throws IOException {
+        byte[] text = repeat("body { margin: 0; }\n", 100).getBytes(StandardCharsets.UTF_8);
+        
+        byte[] compressed = Precompressor.compressIfSmaller(text);
+        
+        assertNotNull("Repetitive text should compress", compressed);
+        assertTrue("Compressed output should be smaller", compressed.length < text.length);
+        assertArrayEquals("Output should be valid gzip", text, gunzip(compressed));
+        assertNull("Tiny inputs should not be compressed", Precompressor.compressIfSmaller("x".getBytes()));
+    }
+    
+    @Test
+    public void testMainWritesSiblings() throws IOException {
+        File root = folder.newFolder("web");
+        File nested = new File(root, "js");
+        assertTrue("Nested dir should be created", nested.mkdir());
+        write(new File(root, "styles.css"), repeat("p { color: red; }\n", 50));
+        write(new File(nested, "app.js"), repeat("console.log('hi');\n", 50));
+        write(new File(root, "logo.png"), repeat("not really a png", 50));
+        write(new File(root, "tiny.txt"), "small");
+        
+        Precompressor.main(new String[] {root.getPath()});
+        
+        assertTrue("CSS should get a .gz sibling", new File(root, "styles.css.gz").exists());
+        assertTrue("Nested files should be included", new File(nested, "app.js.gz").exists());
+        assertFalse("Images should be skipped", new File(root, "logo.png.gz").exists());
+        assertFalse("Tiny files should be skipped", new File(root, "tiny.txt.gz").exists());
+        assertArrayEquals("Sibling should hold the gzipped original",
+                Files.readAllBytes(new File(root, "styles.css").toPath()),
+                gunzip(Files.readAllBytes(new File(root, "styles.css.gz").toPath())));
+    }
+    
+    @Test
+    public void testMainRefreshesStaleSiblings() throws IOException {
+        File root = folder.newFolder("web");
+        File css = new File(root, "styles.css");
+        File gz = new File(root, "styles.css.gz");
+        write(css, repeat("a { color: blue; }\n", 50));
+        write(gz, "stale");
+        Files.setLastModifiedTime(gz.toPath(), FileTime.fromMillis(css.lastModified() - 10_000));
+        
+        Precompressor.main(new String[] {root.getPath()});
+        
+        assertArrayEquals("Stale sibling should be rewritten", Files.readAllBytes(css.toPath()),
+                gunzip(Files.readAllBytes(gz.toPath())));
+    }
+    
+    static byte[] gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+    
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.example.login.assets;
+
+import com.example.login.controller.StaticFileHandler;
+import com.example.login.server.HttpEngine;
+import com.example.login.server.JdkHttpEngine;
+import com.example.login.server.nio.NioHttpEngine;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves a multi-MB asset over loopback and reports throughput and process CPU
+ * time per GB served for three delivery paths on both engines:
+ * the original FileInputStream + 1KB loop, the in-memory asset cache and the
+ * shared memory mapping (zero-copy on the NIO engine).
+ *
+ * Clients run in the same process, so absolute CPU figures include the client
+ * side; compare the rows against each other.
+ *
+ * Run with: ant benchmark -Dbench.class=com.example.login.assets.StaticDeliveryBenchmark
+ * Optional system properties: bench.fileMb (default 8), bench.clients (default 4),
+ * bench.seconds (default 5)
+ */
+public class StaticDeliveryBenchmark {
+    private static final String FILE_NAME = "bundle.bin";
+    
+    public static void main(String[] args) throws Exception {
+        int fileMb = Integer.getInteger("bench.fileMb", 8);
+        int clients = Integer.getInteger("bench.clients", 4);
+        int seconds = Integer.getInteger("bench.seconds", 5);
+        
+        Path root = Files.createTempDirectory("static-bench");
+        File file = root.resolve(FILE_NAME).toFile();
+        byte[] data = new byte[fileMb * 1024 * 1024];
+        new Random(1).nextBytes(data);
+        Files.write(file.toPath(), data);
+        
+        long heapBudget = 2L * data.length;
+        System.out.printf("%-8s %-12s %10s %14s%n", "engine", "path", "MB/s", "cpu ms/GB");
+        try {
+            for (String engine : new String[] {"jdk", "nio"}) {
+                run(engine, "stream-1k", legacyHandler(root.toString()), clients, seconds);
+                run(engine, "heap-cache", new StaticFileHandler(
+                        new AssetCache(root.toString(), heapBudget, heapBudget, 60_000)), clients, seconds);
+                run(engine, "mapped", new StaticFileHandler(
+                        new AssetCache(root.toString(), heapBudget, 64 * 1024, 60_000)), clients, seconds);
+            }
+        } finally {
+            Files.delete(file.toPath());
+            Files.delete(root);
+        }
+    }
+    
+    private static void run(String engineName, String path, HttpHandler handler, int clients, int seconds)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", 0);
+        HttpEngine engine = "nio".equals(engineName)
+                ? new NioHttpEngine(address, 128, 1, executor, 1024 * 1024)
+                : new JdkHttpEngine(address, 128, executor);
+        engine.createContext("/", handler);
+        engine.start();
+        int port = engine.getAddress().getPort();
+        
+        // Warm up, then measure
+        drive(port, clients, 1);
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuBefore = os.getProcessCpuTime();
+        long start = System.nanoTime();
+        long bytes = drive(port, clients, seconds);
+        long elapsed = System.nanoTime() - start;
+        long cpu = os.getProcessCpuTime() - cpuBefore;
+        
+        engine.stop(0);
+        executor.shutdownNow();
+        double gigabytes = bytes / (1024.0 * 1024 * 1024);
+        System.out.printf("%-8s %-12s %10.1f %14.1f%n", engineName, path,
+                bytes / (1024.0 * 1024) / (elapsed / 1e9), cpu / 1e6 / gigabytes);
+    }
+    
+    private static long drive(int port, int clients, int seconds) throws InterruptedException {
+        LongAdder bytes = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(() -> {
+                byte[] sink = new byte[64 * 1024];
+                try (Socket socket = new Socket("127.0.0.1", port)) {
+                    OutputStream out = socket.getOutputStream();
+                    InputStream in = socket.getInputStream();
+                    byte[] request = ("GET /" + FILE_NAME + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                            .getBytes(StandardCharsets.ISO_8859_1);
+                    while (running.get()) {
+                        out.write(request);
+                        out.flush();
+                        long remaining = readContentLength(in);
+                        while (remaining > 0) {
+                            int read = in.read(sink, 0, (int) Math.min(sink.length, remaining));
+                            if (read < 0) {
+                                throw new IOException("Connection closed mid-body");
+                            }
+                            remaining -= read;
+                            bytes.add(read);
+                        }
+                    }
+                } catch (IOException e) {
+                    System.err.println("Client error: " + e.getMessage());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return bytes.sum();
+    }
+    
+    // Reads a response head and returns its Content-Length
+    private static long readContentLength(InputStream in) throws IOException {
+        StringBuilder head = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            head.append((char) c);
+            if (c == '\n' && head.length() >= 4 && head.lastIndexOf("\r\n\r\n") == head.length() - 4) {
+                break;
+            }
+        }
+        for (String line : head.toString().split("\r\n")) {
+            if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                return Long.parseLong(line.substring(15).trim());
+            }
+        }
+        throw new IOException("Response without Content-Length: " + head);
+    }
+    
+    // The delivery loop StaticFileHandler used before the asset cache
+    private static HttpHandler legacyHandler(String webRoot) {
+        return exchange -> {
+            File file = new File(webRoot + exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(200, file.length());
+            OutputStream os = exchange.getResponseBody();
+            FileInputStream fis = new FileInputStream(file);
+            byte[] buffer = new byte[1024];
+            int bytesRead;
+            while ((bytesRead = fis.read(buffer)) != -1) {
+                os.write(buffer, 0, bytesRead);
+            }
+            fis.close();
+            os.close();
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.example.login.controller;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import com.example.login.health.ErrorCountingFilter;
+import com.example.login.health.HealthChecker;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+
+public class HealthControllerTest {
+    private HttpServer server;
+    private HealthChecker checker;
+    private ErrorCountingFilter errorCounter;
+    private AtomicBoolean loaded;
+    private int port;
+    
+    @Before
+    public void setUp() throws IOException {
+        loaded = new AtomicBoolean(true);
+        errorCounter = new ErrorCountingFilter();
+        checker = new HealthChecker();
+        checker.addCheck("userStore", () -> loaded.get() ? null : "no users loaded");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/health", new HealthController(checker));
+        HttpContext failing = server.createContext("/fail", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        failing.getFilters().add(errorCounter);
+        // Answers the way the shedding filters do
+        HttpContext busy = server.createContext("/busy", exchange -> {
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        busy.getFilters().add(errorCounter);
+        server.start();
+        port = server.getAddress().getPort();
+    }
+    
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    public void testLegacyHealthCheckStillWorks() throws IOException {
+        HttpURLConnection connection = open("/api/health");
+        
+        assertEquals("Should return 200", 200, connection.getResponseCode());
+        assertEquals("{\"status\":\"OK\",\"message\":\"Login service is running\"}", body(connection));
+    }
+    
+    @Test
+    public void testLivenessIgnoresReadiness() throws IOException {
+        loaded.set(false);
+        checker.checkNow();
+        HttpURLConnection connection = open("/api/health/live");
+        
+        assertEquals("Live even when not ready", 200, connection.getResponseCode());
+        assertEquals("{\"status\":\"UP\"}", body(connection));
+    }
+    
+    @Test
+    public void testReadinessFollowsChecks() throws IOException {
+        HttpURLConnection starting = open("/api/health/ready");
+        assertEquals("Not ready before the first check", 503, starting.getResponseCode());
+        
+        checker.checkNow();
+        HttpURLConnection ready = open("/api/health/ready");
+        assertEquals("Ready once checks pass", 200, ready.getResponseCode());
+        assertEquals("{\"status\":\"UP\",\"checks\":{\"userStore\":\"UP\"}}", body(ready));
+        
+        loaded.set(false);
+        checker.checkNow();
+        HttpURLConnection down = open("/api/health/ready");
+        assertEquals("Not ready when a check fails", 503, down.getResponseCode());
+        assertTrue("Should say why", body(down).contains("no users loaded"));
+    }
+    
+    @Test
+    public void testUnknownPathAndMethod() throws IOException {
+        assertEquals("Unknown probe should return 404", 404, open("/api/health/other").getResponseCode());
+        
+        HttpURLConnection post = open("/api/health/ready");
+        post.setRequestMethod("POST");
+        assertEquals("Only GET and HEAD should be allowed", 405, post.getResponseCode());
+    }
+    
+    @Test
+    public void testErrorCountingFilter() throws IOException {
+        assertEquals(500, open("/fail").getResponseCode());
+        assertEquals(500, open("/fail").getResponseCode());
+        // Handled on the same dispatcher thread, so the counts above are in by now
+        assertEquals(200, open("/api/health").getResponseCode());
+        
+        assertEquals("Requests should be counted", 2, errorCounter.getRequestCount());
+        assertEquals("5xx responses should be counted", 2, errorCounter.getErrorCount());
+    }
+    
+    @Test
+    public void testSheddingNodeStaysReady() throws IOException {
+        HealthChecker shedding = new HealthChecker();
+        shedding.addErrorRateCheck("errorRate", errorCounter::getRequestCount, errorCounter::getErrorCount, 0.5, 20);
+        for (int i = 0; i < 30; i++) {
+            assertEquals(503, open("/busy").getResponseCode());
+        }
+        // Handled on the same dispatcher thread, so the counts above are in by now
+        assertEquals(200, open("/api/health").getResponseCode());
+        shedding.checkNow();
+        
+        assertEquals("Shed requests should be counted", 30, errorCounter.getRequestCount());
+        assertEquals("Shedding is not an error", 0, errorCounter.getErrorCount());
+        assertTrue("A node that sheds load should stay in rotation", shedding.isReady());
+    }
+    
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+    }
+    
+    private static String body(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
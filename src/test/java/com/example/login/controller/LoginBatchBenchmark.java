@@ -0,0 +1,112 @@
+package com.example.login.controller;
+
+import com.example.login.LoginServer;
+import com.example.login.server.ServerConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Logins per second for a gateway sending one POST /api/login per user versus
+ * POST /api/login/batch with bench.batch users per request, over keep-alive
+ * connections from bench.clients threads against a real LoginServer. The demo
+ * accounts use a token hashing work factor, so this measures the per-request
+ * HTTP and parsing overhead the batch endpoint saves rather than PBKDF2.
+ *
+ * The Ant build has no JMH, so this is a plain warm-up-then-measure harness.
+ *
+ * Run with: ant benchmark -Dbench.class=com.example.login.controller.LoginBatchBenchmark
+ *     -Dbench.jvmargs="-Dlogin.engine=nio -Dlogin.credentialCache=true"
+ * Optional system properties: bench.batch (default 100), bench.clients
+ * (default 4), bench.seconds (default 5); server settings come from login.*
+ */
+public class LoginBatchBenchmark {
+    private static final byte[] LOGIN_BODY =
+            "{\"username\":\"demo\",\"password\":\"demo\"}".getBytes(StandardCharsets.UTF_8);
+    
+    public static void main(String[] args) throws Exception {
+        int batch = Integer.getInteger("bench.batch", 100);
+        int clients = Integer.getInteger("bench.clients", 4);
+        int seconds = Integer.getInteger("bench.seconds", 5);
+        
+        ServerConfig config = new ServerConfig(0, "web").applyProperties(System.getProperties());
+        config.setLoginBatchSize(batch);
+        // Every client logs in as demo from one address; measure the endpoint, not throttling
+        config.setRateLimit(false);
+        LoginServer server = new LoginServer(config);
+        server.start();
+        try {
+            StringBuilder body = new StringBuilder("{\"credentials\":[");
+            for (int i = 0; i < batch; i++) {
+                body.append(i > 0 ? "," : "").append(new String(LOGIN_BODY, StandardCharsets.UTF_8));
+            }
+            byte[] batchBody = body.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+            URL single = new URL("http://localhost:" + server.getPort() + "/api/login");
+            URL batched = new URL("http://localhost:" + server.getPort() + "/api/login/batch");
+            
+            System.out.printf("%-8s %8s %12s %12s%n", "mode", "batch", "logins/s", "us/login");
+            run("single", single, LOGIN_BODY, 1, clients, 1);
+            report("single", 1, run("single", single, LOGIN_BODY, 1, clients, seconds), seconds);
+            run("batch", batched, batchBody, batch, clients, 1);
+            report("batch", batch, run("batch", batched, batchBody, batch, clients, seconds), seconds);
+        } finally {
+            server.stop(0);
+        }
+    }
+    
+    private static void report(String name, int batch, long logins, int seconds) {
+        double rate = logins / (double) seconds;
+        System.out.printf("%-8s %8d %12.0f %12.1f%n", name, batch, rate, 1_000_000 / rate);
+    }
+    
+    // Successful logins completed by all clients within the time limit
+    private static long run(String name, URL url, byte[] body, int perRequest, int clients, int seconds)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[] counts = new long[clients];
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            threads[c] = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        if (post(url, body) != 200) {
+                            throw new IllegalStateException(name + " request failed");
+                        }
+                        counts[client] += perRequest;
+                    } catch (IOException e) {
+                        throw new IllegalStateException(name + " request failed", e);
+                    }
+                }
+            });
+            threads[c].start();
+        }
+        long total = 0;
+        for (int c = 0; c < clients; c++) {
+            threads[c].join();
+            total += counts[c];
+        }
+        return total;
+    }
+    
+    private static int post(URL url, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(body);
+        }
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (in != null) {
+                // Drain so the keep-alive connection can be reused
+                in.readAllBytes();
+            }
+        }
+        return status;
+    }
+}
\ No newline at end of file
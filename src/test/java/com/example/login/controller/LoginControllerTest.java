@@ -6,6 +6,18 @@ import static org.junit.Assert.*;
 import java.io.*;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import com.example.login.json.JsonWriter;
+import com.example.login.model.LoginRequest;
+import com.example.login.model.LoginResponse;
+import com.example.login.security.HashingPool;
+import com.example.login.security.PasswordHasher;
+import com.example.login.security.RateLimiter;
+import com.example.login.service.MockAuthService;
+import com.example.login.store.ConcurrentUserStore;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpPrincipal;
@@ -79,11 +91,50 @@ public class LoginControllerTest {
         
         loginController.handle(mockExchange);
         
-        // The simple JSON parser doesn't throw exceptions, so it returns 401 for null credentials
-        assertEquals("Should return 401 for malformed JSON (parsed as null credentials)", 401, mockExchange.getResponseCode());
+        // The streaming parser rejects malformed JSON outright
+        assertEquals("Should return 400 for malformed JSON", 400, mockExchange.getResponseCode());
         String response = mockExchange.getResponseBodyAsString();
         assertTrue("Response should indicate failure", response.contains("\"success\":false"));
-        assertTrue("Response should contain required fields error", response.contains("required"));
+        assertTrue("Response should contain format error", response.contains("Invalid request format"));
+    }
+    
+    @Test
+    public void testHandlePostEscapedValues() throws IOException {
+        mockExchange.setRequestMethod("POST");
+        String requestBody = "{\"note\":\"has \\\"quotes\\\" and {braces}\",\"username\":\"de\\u006do\",\"password\":\"demo\"}";
+        mockExchange.setRequestBody(requestBody);
+        
+        loginController.handle(mockExchange);
+        
+        assertEquals("Escapes and unknown fields should parse", 200, mockExchange.getResponseCode());
+        assertTrue("Response should indicate success", mockExchange.getResponseBodyAsString().contains("\"success\":true"));
+    }
+    
+    @Test
+    public void testHandlePostOversizedBody() throws IOException {
+        mockExchange.setRequestMethod("POST");
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            padding.append('x');
+        }
+        mockExchange.setRequestBody("{\"username\":\"demo\",\"password\":\"demo\",\"pad\":\"" + padding + "\"}");
+        
+        loginController.handle(mockExchange);
+        
+        assertEquals("Should return 413 for oversized body", 413, mockExchange.getResponseCode());
+    }
+    
+    @Test
+    public void testResponseValuesAreEscaped() {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            LoginController.writeJson(writer, new LoginResponse(false, "Bad \"quote\"\n", null, "a\\b"));
+            String json = new String(writer.toByteArray(), StandardCharsets.UTF_8);
+            assertEquals("Message and role should be escaped",
+                    "{\"success\":false,\"message\":\"Bad \\\"quote\\\"\\n\",\"role\":\"a\\\\b\"}", json);
+        } finally {
+            writer.release();
+        }
     }
     
     @Test
@@ -147,6 +198,280 @@ public class LoginControllerTest {
         assertTrue("Response should indicate failure", response.contains("\"success\":false"));
     }
     
+    @Test
+    public void testLoginIsShedWhenHashingPoolIsFull() throws Exception {
+        HashingPool pool = new HashingPool(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            ConcurrentUserStore store = new ConcurrentUserStore();
+            store.load(MockAuthService.defaultUsers());
+            LoginController controller = new LoginController(
+                new MockAuthService(store, pool, new PasswordHasher(PasswordHasher.DEMO_ITERATIONS)));
+            for (int i = 0; i < 2; i++) {
+                Thread holder = new Thread(() -> pool.call(() -> {
+                    started.countDown();
+                    return release.await(5, TimeUnit.SECONDS);
+                }));
+                holder.setDaemon(true);
+                holder.start();
+                assertTrue("Blocking job should start", started.await(5, TimeUnit.SECONDS));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (pool.getQueueDepth() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            mockExchange.setRequestMethod("POST");
+            mockExchange.setRequestBody("{\"username\":\"demo\",\"password\":\"demo\"}");
+            
+            controller.handle(mockExchange);
+            
+            assertEquals("Should return 503 when hashing is saturated", 503, mockExchange.getResponseCode());
+            assertEquals("Should ask the client to retry", "1",
+                mockExchange.getResponseHeaders().getFirst("Retry-After"));
+            assertTrue("Response should indicate failure", mockExchange.getResponseBodyAsString().contains("\"success\":false"));
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testBatchLoginKeepsRequestOrder() throws IOException {
+        mockExchange.setRequestMethod("POST");
+        mockExchange.setRequestURI("/api/login/batch");
+        mockExchange.setRequestBody("{\"credentials\":[{\"username\":\"admin\",\"password\":\"admin123\"},"
+            + "{\"username\":\"demo\",\"password\":\"wrong\"},{\"username\":\"user\"},"
+            + "{\"username\":\"demo\",\"password\":\"demo\",\"extra\":1}]}");
+        
+        loginController.handle(mockExchange);
+        
+        assertEquals("Batch should return 200", 200, mockExchange.getResponseCode());
+        String response = mockExchange.getResponseBodyAsString();
+        assertTrue("Response should wrap the results", response.startsWith("{\"results\":[{\"success\":true"));
+        int admin = response.indexOf("\"role\":\"ADMIN\"");
+        int wrong = response.indexOf("Invalid username or password");
+        int missing = response.indexOf("Username and password are required");
+        int demo = response.lastIndexOf("\"role\":\"USER\"");
+        assertTrue("Results should follow the request order", admin > 0 && admin < wrong && wrong < missing && missing < demo);
+        assertTrue("Response should be complete", response.endsWith("}]}"));
+    }
+    
+    @Test
+    public void testBatchLoginReportsFailedItemsAsErrorsNotTimeouts() throws IOException {
+        MockAuthService failing = new MockAuthService() {
+            @Override
+            public Future<LoginResponse> authenticateAsync(LoginRequest request) {
+                if ("demo".equals(request.getUsername())) {
+                    CompletableFuture<LoginResponse> result = new CompletableFuture<>();
+                    result.completeExceptionally(new IllegalStateException("store offline"));
+                    return result;
+                }
+                return super.authenticateAsync(request);
+            }
+        };
+        LoginController controller = new LoginController(failing);
+        mockExchange.setRequestMethod("POST");
+        mockExchange.setRequestURI("/api/login/batch");
+        mockExchange.setRequestBody("{\"credentials\":[{\"username\":\"demo\",\"password\":\"demo\"},"
+            + "{\"username\":\"admin\",\"password\":\"admin123\"}]}");
+        
+        controller.handle(mockExchange);
+        
+        String response = mockExchange.getResponseBodyAsString();
+        assertTrue(response, response.startsWith(
+            "{\"results\":[{\"success\":false,\"message\":\"Internal server error\"},{\"success\":true"));
+        assertFalse("A failure should not be reported as a timeout", response.contains("Timed out"));
+    }
+    
+    @Test
+    public void testBatchLoginRejectsTooManyCredentials() throws IOException {
+        LoginController controller = new LoginController(new MockAuthService(), 2, 1000);
+        mockExchange.setRequestMethod("POST");
+        mockExchange.setRequestURI("/api/login/batch");
+        mockExchange.setRequestBody("{\"credentials\":[{\"username\":\"a\",\"password\":\"b\"},"
+            + "{\"username\":\"a\",\"password\":\"b\"},{\"username\":\"a\",\"password\":\"b\"}]}");
+        
+        controller.handle(mockExchange);
+        
+        assertEquals("Oversized batch should return 400", 400, mockExchange.getResponseCode());
+        assertTrue("Response should state the limit", mockExchange.getResponseBodyAsString().contains("At most 2 logins"));
+    }
+    
+    @Test
+    public void testBatchLoginRejectsMalformedBody() throws IOException {
+        mockExchange.setRequestMethod("POST");
+        mockExchange.setRequestURI("/api/login/batch");
+        mockExchange.setRequestBody("{\"credentials\":[{\"username\":");
+        
+        loginController.handle(mockExchange);
+        
+        assertEquals("Malformed batch should return 400", 400, mockExchange.getResponseCode());
+    }
+    
+    @Test
+    public void testBatchLoginReportsItemsPastTheTimeBudget() throws Exception {
+        HashingPool pool = new HashingPool(1, 8);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            ConcurrentUserStore store = new ConcurrentUserStore();
+            store.load(MockAuthService.defaultUsers());
+            LoginController controller = new LoginController(
+                new MockAuthService(store, pool, new PasswordHasher(PasswordHasher.DEMO_ITERATIONS)), 10, 100);
+            pool.submit(() -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            });
+            assertTrue("Blocking job should start", started.await(5, TimeUnit.SECONDS));
+            mockExchange.setRequestMethod("POST");
+            mockExchange.setRequestURI("/api/login/batch");
+            mockExchange.setRequestBody("{\"credentials\":[{\"username\":\"demo\",\"password\":\"demo\"},"
+                + "{\"username\":\"nobody\",\"password\":\"x\"}]}");
+            
+            long begin = System.nanoTime();
+            controller.handle(mockExchange);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+            
+            String response = mockExchange.getResponseBodyAsString();
+            assertEquals("Batch should still return 200", 200, mockExchange.getResponseCode());
+            assertTrue("Stuck item should time out", response.contains("Timed out"));
+            assertTrue("Items needing no hash should still be answered", response.contains("Invalid username or password"));
+            assertTrue("Batch should end near its budget", elapsed < 2000);
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testBatchLoginShedsItemsWhenHashingPoolIsFull() throws Exception {
+        HashingPool pool = new HashingPool(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            ConcurrentUserStore store = new ConcurrentUserStore();
+            store.load(MockAuthService.defaultUsers());
+            LoginController controller = new LoginController(
+                new MockAuthService(store, pool, new PasswordHasher(PasswordHasher.DEMO_ITERATIONS)));
+            pool.submit(() -> {
+                started.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            });
+            assertTrue("Blocking job should start", started.await(5, TimeUnit.SECONDS));
+            pool.submit(() -> release.await(5, TimeUnit.SECONDS));
+            mockExchange.setRequestMethod("POST");
+            mockExchange.setRequestURI("/api/login/batch");
+            mockExchange.setRequestBody("{\"credentials\":[{\"username\":\"demo\",\"password\":\"demo\"}]}");
+            
+            controller.handle(mockExchange);
+            
+            assertEquals("Batch should still return 200", 200, mockExchange.getResponseCode());
+            assertTrue("Item should be shed", mockExchange.getResponseBodyAsString().contains("Server is busy"));
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testLoginIsThrottledPerUsername() throws IOException {
+        loginController.setRateLimiters(null, new RateLimiter(1, 2, 100));
+        for (int i = 0; i < 2; i++) {
+            MockHttpExchange attempt = new MockHttpExchange();
+            attempt.setRequestMethod("POST");
+            attempt.setRequestBody("{\"username\":\"demo\",\"password\":\"guess" + i + "\"}");
+            loginController.handle(attempt);
+            assertEquals("Attempts within the burst should be checked", 401, attempt.getResponseCode());
+        }
+        mockExchange.setRequestMethod("POST");
+        mockExchange.setRequestBody("{\"username\":\" demo \",\"password\":\"demo\"}");
+        
+        loginController.handle(mockExchange);
+        
+        assertEquals("Should return 429 once the username is out of attempts", 429, mockExchange.getResponseCode());
+        assertTrue("Should say when to retry", Integer.parseInt(mockExchange.getResponseHeaders().getFirst("Retry-After")) > 0);
+        assertTrue("Response should explain", mockExchange.getResponseBodyAsString().contains("Too many login attempts"));
+        
+        MockHttpExchange other = new MockHttpExchange();
+        other.setRequestMethod("POST");
+        other.setRequestBody("{\"username\":\"admin\",\"password\":\"admin123\"}");
+        loginController.handle(other);
+        assertEquals("Other usernames should be unaffected", 200, other.getResponseCode());
+    }
+    
+    @Test
+    public void testLoginIsThrottledPerAddress() throws IOException {
+        loginController.setRateLimiters(new RateLimiter(1, 1, 100), null);
+        MockHttpExchange first = new MockHttpExchange();
+        first.setRequestMethod("POST");
+        first.setRemoteAddress("192.0.2.1");
+        first.setRequestBody("{\"username\":\"demo\",\"password\":\"demo\"}");
+        loginController.handle(first);
+        assertEquals("First attempt should be allowed", 200, first.getResponseCode());
+        
+        mockExchange.setRequestMethod("POST");
+        mockExchange.setRemoteAddress("192.0.2.1");
+        mockExchange.setRequestBody("{\"username\":\"admin\",\"password\":\"admin123\"}");
+        loginController.handle(mockExchange);
+        
+        assertEquals("Second attempt from the address should be throttled", 429, mockExchange.getResponseCode());
+        assertEquals("Retry-After should be the refill time", "60", mockExchange.getResponseHeaders().getFirst("Retry-After"));
+    }
+    
+    @Test
+    public void testBatchItemsAreThrottledPerUsername() throws IOException {
+        loginController.setRateLimiters(new RateLimiter(1, 10, 100), new RateLimiter(1, 1, 100));
+        mockExchange.setRequestMethod("POST");
+        mockExchange.setRemoteAddress("192.0.2.1");
+        mockExchange.setRequestURI("/api/login/batch");
+        mockExchange.setRequestBody("{\"credentials\":[{\"username\":\"demo\",\"password\":\"demo\"},"
+            + "{\"username\":\"demo\",\"password\":\"demo\"},{\"username\":\"admin\",\"password\":\"admin123\"}]}");
+        
+        loginController.handle(mockExchange);
+        
+        String response = mockExchange.getResponseBodyAsString();
+        assertEquals("Batch should return 200", 200, mockExchange.getResponseCode());
+        int limited = response.indexOf("Too many login attempts");
+        assertTrue("Repeated username should be throttled in place",
+            limited > response.indexOf("\"role\":\"USER\"") && limited < response.indexOf("\"role\":\"ADMIN\""));
+    }
+    
+    @Test
+    public void testBatchItemsAreChargedToTheAddress() throws IOException {
+        loginController.setRateLimiters(new RateLimiter(1, 3, 100), null);
+        mockExchange.setRequestMethod("POST");
+        mockExchange.setRemoteAddress("192.0.2.1");
+        mockExchange.setRequestURI("/api/login/batch");
+        mockExchange.setRequestBody("{\"credentials\":[{\"username\":\"demo\",\"password\":\"guess1\"},"
+            + "{\"username\":\"admin\",\"password\":\"guess2\"},{\"username\":\"user\",\"password\":\"guess3\"},"
+            + "{\"username\":\"test\",\"password\":\"guess4\"},{\"username\":\"manager\",\"password\":\"guess5\"}]}");
+        
+        loginController.handle(mockExchange);
+        
+        String response = mockExchange.getResponseBodyAsString();
+        assertEquals("Batch should return 200", 200, mockExchange.getResponseCode());
+        assertEquals("Only the burst should be checked", 3, count(response, "Invalid username or password"));
+        assertEquals("Items past the address burst should be throttled", 2, count(response, "Too many login attempts"));
+        assertTrue("Throttled items should come last",
+            response.lastIndexOf("Invalid username or password") < response.indexOf("Too many login attempts"));
+        
+        MockHttpExchange single = new MockHttpExchange();
+        single.setRequestMethod("POST");
+        single.setRemoteAddress("192.0.2.1");
+        single.setRequestBody("{\"username\":\"demo\",\"password\":\"demo\"}");
+        loginController.handle(single);
+        assertEquals("The batch should have used up the address budget", 429, single.getResponseCode());
+    }
+    
+    private static int count(String text, String needle) {
+        int count = 0;
+        for (int i = text.indexOf(needle); i >= 0; i = text.indexOf(needle, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+    
     // Mock HttpExchange class for testing
     private static class MockHttpExchange extends HttpExchange {
         private String requestMethod;
@@ -156,11 +481,20 @@ public class LoginControllerTest {
         private Headers responseHeaders = new Headers();
         private int responseCode;
         private URI requestURI;
+        private java.net.InetSocketAddress remoteAddress;
         
         public void setRequestMethod(String method) {
             this.requestMethod = method;
         }
         
+        public void setRemoteAddress(String host) {
+            this.remoteAddress = new java.net.InetSocketAddress(host, 40000);
+        }
+        
+        public void setRequestURI(String uri) {
+            this.requestURI = URI.create(uri);
+        }
+        
         public void setRequestBody(String body) {
             this.requestBody = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
         }
@@ -218,7 +552,7 @@ public class LoginControllerTest {
         public String getProtocol() { return "HTTP/1.1"; }
         
         @Override
-        public java.net.InetSocketAddress getRemoteAddress() { return null; }
+        public java.net.InetSocketAddress getRemoteAddress() { return remoteAddress; }
         
         @Override
         public java.net.InetSocketAddress getLocalAddress() { return null; }
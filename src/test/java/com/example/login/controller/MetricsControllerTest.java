@@ -0,0 +1,107 @@
+package com.example.login.controller;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import com.example.login.metrics.MetricsFilter;
+import com.example.login.metrics.MetricsRegistry;
+import com.example.login.service.MockAuthService;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+
+public class MetricsControllerTest {
+    private HttpServer server;
+    private MetricsRegistry registry;
+    private MockAuthService authService;
+    private int port;
+    
+    @Before
+    public void setUp() throws IOException {
+        registry = new MetricsRegistry();
+        authService = new MockAuthService();
+        registry.counter("login_auth_total", "Logins by outcome", authService::getSuccessCount, "outcome", "success");
+        registry.counter("login_auth_total", "Logins by outcome", authService::getFailureCount, "outcome", "failure");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        HttpContext login = server.createContext("/api/login", new LoginController(authService));
+        login.getFilters().add(new MetricsFilter(registry, "/api/login"));
+        HttpContext failing = server.createContext("/fail", exchange -> {
+            throw new IOException("handler failed");
+        });
+        failing.getFilters().add(new MetricsFilter(registry, "/fail"));
+        server.createContext("/api/metrics", new MetricsController(registry));
+        server.start();
+        port = server.getAddress().getPort();
+    }
+    
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    public void testRecordsRequestsByEndpointAndStatus() throws IOException {
+        assertEquals("Valid login should succeed", 200, post("/api/login", "{\"username\":\"admin\",\"password\":\"admin123\"}"));
+        assertEquals("Wrong password should fail", 401, post("/api/login", "{\"username\":\"admin\",\"password\":\"x\"}"));
+        assertEquals("Second failure", 401, post("/api/login", "{\"username\":\"admin\",\"password\":\"y\"}"));
+        
+        String text = scrape();
+        assertTrue(text, text.contains("login_http_responses_total{endpoint=\"/api/login\",status=\"200\"} 1\n"));
+        assertTrue(text, text.contains("login_http_responses_total{endpoint=\"/api/login\",status=\"401\"} 2\n"));
+        assertTrue(text, text.contains("login_http_request_duration_seconds_count{endpoint=\"/api/login\"} 3\n"));
+        assertTrue(text, text.contains("login_auth_total{outcome=\"success\"} 1\n"));
+        assertTrue(text, text.contains("login_auth_total{outcome=\"failure\"} 2\n"));
+    }
+    
+    @Test
+    public void testCountsRequestsWhoseHandlerFailed() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/fail").openConnection();
+        try {
+            connection.getResponseCode();
+        } catch (IOException e) {
+            // The server drops the connection
+        }
+        
+        String text = scrape();
+        // The client may retry on the dropped connection, so only the label is checked
+        assertTrue(text, text.contains("login_http_responses_total{endpoint=\"/fail\",status=\"none\"} "));
+        assertFalse(text, text.contains("endpoint=\"/fail\",status=\"200\""));
+    }
+    
+    @Test
+    public void testServesPrometheusText() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/api/metrics").openConnection();
+        
+        assertEquals("Should return 200", 200, connection.getResponseCode());
+        assertEquals("Should use the Prometheus text type", MetricsController.CONTENT_TYPE, connection.getContentType());
+        assertTrue("Should describe each family", scrape().contains("# TYPE login_auth_total counter\n"));
+        
+        HttpURLConnection post = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/api/metrics").openConnection();
+        post.setRequestMethod("POST");
+        assertEquals("Only GET and HEAD should be allowed", 405, post.getResponseCode());
+    }
+    
+    private int post(String path, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        (status < 400 ? connection.getInputStream() : connection.getErrorStream()).readAllBytes();
+        return status;
+    }
+    
+    private String scrape() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/api/metrics").openConnection();
+        return new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,343 @@
+package com.example.login.controller;
+
+import com.example.login.assets.AssetCache;
+import com.example.login.server.nio.NioHttpEngine;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+public class StaticFileHandlerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private HttpServer server;
+    private AssetCache cache;
+    private StaticFileHandler handler;
+    private byte[] largeFile;
+    private int port;
+    
+    @Before
+    public void setUp() throws IOException {
+        File root = folder.newFolder("web");
+        Files.write(new File(root, "index.html").toPath(), "<html>home</html>".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(root, "styles.css").toPath(), "body{}".getBytes(StandardCharsets.UTF_8));
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            script.append("console.log(").append(i).append(");\n");
+        }
+        Files.write(new File(root, "script.js").toPath(), script.toString().getBytes(StandardCharsets.UTF_8));
+        largeFile = new byte[300 * 1024];
+        new Random(42).nextBytes(largeFile);
+        Files.write(new File(root, "bundle.bin").toPath(), largeFile);
+        
+        // Anything over 64KB is served from a mapping rather than the heap cache
+        cache = new AssetCache(root.getPath(), 1024 * 1024, 64 * 1024, 1000);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        handler = new StaticFileHandler(cache);
+        server.createContext("/", handler);
+        server.start();
+        port = server.getAddress().getPort();
+    }
+    
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    public void testServesIndexForRoot() throws IOException {
+        HttpURLConnection connection = open("/");
+        
+        assertEquals("Should return 200", 200, connection.getResponseCode());
+        assertEquals("Should serve HTML", "text/html", connection.getContentType());
+        assertEquals("Should serve index.html", "<html>home</html>", body(connection));
+        assertNotNull("Should send an ETag", connection.getHeaderField("ETag"));
+        assertNotNull("Should send Last-Modified", connection.getHeaderField("Last-Modified"));
+    }
+    
+    @Test
+    public void testCacheControlPolicy() throws IOException {
+        Files.write(folder.getRoot().toPath().resolve("web/app.0123abcd.js"), "x".getBytes(StandardCharsets.UTF_8));
+        
+        assertEquals("HTML should always revalidate", "no-cache", open("/").getHeaderField("Cache-Control"));
+        assertEquals("Hashed assets should be immutable", "public, max-age=31536000, immutable",
+                open("/app.0123abcd.js").getHeaderField("Cache-Control"));
+    }
+    
+    @Test
+    public void testMatchingEtagReturns304() throws IOException {
+        String etag = open("/styles.css").getHeaderField("ETag");
+        
+        HttpURLConnection connection = open("/styles.css");
+        connection.setRequestProperty("If-None-Match", "\"other\", " + etag);
+        
+        assertEquals("Matching ETag should return 304", 304, connection.getResponseCode());
+        assertEquals("304 should repeat the ETag", etag, connection.getHeaderField("ETag"));
+    }
+    
+    @Test
+    public void testStaleEtagReturnsBody() throws IOException {
+        HttpURLConnection connection = open("/styles.css");
+        connection.setRequestProperty("If-None-Match", "\"stale\"");
+        
+        assertEquals("Stale ETag should return 200", 200, connection.getResponseCode());
+        assertEquals("Body should be sent", "body{}", body(connection));
+    }
+    
+    @Test
+    public void testIfModifiedSince() throws IOException {
+        String lastModified = open("/styles.css").getHeaderField("Last-Modified");
+        
+        HttpURLConnection current = open("/styles.css");
+        current.setRequestProperty("If-Modified-Since", lastModified);
+        HttpURLConnection old = open("/styles.css");
+        old.setRequestProperty("If-Modified-Since", "Sun, 6 Nov 1994 08:49:37 GMT");
+        
+        assertEquals("Unchanged since the given date should return 304", 304, current.getResponseCode());
+        assertEquals("Changed since the given date should return 200", 200, old.getResponseCode());
+    }
+    
+    @Test
+    public void testIfNoneMatchTakesPrecedence() throws IOException {
+        String lastModified = open("/styles.css").getHeaderField("Last-Modified");
+        
+        HttpURLConnection connection = open("/styles.css");
+        connection.setRequestProperty("If-None-Match", "\"stale\"");
+        connection.setRequestProperty("If-Modified-Since", lastModified);
+        
+        assertEquals("A failed If-None-Match should ignore If-Modified-Since", 200, connection.getResponseCode());
+    }
+    
+    @Test
+    public void testGzipServedWhenAccepted() throws IOException {
+        HttpURLConnection plain = open("/script.js");
+        String identity = body(plain);
+        HttpURLConnection connection = open("/script.js");
+        connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+        
+        assertEquals("Should return 200", 200, connection.getResponseCode());
+        assertEquals("Should announce gzip", "gzip", connection.getHeaderField("Content-Encoding"));
+        assertEquals("Should vary on Accept-Encoding", "Accept-Encoding", connection.getHeaderField("Vary"));
+        byte[] compressed = connection.getInputStream().readAllBytes();
+        assertTrue("Compressed body should be smaller", compressed.length < identity.length());
+        assertEquals("Body should decompress to the file", identity,
+                new String(new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes(), StandardCharsets.UTF_8));
+        assertNotEquals("Representations need different ETags", plain.getHeaderField("ETag"),
+                connection.getHeaderField("ETag"));
+    }
+    
+    @Test
+    public void testIdentityWithoutAcceptEncoding() throws IOException {
+        HttpURLConnection connection = open("/script.js");
+        connection.setRequestProperty("Accept-Encoding", "identity");
+        
+        assertNull("Should not compress", connection.getHeaderField("Content-Encoding"));
+        assertEquals("Should still vary on Accept-Encoding", "Accept-Encoding", connection.getHeaderField("Vary"));
+    }
+    
+    @Test
+    public void testAcceptsGzip() {
+        assertTrue("Plain token", StaticFileHandler.acceptsGzip("gzip"));
+        assertTrue("Token in a list with weight", StaticFileHandler.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue("Wildcard", StaticFileHandler.acceptsGzip("*"));
+        assertFalse("Missing header", StaticFileHandler.acceptsGzip(null));
+        assertFalse("Explicitly refused", StaticFileHandler.acceptsGzip("gzip;q=0"));
+        assertFalse("Refused despite wildcard", StaticFileHandler.acceptsGzip("*, gzip;q=0"));
+        assertFalse("Other codings only", StaticFileHandler.acceptsGzip("deflate, br"));
+    }
+    
+    @Test
+    public void testSingleRangeFromMapping() throws IOException {
+        HttpURLConnection connection = open("/bundle.bin");
+        connection.setRequestProperty("Range", "bytes=100000-100099");
+        
+        assertEquals("Should return 206", 206, connection.getResponseCode());
+        assertEquals("Should describe the range", "bytes 100000-100099/" + largeFile.length,
+                connection.getHeaderField("Content-Range"));
+        assertArrayEquals("Should send only the requested bytes", Arrays.copyOfRange(largeFile, 100000, 100100),
+                connection.getInputStream().readAllBytes());
+    }
+    
+    @Test
+    public void testSuffixRangeFromMemory() throws IOException {
+        HttpURLConnection connection = open("/index.html");
+        connection.setRequestProperty("Range", "bytes=-5");
+        
+        assertEquals("Should return 206", 206, connection.getResponseCode());
+        assertEquals("Should send the last bytes", "html>", body(connection));
+        assertEquals("Should advertise range support", "bytes", connection.getHeaderField("Accept-Ranges"));
+    }
+    
+    @Test
+    public void testMultipleRanges() throws IOException {
+        HttpURLConnection connection = open("/index.html");
+        connection.setRequestProperty("Range", "bytes=0-5,12-16");
+        
+        assertEquals("Should return 206", 206, connection.getResponseCode());
+        String contentType = connection.getContentType();
+        assertTrue("Should be multipart", contentType.startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        String expected = "\r\n--" + boundary + "\r\nContent-Type: text/html\r\nContent-Range: bytes 0-5/17\r\n\r\n<html>"
+                + "\r\n--" + boundary + "\r\nContent-Type: text/html\r\nContent-Range: bytes 12-16/17\r\n\r\nhtml>"
+                + "\r\n--" + boundary + "--\r\n";
+        assertEquals("Parts should carry their own headers", expected, body(connection));
+    }
+    
+    @Test
+    public void testCountsBodyBytesServed() throws IOException {
+        String whole = body(open("/index.html"));
+        HttpURLConnection ranged = open("/index.html");
+        ranged.setRequestProperty("Range", "bytes=0-5,12-16");
+        String multipart = body(ranged);
+        
+        assertEquals("Whole and multipart bodies should be counted", whole.length() + multipart.length(),
+                handler.getBytesServed());
+    }
+    
+    @Test
+    public void testUnsatisfiableRangeReturns416() throws IOException {
+        HttpURLConnection connection = open("/index.html");
+        connection.setRequestProperty("Range", "bytes=500-600");
+        
+        assertEquals("Should return 416", 416, connection.getResponseCode());
+        assertEquals("Should report the length", "bytes */17", connection.getHeaderField("Content-Range"));
+    }
+    
+    @Test
+    public void testIfRange() throws IOException {
+        String etag = open("/index.html").getHeaderField("ETag");
+        
+        HttpURLConnection matching = open("/index.html");
+        matching.setRequestProperty("Range", "bytes=0-5");
+        matching.setRequestProperty("If-Range", etag);
+        HttpURLConnection stale = open("/index.html");
+        stale.setRequestProperty("Range", "bytes=0-5");
+        stale.setRequestProperty("If-Range", "\"stale\"");
+        
+        assertEquals("Matching If-Range should honour the range", 206, matching.getResponseCode());
+        assertEquals("Stale If-Range should send the whole file", 200, stale.getResponseCode());
+        assertEquals("Whole file expected", "<html>home</html>", body(stale));
+    }
+    
+    @Test
+    public void testMalformedRangeIgnored() throws IOException {
+        HttpURLConnection connection = open("/index.html");
+        connection.setRequestProperty("Range", "bytes=oops");
+        
+        assertEquals("Malformed range should be ignored", 200, connection.getResponseCode());
+    }
+    
+    @Test
+    public void testMissingFileReturns404() throws IOException {
+        assertEquals("Should return 404", 404, open("/missing.js").getResponseCode());
+    }
+    
+    @Test
+    public void testPostNotAllowed() throws IOException {
+        HttpURLConnection connection = open("/index.html");
+        connection.setRequestMethod("POST");
+        
+        assertEquals("Should return 405", 405, connection.getResponseCode());
+        assertEquals("Should list allowed methods", "GET, HEAD", connection.getHeaderField("Allow"));
+    }
+    
+    @Test
+    public void testLargeFileServedFromMapping() throws IOException {
+        HttpURLConnection connection = open("/bundle.bin");
+        
+        assertEquals("Should return 200", 200, connection.getResponseCode());
+        assertArrayEquals("Mapped file should arrive intact", largeFile, connection.getInputStream().readAllBytes());
+        assertEquals("Large file should not use the heap cache", 0, cache.getCachedBytes());
+    }
+    
+    @Test
+    public void testLargeFileZeroCopyThroughNioEngine() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        NioHttpEngine engine = new NioHttpEngine(new InetSocketAddress("127.0.0.1", 0), 50, 1, executor, 1024);
+        try {
+            engine.createContext("/", new StaticFileHandler(cache));
+            engine.start();
+            
+            for (int i = 0; i < 2; i++) {
+                HttpURLConnection connection = open(engine.getAddress().getPort(), "/bundle.bin");
+                assertEquals("Should return 200", 200, connection.getResponseCode());
+                assertArrayEquals("Mapped file should arrive intact on every request", largeFile,
+                        connection.getInputStream().readAllBytes());
+            }
+            
+            HttpURLConnection ranged = open(engine.getAddress().getPort(), "/bundle.bin");
+            ranged.setRequestProperty("Range", "bytes=200000-");
+            assertEquals("Range should work on the zero-copy path", 206, ranged.getResponseCode());
+            assertArrayEquals("Range should start at the requested offset",
+                    Arrays.copyOfRange(largeFile, 200000, largeFile.length), ranged.getInputStream().readAllBytes());
+        } finally {
+            engine.stop(0);
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void testUnmappableFileSentInWindowsThroughNioEngine() throws IOException {
+        // Sparse, so the disk holds only the marked blocks of a file too large to map whole
+        long length = Integer.MAX_VALUE + 16L * 1024 * 1024;
+        long middle = 1L << 31;
+        long first = middle - StaticFileHandler.MAP_WINDOW_BYTES - 5;
+        long last = middle + StaticFileHandler.MAP_WINDOW_BYTES + 5;
+        try (RandomAccessFile file = new RandomAccessFile(new File(folder.getRoot(), "web/huge.bin"), "rw")) {
+            file.setLength(length);
+            for (long offset : new long[] {first, middle, last}) {
+                file.seek(offset);
+                file.write('x');
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        NioHttpEngine engine = new NioHttpEngine(new InetSocketAddress("127.0.0.1", 0), 50, 1, executor, 1024);
+        try {
+            engine.createContext("/", new StaticFileHandler(cache));
+            engine.start();
+            
+            HttpURLConnection ranged = open(engine.getAddress().getPort(), "/huge.bin");
+            ranged.setRequestProperty("Range", "bytes=" + first + "-" + last);
+            assertEquals("Should return 206", 206, ranged.getResponseCode());
+            byte[] body = ranged.getInputStream().readAllBytes();
+            assertEquals("Range should span three windows", last - first + 1, body.length);
+            assertEquals('x', body[0]);
+            assertEquals("Window boundaries should not shift the data", 'x', body[(int) (middle - first)]);
+            assertEquals('x', body[body.length - 1]);
+            assertEquals(0, body[1]);
+        } finally {
+            engine.stop(0);
+            executor.shutdownNow();
+        }
+    }
+    
+    private HttpURLConnection open(String path) throws IOException {
+        return open(port, path);
+    }
+    
+    private static HttpURLConnection open(int port, String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+    }
+    
+    private static String body(HttpURLConnection connection) throws IOException {
+        return new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.example.login.controller;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import com.example.login.service.MockAuthService;
+import com.example.login.session.CachedTokenService;
+import com.example.login.session.Session;
+import com.example.login.session.SessionStore;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+
+public class ValidateControllerTest {
+    private HttpServer server;
+    private MockAuthService authService;
+    private int port;
+    
+    @Before
+    public void setUp() throws IOException {
+        authService = new MockAuthService();
+        authService.setTokenService(new CachedTokenService(new SessionStore(60_000, 100)));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/validate", new ValidateController(authService));
+        HttpContext admin = server.createContext("/admin", exchange -> {
+            Session session = (Session) exchange.getAttribute(BearerAuthFilter.SESSION_ATTRIBUTE);
+            byte[] body = session.getUsername().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        admin.getFilters().add(new BearerAuthFilter(authService, "ADMIN"));
+        server.start();
+        port = server.getAddress().getPort();
+    }
+    
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    public void testValidBearerTokenReturnsSession() throws IOException {
+        Session session = authService.getTokenService().issue("alice", "ADMIN");
+        HttpURLConnection connection = open("/api/validate");
+        connection.setRequestProperty("Authorization", "Bearer " + session.getToken());
+        
+        assertEquals("Should return 200", 200, connection.getResponseCode());
+        assertEquals("Body should describe the session",
+                "{\"valid\":true,\"username\":\"alice\",\"role\":\"ADMIN\",\"expiresAt\":" + session.getExpiresAt() + "}",
+                body(connection));
+    }
+    
+    @Test
+    public void testMissingOrUnknownTokenIsRejected() throws IOException {
+        HttpURLConnection missing = open("/api/validate");
+        assertEquals("Missing token should return 401", 401, missing.getResponseCode());
+        assertEquals("Should ask for a bearer token", "Bearer", missing.getHeaderField("WWW-Authenticate"));
+        
+        HttpURLConnection unknown = open("/api/validate");
+        unknown.setRequestProperty("Authorization", "Bearer token_unknown");
+        assertEquals("Unknown token should return 401", 401, unknown.getResponseCode());
+    }
+    
+    @Test
+    public void testBatchKeepsRequestOrder() throws IOException {
+        Session first = authService.getTokenService().issue("alice", "ADMIN");
+        Session second = authService.getTokenService().issue("bob", null);
+        HttpURLConnection connection = post("/api/validate",
+                "{\"tokens\":[\"" + first.getToken() + "\",\"token_unknown\",\"" + second.getToken() + "\"]}");
+        
+        assertEquals("Should return 200", 200, connection.getResponseCode());
+        assertEquals("Results should follow the request order",
+                "{\"results\":[{\"valid\":true,\"username\":\"alice\",\"role\":\"ADMIN\",\"expiresAt\":"
+                        + first.getExpiresAt() + "},{\"valid\":false},{\"valid\":true,\"username\":\"bob\","
+                        + "\"role\":null,\"expiresAt\":" + second.getExpiresAt() + "}]}",
+                body(connection));
+    }
+    
+    @Test
+    public void testOversizedOrMalformedBatchIsRejected() throws IOException {
+        StringBuilder tokens = new StringBuilder("{\"tokens\":[");
+        for (int i = 0; i <= ValidateController.MAX_BATCH; i++) {
+            tokens.append(i > 0 ? "," : "").append("\"t\"");
+        }
+        tokens.append("]}");
+        
+        assertEquals("Too many tokens should return 400", 400, post("/api/validate", tokens.toString()).getResponseCode());
+        assertEquals("Malformed body should return 400", 400, post("/api/validate", "{\"tokens\":").getResponseCode());
+    }
+    
+    @Test
+    public void testFilterChecksRole() throws IOException {
+        Session admin = authService.getTokenService().issue("alice", "ADMIN");
+        Session user = authService.getTokenService().issue("bob", "USER");
+        
+        HttpURLConnection allowed = open("/admin");
+        allowed.setRequestProperty("Authorization", "bearer " + admin.getToken());
+        assertEquals("Admin should pass", 200, allowed.getResponseCode());
+        assertEquals("Handler should see the session", "alice", body(allowed));
+        
+        HttpURLConnection forbidden = open("/admin");
+        forbidden.setRequestProperty("Authorization", "Bearer " + user.getToken());
+        assertEquals("Other roles should get 403", 403, forbidden.getResponseCode());
+        
+        assertEquals("Missing token should get 401", 401, open("/admin").getResponseCode());
+    }
+    
+    @Test
+    public void testBearerTokenParsing() {
+        Headers headers = new Headers();
+        assertNull("No header means no token", BearerAuthFilter.bearerToken(headers));
+        headers.set("Authorization", "Basic abc");
+        assertNull("Other schemes should be ignored", BearerAuthFilter.bearerToken(headers));
+        headers.set("Authorization", "Bearer ");
+        assertNull("Empty token should be ignored", BearerAuthFilter.bearerToken(headers));
+        headers.set("Authorization", "BEARER  token_abc ");
+        assertEquals("Scheme should be case-insensitive", "token_abc", BearerAuthFilter.bearerToken(headers));
+    }
+    
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+    }
+    
+    private HttpURLConnection post(String path, String body) throws IOException {
+        HttpURLConnection connection = open(path);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+    
+    private static String body(HttpURLConnection connection) throws IOException {
+        return new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
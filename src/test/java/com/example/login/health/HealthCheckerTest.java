@@ -0,0 +1,129 @@
+package com.example.login.health;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HealthCheckerTest {
+    @Test
+    public void testNotReadyUntilFirstCheck() {
+        HealthChecker checker = new HealthChecker();
+        checker.addCheck("always", () -> null);
+        
+        assertFalse("Should start not ready", checker.isReady());
+        assertEquals("Should answer 503 while starting", 503, checker.getReport().getStatusCode());
+        assertEquals("{\"status\":\"STARTING\",\"checks\":{}}", body(checker));
+        
+        checker.checkNow();
+        assertTrue("Should be ready once the checks pass", checker.isReady());
+        assertEquals("{\"status\":\"UP\",\"checks\":{\"always\":\"UP\"}}", body(checker));
+    }
+    
+    @Test
+    public void testFailingCheckReportsReason() {
+        AtomicBoolean loaded = new AtomicBoolean(false);
+        HealthChecker checker = new HealthChecker();
+        checker.addCheck("userStore", () -> loaded.get() ? null : "no users loaded");
+        checker.addCheck("broken", () -> {
+            throw new IllegalStateException("boom");
+        });
+        checker.checkNow();
+        
+        assertEquals("Should answer 503", 503, checker.getReport().getStatusCode());
+        String body = body(checker);
+        assertTrue(body, body.startsWith("{\"status\":\"DOWN\",\"checks\":{\"userStore\":\"DOWN: no users loaded\""));
+        assertTrue("A check that throws should count as failed", body.contains("\"broken\":\"DOWN: check failed"));
+    }
+    
+    @Test
+    public void testReportIsReusedUntilNextCheck() {
+        HealthChecker checker = new HealthChecker();
+        checker.addCheck("always", () -> null);
+        checker.checkNow();
+        
+        assertSame("Probes should share the encoded body", checker.getReport().getBody(), checker.getReport().getBody());
+    }
+    
+    @Test
+    public void testErrorRateUsesRecentRequestsOnly() {
+        AtomicLong requests = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        HealthChecker checker = new HealthChecker();
+        checker.addErrorRateCheck("errorRate", requests::get, errors::get, 0.5, 20);
+        
+        requests.set(10);
+        errors.set(10);
+        checker.checkNow();
+        assertTrue("Too few requests to judge", checker.isReady());
+        
+        requests.addAndGet(100);
+        errors.addAndGet(60);
+        checker.checkNow();
+        assertFalse("60 of 100 failing should fail the check", checker.isReady());
+        assertTrue(body(checker), body(checker).contains("60 of 100 recent requests failed"));
+        
+        requests.addAndGet(100);
+        errors.addAndGet(5);
+        checker.checkNow();
+        assertTrue("Earlier errors should not count against the next window", checker.isReady());
+    }
+    
+    @Test
+    public void testDrainingFailsReadinessStraightAway() {
+        HealthChecker checker = new HealthChecker();
+        checker.addCheck("always", () -> null);
+        checker.checkNow();
+        assertTrue(checker.isReady());
+        
+        checker.setDraining(true);
+        assertFalse("Draining should fail readiness without waiting for a run", checker.isReady());
+        assertEquals("{\"status\":\"DOWN\",\"checks\":{\"always\":\"UP\",\"lifecycle\":\"DOWN: shutting down\"}}",
+                body(checker));
+        checker.checkNow();
+        assertFalse("Later runs should keep failing while draining", checker.isReady());
+    }
+    
+    @Test
+    public void testBackgroundChecksRefreshReport() throws InterruptedException {
+        AtomicBoolean healthy = new AtomicBoolean(true);
+        HealthChecker checker = new HealthChecker(10);
+        checker.addCheck("toggle", () -> healthy.get() ? null : "off");
+        checker.start();
+        try {
+            assertTrue("First check should run straight away", waitFor(checker, true));
+            healthy.set(false);
+            assertTrue("Failure should show up within a few intervals", waitFor(checker, false));
+        } finally {
+            checker.stop();
+        }
+    }
+    
+    @Test
+    public void testOnlyFailuresCountAsServerErrors() {
+        assertTrue(ErrorCountingFilter.isServerError(500));
+        assertTrue(ErrorCountingFilter.isServerError(502));
+        assertTrue(ErrorCountingFilter.isServerError(504));
+        assertTrue("No response at all is an error", ErrorCountingFilter.isServerError(-1));
+        assertFalse("Load shedding is not an error", ErrorCountingFilter.isServerError(503));
+        assertFalse(ErrorCountingFilter.isServerError(429));
+        assertFalse(ErrorCountingFilter.isServerError(200));
+    }
+    
+    private static boolean waitFor(HealthChecker checker, boolean ready) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (checker.isReady() != ready) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+    
+    private static String body(HealthChecker checker) {
+        return new String(checker.getReport().getBody(), StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
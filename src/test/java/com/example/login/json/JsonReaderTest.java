@@ -0,0 +1,214 @@
+package com.example.login.json;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class JsonReaderTest {
+    private static final String[] NAMES = {"username", "password"};
+    
+    @Test
+    public void testReadsKnownFields() throws IOException {
+        String[] values = readCredentials("{\"username\":\"demo\",\"password\":\"secret\"}");
+        
+        assertEquals("Username should be read", "demo", values[0]);
+        assertEquals("Password should be read", "secret", values[1]);
+    }
+    
+    @Test
+    public void testSkipsUnknownFieldsOfEveryType() throws IOException {
+        String json = "{\"a\":{\"nested\":[1,2.5e3,-3,{\"x\":null}]},\"username\":\"demo\","
+                + "\"b\":true,\"c\":false,\"d\":null,\"e\":\"text\",\"password\":\"pw\"}";
+        String[] values = readCredentials(json);
+        
+        assertEquals("Username should survive skipped values", "demo", values[0]);
+        assertEquals("Password should survive skipped values", "pw", values[1]);
+    }
+    
+    @Test
+    public void testDecodesEscapes() throws IOException {
+        String[] values = readCredentials("{\"username\":\"a\\\"b\\\\c\\/d\\n\\t\",\"password\":\"\\u0041\\u00e9\"}");
+        
+        assertEquals("Simple escapes should decode", "a\"b\\c/d\n\t", values[0]);
+        assertEquals("Unicode escapes should decode", "A\u00e9", values[1]);
+    }
+    
+    @Test
+    public void testDecodesUtf8AndSurrogatePairs() throws IOException {
+        String[] values = readCredentials("{\"username\":\"caf\u00e9 \u4e16\",\"password\":\"\ud83d\ude00\\ud83d\\ude00\"}");
+        
+        assertEquals("Multi-byte UTF-8 should decode", "caf\u00e9 \u4e16", values[0]);
+        assertEquals("Raw and escaped supplementary characters should decode", "\ud83d\ude00\ud83d\ude00", values[1]);
+    }
+    
+    @Test
+    public void testNullValues() throws IOException {
+        String[] values = readCredentials("{\"username\":null,\"password\":\"pw\"}");
+        
+        assertNull("JSON null should map to null", values[0]);
+        assertEquals("Other fields should still be read", "pw", values[1]);
+    }
+    
+    @Test
+    public void testEscapedNameMatches() throws IOException {
+        String[] values = readCredentials("{\"user\\u006eame\":\"demo\"}");
+        
+        assertEquals("Escaped member names should match", "demo", values[0]);
+    }
+    
+    @Test
+    public void testArrayOfStrings() throws IOException {
+        JsonReader reader = JsonReader.acquire(stream("[\"a\", \"b\" ,\"c\"]"), 1024);
+        try {
+            StringBuilder joined = new StringBuilder();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                joined.append(reader.nextString());
+            }
+            reader.endArray();
+            reader.endDocument();
+            assertEquals("Array elements should be read in order", "abc", joined.toString());
+        } finally {
+            reader.release();
+        }
+    }
+    
+    @Test
+    public void testBodyOverCapIsRejected() {
+        try {
+            readCredentials("{\"username\":\"" + repeat('x', 200) + "\"}", 64);
+            fail("Oversized body should be rejected");
+        } catch (JsonParseException e) {
+            assertTrue("Exception should flag the size cap", e.isTooLarge());
+        } catch (IOException e) {
+            fail("Unexpected exception: " + e);
+        }
+    }
+    
+    @Test
+    public void testBodyExactlyAtCapIsAccepted() throws IOException {
+        String json = "{\"username\":\"demo\"}";
+        String[] values = readCredentials(json, json.length());
+        
+        assertEquals("Body at the cap should parse", "demo", values[0]);
+    }
+    
+    @Test
+    public void testMalformedDocumentsAreRejected() {
+        String[] malformed = {
+            "", "{", "{invalid json}", "{\"username\":\"demo\",}", "{\"username\" \"demo\"}",
+            "{\"username\":\"unterminated}", "{\"username\":\"bad\\q\"}", "{\"username\":\"demo\"} trailing",
+            "{\"username\":123abc}", "[1 2]", "{\"username\":\"\\u12G4\"}", "{\"username\":tru}"
+        };
+        for (String json : malformed) {
+            try {
+                readCredentials(json);
+                fail("Should reject: " + json);
+            } catch (JsonParseException e) {
+                assertFalse("Should not be reported as too large: " + json, e.isTooLarge());
+            } catch (IOException e) {
+                fail("Unexpected exception for " + json + ": " + e);
+            }
+        }
+    }
+    
+    @Test
+    public void testNonStringCredentialIsRejected() {
+        try {
+            readCredentials("{\"username\":42}");
+            fail("Numbers are not valid usernames");
+        } catch (IOException e) {
+            assertTrue("Should be a parse error", e instanceof JsonParseException);
+        }
+    }
+    
+    @Test
+    public void testInvalidUtf8IsRejected() {
+        byte[] body = {'{', '"', 'u', '"', ':', '"', (byte) 0xC3, '"', '}'};
+        try {
+            JsonReader reader = JsonReader.acquire(new ByteArrayInputStream(body), 1024);
+            try {
+                reader.beginObject();
+                reader.nextName(NAMES);
+                reader.nextString();
+            } finally {
+                reader.release();
+            }
+            fail("Truncated UTF-8 sequence should be rejected");
+        } catch (IOException e) {
+            assertTrue("Should be a parse error", e instanceof JsonParseException);
+        }
+    }
+    
+    @Test
+    public void testDeepNestingIsRejected() {
+        try {
+            readCredentials("{\"a\":" + repeat('[', 100) + repeat(']', 100) + "}");
+            fail("Excessive nesting should be rejected");
+        } catch (IOException e) {
+            assertTrue("Should be a parse error", e instanceof JsonParseException);
+        }
+    }
+    
+    @Test
+    public void testReaderIsReusedPerThread() throws IOException {
+        JsonReader first = JsonReader.acquire(stream("{}"), 1024);
+        first.release();
+        JsonReader second = JsonReader.acquire(stream("{}"), 1024);
+        second.release();
+        
+        assertSame("Released reader should be reused on the same thread", first, second);
+    }
+    
+    @Test
+    public void testNestedAcquireGetsSeparateReader() {
+        JsonReader outer = JsonReader.acquire(stream("{}"), 1024);
+        JsonReader inner = JsonReader.acquire(stream("{}"), 1024);
+        try {
+            assertNotSame("Reader in use should not be handed out twice", outer, inner);
+        } finally {
+            inner.release();
+            outer.release();
+        }
+    }
+    
+    private static String[] readCredentials(String json) throws IOException {
+        return readCredentials(json, 16 * 1024);
+    }
+    
+    private static String[] readCredentials(String json, int maxBytes) throws IOException {
+        String[] values = new String[2];
+        JsonReader reader = JsonReader.acquire(stream(json), maxBytes);
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                int index = reader.nextName(NAMES);
+                if (index >= 0) {
+                    values[index] = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            reader.endDocument();
+        } finally {
+            reader.release();
+        }
+        return values;
+    }
+    
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.example.login.json;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class JsonWriterTest {
+    
+    @Test
+    public void testPlainAsciiValue() {
+        assertEquals("ASCII should be written as-is", "\"demo\"", write("demo"));
+    }
+    
+    @Test
+    public void testNullValue() {
+        assertEquals("Null should be written as a literal", "null", write(null));
+    }
+    
+    @Test
+    public void testEscapesQuotesBackslashesAndControls() {
+        assertEquals("Special characters should be escaped",
+                "\"a\\\"b\\\\c\\n\\r\\t\\b\\f\\u0001\"", write("a\"b\\c\n\r\t\b\f\u0001"));
+    }
+    
+    @Test
+    public void testEncodesUtf8() {
+        String text = "caf\u00e9 \u4e16 \ud83d\ude00";
+        assertEquals("Multi-byte characters should be UTF-8 encoded", "\"" + text + "\"", write(text));
+    }
+    
+    @Test
+    public void testLoneSurrogateIsEscaped() {
+        assertEquals("Unpaired surrogates should be escaped", "\"x\\ud800y\"", write("x\ud800y"));
+    }
+    
+    @Test
+    public void testFragmentsAndBooleans() {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writer.raw(JsonWriter.encode("{\"ok\":")).value(true)
+                    .raw(JsonWriter.encode(",\"no\":")).value(false)
+                    .raw(JsonWriter.encode("}"));
+            assertEquals("Fragments should be concatenated", "{\"ok\":true,\"no\":false}",
+                    new String(writer.toByteArray(), StandardCharsets.UTF_8));
+        } finally {
+            writer.release();
+        }
+    }
+    
+    @Test
+    public void testLongValues() {
+        long[] values = {0, 7, -7, 10, 1_700_000_000_123L, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            JsonWriter writer = JsonWriter.acquire();
+            try {
+                writer.value(value);
+                assertEquals("Number should be written in decimal", Long.toString(value),
+                        new String(writer.toByteArray(), StandardCharsets.UTF_8));
+            } finally {
+                writer.release();
+            }
+        }
+    }
+    
+    @Test
+    public void testOutputRoundTripsThroughReader() throws IOException {
+        String nasty = "\"}\\,{\u0000\u2028 \ud83d\ude00";
+        JsonWriter writer = JsonWriter.acquire();
+        byte[] json;
+        try {
+            writer.raw(JsonWriter.encode("{\"username\":")).value(nasty).raw(JsonWriter.encode("}"));
+            json = writer.toByteArray();
+        } finally {
+            writer.release();
+        }
+        
+        JsonReader reader = JsonReader.acquire(new ByteArrayInputStream(json), 1024);
+        try {
+            reader.beginObject();
+            assertEquals("Name should be found", 0, reader.nextName(new String[] {"username"}));
+            assertEquals("Value should survive the round trip", nasty, reader.nextString());
+            reader.endObject();
+            reader.endDocument();
+        } finally {
+            reader.release();
+        }
+    }
+    
+    @Test
+    public void testGrowsPastInitialBuffer() throws IOException {
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            big.append((char) ('a' + i % 26));
+        }
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writer.value(big.toString());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer.writeTo(out);
+            assertEquals("Size should match written bytes", out.size(), writer.size());
+            assertEquals("Large values should be written fully", "\"" + big + "\"", out.toString(StandardCharsets.UTF_8));
+        } finally {
+            writer.release();
+        }
+    }
+    
+    @Test
+    public void testWriterIsReusedPerThread() {
+        JsonWriter first = JsonWriter.acquire();
+        first.value("leftover");
+        first.release();
+        JsonWriter second = JsonWriter.acquire();
+        try {
+            assertSame("Released writer should be reused on the same thread", first, second);
+            assertEquals("Reused writer should start empty", 0, second.size());
+        } finally {
+            second.release();
+        }
+    }
+    
+    @Test
+    public void testNestedAcquireGetsSeparateWriter() {
+        JsonWriter outer = JsonWriter.acquire();
+        JsonWriter inner = JsonWriter.acquire();
+        try {
+            assertNotSame("Writer in use should not be handed out twice", outer, inner);
+        } finally {
+            inner.release();
+            outer.release();
+        }
+    }
+    
+    private static String write(String value) {
+        JsonWriter writer = JsonWriter.acquire();
+        try {
+            writer.value(value);
+            return new String(writer.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            writer.release();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.example.login.json;
+
+import com.example.login.model.LoginRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares the original indexOf/substring login parser with the streaming
+ * JsonReader: nanoseconds and bytes allocated per parsed request.
+ *
+ * The Ant build has no JMH, so this is a plain warm-up-then-measure harness.
+ * Run with: ant benchmark -Dbench.class=com.example.login.json.LoginRequestParserBenchmark
+ */
+public class LoginRequestParserBenchmark {
+    private static final String[] FIELDS = {"username", "password"};
+    private static final byte[] BODY =
+            "{\"username\":\"demo\",\"password\":\"demo\",\"rememberMe\":true,\"client\":\"web\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+    
+    private interface Parser {
+        LoginRequest parse(ByteArrayInputStream in) throws IOException;
+    }
+    
+    public static void main(String[] args) throws IOException {
+        int iterations = Integer.getInteger("bench.iterations", 2_000_000);
+        Parser legacy = LoginRequestParserBenchmark::parseLegacy;
+        Parser streaming = LoginRequestParserBenchmark::parseStreaming;
+        
+        // Warm up both paths before measuring either
+        run(legacy, iterations / 4);
+        run(streaming, iterations / 4);
+        
+        System.out.printf("%-10s %12s %14s%n", "parser", "ns/op", "bytes/op");
+        report("legacy", legacy, iterations);
+        report("streaming", streaming, iterations);
+    }
+    
+    private static void report(String name, Parser parser, int iterations) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long checksum = run(parser, iterations);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-10s %12.1f %14.1f   (checksum %d)%n", name, elapsed / (double) iterations,
+                allocated / (double) iterations, checksum);
+    }
+    
+    private static long run(Parser parser, int iterations) throws IOException {
+        long checksum = 0;
+        ByteArrayInputStream in = new ByteArrayInputStream(BODY);
+        for (int i = 0; i < iterations; i++) {
+            in.reset();
+            checksum += parser.parse(in).getUsername().length();
+        }
+        return checksum;
+    }
+    
+    private static LoginRequest parseStreaming(ByteArrayInputStream in) throws IOException {
+        JsonReader reader = JsonReader.acquire(in, 16 * 1024);
+        try {
+            LoginRequest request = new LoginRequest();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName(FIELDS)) {
+                    case 0:
+                        request.setUsername(reader.nextString());
+                        break;
+                    case 1:
+                        request.setPassword(reader.nextString());
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            reader.endDocument();
+            return request;
+        } finally {
+            reader.release();
+        }
+    }
+    
+    // Copy of the parser LoginController used before the streaming reader
+    private static LoginRequest parseLegacy(ByteArrayInputStream in) {
+        String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        return new LoginRequest(extractJsonValue(json, "username"), extractJsonValue(json, "password"));
+    }
+    
+    private static String extractJsonValue(String json, String key) {
+        String searchKey = "\"" + key + "\"";
+        int keyIndex = json.indexOf(searchKey);
+        if (keyIndex == -1) return null;
+        
+        int colonIndex = json.indexOf(":", keyIndex);
+        if (colonIndex == -1) return null;
+        
+        int startQuote = json.indexOf("\"", colonIndex);
+        if (startQuote == -1) return null;
+        
+        int endQuote = json.indexOf("\"", startQuote + 1);
+        if (endQuote == -1) return null;
+        
+        return json.substring(startQuote + 1, endQuote);
+    }
+}
\ No newline at end of file
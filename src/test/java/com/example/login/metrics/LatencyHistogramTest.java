@@ -0,0 +1,106 @@
+package com.example.login.metrics;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+    @Test
+    public void testSmallValuesAreExact() {
+        for (int value = 0; value < 32; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertEquals("Values below 32 should have a bucket each", value, LatencyHistogram.lowestValueOf(bucket));
+            assertEquals("Values below 32 should be reported exactly", value, LatencyHistogram.medianValueOf(bucket));
+        }
+    }
+    
+    @Test
+    public void testBucketsAreWithinOneSixteenth() {
+        long[] values = {33, 1_000, 40_000, 123_456_789, TimeUnit.SECONDS.toNanos(4), TimeUnit.MINUTES.toNanos(30)};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            long reported = LatencyHistogram.medianValueOf(bucket);
+            assertTrue("Bucket should start at or below " + value, LatencyHistogram.lowestValueOf(bucket) <= value);
+            assertTrue("Bucket should end above " + value, LatencyHistogram.lowestValueOf(bucket + 1) > value);
+            assertTrue("Reported value for " + value + " was " + reported,
+                    Math.abs(reported - value) <= value / 16.0);
+        }
+    }
+    
+    @Test
+    public void testBucketsAreContiguous() {
+        for (int bucket = 1; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            long lowest = LatencyHistogram.lowestValueOf(bucket);
+            assertEquals("Bucket " + bucket + " should start where the last ended", bucket,
+                    LatencyHistogram.bucketOf(lowest));
+            assertEquals("Value just below bucket " + bucket + " should fall in the one before", bucket - 1,
+                    LatencyHistogram.bucketOf(lowest - 1));
+        }
+    }
+    
+    @Test
+    public void testHugeAndNegativeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+        
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals("Both should be counted", 2, snapshot.getCount());
+        assertEquals("Negative values should count as zero", 0, snapshot.getValueAtQuantile(0.5));
+        assertEquals("Huge values should land in the last bucket",
+                LatencyHistogram.medianValueOf(LatencyHistogram.BUCKETS - 1), snapshot.getValueAtQuantile(1.0));
+    }
+    
+    @Test
+    public void testQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals("Every value should be counted", 1000, snapshot.getCount());
+        assertEquals("Sum should be exact", TimeUnit.MICROSECONDS.toNanos(500_500), snapshot.getSumNanos());
+        assertNear("Median", 500_000, snapshot.getValueAtQuantile(0.5));
+        assertNear("p99", 990_000, snapshot.getValueAtQuantile(0.99));
+        assertNear("Maximum", 1_000_000, snapshot.getValueAtQuantile(1.0));
+        assertEquals("Empty histogram should report zero", 0, new LatencyHistogram().snapshot().getValueAtQuantile(0.5));
+    }
+    
+    @Test
+    public void testConcurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int perThread = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(i);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        
+        assertEquals("Every recording should be counted", (long) threads * perThread, histogram.snapshot().getCount());
+    }
+    
+    private static void assertNear(String message, long expected, long actual) {
+        assertTrue(message + " should be within 1/16 of " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / 16);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.login.metrics;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost of recording on the request path, in nanoseconds per operation, with
+ * one or more threads recording into the same metrics. "counter" is one
+ * Counter increment; "histogram" is one LatencyHistogram record; "request"
+ * is what MetricsFilter adds to a request: two clock reads, a histogram
+ * record and a status counter increment.
+ *
+ * The Ant build has no JMH, so this is a plain warm-up-then-measure harness.
+ * Run with: ant benchmark -Dbench.class=com.example.login.metrics.MetricsBenchmark
+ * Optional system properties: bench.threads (default "1,4,16"), bench.seconds (default 3)
+ */
+public class MetricsBenchmark {
+    interface Operation {
+        void run(long i);
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        String[] threadCounts = System.getProperty("bench.threads", "1,4,16").split(",");
+        int seconds = Integer.getInteger("bench.seconds", 3);
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("bench_total", "Benchmark counter");
+        LatencyHistogram histogram = registry.histogram("bench_seconds", "Benchmark histogram");
+        Counter status = registry.counter("bench_status_total", "Benchmark statuses", "status", "200");
+        
+        System.out.printf("%-10s %8s %14s %10s%n", "operation", "threads", "ops/s", "ns/op");
+        for (String count : threadCounts) {
+            int threads = Integer.parseInt(count.trim());
+            run("counter", i -> counter.increment(), threads, seconds);
+            run("histogram", i -> histogram.record(1_000 + (i & 0xFFFFF)), threads, seconds);
+            run("request", i -> {
+                long start = System.nanoTime();
+                histogram.recordSince(start);
+                status.increment();
+            }, threads, seconds);
+        }
+        // Keeps the recordings live so none of the loops can be optimised away
+        System.out.println("recorded " + histogram.snapshot().getCount() + " latencies, " + counter.get() + " counts");
+    }
+    
+    private static void run(String name, Operation operation, int threads, int seconds) throws InterruptedException {
+        measure(operation, 1, 1);
+        measure(operation, threads, 1);
+        double rate = measure(operation, threads, seconds);
+        System.out.printf("%-10s %8d %14.0f %10.1f%n", name, threads, rate, threads * 1e9 / rate);
+    }
+    
+    private static double measure(Operation operation, int threads, int seconds) throws InterruptedException {
+        LongAdder done = new LongAdder();
+        CountDownLatch finished = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                long ops = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < 1000; i++) {
+                        operation.run(ops + i);
+                    }
+                    ops += 1000;
+                }
+                done.add(ops);
+                finished.countDown();
+            });
+            worker.start();
+        }
+        finished.await();
+        return done.sum() * 1e9 / (System.nanoTime() - start);
+    }
+}
\ No newline at end of file
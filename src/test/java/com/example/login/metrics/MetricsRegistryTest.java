@@ -0,0 +1,83 @@
+package com.example.login.metrics;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MetricsRegistryTest {
+    @Test
+    public void testCountersAreSharedBySeries() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter ok = registry.counter("requests_total", "Requests", "status", "200");
+        Counter same = registry.counter("requests_total", "Requests", "status", "200");
+        Counter failed = registry.counter("requests_total", "Requests", "status", "500");
+        ok.increment();
+        same.add(2);
+        failed.increment();
+        
+        assertSame("Same labels should return the same counter", ok, same);
+        assertEquals("# HELP requests_total Requests\n"
+                + "# TYPE requests_total counter\n"
+                + "requests_total{status=\"200\"} 3\n"
+                + "requests_total{status=\"500\"} 1\n", registry.scrape());
+    }
+    
+    @Test
+    public void testSuppliersAreReadWhenScraped() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong total = new AtomicLong();
+        registry.counter("hits_total", "Hits", total::get);
+        registry.gauge("ratio", "Ratio", () -> 0.25, "pool", "a");
+        registry.gauge("depth", "Depth", () -> 7);
+        total.set(42);
+        
+        String text = registry.scrape();
+        assertTrue("Counter should show its current value", text.contains("\nhits_total 42\n"));
+        assertTrue("Fractional gauges should keep their fraction", text.contains("\nratio{pool=\"a\"} 0.25\n"));
+        assertTrue("Whole gauges should print as integers", text.contains("\ndepth 7\n"));
+        assertTrue("Gauges should be typed", text.contains("# TYPE depth gauge\n"));
+    }
+    
+    @Test
+    public void testHistogramIsWrittenAsSummaryInSeconds() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LatencyHistogram latency = registry.histogram("latency_seconds", "Latency", "endpoint", "/api/login");
+        latency.record(TimeUnit.MILLISECONDS.toNanos(2));
+        latency.record(TimeUnit.MILLISECONDS.toNanos(2));
+        
+        String text = registry.scrape();
+        assertTrue("Should be a summary", text.contains("# TYPE latency_seconds summary\n"));
+        assertTrue("Quantiles should join the series labels",
+                text.contains("latency_seconds{endpoint=\"/api/login\",quantile=\"0.5\"} 0.0019"));
+        assertTrue("Should have a count", text.contains("latency_seconds_count{endpoint=\"/api/login\"} 2\n"));
+        assertTrue("Sum should be in seconds", text.contains("latency_seconds_sum{endpoint=\"/api/login\"} 0.004\n"));
+    }
+    
+    @Test
+    public void testLabelValuesAreEscaped() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("odd_total", "Odd\nhelp", "path", "a\"b\\c\nd").increment();
+        
+        String text = registry.scrape();
+        assertTrue("Help should be escaped", text.contains("# HELP odd_total Odd\\nhelp\n"));
+        assertTrue("Values should be escaped", text.contains("odd_total{path=\"a\\\"b\\\\c\\nd\"} 1\n"));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeMismatchRejected() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("things", "Things");
+        registry.histogram("things", "Things");
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNameRejected() {
+        new MetricsRegistry().counter("bad-name", "Bad");
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnpairedLabelsRejected() {
+        new MetricsRegistry().counter("pairs_total", "Pairs", "endpoint");
+    }
+}
\ No newline at end of file
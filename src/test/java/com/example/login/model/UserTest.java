@@ -42,6 +42,13 @@ public class UserTest {
         assertEquals("Password should match set value", testPassword, user.getPassword());
     }
     
+    @Test
+    public void testPasswordHashGetterSetter() {
+        assertNull("Hash should be unset by default", user.getPasswordHash());
+        user.setPasswordHash("pbkdf2-sha256$1$c2FsdA$aGFzaA");
+        assertEquals("Hash should match set value", "pbkdf2-sha256$1$c2FsdA$aGFzaA", user.getPasswordHash());
+    }
+    
     @Test
     public void testRoleGetterSetter() {
         String testRole = "ADMIN";
@@ -0,0 +1,84 @@
+package com.example.login.security;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CredentialCacheTest {
+    private static final String HASH = "pbkdf2-sha256$1$c2FsdA$aGFzaA";
+    
+    @Test
+    public void testHitOnlyForSameCredentials() {
+        CredentialCache cache = new CredentialCache(10, 60_000);
+        cache.verified("alice", "s3cret", HASH);
+        
+        assertTrue("Same credentials should hit", cache.isVerified("alice", "s3cret", HASH));
+        assertFalse("Other password should miss", cache.isVerified("alice", "other", HASH));
+        assertFalse("Other user should miss", cache.isVerified("bob", "s3cret", HASH));
+        assertEquals("Hits should be counted", 1, cache.getHitCount());
+        assertEquals("Misses should be counted", 2, cache.getMissCount());
+        assertEquals("Hit rate should follow the counters", 1 / 3.0, cache.getHitRate(), 1e-9);
+    }
+    
+    @Test
+    public void testFieldBoundaryIsPartOfTheKey() {
+        CredentialCache cache = new CredentialCache(10, 60_000);
+        cache.verified("ab", "c", HASH);
+        
+        assertFalse("Shifting characters between fields should miss", cache.isVerified("a", "bc", HASH));
+    }
+    
+    @Test
+    public void testChangedHashInvalidatesEntry() {
+        CredentialCache cache = new CredentialCache(10, 60_000);
+        cache.verified("alice", "s3cret", HASH);
+        
+        assertFalse("Entry for an old hash should miss", cache.isVerified("alice", "s3cret", HASH + "x"));
+        assertEquals("Stale entry should be dropped", 0, cache.size());
+        assertFalse("Stale entry should stay gone", cache.isVerified("alice", "s3cret", HASH));
+    }
+    
+    @Test
+    public void testEntriesExpire() throws InterruptedException {
+        CredentialCache cache = new CredentialCache(10, 20);
+        cache.verified("alice", "s3cret", HASH);
+        Thread.sleep(50);
+        
+        assertFalse("Expired entry should miss", cache.isVerified("alice", "s3cret", HASH));
+    }
+    
+    @Test
+    public void testSizeIsBoundedOldestFirst() {
+        CredentialCache cache = new CredentialCache(3, 60_000);
+        for (int i = 0; i < 5; i++) {
+            cache.verified("user" + i, "pw", HASH);
+        }
+        
+        assertEquals("Size should stay within the bound", 3, cache.size());
+        assertEquals("Overflow should be counted as evictions", 2, cache.getEvictionCount());
+        assertFalse("Oldest entry should be evicted", cache.isVerified("user0", "pw", HASH));
+        assertTrue("Newest entry should be kept", cache.isVerified("user4", "pw", HASH));
+    }
+    
+    @Test
+    public void testRepeatedLoginsDoNotGrowTheCache() {
+        CredentialCache cache = new CredentialCache(3, 60_000);
+        for (int i = 0; i < 1_000; i++) {
+            cache.verified("alice", "s3cret", HASH);
+        }
+        cache.verified("bob", "s3cret", HASH);
+        
+        assertEquals("Re-verifying should replace the entry", 2, cache.size());
+        assertTrue("Refreshed entry should survive queue trimming", cache.isVerified("alice", "s3cret", HASH));
+        assertEquals("Replaced entries are not evictions", 0, cache.getEvictionCount());
+    }
+    
+    @Test
+    public void testInvalidateAll() {
+        CredentialCache cache = new CredentialCache(10, 60_000);
+        cache.verified("alice", "s3cret", HASH);
+        cache.invalidateAll();
+        
+        assertEquals("Cache should be empty", 0, cache.size());
+        assertFalse("Cleared entry should miss", cache.isVerified("alice", "s3cret", HASH));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.example.login.security;
+
+import org.junit.Test;
+import org.junit.After;
+import static org.junit.Assert.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class HashingPoolTest {
+    private HashingPool pool;
+    private final CountDownLatch release = new CountDownLatch(1);
+    
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+    
+    @Test
+    public void testVerifyRunsOnPoolThread() {
+        pool = new HashingPool(2, 4);
+        String hash = new PasswordHasher(10).hash("s3cret");
+        
+        assertTrue("Correct password should verify", pool.verify("s3cret", hash));
+        assertFalse("Wrong password should not verify", pool.verify("wrong", hash));
+        assertTrue("Job should run on a hashing thread",
+                pool.call(() -> Thread.currentThread().getName()).startsWith("password-hash-"));
+    }
+    
+    @Test
+    public void testHashUsesGivenHasher() {
+        pool = new HashingPool(1, 1);
+        String hash = pool.hash(new PasswordHasher(10), "s3cret");
+        
+        assertTrue("Hash should carry the hasher's iterations",
+                hash.startsWith(PasswordHasher.PREFIX + "10$"));
+        assertTrue("Hash should verify", PasswordHasher.verify("s3cret", hash));
+    }
+    
+    @Test
+    public void testFullPoolRejectsImmediately() throws InterruptedException {
+        pool = new HashingPool(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        // One job on the only thread, one in the only queue slot
+        startBlockingJob(started);
+        assertTrue("Blocking job should start", started.await(5, TimeUnit.SECONDS));
+        startBlockingJob(new CountDownLatch(1));
+        waitForQueueDepth(1);
+        
+        long start = System.nanoTime();
+        try {
+            pool.verify("s3cret", new PasswordHasher(10).hash("s3cret"));
+            fail("Full pool should reject");
+        } catch (RejectedExecutionException e) {
+            assertTrue("Rejection should not wait", System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals("Rejection should be counted", 1, pool.getRejectedCount());
+        assertEquals("Busy thread should be reported", 1, pool.getActiveCount());
+    }
+    
+    @Test
+    public void testJobExceptionsAreRethrown() {
+        pool = new HashingPool(1, 1);
+        try {
+            pool.call(() -> {
+                throw new IllegalArgumentException("boom");
+            });
+            fail("Exception should reach the caller");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Original exception should be rethrown", "boom", e.getMessage());
+        }
+    }
+    
+    private void startBlockingJob(CountDownLatch started) {
+        Thread caller = new Thread(() -> {
+            try {
+                pool.call(() -> {
+                    started.countDown();
+                    release.await();
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                // Pool shut down under the test
+            }
+        });
+        caller.setDaemon(true);
+        caller.start();
+    }
+    
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pool.getQueueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("Queue should fill", depth, pool.getQueueDepth());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.example.login.security;
+
+/**
+ * Measures PasswordHasher.verify throughput on one thread for a range of
+ * PBKDF2 iteration counts, and names the largest count that still meets the
+ * target login rate per core. DEFAULT_ITERATIONS is picked from this run on
+ * the deployment hardware.
+ *
+ * Run with: ant benchmark -Dbench.class=com.example.login.security.PasswordHashBenchmark
+ * Optional system properties: bench.target (logins/sec per core, default 25),
+ * bench.seconds (per iteration count, default 2)
+ */
+public class PasswordHashBenchmark {
+    private static final int[] ITERATIONS = {10_000, 25_000, 50_000, 100_000, 200_000, 400_000};
+    
+    public static void main(String[] args) {
+        double target = Double.parseDouble(System.getProperty("bench.target", "25"));
+        int seconds = Integer.getInteger("bench.seconds", 2);
+        
+        // Warm up the PBKDF2 code path
+        measure(ITERATIONS[0], seconds);
+        
+        System.out.printf("%-12s %12s %14s%n", "iterations", "ms/verify", "verify/s/core");
+        int recommended = 0;
+        for (int iterations : ITERATIONS) {
+            double rate = measure(iterations, seconds);
+            System.out.printf("%-12d %12.2f %14.1f%n", iterations, 1000 / rate, rate);
+            if (rate >= target) {
+                recommended = iterations;
+            }
+        }
+        if (recommended == 0) {
+            System.out.printf("No tested count reaches %.0f logins/s per core%n", target);
+        } else {
+            System.out.printf("Highest count meeting %.0f logins/s per core: %d (default %d)%n", target,
+                    recommended, PasswordHasher.DEFAULT_ITERATIONS);
+        }
+    }
+    
+    private static double measure(int iterations, int seconds) {
+        String hash = new PasswordHasher(iterations).hash("correct horse battery staple");
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        int count = 0;
+        while (count < 3 || System.nanoTime() < deadline) {
+            if (!PasswordHasher.verify("correct horse battery staple", hash)) {
+                throw new IllegalStateException("Verification failed");
+            }
+            count++;
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.example.login.security;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PasswordHasherTest {
+    private final PasswordHasher hasher = new PasswordHasher(1_000);
+    
+    @Test
+    public void testHashVerifiesOnlyTheOriginalPassword() {
+        String hash = hasher.hash("s3cret");
+        
+        assertTrue("Original password should verify", PasswordHasher.verify("s3cret", hash));
+        assertFalse("Other password should not verify", PasswordHasher.verify("s3creT", hash));
+        assertFalse("Empty password should not verify", PasswordHasher.verify("", hash));
+        assertFalse("Null password should not verify", PasswordHasher.verify(null, hash));
+    }
+    
+    @Test
+    public void testEncodingCarriesIterationsAndSalt() {
+        String hash = hasher.hash("s3cret");
+        String[] parts = hash.substring(PasswordHasher.PREFIX.length()).split("\\$");
+        
+        assertTrue("Hash should be recognised", PasswordHasher.isHash(hash));
+        assertEquals("Hash should have iterations, salt and key", 3, parts.length);
+        assertEquals("Iterations should be recorded", "1000", parts[0]);
+        assertFalse("Hash should not contain the password", hash.contains("s3cret"));
+    }
+    
+    @Test
+    public void testSamePasswordGetsDifferentSalts() {
+        String first = hasher.hash("s3cret");
+        String second = hasher.hash("s3cret");
+        
+        assertNotEquals("Each hash should use a fresh salt", first, second);
+        assertTrue("Both hashes should verify", PasswordHasher.verify("s3cret", first)
+                && PasswordHasher.verify("s3cret", second));
+    }
+    
+    @Test
+    public void testHashFromOtherWorkFactorStillVerifies() {
+        String old = new PasswordHasher(10).hash("s3cret");
+        
+        assertTrue("Iterations are read from the hash, not the hasher", PasswordHasher.verify("s3cret", old));
+    }
+    
+    @Test
+    public void testMalformedHashesNeverVerify() {
+        String valid = hasher.hash("s3cret");
+        String[] malformed = {
+            null, "", "s3cret", PasswordHasher.PREFIX, PasswordHasher.PREFIX + "1000$c2FsdA",
+            PasswordHasher.PREFIX + "x$c2FsdA$aGFzaA", PasswordHasher.PREFIX + "0$c2FsdA$aGFzaA",
+            PasswordHasher.PREFIX + "1000$!!!$aGFzaA", PasswordHasher.PREFIX + "1000$c2FsdA$aGFzaA",
+            valid.substring(0, valid.length() - 2)
+        };
+        for (String encoded : malformed) {
+            assertFalse("Should not verify: " + encoded, PasswordHasher.verify("s3cret", encoded));
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroIterationsIsRejected() {
+        new PasswordHasher(0);
+    }
+}
\ No newline at end of file
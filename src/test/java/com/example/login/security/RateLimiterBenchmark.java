@@ -0,0 +1,128 @@
+package com.example.login.security;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limit checks per second with many threads at once: RateLimiter against
+ * the obvious alternative, a synchronized map of synchronized token buckets.
+ * "hot" has every thread charging the same key, as in a brute-force burst
+ * against one account; "spread" draws from 10,000 keys, as in ordinary
+ * traffic. The rate and burst are set high enough that checks are allowed,
+ * so each one is a write to the bucket; the last column counts any that
+ * were rejected all the same.
+ *
+ * The Ant build has no JMH, so this is a plain warm-up-then-measure harness.
+ * Run with: ant benchmark -Dbench.class=com.example.login.security.RateLimiterBenchmark
+ * Optional system properties: bench.threads (default "1,4,16,64"), bench.seconds (default 3)
+ */
+public class RateLimiterBenchmark {
+    private static final int KEYS = 10_000;
+    
+    interface Limiter {
+        boolean allow(Object key);
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        String[] threadCounts = System.getProperty("bench.threads", "1,4,16,64").split(",");
+        int seconds = Integer.getInteger("bench.seconds", 3);
+        String[] keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "user" + i;
+        }
+        
+        System.out.printf("%-12s %-7s %8s %14s %10s %10s%n", "limiter", "keys", "threads", "checks/s", "ns/check",
+                "rejected");
+        for (String count : threadCounts) {
+            int threads = Integer.parseInt(count.trim());
+            for (boolean hot : new boolean[] {true, false}) {
+                RateLimiter lockFree = new RateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, KEYS * 2);
+                run("lock-free", key -> lockFree.tryAcquire(key) == 0, keys, hot, threads, seconds);
+                SynchronizedLimiter locked = new SynchronizedLimiter(Integer.MAX_VALUE / 60.0, Integer.MAX_VALUE);
+                run("synchronized", locked::allow, keys, hot, threads, seconds);
+            }
+        }
+    }
+    
+    private static void run(String name, Limiter limiter, String[] keys, boolean hot, int threads, int seconds)
+            throws InterruptedException {
+        // One thread first so the JIT settles before the threads compete
+        measure(limiter, keys, hot, 1, 1, new LongAdder());
+        measure(limiter, keys, hot, threads, 1, new LongAdder());
+        LongAdder rejected = new LongAdder();
+        double rate = measure(limiter, keys, hot, threads, seconds, rejected);
+        System.out.printf("%-12s %-7s %8d %14.0f %10.1f %10d%n", name, hot ? "hot" : "spread", threads, rate,
+                threads * 1e9 / rate, rejected.sum());
+    }
+    
+    private static double measure(Limiter limiter, String[] keys, boolean hot, int threads, int seconds,
+            LongAdder rejected) throws InterruptedException {
+        LongAdder checks = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 7919;
+            Thread thread = new Thread(() -> {
+                long count = 0;
+                long denied = 0;
+                int i = offset;
+                while (System.nanoTime() < deadline) {
+                    for (int j = 0; j < 256; j++) {
+                        String key = hot ? keys[0] : keys[(i++ & Integer.MAX_VALUE) % KEYS];
+                        if (!limiter.allow(key)) {
+                            denied++;
+                        }
+                    }
+                    count += 256;
+                }
+                checks.add(count);
+                rejected.add(denied);
+                done.countDown();
+            });
+            thread.start();
+        }
+        done.await();
+        return checks.sum() / (double) seconds;
+    }
+    
+    // Classic refill-on-read token bucket behind a lock per bucket and a lock on the map
+    static final class SynchronizedLimiter {
+        private final double permitsPerNano;
+        private final double burst;
+        private final Map<Object, Bucket> buckets = new HashMap<>();
+        
+        SynchronizedLimiter(double permitsPerSecond, int burst) {
+            this.permitsPerNano = permitsPerSecond / 1e9;
+            this.burst = burst;
+        }
+        
+        boolean allow(Object key) {
+            Bucket bucket;
+            synchronized (buckets) {
+                bucket = buckets.computeIfAbsent(key, k -> new Bucket(burst));
+            }
+            synchronized (bucket) {
+                long now = System.nanoTime();
+                bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.refilledAt) * permitsPerNano);
+                bucket.refilledAt = now;
+                if (bucket.tokens < 1) {
+                    return false;
+                }
+                bucket.tokens--;
+                return true;
+            }
+        }
+        
+        private static final class Bucket {
+            private double tokens;
+            private long refilledAt = System.nanoTime();
+            
+            Bucket(double tokens) {
+                this.tokens = tokens;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.example.login.security;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Test
+    public void testBurstThenReject() {
+        RateLimiter limiter = new RateLimiter(60, 3, 100);
+        long now = 1_000 * SECOND;
+        
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Burst should be allowed", 0, limiter.tryAcquire("alice", now));
+        }
+        long wait = limiter.tryAcquire("alice", now);
+        assertEquals("Next permit should be one interval away", SECOND, wait);
+        assertEquals("Rejection should be counted", 1, limiter.getRejectedCount());
+        assertEquals("Allowed requests should be counted", 3, limiter.getAllowedCount());
+    }
+    
+    @Test
+    public void testBucketRefillsAtRate() {
+        RateLimiter limiter = new RateLimiter(60, 2, 100);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("alice", now);
+        limiter.tryAcquire("alice", now);
+        
+        assertTrue("Empty bucket should reject", limiter.tryAcquire("alice", now + SECOND / 2) > 0);
+        assertEquals("One permit should be back after an interval", 0, limiter.tryAcquire("alice", now + SECOND));
+        assertTrue("Only one permit should have refilled", limiter.tryAcquire("alice", now + SECOND) > 0);
+        assertEquals("Idle time should refill up to the burst", 0, limiter.tryAcquire("alice", now + 60 * SECOND));
+        assertEquals("Idle time should refill up to the burst", 0, limiter.tryAcquire("alice", now + 60 * SECOND));
+        assertTrue("Refill should stop at the burst", limiter.tryAcquire("alice", now + 60 * SECOND) > 0);
+    }
+    
+    @Test
+    public void testKeysAreIndependent() {
+        RateLimiter limiter = new RateLimiter(60, 1, 100);
+        long now = 1_000 * SECOND;
+        
+        assertEquals("First key should be allowed", 0, limiter.tryAcquire("alice", now));
+        assertTrue("First key should now be throttled", limiter.tryAcquire("alice", now) > 0);
+        assertEquals("Other keys should have their own bucket", 0, limiter.tryAcquire("bob", now));
+    }
+    
+    @Test
+    public void testTableStaysBoundedUnderKeyFlood() {
+        RateLimiter limiter = new RateLimiter(60, 1, 64);
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 100_000; i++) {
+            limiter.tryAcquire("spoofed-" + i, now);
+        }
+        
+        assertEquals("Table should not grow past its capacity", limiter.getCapacity(), limiter.size());
+        assertTrue("Capacity should cover what was asked for", limiter.getCapacity() >= 64);
+    }
+    
+    @Test
+    public void testThrottledKeySurvivesKeyFlood() {
+        RateLimiter limiter = new RateLimiter(60, 5, 64);
+        long now = 1_000 * SECOND;
+        while (limiter.tryAcquire("attacker", now) == 0) {
+            // Drain the attacker's bucket
+        }
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("spoofed-" + i, now + 1);
+        }
+        
+        assertTrue("Flooding other keys should not reset a throttled bucket", limiter.tryAcquire("attacker", now + 2) > 0);
+        assertTrue("Flood should have displaced partly used buckets", limiter.getEvictedCount() > 0);
+    }
+    
+    @Test
+    public void testConcurrentAcquiresNeverExceedBurst() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(1, 100, 16);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    if (limiter.tryAcquire("shared") == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals("Exactly the burst should get through", 100, allowed.get());
+        assertEquals("Every other attempt should be rejected", 7_900, limiter.getRejectedCount());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroRate() {
+        new RateLimiter(0, 1, 1);
+    }
+}
\ No newline at end of file
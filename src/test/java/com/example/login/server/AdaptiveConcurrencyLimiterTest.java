@@ -0,0 +1,167 @@
+package com.example.login.server;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpServer;
+
+public class AdaptiveConcurrencyLimiterTest {
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    @Test
+    public void testShedsPastTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 100);
+        
+        assertTrue("First slot should be free", limiter.tryAcquire());
+        assertTrue("Second slot should be free", limiter.tryAcquire());
+        assertFalse("Third request should be shed", limiter.tryAcquire());
+        assertEquals("Shed request should be counted", 1, limiter.getShedCount());
+        limiter.release();
+        assertTrue("Released slot should be reusable", limiter.tryAcquire());
+        assertEquals("Two requests should be in flight", 2, limiter.getInFlight());
+    }
+    
+    @Test
+    public void testSlowSamplesCutTheLimitOncePerRound() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100, 100);
+        long start = System.nanoTime() + MILLI;
+        
+        // A whole round of slow requests that were in flight together
+        for (int i = 0; i < 20; i++) {
+            limiter.sample(start, start + 500 * MILLI, 20, false);
+        }
+        assertEquals("One overload spell should cut once", 18, limiter.getLimit());
+        
+        long later = start + 600 * MILLI;
+        limiter.sample(later, later + 500 * MILLI, 18, false);
+        assertEquals("Requests started after the cut should cut again", 16, limiter.getLimit());
+    }
+    
+    @Test
+    public void testDroppedRequestsCutTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 100);
+        long start = System.nanoTime() + MILLI;
+        
+        limiter.sample(start, start + MILLI, 10, true);
+        
+        assertEquals("A fast but dropped request should count as overload", 9, limiter.getLimit());
+    }
+    
+    @Test
+    public void testFastSamplesGrowTheLimitWhenUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100, 100);
+        long start = System.nanoTime();
+        
+        for (int i = 0; i < 100; i++) {
+            limiter.sample(start, start + MILLI, 2, false);
+        }
+        assertEquals("An idle limit should not grow", 10, limiter.getLimit());
+        
+        // Each adds 1/limit, so a little over one round of fast requests adds one
+        for (int i = 0; i < 12; i++) {
+            limiter.sample(start, start + MILLI, 10, false);
+        }
+        assertEquals("A round of fast requests should add one", 11, limiter.getLimit());
+    }
+    
+    @Test
+    public void testLimitStaysWithinBounds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(3, 2, 4, 100);
+        long now = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            limiter.sample(now, now + MILLI, 4, false);
+        }
+        assertEquals("Limit should stop at the maximum", 4, limiter.getLimit());
+        
+        for (int i = 0; i < 50; i++) {
+            now += 1_000 * MILLI;
+            limiter.sample(now, now + 500 * MILLI, 4, false);
+        }
+        assertEquals("Limit should stop at the minimum", 2, limiter.getLimit());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInitialBelowMinimum() {
+        new AdaptiveConcurrencyLimiter(1, 2, 10, 100);
+    }
+    
+    @Test
+    public void testFilterShedsPostsButNotGets() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        HttpContext context = server.createContext("/api/login", exchange -> {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        context.getFilters().add(new ConcurrencyLimitFilter(limiter));
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/login";
+        try {
+            Thread holder = new Thread(() -> {
+                try {
+                    post(url).getResponseCode();
+                } catch (IOException e) {
+                    // Reported by the assertions below
+                }
+            });
+            holder.start();
+            assertTrue("First POST should be admitted", started.await(5, TimeUnit.SECONDS));
+            
+            HttpURLConnection shed = post(url);
+            assertEquals("POST past the limit should be shed", 503, shed.getResponseCode());
+            assertEquals("Shed response should ask for a retry", "1", shed.getHeaderField("Retry-After"));
+            
+            HttpURLConnection health = (HttpURLConnection) new URL(url).openConnection();
+            assertEquals("GET health check should never be shed", 200, health.getResponseCode());
+            
+            release.countDown();
+            holder.join(5000);
+            // The filter releases in its finally block, after the client already has the response
+            assertTrue("Slot should be released", waitForInFlight(limiter, 0));
+            assertEquals("Only the second POST should be shed", 1, limiter.getShedCount());
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
+    
+    private static boolean waitForInFlight(AdaptiveConcurrencyLimiter limiter, int expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getInFlight() != expected) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+    
+    private static HttpURLConnection post(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write("{}".getBytes());
+        }
+        return connection;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.example.login.server;
+
+import org.junit.Test;
+import org.junit.After;
+import static org.junit.Assert.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BoundedExecutorTest {
+    private BoundedExecutor executor;
+    
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testCapacityIsWorkersPlusQueue() {
+        executor = BoundedExecutor.create(ExecutorMode.FIXED, 4, 10);
+        assertEquals("Capacity should include workers and queue", 14, executor.getCapacity());
+        assertEquals("Queue depth should start empty", 0, executor.getQueueDepth());
+    }
+    
+    @Test
+    public void testTaskRunsOnWorkerWhenCapacityAvailable() throws InterruptedException {
+        executor = BoundedExecutor.create(ExecutorMode.FIXED, 2, 0);
+        AtomicBoolean rejected = new AtomicBoolean(true);
+        AtomicReference<Thread> runner = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        
+        executor.execute(() -> {
+            rejected.set(BoundedExecutor.isRejected());
+            runner.set(Thread.currentThread());
+            done.countDown();
+        });
+        
+        assertTrue("Task should complete", done.await(5, TimeUnit.SECONDS));
+        assertFalse("Task with a free slot should not be flagged", rejected.get());
+        assertNotSame("Task should run on a worker thread", Thread.currentThread(), runner.get());
+        assertEquals("No task should be rejected", 0, executor.getRejectedCount());
+    }
+    
+    @Test
+    public void testOverflowRunsOnCallerWithRejectedFlag() throws InterruptedException {
+        executor = BoundedExecutor.create(ExecutorMode.FIXED, 1, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue("Blocking task should start", started.await(5, TimeUnit.SECONDS));
+        assertEquals("Blocking task should hold the only slot", 1, executor.getQueueDepth());
+        
+        AtomicBoolean rejected = new AtomicBoolean(false);
+        AtomicReference<Thread> runner = new AtomicReference<>();
+        executor.execute(() -> {
+            rejected.set(BoundedExecutor.isRejected());
+            runner.set(Thread.currentThread());
+        });
+        
+        assertTrue("Overflow task should be flagged as rejected", rejected.get());
+        assertSame("Overflow task should run on the caller", Thread.currentThread(), runner.get());
+        assertFalse("Flag should be cleared afterwards", BoundedExecutor.isRejected());
+        assertEquals("Rejection should be counted", 1, executor.getRejectedCount());
+        
+        release.countDown();
+    }
+    
+    @Test
+    public void testQueueDepthReturnsToZero() throws InterruptedException {
+        executor = BoundedExecutor.create(ExecutorMode.FIXED, 2, 2);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(done::countDown);
+        }
+        assertTrue("All tasks should complete", done.await(5, TimeUnit.SECONDS));
+        
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Slots should be released after completion", 0, executor.getQueueDepth());
+    }
+    
+    @Test
+    public void testAllModesExecuteTasks() throws InterruptedException {
+        for (ExecutorMode mode : ExecutorMode.values()) {
+            BoundedExecutor modeExecutor = BoundedExecutor.create(mode, 2, 4);
+            try {
+                CountDownLatch done = new CountDownLatch(1);
+                modeExecutor.execute(done::countDown);
+                assertTrue(mode + " executor should run tasks", done.await(5, TimeUnit.SECONDS));
+                assertEquals("Mode should be recorded", mode, modeExecutor.getMode());
+            } finally {
+                modeExecutor.shutdown();
+            }
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroWorkers() {
+        BoundedExecutor.create(ExecutorMode.FIXED, 0, 10);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNegativeQueue() {
+        BoundedExecutor.create(ExecutorMode.FIXED, 1, -1);
+    }
+}
\ No newline at end of file
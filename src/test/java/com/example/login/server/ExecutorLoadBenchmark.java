@@ -0,0 +1,108 @@
+package com.example.login.server;
+
+import com.example.login.LoginServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for the executor modes. Starts a server per mode and worker count
+ * (1, 2, 4 ... available cores), drives it with concurrent login clients and
+ * prints requests per second and 503 counts.
+ *
+ * Run with: ant benchmark -Dbench.class=com.example.login.server.ExecutorLoadBenchmark
+ * Optional system properties: bench.clients (default 64), bench.seconds (default 5);
+ * pass -Dlogin.engine=nio to measure the NIO engine instead of HttpServer
+ */
+public class ExecutorLoadBenchmark {
+    private static final byte[] LOGIN_BODY =
+            "{\"username\":\"demo\",\"password\":\"demo\"}".getBytes(StandardCharsets.UTF_8);
+    
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("bench.clients", 64);
+        int seconds = Integer.getInteger("bench.seconds", 5);
+        int cores = Runtime.getRuntime().availableProcessors();
+        
+        System.out.printf("%-14s %8s %12s %10s%n", "mode", "workers", "req/s", "503s");
+        for (ExecutorMode mode : ExecutorMode.values()) {
+            for (int workers = 1; workers <= cores; workers *= 2) {
+                run(mode, workers, clients, seconds);
+            }
+        }
+    }
+    
+    private static void run(ExecutorMode mode, int workers, int clients, int seconds) throws Exception {
+        ServerConfig config = new ServerConfig(0, "web").applyProperties(System.getProperties());
+        config.setExecutorMode(mode);
+        config.setWorkerThreads(workers);
+        config.setQueueCapacity(clients);
+        // Every client logs in as demo from one address; measure the executor, not throttling
+        config.setRateLimit(false);
+        LoginServer server = new LoginServer(config);
+        server.start();
+        
+        URL url = new URL("http://localhost:" + server.getPort() + "/api/login");
+        LongAdder ok = new LongAdder();
+        LongAdder busy = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Thread thread = new Thread(() -> {
+                while (running.get()) {
+                    try {
+                        int status = post(url);
+                        if (status == 200) {
+                            ok.increment();
+                        } else if (status == 503) {
+                            busy.increment();
+                        }
+                    } catch (IOException e) {
+                        // Connection resets under overload are expected, keep going
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        
+        // Short warm-up so JIT compilation does not dominate the small pools
+        Thread.sleep(1000);
+        ok.reset();
+        busy.reset();
+        Thread.sleep(seconds * 1000L);
+        long completed = ok.sum();
+        long rejected = busy.sum();
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        server.stop(0);
+        
+        System.out.printf("%-14s %8d %12.0f %10d%n", mode, workers, completed / (double) seconds, rejected);
+    }
+    
+    private static int post(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(LOGIN_BODY);
+        }
+        int status = connection.getResponseCode();
+        InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (body != null) {
+            // Drain so the keep-alive connection can be reused
+            body.readAllBytes();
+            body.close();
+        }
+        return status;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.example.login.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class JdkHttpEngineTest {
+    private ExecutorService executor;
+    private JdkHttpEngine engine;
+    private int port;
+    
+    @Before
+    public void setUp() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        engine = new JdkHttpEngine(new InetSocketAddress("127.0.0.1", 0), 0, executor);
+        engine.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "done".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        engine.start();
+        port = engine.getAddress().getPort();
+    }
+    
+    @After
+    public void tearDown() {
+        engine.stop(0);
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testStopLetsInFlightRequestFinish() throws Exception {
+        ExecutorService client = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> status = client.submit(() -> open("/slow").getResponseCode());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (engine.getInFlight() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals("Request should be in flight", 1, engine.getInFlight());
+            
+            long started = System.nanoTime();
+            engine.stop(10);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            
+            assertEquals("In-flight request should complete", 200, (int) status.get(5, TimeUnit.SECONDS));
+            assertEquals("Nothing should be left in flight", 0, engine.getInFlight());
+            assertTrue("Stop should return once drained, not after the whole delay: " + elapsed + " ms",
+                    elapsed < 5000);
+        } finally {
+            client.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void testIdleStopDoesNotWaitOutDelay() {
+        long started = System.nanoTime();
+        engine.stop(10);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        
+        assertTrue("Idle stop should be prompt: " + elapsed + " ms", elapsed < 5000);
+    }
+    
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+    }
+}
\ No newline at end of file
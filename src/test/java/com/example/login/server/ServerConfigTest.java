@@ -0,0 +1,214 @@
+package com.example.login.server;
+
+import com.example.login.session.TokenMode;
+import com.example.login.store.UserStoreType;
+import org.junit.Test;
+import org.junit.Before;
+import static org.junit.Assert.*;
+import java.util.Properties;
+
+public class ServerConfigTest {
+    private ServerConfig config;
+    
+    @Before
+    public void setUp() {
+        config = new ServerConfig(12001, "web");
+    }
+    
+    @Test
+    public void testDefaults() {
+        assertEquals("Port should match constructor", 12001, config.getPort());
+        assertEquals("Web root should match constructor", "web", config.getWebRoot());
+        assertEquals("Default executor should be fixed", ExecutorMode.FIXED, config.getExecutorMode());
+        assertTrue("Default worker count should be positive", config.getWorkerThreads() > 0);
+        assertTrue("Default queue should be positive", config.getQueueCapacity() > 0);
+        assertEquals("Default engine should be the JDK server", EngineType.JDK, config.getEngine());
+        assertTrue("Default backlog should be explicit", config.getBacklog() > 0);
+    }
+    
+    @Test
+    public void testApplyProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("login.port", "9000");
+        properties.setProperty("login.executor", "work-stealing");
+        properties.setProperty("login.workerThreads", "3");
+        properties.setProperty("login.queueCapacity", "7");
+        properties.setProperty("login.engine", "nio");
+        properties.setProperty("login.selectorThreads", "2");
+        properties.setProperty("login.backlog", "64");
+        properties.setProperty("unrelated.key", "ignored");
+        
+        config.applyProperties(properties);
+        
+        assertEquals("Port should be overridden", 9000, config.getPort());
+        assertEquals("Executor should be parsed", ExecutorMode.WORK_STEALING, config.getExecutorMode());
+        assertEquals("Worker threads should be overridden", 3, config.getWorkerThreads());
+        assertEquals("Queue capacity should be overridden", 7, config.getQueueCapacity());
+        assertEquals("Engine should be parsed", EngineType.NIO, config.getEngine());
+        assertEquals("Selector threads should be overridden", 2, config.getSelectorThreads());
+        assertEquals("Backlog should be overridden", 64, config.getBacklog());
+    }
+    
+    @Test
+    public void testStaticCacheProperties() {
+        config.applyArguments(new String[] {"--staticCacheBytes=4096", "--staticMaxEntryBytes=512",
+                "--staticRevalidateMillis=0"});
+        
+        assertEquals("Cache budget should be overridden", 4096, config.getStaticCacheBytes());
+        assertEquals("Entry limit should be overridden", 512, config.getStaticMaxEntryBytes());
+        assertEquals("Revalidate interval should be overridden", 0, config.getStaticRevalidateMillis());
+    }
+    
+    @Test
+    public void testUserStoreType() {
+        assertEquals("Default store should be the map", UserStoreType.MAP, config.getUserStore());
+        config.applyArguments(new String[] {"--userStore=compact"});
+        assertEquals("Store type should be parsed", UserStoreType.COMPACT, config.getUserStore());
+    }
+    
+    @Test
+    public void testUserFilterFlag() {
+        assertFalse("Filter should be off by default", config.isUserFilter());
+        config.applyArguments(new String[] {"--userFilter=TRUE"});
+        assertTrue("Filter flag should be parsed", config.isUserFilter());
+    }
+    
+    @Test
+    public void testCredentialCacheSettings() {
+        assertFalse("Credential cache should be opt-in", config.isCredentialCache());
+        config.applyArguments(new String[] {"--credentialCache=true", "--credentialCacheSize=500",
+            "--credentialCacheTtlSeconds=60"});
+        
+        assertTrue("Cache flag should be parsed", config.isCredentialCache());
+        assertEquals("Cache size should be parsed", 500, config.getCredentialCacheSize());
+        assertEquals("Cache TTL should be parsed", 60, config.getCredentialCacheTtlSeconds());
+    }
+    
+    @Test
+    public void testSessionSettings() {
+        config.applyArguments(new String[] {"--sessionTtlSeconds=120", "--maxSessions=5000"});
+        
+        assertEquals("Session TTL should be parsed", 120, config.getSessionTtlSeconds());
+        assertEquals("Session bound should be parsed", 5000, config.getMaxSessions());
+    }
+    
+    @Test
+    public void testTokenMode() {
+        assertEquals("Server-side sessions should be the default", TokenMode.SESSION, config.getTokenMode());
+        config.applyArguments(new String[] {"--tokens=signed", "--tokenKeys=k1:AAAA"});
+        
+        assertEquals("Token mode should be parsed", TokenMode.SIGNED, config.getTokenMode());
+        assertEquals("Token keys should be kept as given", "k1:AAAA", config.getTokenKeys());
+    }
+    
+    @Test
+    public void testTokenCacheSettings() {
+        assertEquals("Token cache should be on by default", 100_000, config.getTokenCacheSize());
+        config.applyArguments(new String[] {"--tokenCacheSize=0", "--tokenCacheMillis=250"});
+        
+        assertEquals("Token cache size should be parsed", 0, config.getTokenCacheSize());
+        assertEquals("Token cache lifetime should be parsed", 250, config.getTokenCacheMillis());
+    }
+    
+    @Test
+    public void testLoginBatchSettings() {
+        config.applyArguments(new String[] {"--loginBatchSize=20", "--loginBatchMillis=500"});
+        
+        assertEquals("Batch size should be parsed", 20, config.getLoginBatchSize());
+        assertEquals("Batch budget should be parsed", 500, config.getLoginBatchMillis());
+    }
+    
+    @Test
+    public void testRateLimitSettings() {
+        assertTrue("Login rate limiting should be on by default", config.isRateLimit());
+        config.applyArguments(new String[] {"--rateLimit=false", "--rateLimitAddressPerMinute=120",
+            "--rateLimitAddressBurst=12", "--rateLimitUsernamePerMinute=6", "--rateLimitUsernameBurst=3",
+            "--rateLimitKeys=5000"});
+        
+        assertFalse("Rate limit flag should be parsed", config.isRateLimit());
+        assertEquals("Address rate should be parsed", 120, config.getRateLimitAddressPerMinute());
+        assertEquals("Address burst should be parsed", 12, config.getRateLimitAddressBurst());
+        assertEquals("Username rate should be parsed", 6, config.getRateLimitUsernamePerMinute());
+        assertEquals("Username burst should be parsed", 3, config.getRateLimitUsernameBurst());
+        assertEquals("Key capacity should be parsed", 5000, config.getRateLimitKeys());
+    }
+    
+    @Test
+    public void testConcurrencyLimitSettings() {
+        assertTrue("Login concurrency limiting should be on by default", config.isConcurrencyLimit());
+        config.applyArguments(new String[] {"--concurrencyLimit=false", "--concurrencyInitialLimit=8",
+            "--concurrencyMinLimit=4", "--concurrencyMaxLimit=64", "--concurrencyTargetMillis=100"});
+        
+        assertFalse("Limit flag should be parsed", config.isConcurrencyLimit());
+        assertEquals("Initial limit should be parsed", 8, config.getConcurrencyInitialLimit());
+        assertEquals("Minimum limit should be parsed", 4, config.getConcurrencyMinLimit());
+        assertEquals("Maximum limit should be parsed", 64, config.getConcurrencyMaxLimit());
+        assertEquals("Latency target should be parsed", 100, config.getConcurrencyTargetMillis());
+    }
+    
+    @Test
+    public void testMetricsSetting() {
+        assertTrue("Metrics should be on by default", config.isMetrics());
+        Properties properties = new Properties();
+        properties.setProperty("login.metrics", "false");
+        config.applyProperties(properties);
+        
+        assertFalse("Metrics flag should be parsed", config.isMetrics());
+    }
+    
+    @Test
+    public void testHealthSettings() {
+        assertEquals("Default check interval", 1000, config.getHealthIntervalMillis());
+        assertEquals("Default saturation threshold", 90, config.getHealthMaxQueuePercent());
+        assertEquals("Default error threshold", 50, config.getHealthMaxErrorPercent());
+        config.applyArguments(new String[] {"--healthIntervalMillis=250", "--healthMaxQueuePercent=75",
+            "--healthMaxErrorPercent=20"});
+        
+        assertEquals("Interval should be parsed", 250, config.getHealthIntervalMillis());
+        assertEquals("Saturation threshold should be parsed", 75, config.getHealthMaxQueuePercent());
+        assertEquals("Error threshold should be parsed", 20, config.getHealthMaxErrorPercent());
+    }
+    
+    @Test
+    public void testLifecycleSettings() {
+        assertTrue("Warm-up should be on by default", config.isWarmUp());
+        assertEquals("No readiness delay by default", 0, config.getShutdownDelayMillis());
+        assertEquals("Default drain deadline", 10, config.getShutdownDrainSeconds());
+        config.applyArguments(new String[] {"--warmUp=false", "--shutdownDelayMillis=2000",
+            "--shutdownDrainSeconds=30"});
+        
+        assertFalse("Warm-up should be parsed", config.isWarmUp());
+        assertEquals("Readiness delay should be parsed", 2000, config.getShutdownDelayMillis());
+        assertEquals("Drain deadline should be parsed", 30, config.getShutdownDrainSeconds());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBoolean() {
+        config.applyArguments(new String[] {"--userFilter=yes"});
+    }
+    
+    @Test
+    public void testApplyArguments() {
+        config.applyArguments(new String[] {"--executor=virtual", "--webRoot=build/web"});
+        
+        assertEquals("Executor should come from arguments", ExecutorMode.VIRTUAL, config.getExecutorMode());
+        assertEquals("Web root should come from arguments", "build/web", config.getWebRoot());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedArgument() {
+        config.applyArguments(new String[] {"executor"});
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidInteger() {
+        Properties properties = new Properties();
+        properties.setProperty("login.workerThreads", "many");
+        config.applyProperties(properties);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownExecutorMode() {
+        ExecutorMode.fromString("green-threads");
+    }
+}
\ No newline at end of file
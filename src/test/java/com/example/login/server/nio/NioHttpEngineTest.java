@@ -0,0 +1,352 @@
+package com.example.login.server.nio;
+
+import com.example.login.controller.LoginController;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class NioHttpEngineTest {
+    private static final int STREAM_BLOCKS = 512;
+    
+    private final AtomicLong streamed = new AtomicLong();
+    private NioHttpEngine engine;
+    private ExecutorService executor;
+    private int port;
+    
+    @Before
+    public void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        engine = new NioHttpEngine(new InetSocketAddress("127.0.0.1", 0), 50, 2, executor, 1024);
+        engine.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            String text = exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " "
+                    + new String(body, StandardCharsets.UTF_8);
+            byte[] response = text.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            OutputStream os = exchange.getResponseBody();
+            os.write(response);
+            os.close();
+        });
+        engine.createContext("/chunked", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream os = exchange.getResponseBody();
+            os.write("first,".getBytes(StandardCharsets.UTF_8));
+            os.flush();
+            os.write("second".getBytes(StandardCharsets.UTF_8));
+            os.close();
+        });
+        engine.createContext("/stream", exchange -> {
+            byte[] block = new byte[64 * 1024];
+            exchange.sendResponseHeaders(200, (long) STREAM_BLOCKS * block.length);
+            OutputStream os = exchange.getResponseBody();
+            for (int i = 0; i < STREAM_BLOCKS; i++) {
+                os.write(block);
+                streamed.addAndGet(block.length);
+            }
+            os.close();
+        });
+        engine.createContext("/fail", exchange -> {
+            throw new IllegalStateException("boom");
+        });
+        engine.createContext("/api/login", new LoginController()).getFilters().add(new Filter() {
+            @Override
+            public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+                exchange.getResponseHeaders().add("X-Filtered", "yes");
+                chain.doFilter(exchange);
+            }
+            
+            @Override
+            public String description() {
+                return "marks responses";
+            }
+        });
+        engine.start();
+        port = engine.getAddress().getPort();
+    }
+    
+    @After
+    public void tearDown() {
+        engine.stop(0);
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testSimpleGet() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "GET /echo/path HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            
+            assertEquals("Should return 200", 200, response.status);
+            assertEquals("Should echo method and path", "GET /echo/path ", response.body);
+            assertNotNull("Should set a Date header", response.headers.get("date"));
+        }
+    }
+    
+    @Test
+    public void testPostBodySplitAcrossPackets() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "POST /echo HTTP/1.1\r\nHost: localhost\r\nContent-Length: 11\r\n\r\nhello");
+            Thread.sleep(50);
+            send(socket, " world");
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            
+            assertEquals("Should return 200", 200, response.status);
+            assertEquals("Should see the full body", "POST /echo hello world", response.body);
+        }
+    }
+    
+    @Test
+    public void testPipelinedRequestsAnsweredInOrder() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "GET /echo/1 HTTP/1.1\r\nHost: a\r\n\r\n"
+                    + "POST /echo/2 HTTP/1.1\r\nHost: a\r\nContent-Length: 3\r\n\r\nabc"
+                    + "GET /echo/3 HTTP/1.1\r\nHost: a\r\n\r\n");
+            InputStream in = socket.getInputStream();
+            
+            assertEquals("First response first", "GET /echo/1 ", RawResponse.read(in).body);
+            assertEquals("Second response second", "POST /echo/2 abc", RawResponse.read(in).body);
+            assertEquals("Third response third", "GET /echo/3 ", RawResponse.read(in).body);
+        }
+    }
+    
+    @Test
+    public void testChunkedResponse() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "GET /chunked HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            
+            assertEquals("Should use chunked encoding", "chunked", response.headers.get("transfer-encoding"));
+            assertEquals("Should reassemble chunks", "first,second", response.body);
+        }
+    }
+    
+    @Test
+    public void testConnectionCloseHonoured() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "GET /echo HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n");
+            InputStream in = socket.getInputStream();
+            RawResponse response = RawResponse.read(in);
+            
+            assertEquals("Should announce close", "close", response.headers.get("connection"));
+            assertEquals("Server should close the socket", -1, in.read());
+        }
+    }
+    
+    @Test
+    public void testOversizedBodyRejected() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "POST /echo HTTP/1.1\r\nHost: localhost\r\nContent-Length: 5000\r\n\r\n");
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            
+            assertEquals("Should return 413", 413, response.status);
+        }
+    }
+    
+    @Test
+    public void testChunkedRequestBodyDecoded() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "POST /echo HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\n\r\n"
+                    + "5;name=value\r\nhello\r\n1");
+            Thread.sleep(50);
+            send(socket, "\r\n \r\n6\r\nworld!\r\n0\r\nX-Trailer: ignored\r\n\r\n"
+                    + "GET /echo/next HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            InputStream in = socket.getInputStream();
+            RawResponse response = RawResponse.read(in);
+            
+            assertEquals("Should return 200", 200, response.status);
+            assertEquals("Chunks split across packets should be joined", "POST /echo hello world!", response.body);
+            assertEquals("The next request should follow the trailer", "GET /echo/next ", RawResponse.read(in).body);
+        }
+    }
+    
+    @Test
+    public void testChunkedStreamingClient() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/echo").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(4);
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write("streamed body".getBytes(StandardCharsets.UTF_8));
+        }
+        
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("POST /echo streamed body",
+                new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    public void testChunkedRequestLimits() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "POST /echo HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\n\r\n"
+                    + "300\r\n" + "a".repeat(0x300) + "\r\n300\r\n");
+            assertEquals("Chunks adding up past the limit should return 413", 413,
+                    RawResponse.read(socket.getInputStream()).status);
+        }
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "POST /echo HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\n\r\n"
+                    + "+5\r\nhello\r\n0\r\n\r\n");
+            assertEquals("A signed chunk size should return 400", 400, RawResponse.read(socket.getInputStream()).status);
+        }
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "POST /echo HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: gzip, chunked\r\n\r\n"
+                    + "0\r\n\r\n");
+            assertEquals("Other codings should return 501", 501, RawResponse.read(socket.getInputStream()).status);
+        }
+    }
+    
+    @Test
+    public void testSlowReaderHoldsBackTheHandler() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            socket.setReceiveBufferSize(64 * 1024);
+            send(socket, "GET /stream HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            Thread.sleep(500);
+            long total = STREAM_BLOCKS * 64L * 1024;
+            assertTrue("Handler should wait for the client, wrote " + streamed.get(), streamed.get() < total / 2);
+            
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            assertEquals(200, response.status);
+            assertEquals("Whole body should arrive once the client reads", total, response.body.length());
+            assertEquals(total, streamed.get());
+        }
+    }
+    
+    @Test
+    public void testConflictingContentLengthRejected() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "POST /echo HTTP/1.1\r\nHost: localhost\r\nContent-Length: 3\r\nContent-Length: 5\r\n\r\nabcde");
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            
+            assertEquals("Disagreeing lengths should return 400", 400, response.status);
+        }
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "POST /echo HTTP/1.1\r\nHost: localhost\r\nContent-Length: 3\r\n"
+                    + "Transfer-Encoding: chunked\r\n\r\n3\r\nabc\r\n0\r\n\r\n");
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            
+            assertEquals("Length with Transfer-Encoding should return 400", 400, response.status);
+        }
+    }
+    
+    @Test
+    public void testRepeatedIdenticalContentLengthAccepted() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "POST /echo HTTP/1.1\r\nHost: localhost\r\nContent-Length: 5\r\nContent-Length: 5\r\n"
+                    + "Connection: close\r\n\r\nhello");
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            
+            assertEquals("Agreeing lengths should be accepted", 200, response.status);
+        }
+    }
+    
+    @Test
+    public void testMalformedRequestLine() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "NONSENSE\r\n\r\n");
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            
+            assertEquals("Should return 400", 400, response.status);
+        }
+    }
+    
+    @Test
+    public void testHandlerExceptionReturns500() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "GET /fail HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            
+            assertEquals("Should return 500", 500, response.status);
+        }
+    }
+    
+    @Test
+    public void testUnknownContextReturns404() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            send(socket, "GET /missing HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            RawResponse response = RawResponse.read(socket.getInputStream());
+            
+            assertEquals("Should return 404", 404, response.status);
+        }
+    }
+    
+    @Test
+    public void testLoginControllerWithFilters() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection)
+                new URL("http://127.0.0.1:" + port + "/api/login").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write("{\"username\":\"demo\",\"password\":\"demo\"}".getBytes(StandardCharsets.UTF_8));
+        }
+        
+        assertEquals("Should log in through the NIO engine", 200, connection.getResponseCode());
+        assertEquals("Context filters should run", "yes", connection.getHeaderField("X-Filtered"));
+        String body = new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue("Response should indicate success", body.contains("\"success\":true"));
+    }
+    
+    private static void send(Socket socket, String data) throws IOException {
+        socket.getOutputStream().write(data.getBytes(StandardCharsets.ISO_8859_1));
+        socket.getOutputStream().flush();
+    }
+    
+    // Minimal HTTP/1.1 response reader supporting Content-Length and chunked bodies
+    private static class RawResponse {
+        int status;
+        Map<String, String> headers = new HashMap<>();
+        String body;
+        
+        static RawResponse read(InputStream in) throws IOException {
+            RawResponse response = new RawResponse();
+            String statusLine = readLine(in);
+            response.status = Integer.parseInt(statusLine.split(" ")[1]);
+            String line;
+            while (!(line = readLine(in)).isEmpty()) {
+                int colon = line.indexOf(':');
+                response.headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                        line.substring(colon + 1).trim());
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if ("chunked".equals(response.headers.get("transfer-encoding"))) {
+                int size;
+                while ((size = Integer.parseInt(readLine(in), 16)) > 0) {
+                    body.write(in.readNBytes(size));
+                    readLine(in);
+                }
+                readLine(in);
+            } else if (response.headers.containsKey("content-length")) {
+                body.write(in.readNBytes(Integer.parseInt(response.headers.get("content-length"))));
+            }
+            response.body = body.toString(StandardCharsets.UTF_8);
+            return response;
+        }
+        
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != -1 && c != '\n') {
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            return line.toString();
+        }
+    }
+}
\ No newline at end of file
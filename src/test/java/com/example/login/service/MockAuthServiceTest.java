@@ -3,6 +3,10 @@ package com.example.login.service;
 import com.example.login.model.User;
 import com.example.login.model.LoginRequest;
 import com.example.login.model.LoginResponse;
+import com.example.login.security.CredentialCache;
+import com.example.login.security.PasswordHasher;
+import com.example.login.session.SessionStore;
+import com.example.login.session.SignedTokenService;
 import org.junit.Test;
 import org.junit.Before;
 import org.junit.After;
@@ -87,15 +91,26 @@ public class MockAuthServiceTest {
         Map<String, User> users = authService.getAllUsers();
         
         assertThat("Admin password should be correct", 
-            users.get("admin").getPassword(), is("admin123"));
+            PasswordHasher.verify("admin123", users.get("admin").getPasswordHash()), is(true));
         assertThat("Manager password should be correct", 
-            users.get("manager").getPassword(), is("manager123"));
+            PasswordHasher.verify("manager123", users.get("manager").getPasswordHash()), is(true));
         assertThat("Demo password should be correct", 
-            users.get("demo").getPassword(), is("demo"));
+            PasswordHasher.verify("demo", users.get("demo").getPasswordHash()), is(true));
         assertThat("Test password should be correct", 
-            users.get("test").getPassword(), is("test123"));
+            PasswordHasher.verify("test123", users.get("test").getPasswordHash()), is(true));
         assertThat("User password should be correct", 
-            users.get("user").getPassword(), is("password"));
+            PasswordHasher.verify("password", users.get("user").getPasswordHash()), is(true));
+    }
+    
+    @Test
+    public void testPasswordsAreNotStoredInPlainText() {
+        for (User user : authService.getAllUsers().values()) {
+            assertThat("Plain password should not be kept for " + user.getUsername(),
+                user.getPassword(), is(nullValue()));
+            assertThat("Password should be salted per user",
+                user.getPasswordHash().equals(authService.getAllUsers().get("admin").getPasswordHash()),
+                is(user.getUsername().equals("admin")));
+        }
     }
     
     // ========== SUCCESSFUL AUTHENTICATION TESTS ==========
@@ -414,6 +429,125 @@ public class MockAuthServiceTest {
             freshUsers.containsKey("hacker"), is(false));
     }
     
+    @Test
+    public void testUsersChangedInStoreAtRuntime() {
+        authService.addUser("carol", "carol123", "USER");
+        assertSuccessfulAuthentication(authService.authenticate(new LoginRequest("carol", "carol123")), "USER");
+        
+        authService.getUserStore().remove("demo");
+        assertFailedAuthentication(authService.authenticate(new LoginRequest(VALID_USERNAME, VALID_PASSWORD)),
+            "Invalid username or password");
+        assertThat("Copy should reflect the store", authService.getAllUsers().size(), is(5));
+    }
+    
+    @Test
+    public void testChangePassword() {
+        assertThat("Existing user should be updated", authService.changePassword("demo", "n3w"), is(true));
+        assertThat("Missing user should not be created", authService.changePassword("nobody", "n3w"), is(false));
+        
+        assertFailedAuthentication(authService.authenticate(new LoginRequest("demo", "demo")),
+            "Invalid username or password");
+        assertSuccessfulAuthentication(authService.authenticate(new LoginRequest("demo", "n3w")), "USER");
+    }
+    
+    @Test
+    public void testCredentialCacheSkipsRepeatedVerification() {
+        CredentialCache cache = new CredentialCache(100, 60_000);
+        authService.setCredentialCache(cache);
+        
+        assertSuccessfulAuthentication(authService.authenticate(new LoginRequest("demo", "demo")), "USER");
+        assertSuccessfulAuthentication(authService.authenticate(new LoginRequest("demo", "demo")), "USER");
+        assertFailedAuthentication(authService.authenticate(new LoginRequest("demo", "wrong")),
+            "Invalid username or password");
+        
+        assertThat("Re-login should hit the cache", cache.getHitCount(), is(1L));
+        assertThat("First login and wrong password should miss", cache.getMissCount(), is(2L));
+        assertThat("Failed logins should not be cached", cache.size(), is(1));
+    }
+    
+    @Test
+    public void testAuthenticateAsyncMatchesAuthenticate() throws Exception {
+        CredentialCache cache = new CredentialCache(100, 60_000);
+        authService.setCredentialCache(cache);
+        
+        Future<LoginResponse> valid = authService.authenticateAsync(new LoginRequest("admin", "admin123"));
+        Future<LoginResponse> wrong = authService.authenticateAsync(new LoginRequest("admin", "nope"));
+        Future<LoginResponse> unknown = authService.authenticateAsync(new LoginRequest("nobody", "x"));
+        Future<LoginResponse> empty = authService.authenticateAsync(new LoginRequest(" ", "x"));
+        
+        assertSuccessfulAuthentication(valid.get(5, TimeUnit.SECONDS), "ADMIN");
+        assertFailedAuthentication(wrong.get(5, TimeUnit.SECONDS), "Invalid username or password");
+        assertThat("Unknown users need no hashing", unknown.isDone(), is(true));
+        assertFailedAuthentication(unknown.get(), "Invalid username or password");
+        assertFailedAuthentication(empty.get(), "Username and password cannot be empty");
+        assertThat("Async success should be cached", cache.size(), is(1));
+        
+        Future<LoginResponse> cached = authService.authenticateAsync(new LoginRequest("admin", "admin123"));
+        assertThat("Cached credentials should complete at once", cached.isDone(), is(true));
+        assertSuccessfulAuthentication(cached.get(), "ADMIN");
+    }
+    
+    @Test
+    public void testCredentialCacheIsInvalidatedByPasswordChange() {
+        CredentialCache cache = new CredentialCache(100, 60_000);
+        authService.setCredentialCache(cache);
+        authService.authenticate(new LoginRequest("demo", "demo"));
+        
+        authService.changePassword("demo", "n3w");
+        
+        assertFailedAuthentication(authService.authenticate(new LoginRequest("demo", "demo")),
+            "Invalid username or password");
+        assertThat("Stale entry should not count as a hit", cache.getHitCount(), is(0L));
+        assertSuccessfulAuthentication(authService.authenticate(new LoginRequest("demo", "n3w")), "USER");
+    }
+    
+    @Test
+    public void testSessionModeOnlyAcceptsIssuedTokens() {
+        authService.setTokenService(new SessionStore(60_000, 100));
+        LoginResponse response = authService.authenticate(new LoginRequest("admin", "admin123"));
+        
+        assertThat("Issued token should validate", authService.validateToken(response.getToken()), is(true));
+        assertThat("Well-formed but unissued token should not validate",
+            authService.validateToken("token_abcdef123456"), is(false));
+        assertThat("Session should carry the role", authService.getSession(response.getToken()).getRole(), is("ADMIN"));
+        
+        assertThat("Logout should end the session", authService.logout(response.getToken()), is(true));
+        assertThat("Revoked token should not validate", authService.validateToken(response.getToken()), is(false));
+    }
+    
+    @Test
+    public void testSignedTokenMode() {
+        authService.setTokenService(new SignedTokenService(60_000, "k1", new byte[32]));
+        LoginResponse response = authService.authenticate(new LoginRequest("manager", "manager123"));
+        
+        assertThat("Signed token should validate", authService.validateToken(response.getToken()), is(true));
+        assertThat("Token should carry the user", authService.getSession(response.getToken()).getUsername(), is("manager"));
+        assertThat("Logout should revoke the token", authService.logout(response.getToken()), is(true));
+        assertThat("Revoked token should not validate", authService.validateToken(response.getToken()), is(false));
+    }
+    
+    @Test
+    public void testFailedLoginCreatesNoSession() {
+        SessionStore sessions = new SessionStore(60_000, 100);
+        authService.setTokenService(sessions);
+        authService.authenticate(new LoginRequest("admin", "wrong"));
+        
+        assertThat("No session should be created", sessions.size(), is(0));
+        assertThat("Logout without sessions should report nothing to do", authService.logout("token_x"), is(false));
+    }
+    
+    @Test
+    public void testCountsOutcomesOfPasswordChecks() throws Exception {
+        authService.authenticate(new LoginRequest("admin", "admin123"));
+        authService.authenticate(new LoginRequest("admin", "wrong"));
+        authService.authenticate(new LoginRequest("nobody", "x"));
+        authService.authenticate(new LoginRequest("", ""));
+        authService.authenticateAsync(new LoginRequest("demo", "demo")).get(5, TimeUnit.SECONDS);
+        
+        assertThat("Successes should be counted", authService.getSuccessCount(), is(2L));
+        assertThat("Wrong passwords and unknown users should be counted", authService.getFailureCount(), is(2L));
+    }
+    
     // ========== PERFORMANCE AND CONCURRENCY TESTS ==========
     
     @Test
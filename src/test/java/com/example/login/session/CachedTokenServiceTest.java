@@ -0,0 +1,91 @@
+package com.example.login.session;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CachedTokenServiceTest {
+    
+    @Test
+    public void testRepeatedValidationIsServedFromCache() {
+        SessionStore store = new SessionStore(60_000, 10);
+        CachedTokenService cached = new CachedTokenService(store, 10, 60_000);
+        Session issued = cached.issue("alice", "ADMIN");
+        
+        assertSame("First validation should reach the store", issued, cached.validate(issued.getToken()));
+        assertSame("Second validation should return the same session", issued, cached.validate(issued.getToken()));
+        assertEquals("Only the first lookup should miss", 1, cached.getMissCount());
+        assertEquals("Second lookup should hit", 1, cached.getHitCount());
+        assertNull("Null token should not validate", cached.validate(null));
+    }
+    
+    @Test
+    public void testUnknownTokensAreNotCached() {
+        CachedTokenService cached = new CachedTokenService(new SessionStore(60_000, 10), 10, 60_000);
+        
+        assertNull("Unknown token should not validate", cached.validate("token_unknown"));
+        assertNull("Unknown token should still not validate", cached.validate("token_unknown"));
+        assertEquals("Failed lookups should not be cached", 0, cached.size());
+        assertEquals("Both lookups should miss", 2, cached.getMissCount());
+    }
+    
+    @Test
+    public void testRevokeDropsCachedEntry() {
+        CachedTokenService cached = new CachedTokenService(new SessionStore(60_000, 10), 10, 60_000);
+        Session issued = cached.issue("alice", "USER");
+        cached.validate(issued.getToken());
+        
+        assertTrue("Live token should be revoked", cached.revoke(issued.getToken()));
+        assertNull("Revoked token should not validate from the cache", cached.validate(issued.getToken()));
+    }
+    
+    @Test
+    public void testRevocationBehindTheCacheIsSeenAfterCacheLifetime() throws InterruptedException {
+        SessionStore store = new SessionStore(60_000, 10);
+        CachedTokenService cached = new CachedTokenService(store, 10, 30);
+        Session issued = cached.issue("alice", "USER");
+        cached.validate(issued.getToken());
+        store.revoke(issued.getToken());
+        Thread.sleep(60);
+        
+        assertNull("Stale entry should be rechecked against the store", cached.validate(issued.getToken()));
+        assertEquals("Stale entry should be dropped", 0, cached.size());
+    }
+    
+    @Test
+    public void testExpiredSessionIsNotServedFromCache() throws InterruptedException {
+        CachedTokenService cached = new CachedTokenService(new SessionStore(30, 10), 10, 60_000);
+        Session issued = cached.issue("alice", "USER");
+        cached.validate(issued.getToken());
+        Thread.sleep(60);
+        
+        assertNull("Cache should not outlive the session", cached.validate(issued.getToken()));
+    }
+    
+    @Test
+    public void testTableIsBounded() {
+        CachedTokenService cached = new CachedTokenService(new SessionStore(60_000, 100), 5, 60_000);
+        for (int i = 0; i < 20; i++) {
+            Session issued = cached.issue("user" + i, "USER");
+            assertNotNull("Every live token should validate", cached.validate(issued.getToken()));
+        }
+        
+        assertTrue("Cache should stay within its bound", cached.size() <= 5);
+    }
+    
+    @Test
+    public void testSignedTokensAreCached() {
+        SignedTokenService signed = new SignedTokenService(60_000, "k1", new byte[32]);
+        CachedTokenService cached = new CachedTokenService(signed);
+        Session issued = cached.issue("bob", null);
+        
+        assertEquals("Signed token should validate", "bob", cached.validate(issued.getToken()).getUsername());
+        assertEquals("Repeat should be a hit", "bob", cached.validate(issued.getToken()).getUsername());
+        assertEquals("Repeat should not recheck the signature", 1, cached.getHitCount());
+        assertSame("Delegate should be exposed", signed, cached.getDelegate());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsEmptyCache() {
+        new CachedTokenService(new SessionStore(), 0, 1000);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.example.login.session;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SessionStoreTest {
+    
+    @Test
+    public void testCreatedSessionValidates() {
+        SessionStore store = new SessionStore(60_000, 10);
+        Session created = store.create("token_a", "alice", "ADMIN");
+        Session found = store.validate("token_a");
+        
+        assertSame("Validation should return the issued session", created, found);
+        assertEquals("Username should be recorded", "alice", found.getUsername());
+        assertEquals("Role should be recorded", "ADMIN", found.getRole());
+        assertNull("Unknown token should not validate", store.validate("token_b"));
+        assertNull("Null token should not validate", store.validate(null));
+    }
+    
+    @Test
+    public void testRevokedSessionIsRejected() {
+        SessionStore store = new SessionStore(60_000, 10);
+        store.create("token_a", "alice", "USER");
+        
+        assertTrue("Live session should be revoked", store.revoke("token_a"));
+        assertNull("Revoked token should not validate", store.validate("token_a"));
+        assertFalse("Second revoke should report nothing to do", store.revoke("token_a"));
+        assertEquals("Revocation should be counted", 1, store.getRevokedCount());
+        assertEquals("Store should be empty", 0, store.size());
+    }
+    
+    @Test
+    public void testSessionExpiresAfterTtl() throws InterruptedException {
+        SessionStore store = new SessionStore(50, 10);
+        store.create("token_a", "alice", "USER");
+        Thread.sleep(80);
+        
+        assertNull("Expired token should not validate", store.validate("token_a"));
+        assertEquals("Expiry should be counted", 1, store.getExpiredCount());
+    }
+    
+    @Test
+    public void testWheelReapsUnusedSessions() throws InterruptedException {
+        SessionStore store = new SessionStore(50, 1_000);
+        for (int i = 0; i < 100; i++) {
+            store.create("token_" + i, "user" + i, "USER");
+        }
+        Thread.sleep(80);
+        store.expire();
+        
+        assertEquals("Expired sessions should be reaped without lookups", 0, store.size());
+        assertEquals("Each reaped session should be counted", 100, store.getExpiredCount());
+    }
+    
+    @Test
+    public void testUseSlidesExpiry() throws InterruptedException {
+        SessionStore store = new SessionStore(200, 10);
+        store.create("token_a", "alice", "USER");
+        store.create("token_b", "bob", "USER");
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(50);
+            assertNotNull("Session in use should stay alive", store.validate("token_a"));
+        }
+        store.expire();
+        
+        assertNotNull("Used session should outlive the original TTL", store.validate("token_a"));
+        assertNull("Idle session should have expired", store.validate("token_b"));
+    }
+    
+    @Test
+    public void testSizeIsBoundedBySoonestExpiry() throws InterruptedException {
+        SessionStore store = new SessionStore(60_000, 3);
+        for (int i = 0; i < 3; i++) {
+            store.create("token_" + i, "user" + i, "USER");
+            Thread.sleep(150);
+        }
+        store.create("token_3", "user3", "USER");
+        
+        assertEquals("Store should stay at its bound", 3, store.size());
+        assertEquals("Eviction should be counted", 1, store.getEvictedCount());
+        assertNull("Session closest to expiry should go", store.validate("token_0"));
+        assertNotNull("Newest session should be kept", store.validate("token_3"));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testDuplicateTokenIsRejected() {
+        SessionStore store = new SessionStore(60_000, 10);
+        store.create("token_a", "alice", "USER");
+        store.create("token_a", "bob", "USER");
+    }
+}
\ No newline at end of file
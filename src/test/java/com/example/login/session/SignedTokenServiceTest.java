@@ -0,0 +1,116 @@
+package com.example.login.session;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.Arrays;
+
+public class SignedTokenServiceTest {
+    private static final byte[] KEY_1 = key(1);
+    private static final byte[] KEY_2 = key(2);
+    
+    @Test
+    public void testIssuedTokenValidatesWithoutState() {
+        SignedTokenService service = new SignedTokenService(60_000, "k1", KEY_1);
+        Session issued = service.issue("j\u00fcrgen", "ADMIN");
+        // A second node with the same key accepts the token
+        Session validated = new SignedTokenService(60_000, "k1", KEY_1).validate(issued.getToken());
+        
+        assertTrue("Token should keep the legacy prefix", issued.getToken().startsWith("token_k1."));
+        assertNotNull("Token should validate on any node with the key", validated);
+        assertEquals("Username should round-trip", "j\u00fcrgen", validated.getUsername());
+        assertEquals("Role should round-trip", "ADMIN", validated.getRole());
+        assertEquals("Expiry should round-trip", issued.getExpiresAt(), validated.getExpiresAt());
+        assertEquals("Issue time should round-trip", issued.getCreatedAt(), validated.getCreatedAt());
+    }
+    
+    @Test
+    public void testNullRoleRoundTrips() {
+        SignedTokenService service = new SignedTokenService(60_000, "k1", KEY_1);
+        
+        assertNull("Null role should round-trip", service.validate(service.issue("alice", null).getToken()).getRole());
+    }
+    
+    @Test
+    public void testTamperedTokensAreRejected() {
+        SignedTokenService service = new SignedTokenService(60_000, "k1", KEY_1);
+        String token = service.issue("alice", "USER").getToken();
+        int payloadStart = token.indexOf('.') + 1;
+        char flipped = token.charAt(payloadStart + 3) == 'A' ? 'B' : 'A';
+        String[] tampered = {
+            token.substring(0, payloadStart + 3) + flipped + token.substring(payloadStart + 4),
+            token.substring(0, token.length() - 1),
+            token + "A",
+            token.replace("token_k1.", "token_k2."),
+            "token_k1..", "token_k1", "token_", "token_abcdef123456", "", null
+        };
+        for (String candidate : tampered) {
+            assertNull("Should reject: " + candidate, service.validate(candidate));
+        }
+        assertNull("Other key should reject", new SignedTokenService(60_000, "k1", KEY_2).validate(token));
+    }
+    
+    @Test
+    public void testExpiredTokenIsRejected() throws InterruptedException {
+        SignedTokenService service = new SignedTokenService(20, "k1", KEY_1);
+        String token = service.issue("alice", "USER").getToken();
+        Thread.sleep(50);
+        
+        assertNull("Expired token should not validate", service.validate(token));
+    }
+    
+    @Test
+    public void testRotationKeepsOldTokensUntilKeyIsRemoved() {
+        SignedTokenService service = new SignedTokenService(60_000, "k1", KEY_1);
+        String old = service.issue("alice", "USER").getToken();
+        service.rotate("k2", KEY_2);
+        String current = service.issue("alice", "USER").getToken();
+        
+        assertEquals("New key should sign", "k2", service.getActiveKeyId());
+        assertTrue("New tokens should carry the new key id", current.startsWith("token_k2."));
+        assertNotNull("Old token should still validate", service.validate(old));
+        assertFalse("Signing key should not be removable", service.removeKey("k2"));
+        assertTrue("Old key should be removable", service.removeKey("k1"));
+        assertNull("Token under a removed key should not validate", service.validate(old));
+        assertNotNull("Current token should still validate", service.validate(current));
+    }
+    
+    @Test
+    public void testRevokedTokenIsRejectedUntilExpiry() {
+        SignedTokenService service = new SignedTokenService(60_000, "k1", KEY_1);
+        String revoked = service.issue("alice", "USER").getToken();
+        String other = service.issue("bob", "USER").getToken();
+        
+        assertTrue("Live token should be revoked", service.revoke(revoked));
+        assertFalse("Second revoke should report nothing to do", service.revoke(revoked));
+        assertFalse("Forged token should not be revocable", service.revoke("token_k1.AAAA.AAAA"));
+        assertNull("Revoked token should not validate", service.validate(revoked));
+        assertNotNull("Other tokens should still validate", service.validate(other));
+        assertEquals("Revocation list should hold one token", 1, service.getRevokedCount());
+    }
+    
+    @Test
+    public void testExpiredRevocationsArePurged() throws InterruptedException {
+        SignedTokenService service = new SignedTokenService(30, "k1", KEY_1);
+        service.revoke(service.issue("alice", "USER").getToken());
+        Thread.sleep(60);
+        service.revoke(service.issue("bob", "USER").getToken());
+        
+        assertEquals("Expired revocation should be dropped", 1, service.getRevokedCount());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortKeyIsRejected() {
+        new SignedTokenService(60_000, "k1", new byte[16]);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testKeyIdWithSeparatorIsRejected() {
+        new SignedTokenService(60_000, "k.1", KEY_1);
+    }
+    
+    private static byte[] key(int seed) {
+        byte[] key = new byte[32];
+        Arrays.fill(key, (byte) seed);
+        return key;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.example.login.session;
+
+import java.lang.management.ManagementFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Token generation throughput and allocation with many threads generating at
+ * once: the old UUID-based generator, the earlier one-DRBG-per-thread
+ * generator and the striped TokenGenerator. A second table starts a new
+ * thread for every token, as the VIRTUAL executor does for every request.
+ *
+ * The Ant build has no JMH, so this is a plain warm-up-then-measure harness.
+ * Run with: ant benchmark -Dbench.class=com.example.login.session.TokenGeneratorBenchmark
+ * Optional system properties: bench.threads (default 32), bench.seconds (default 5),
+ * bench.tasks (default 20000)
+ */
+public class TokenGeneratorBenchmark {
+    
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Integer.getInteger("bench.threads", 32);
+        int seconds = Integer.getInteger("bench.seconds", 5);
+        Supplier<String> legacy = TokenGeneratorBenchmark::legacyToken;
+        Supplier<String> perThread = TokenGeneratorBenchmark::perThreadToken;
+        Supplier<String> generator = TokenGenerator::newToken;
+        int tasks = Integer.getInteger("bench.tasks", 20_000);
+        
+        // Warm up every path before measuring any. One thread first: with
+        // many threads per core each gets too little time for the JIT to settle.
+        for (Supplier<String> tokens : Arrays.asList(legacy, perThread, generator)) {
+            measure(tokens, 1, 2);
+            measure(tokens, threads, 2);
+            measurePerTask(tokens, tasks / 4);
+        }
+        
+        System.out.printf("%-10s %8s %14s %10s %10s%n", "generator", "threads", "tokens/s", "ns/op", "bytes/op");
+        report("legacy", legacy, threads, seconds);
+        report("per-thread", perThread, threads, seconds);
+        report("striped", generator, threads, seconds);
+        
+        System.out.println();
+        System.out.printf("%-10s %8s %10s%n", "generator", "tasks", "ns/task");
+        reportPerTask("legacy", legacy, tasks);
+        reportPerTask("per-thread", perThread, tasks);
+        reportPerTask("striped", generator, tasks);
+    }
+    
+    private static void reportPerTask(String name, Supplier<String> tokens, int tasks) throws InterruptedException {
+        System.out.printf("%-10s %8d %10.0f%n", name, tasks, measurePerTask(tokens, tasks) / (double) tasks);
+    }
+    
+    // Nanoseconds to generate one token on each of `tasks` new threads, one
+    // after the other; thread start-up is included and is the same for all
+    private static long measurePerTask(Supplier<String> tokens, int tasks) throws InterruptedException {
+        LongAdder sink = new LongAdder();
+        long started = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            Thread thread = new Thread(() -> sink.add(tokens.get().length()));
+            thread.start();
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - started;
+        if (sink.sum() == 0) {
+            throw new IllegalStateException();
+        }
+        return elapsed;
+    }
+    
+    private static void report(String name, Supplier<String> tokens, int threads, int seconds)
+            throws InterruptedException {
+        long[] result = measure(tokens, threads, seconds);
+        double rate = result[0] / (double) seconds;
+        System.out.printf("%-10s %8d %14.0f %10.1f %10.1f%n", name, threads, rate, 1e9 / rate,
+                result[1] / (double) result[0]);
+    }
+    
+    // Returns tokens generated and bytes allocated by the generating threads
+    private static long[] measure(Supplier<String> tokens, int threads, int seconds) throws InterruptedException {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        LongAdder generated = new LongAdder();
+        LongAdder allocated = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long id = Thread.currentThread().getId();
+                long before = mx.getThreadAllocatedBytes(id);
+                long count = 0;
+                int checksum = 0;
+                while (System.nanoTime() < deadline[0]) {
+                    for (int i = 0; i < 256; i++) {
+                        checksum += tokens.get().length();
+                    }
+                    count += 256;
+                }
+                allocated.add(mx.getThreadAllocatedBytes(id) - before);
+                generated.add(checksum == 0 ? 0 : count);
+            });
+            workers[t].start();
+        }
+        deadline[0] = System.nanoTime() + seconds * 1_000_000_000L;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return new long[] {generated.sum(), allocated.sum()};
+    }
+    
+    // Copy of TokenGenerator as it was before striping: one DRBG and byte
+    // pool per thread, seeded on the thread's first token
+    private static final ThreadLocal<Object[]> PER_THREAD = ThreadLocal.withInitial(() -> {
+        try {
+            return new Object[] {SecureRandom.getInstance("DRBG"), new byte[16 * 32], new int[] {16 * 32}};
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    
+    private static String perThreadToken() {
+        Object[] state = PER_THREAD.get();
+        byte[] pool = (byte[]) state[1];
+        int[] used = (int[]) state[2];
+        if (used[0] == pool.length) {
+            ((SecureRandom) state[0]).nextBytes(pool);
+            used[0] = 0;
+        }
+        char[] chars = new char[6 + 32];
+        "token_".getChars(0, 6, chars, 0);
+        for (int i = 0; i < 16; i++) {
+            byte b = pool[used[0] + i];
+            chars[6 + 2 * i] = Character.forDigit((b >> 4) & 0xF, 16);
+            chars[7 + 2 * i] = Character.forDigit(b & 0xF, 16);
+        }
+        used[0] += 16;
+        return new String(chars);
+    }
+    
+    // Copy of the generator MockAuthService used before TokenGenerator
+    private static String legacyToken() {
+        return "token_" + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.example.login.session;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TokenGeneratorTest {
+    
+    @Test
+    public void testFormatIsPrefixAnd128BitsOfHex() {
+        String token = TokenGenerator.newToken();
+        
+        assertTrue("Token should be prefix plus 32 hex digits: " + token, token.matches("token_[0-9a-f]{32}"));
+    }
+    
+    @Test
+    public void testTokensAreUniqueAndBufferIsNotShared() {
+        Set<String> seen = new HashSet<>();
+        String first = TokenGenerator.newToken();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue("Tokens should not repeat", seen.add(TokenGenerator.newToken()));
+        }
+        assertTrue("Earlier tokens should not change when the buffer is reused", first.matches("token_[0-9a-f]{32}")
+            && !seen.contains(first));
+    }
+    
+    @Test
+    public void testConcurrentGenerationIsUnique() throws InterruptedException {
+        Set<String> seen = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    seen.add(TokenGenerator.newToken());
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals("Every thread should produce distinct tokens", 16_000, seen.size());
+    }
+    
+    @Test
+    public void testDigitsAreRoughlyUniform() {
+        int[] counts = new int[16];
+        int tokens = 4_000;
+        for (int i = 0; i < tokens; i++) {
+            String token = TokenGenerator.newToken();
+            for (int c = TokenGenerator.PREFIX.length(); c < token.length(); c++) {
+                counts[Character.digit(token.charAt(c), 16)]++;
+            }
+        }
+        int expected = tokens * 32 / 16;
+        for (int digit = 0; digit < 16; digit++) {
+            assertTrue("Digit " + digit + " should appear about " + expected + " times but was " + counts[digit],
+                Math.abs(counts[digit] - expected) < expected / 10);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.example.login.session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Validations per second for server-side sessions versus signed tokens, with
+ * the same number of live tokens, plus the heap each mode holds per token.
+ * A slice of the signed tokens is revoked so the Bloom filter is not empty.
+ * The last row puts CachedTokenService in front of the signed tokens and
+ * validates a hot set that fits the cache, the way one client's token is
+ * presented on every request; its heap column is the cache's own cost.
+ *
+ * Run with: ant benchmark -Dbench.class=com.example.login.session.TokenValidationBenchmark
+ *     -Dbench.jvmargs=-Xmx2g
+ * Optional system properties: bench.tokens (default 1000000), bench.threads
+ * (default available processors), bench.seconds (default 5), bench.hot
+ * (default 10000)
+ */
+public class TokenValidationBenchmark {
+    
+    public static void main(String[] args) throws InterruptedException {
+        int count = Integer.getInteger("bench.tokens", 1_000_000);
+        int threads = Integer.getInteger("bench.threads", Runtime.getRuntime().availableProcessors());
+        int seconds = Integer.getInteger("bench.seconds", 5);
+        int hot = Math.min(Integer.getInteger("bench.hot", 10_000), count);
+        
+        System.out.printf("%-10s %10s %12s %14s%n", "mode", "tokens", "heap B/tok", "validations/s");
+        long before = settledHeap();
+        SessionStore sessions = new SessionStore(SessionStore.DEFAULT_TTL_MILLIS, count);
+        String[] sessionTokens = issue(sessions, count);
+        long sessionHeap = settledHeap() - before;
+        run("session", sessions, sessionTokens, sessionHeap, threads, seconds);
+        sessions = null;
+        sessionTokens = null;
+        
+        before = settledHeap();
+        byte[] key = new byte[32];
+        ThreadLocalRandom.current().nextBytes(key);
+        SignedTokenService signed = new SignedTokenService(SessionStore.DEFAULT_TTL_MILLIS, "k1", key);
+        String[] signedTokens = issue(signed, count);
+        for (int i = 0; i < Math.min(1_000, count); i++) {
+            signed.revoke(signed.issue("revoked" + i, "USER").getToken());
+        }
+        long signedHeap = settledHeap() - before;
+        run("signed", signed, signedTokens, signedHeap, threads, seconds);
+        
+        String[] hotTokens = Arrays.copyOf(signedTokens, hot);
+        signedTokens = null;
+        before = settledHeap();
+        CachedTokenService cached = new CachedTokenService(signed);
+        for (String token : hotTokens) {
+            cached.validate(token);
+        }
+        long cacheHeap = settledHeap() - before;
+        run("cached", cached, hotTokens, cacheHeap, threads, seconds);
+    }
+    
+    private static String[] issue(TokenService service, int count) {
+        String[] tokens = new String[count];
+        for (int i = 0; i < count; i++) {
+            tokens[i] = service.issue("user" + i, "USER").getToken();
+        }
+        return tokens;
+    }
+    
+    // Heap per token includes the token strings the clients would hold
+    private static void run(String name, TokenService service, String[] tokens, long heap, int threads, int seconds)
+            throws InterruptedException {
+        measure(service, tokens, threads, 1);
+        double rate = measure(service, tokens, threads, seconds);
+        System.out.printf("%-10s %10d %12.1f %14.0f%n", name, tokens.length, heap / (double) tokens.length, rate);
+    }
+    
+    private static double measure(TokenService service, String[] tokens, int threads, int seconds)
+            throws InterruptedException {
+        LongAdder validations = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < 1_000; i++) {
+                        if (service.validate(tokens[random.nextInt(tokens.length)]) == null) {
+                            throw new IllegalStateException("Live token rejected");
+                        }
+                    }
+                    done += 1_000;
+                }
+                validations.add(done);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return validations.sum() / (double) seconds;
+    }
+    
+    private static long settledHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
\ No newline at end of file
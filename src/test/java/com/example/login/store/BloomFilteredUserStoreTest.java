@@ -0,0 +1,86 @@
+package com.example.login.store;
+
+import com.example.login.model.LoginRequest;
+import com.example.login.model.User;
+import com.example.login.service.MockAuthService;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.Arrays;
+
+public class BloomFilteredUserStoreTest {
+    
+    @Test
+    public void testUnknownUsersRejectedByFilter() {
+        ConcurrentUserStore delegate = new ConcurrentUserStore();
+        delegate.load(MockAuthService.defaultUsers());
+        BloomFilteredUserStore store = new BloomFilteredUserStore(delegate);
+        
+        assertEquals("Existing users should be filtered in", "ADMIN", store.find("admin").getRole());
+        for (int i = 0; i < 10_000; i++) {
+            assertNull("Unknown user should not be found", store.find("stranger" + i));
+        }
+        
+        assertEquals("Every lookup should be counted", 10_001, store.getLookupCount());
+        assertTrue("Most unknown users should be rejected by the filter", store.getRejectedCount() > 9_800);
+        assertEquals("Rejected and false positives should cover the unknown users", 10_000,
+                store.getRejectedCount() + store.getFalsePositiveCount());
+        assertTrue("False positive rate should be small", store.getFalsePositiveRate() < 0.02);
+        assertEquals("Reject rate should be rejected over lookups",
+                store.getRejectedCount() / 10_001.0, store.getRejectRate(), 1e-9);
+    }
+    
+    @Test
+    public void testFilterFollowsAddsAndRemoves() {
+        BloomFilteredUserStore store = new BloomFilteredUserStore(new ConcurrentUserStore());
+        store.put(new User("carol", "pw", "USER"));
+        assertNotNull("Added user should pass the filter", store.find("carol"));
+        
+        store.put(new User("carol", "changed", "USER"));
+        assertTrue("Remove should report the user", store.remove("carol"));
+        assertNull("Removed user should be gone", store.find("carol"));
+        assertEquals("Removed user should be rejected by the filter itself", 1, store.getRejectedCount());
+    }
+    
+    @Test
+    public void testFilterGrowsWithStore() {
+        BloomFilteredUserStore store = new BloomFilteredUserStore(new CompactUserStore());
+        long initialBytes = store.getFilterBytes();
+        for (int i = 0; i < 50_000; i++) {
+            store.put(new User("user" + i, "pw", "USER"));
+        }
+        
+        assertTrue("Filter should be rebuilt larger", store.getFilterBytes() > initialBytes);
+        for (int i = 0; i < 50_000; i += 97) {
+            assertNotNull("Every user should still pass: user" + i, store.find("user" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertNull("Unknown user should not be found", store.find("stranger" + i));
+        }
+        assertTrue("Grown filter should keep false positives low: " + store.getFalsePositiveCount(),
+                store.getFalsePositiveCount() < 200);
+    }
+    
+    @Test
+    public void testLoadReplacesFilteredUsers() {
+        BloomFilteredUserStore store = new BloomFilteredUserStore(new ConcurrentUserStore());
+        store.put(new User("old", "pw", "USER"));
+        store.load(Arrays.asList(new User("new", "pw", "USER")));
+        
+        assertNotNull("Loaded user should pass", store.find("new"));
+        assertNull("Replaced user should be gone", store.find("old"));
+        assertEquals("Replaced user should be rejected by the filter", 1, store.getRejectedCount());
+    }
+    
+    @Test
+    public void testAuthenticationThroughFilter() {
+        ConcurrentUserStore delegate = new ConcurrentUserStore();
+        delegate.load(MockAuthService.defaultUsers());
+        BloomFilteredUserStore store = new BloomFilteredUserStore(delegate);
+        MockAuthService service = new MockAuthService(store);
+        
+        assertTrue("Known user should log in", service.authenticate(new LoginRequest("demo", "demo")).isSuccess());
+        assertEquals("Unknown user should get the usual failure", "Invalid username or password",
+                service.authenticate(new LoginRequest("ghost", "demo")).getMessage());
+        assertEquals("Unknown user should be rejected by the filter", 1, store.getRejectedCount());
+    }
+}
\ No newline at end of file
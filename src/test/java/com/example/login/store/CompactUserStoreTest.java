@@ -0,0 +1,189 @@
+package com.example.login.store;
+
+import com.example.login.model.LoginRequest;
+import com.example.login.model.User;
+import com.example.login.service.MockAuthService;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class CompactUserStoreTest {
+    
+    @Test
+    public void testPutFindRemove() {
+        CompactUserStore store = new CompactUserStore();
+        store.put(user("alice", "secret", "USER"));
+        
+        User found = store.find("alice");
+        assertEquals("Username should round-trip", "alice", found.getUsername());
+        assertEquals("Credential should round-trip", "secret", found.getPasswordHash());
+        assertEquals("Role should round-trip", "USER", found.getRole());
+        assertNull("Unknown user should not be found", store.find("alicia"));
+        
+        store.put(user("alice", "changed", "ADMIN"));
+        assertEquals("Put should replace the credential", "changed", store.find("alice").getPasswordHash());
+        assertEquals("Put should replace the role", "ADMIN", store.find("alice").getRole());
+        assertEquals("Replacing should not grow the store", 1, store.size());
+        
+        assertTrue("Remove should report an existing user", store.remove("alice"));
+        assertFalse("Second remove should report nothing removed", store.remove("alice"));
+        assertNull("Removed user should be gone", store.find("alice"));
+    }
+    
+    @Test
+    public void testNullAndNonAsciiFields() {
+        CompactUserStore store = new CompactUserStore();
+        store.put(user("j\u00fcrgen", null, null));
+        store.put(user("\u7528\u6237", "p\u00e4ss", "R\u00d4LE"));
+        
+        User first = store.find("j\u00fcrgen");
+        assertNull("Null credential should round-trip", first.getPasswordHash());
+        assertNull("Null role should round-trip", first.getRole());
+        assertEquals("Non-ASCII credential should round-trip", "p\u00e4ss", store.find("\u7528\u6237").getPasswordHash());
+        assertEquals("Non-ASCII role should round-trip", "R\u00d4LE", store.find("\u7528\u6237").getRole());
+    }
+    
+    @Test
+    public void testRolesAreInterned() {
+        CompactUserStore store = new CompactUserStore();
+        store.put(user("a", "pw", new String("USER")));
+        store.put(user("b", "pw", new String("USER")));
+        
+        assertSame("Roles should share one instance", store.find("a").getRole(), store.find("b").getRole());
+    }
+    
+    @Test
+    public void testMatchesMapUnderRandomOperations() {
+        CompactUserStore store = new CompactUserStore();
+        Map<String, User> expected = new HashMap<>();
+        Random random = new Random(42);
+        String[] roles = {"USER", "ADMIN", "MANAGER"};
+        for (int i = 0; i < 50_000; i++) {
+            String name = "user" + random.nextInt(5_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals("Remove result should match for " + name, expected.remove(name) != null,
+                        store.remove(name));
+            } else {
+                User user = user(name, "pw" + i, roles[random.nextInt(roles.length)]);
+                expected.put(name, user);
+                store.put(user);
+            }
+        }
+        
+        assertEquals("Size should match the reference map", expected.size(), store.size());
+        for (int i = 0; i < 5_000; i++) {
+            String name = "user" + i;
+            User reference = expected.get(name);
+            User actual = store.find(name);
+            if (reference == null) {
+                assertNull("Removed user should be absent: " + name, actual);
+            } else {
+                assertEquals("Credential should match for " + name, reference.getPasswordHash(), actual.getPasswordHash());
+                assertEquals("Role should match for " + name, reference.getRole(), actual.getRole());
+            }
+        }
+        int iterated = 0;
+        for (User user : store.users()) {
+            assertTrue("Iterated user should exist: " + user.getUsername(), expected.containsKey(user.getUsername()));
+            iterated++;
+        }
+        assertEquals("Iteration should visit every user once", expected.size(), iterated);
+    }
+    
+    @Test
+    public void testUpdatesDoNotGrowWithoutBound() {
+        CompactUserStore store = new CompactUserStore();
+        for (int i = 0; i < 2_000_000; i++) {
+            store.put(user("user" + (i % 1_000), "password-" + i, "USER"));
+        }
+        
+        assertEquals("Only the distinct users should remain", 1_000, store.size());
+        assertTrue("Dead records should be compacted away", store.getOffHeapBytes() <= 2L * 16 * 1024 * 1024);
+        assertEquals("Latest credential should win", "password-1999999", store.find("user999").getPasswordHash());
+    }
+    
+    @Test
+    public void testLoadPresizesIndex() {
+        CompactUserStore store = new CompactUserStore();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            users.add(user("user" + i, "pw" + i, "USER"));
+        }
+        store.load(users);
+        long indexBytes = store.getIndexBytes();
+        store.put(user("one-more", "pw", "USER"));
+        
+        assertEquals("All users should be loaded", 100_001, store.size());
+        assertEquals("Loaded index should not need to grow", indexBytes, store.getIndexBytes());
+        assertEquals("Loaded user should be found", "pw77777", store.find("user77777").getPasswordHash());
+    }
+    
+    @Test
+    public void testConcurrentReadersDuringWrites() throws Exception {
+        CompactUserStore store = new CompactUserStore();
+        for (int i = 0; i < 1_000; i++) {
+            store.put(user("stable" + i, "pw" + i, "USER"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                start.await();
+                // Grows the index and forces compactions while the readers run
+                for (int i = 0; i < 200_000; i++) {
+                    store.put(user("churn" + (i % 20_000), "pw" + i, "USER"));
+                    if (i % 3 == 0) {
+                        store.remove("churn" + ((i + 7) % 20_000));
+                    }
+                }
+                return null;
+            }));
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100_000; i++) {
+                        int n = i % 1_000;
+                        User user = store.find("stable" + n);
+                        assertNotNull("Stable user should always be found", user);
+                        assertEquals("Stable user should never be torn", "pw" + n, user.getPasswordHash());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void testServesAuthentication() {
+        CompactUserStore store = new CompactUserStore();
+        store.load(MockAuthService.defaultUsers());
+        MockAuthService service = new MockAuthService(store);
+        
+        assertTrue("Demo user should log in", service.authenticate(new LoginRequest("admin", "admin123")).isSuccess());
+        assertEquals("Role should come from the store", "ADMIN",
+                service.authenticate(new LoginRequest("admin", "admin123")).getRole());
+        assertFalse("Wrong password should fail", service.authenticate(new LoginRequest("admin", "nope")).isSuccess());
+    }
+    
+    private static User user(String username, String passwordHash, String role) {
+        User user = new User(username, null, role);
+        user.setPasswordHash(passwordHash);
+        return user;
+    }
+}
\ No newline at end of file
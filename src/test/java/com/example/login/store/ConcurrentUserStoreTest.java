@@ -0,0 +1,119 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrentUserStoreTest {
+    
+    @Test
+    public void testPutFindRemove() {
+        UserStore store = new ConcurrentUserStore();
+        store.put(new User("alice", "secret", "USER"));
+        
+        assertEquals("Stored user should be found", "USER", store.find("alice").getRole());
+        assertNull("Unknown user should not be found", store.find("bob"));
+        assertNull("Null username should not be found", store.find(null));
+        
+        store.put(new User("alice", "secret", "ADMIN"));
+        assertEquals("Put should replace the existing user", "ADMIN", store.find("alice").getRole());
+        assertEquals("Replacing should not grow the store", 1, store.size());
+        
+        assertTrue("Remove should report an existing user", store.remove("alice"));
+        assertFalse("Second remove should report nothing removed", store.remove("alice"));
+        assertEquals("Store should be empty", 0, store.size());
+    }
+    
+    @Test
+    public void testLoadReplacesContents() {
+        UserStore store = new ConcurrentUserStore();
+        store.put(new User("old", "pw", "USER"));
+        
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            users.add(new User("user" + i, "pw" + i, "USER"));
+        }
+        store.load(users);
+        
+        assertEquals("All loaded users should be present", 10_000, store.size());
+        assertNull("Previous contents should be replaced", store.find("old"));
+        assertEquals("Loaded user should be found", "pw9999", store.find("user9999").getPassword());
+    }
+    
+    @Test
+    public void testUsersIsLiveReadOnlyView() {
+        UserStore store = new ConcurrentUserStore();
+        store.load(Arrays.asList(new User("a", "pw", "USER"), new User("b", "pw", "USER")));
+        Iterable<User> view = store.users();
+        
+        store.put(new User("c", "pw", "USER"));
+        Set<String> names = new HashSet<>();
+        for (User user : view) {
+            names.add(user.getUsername());
+        }
+        assertEquals("View should see writes made after it was taken", 3, names.size());
+        
+        try {
+            view.iterator().remove();
+            fail("View should not allow removal");
+        } catch (UnsupportedOperationException | IllegalStateException e) {
+            // expected
+        }
+    }
+    
+    @Test
+    public void testConcurrentWritersAndIteration() throws Exception {
+        UserStore store = new ConcurrentUserStore(1024);
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        String name = "u" + id + "-" + i;
+                        store.put(new User(name, "pw", "USER"));
+                        store.put(new User(name, "pw2", "USER"));
+                        if (i % 2 == 0) {
+                            store.remove(name);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int pass = 0; pass < 50; pass++) {
+                    for (User user : store.users()) {
+                        assertNotNull("Iteration should never see a null user", user.getUsername());
+                    }
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals("Odd-numbered users should remain", threads * perThread / 2, store.size());
+        assertEquals("Last write should win", "pw2", store.find("u3-1").getPassword());
+        assertNull("Removed user should be gone", store.find("u3-2"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.login.store;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CountingBloomFilterTest {
+    
+    @Test
+    public void testNoFalseNegatives() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue("Added key should always be reported: user" + i, filter.mightContain("user" + i));
+        }
+    }
+    
+    @Test
+    public void testFalsePositiveRateNearTarget() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("stranger" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("False positive rate should be near 1%: " + falsePositives, falsePositives < 2_000);
+    }
+    
+    @Test
+    public void testRemoveClearsKey() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.001);
+        filter.add("alice");
+        filter.add("bob");
+        filter.remove("alice");
+        
+        assertFalse("Removed key should be rejected", filter.mightContain("alice"));
+        assertTrue("Other keys should survive a remove", filter.mightContain("bob"));
+    }
+    
+    @Test
+    public void testRepeatedAddsNeedRepeatedRemoves() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.001);
+        filter.add("alice");
+        filter.add("alice");
+        filter.remove("alice");
+        
+        assertTrue("One remove should not cancel two adds", filter.mightContain("alice"));
+    }
+    
+    @Test
+    public void testSaturatedCountersNeverUnderflow() {
+        // One hash over sixteen counters: every key shares counters with many others
+        CountingBloomFilter filter = new CountingBloomFilter(1, 0.5);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("key" + i);
+        }
+        for (int i = 0; i < 999; i++) {
+            filter.remove("key" + i);
+        }
+        assertTrue("Remaining key should still be reported", filter.mightContain("key999"));
+    }
+    
+    @Test
+    public void testSizing() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000_000, 0.01);
+        
+        assertEquals("Counters should be a power of two", 1, Long.bitCount(filter.getCounterCount()));
+        assertTrue("Should have about 9.6 counters per key", filter.getCounterCount() >= 9_585_059);
+        assertEquals("Seven hashes are optimal for 1%", 7, filter.getHashCount());
+        assertEquals("Counters should take four bits each", filter.getCounterCount() / 2, filter.getMemoryBytes());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,297 @@
+package com.example.login.store;
+
+import com.example.login.model.LoginRequest;
+import com.example.login.model.User;
+import com.example.login.security.PasswordHasher;
+import com.example.login.service.MockAuthService;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class MappedUserStoreTest {
+    private static final PasswordHasher HASHER = new PasswordHasher(PasswordHasher.DEMO_ITERATIONS);
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void testOpensFileWrittenByWriter() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("users.db");
+        try (UserDatabaseWriter writer = new UserDatabaseWriter(file)) {
+            for (int i = 0; i < 10_000; i++) {
+                writer.add(user("user" + i, "pw" + i, i % 2 == 0 ? "USER" : "ADMIN"));
+            }
+            writer.add(user("user5", "replaced", "MANAGER"));
+        }
+        
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            assertEquals("Repeated username should be counted once", 10_000, store.size());
+            assertEquals("Credential should be read from the file", "pw9999", store.find("user9999").getPasswordHash());
+            assertEquals("Role should be read from the file", "USER", store.find("user42").getRole());
+            assertEquals("Last record for a username should win", "replaced", store.find("user5").getPasswordHash());
+            assertNull("Unknown user should not be found", store.find("user10000"));
+            assertEquals("Iteration should visit every user", 10_000, count(store));
+        }
+    }
+    
+    @Test
+    public void testMissingFileStartsEmpty() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("new.db");
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            assertEquals("New database should be empty", 0, store.size());
+            assertNull("Nothing should be found", store.find("admin"));
+        }
+        assertTrue("Empty database file should be created", Files.exists(file));
+    }
+    
+    @Test
+    public void testChangesSurviveRestart() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("users.db");
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            store.load(MockAuthService.defaultUsers());
+            store.put(user("carol", "carol123", "USER"));
+            store.put(user("admin", "newpass", "ADMIN"));
+            assertTrue("Existing user should be removed", store.remove("demo"));
+            assertFalse("Missing user should not be removed", store.remove("nobody"));
+            store.put(user("j\u00fcrgen", null, null));
+            assertEquals("Size should track changes", 6, store.size());
+        }
+        
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            assertEquals("Size should be restored", 6, store.size());
+            assertEquals("Added user should be replayed", "carol123", store.find("carol").getPasswordHash());
+            assertEquals("Updated user should be replayed", "newpass", store.find("admin").getPasswordHash());
+            assertNull("Removed user should stay removed", store.find("demo"));
+            assertNull("Null credential should round-trip", store.find("j\u00fcrgen").getPasswordHash());
+            assertTrue("Untouched user should come from the file",
+                PasswordHasher.verify("password", store.find("user").getPasswordHash()));
+            
+            Set<String> names = new HashSet<>();
+            for (User user : store.users()) {
+                assertTrue("Each user should be visited once: " + user.getUsername(), names.add(user.getUsername()));
+            }
+            assertEquals("Iteration should match the size", 6, names.size());
+        }
+    }
+    
+    @Test
+    public void testTornLogTailIsDiscarded() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("users.db");
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            store.put(user("alice", "one", "USER"));
+            store.put(user("bob", "two", "USER"));
+        }
+        Path log = folder.getRoot().toPath().resolve("users.db.log");
+        long intact = Files.size(log);
+        // A crash mid-append leaves a partial entry behind
+        Files.write(log, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+        
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            assertEquals("Intact entries should be replayed", 2, store.size());
+            assertEquals("Intact entry should be readable", "two", store.find("bob").getPasswordHash());
+            store.put(user("carol", "three", "USER"));
+        }
+        assertTrue("Damaged tail should be cut off before appending", Files.size(log) > intact);
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            assertEquals("Entries written after the repair should replay", "three", store.find("carol").getPasswordHash());
+        }
+    }
+    
+    @Test
+    public void testBackgroundCompactionMergesLog() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("users.db");
+        try (MappedUserStore store = new MappedUserStore(file, 1024)) {
+            for (int i = 0; i < 200; i++) {
+                store.put(user("user" + i, "pw" + i, "USER"));
+                // Lookups must keep working whichever layer holds the user
+                assertEquals("User should be visible during compaction", "pw" + i, store.find("user" + i).getPasswordHash());
+            }
+            store.remove("user7");
+            awaitCompaction(store);
+            assertEquals("All changes should be visible", 199, store.size());
+        }
+        
+        assertFalse("Old log should be deleted", Files.exists(folder.getRoot().toPath().resolve("users.db.log.old")));
+        assertTrue("Most changes should have moved into the file", Files.size(folder.getRoot().toPath().resolve("users.db.log")) < 1024);
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            assertEquals("Compacted state should reopen", 199, store.size());
+            assertNull("Removed user should stay removed", store.find("user7"));
+            assertEquals("Compacted user should be found", "pw150", store.find("user150").getPasswordHash());
+        }
+    }
+    
+    @Test
+    public void testInterruptedCompactionIsFinishedOnOpen() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("users.db");
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            store.put(user("alice", "one", "USER"));
+            store.put(user("bob", "two", "USER"));
+        }
+        Path log = folder.getRoot().toPath().resolve("users.db.log");
+        Path oldLog = folder.getRoot().toPath().resolve("users.db.log.old");
+        Files.move(log, oldLog);
+        
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            assertEquals("Users from the old log should be visible at once", "one", store.find("alice").getPasswordHash());
+            store.remove("bob");
+            awaitCompaction(store);
+            assertFalse("Old log should be compacted away", Files.exists(oldLog));
+        }
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            assertEquals("Only alice should remain", 1, store.size());
+            assertNull("Later removal should win over the old log", store.find("bob"));
+        }
+    }
+    
+    @Test
+    public void testFailedCompactionKeepsChanges() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("users.db");
+        Path oldLog = folder.getRoot().toPath().resolve("users.db.log.old");
+        // A directory where the compacted file would go makes every attempt fail
+        Path blocker = Files.createDirectory(folder.getRoot().toPath().resolve("users.db.compact.tmp"));
+        try (MappedUserStore store = new MappedUserStore(file, 1024)) {
+            for (int i = 0; i < 50; i++) {
+                store.put(user("user" + i, "pw" + i, "USER"));
+            }
+            awaitCompaction(store);
+            assertTrue("Failed compaction should keep the old log", Files.exists(oldLog));
+            
+            // Enough for several more rotations had the old log been given up
+            for (int i = 50; i < 200; i++) {
+                store.put(user("user" + i, "pw" + i, "USER"));
+            }
+            store.remove("user3");
+            awaitCompaction(store);
+            assertEquals("Changes from before the failure should still be visible", "pw10",
+                    store.find("user10").getPasswordHash());
+            assertEquals(199, store.size());
+        }
+        
+        Files.delete(blocker);
+        try (MappedUserStore store = new MappedUserStore(file, 1024)) {
+            assertEquals("Every change should survive a reopen", 199, store.size());
+            assertEquals("pw10", store.find("user10").getPasswordHash());
+            assertEquals("pw199", store.find("user199").getPasswordHash());
+            assertNull(store.find("user3"));
+            awaitCompaction(store);
+            assertFalse("The retried compaction should clear the old log", Files.exists(oldLog));
+        }
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            assertEquals("Compacted state should reopen", 199, store.size());
+            assertEquals("pw10", store.find("user10").getPasswordHash());
+        }
+    }
+    
+    @Test
+    public void testLogLongerThanReplayBufferReopens() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("users.db");
+        String credential = "x".repeat(100);
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            for (int i = 0; i < 3000; i++) {
+                store.put(user("user" + i, credential + i, "USER"));
+            }
+        }
+        assertTrue("Log should span several replay reads",
+                Files.size(folder.getRoot().toPath().resolve("users.db.log")) > 1 << 18);
+        
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            assertEquals("Every entry should be replayed", 3000, store.size());
+            assertEquals(credential + 0, store.find("user0").getPasswordHash());
+            assertEquals(credential + 2999, store.find("user2999").getPasswordHash());
+        }
+    }
+    
+    @Test
+    public void testLoadReplacesFileAndLog() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("users.db");
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            store.put(user("stale", "pw", "USER"));
+            store.load(Arrays.asList(user("fresh", "pw", "ADMIN")));
+            assertNull("Earlier changes should be gone", store.find("stale"));
+            assertEquals("Loaded user should be found", "ADMIN", store.find("fresh").getRole());
+            assertEquals("Log should be empty after a load", 0, store.getLogBytes());
+        }
+    }
+    
+    @Test
+    public void testServesAuthentication() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("users.db");
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            store.load(MockAuthService.defaultUsers());
+            MockAuthService service = new MockAuthService(store);
+            
+            assertEquals("Demo user should log in", "MANAGER",
+                    service.authenticate(new LoginRequest("manager", "manager123")).getRole());
+            assertFalse("Wrong password should fail", service.authenticate(new LoginRequest("manager", "x")).isSuccess());
+        }
+    }
+    
+    @Test
+    public void testToolBuildsDatabaseFromCsv() throws IOException {
+        Path csv = folder.getRoot().toPath().resolve("users.csv");
+        Path file = folder.getRoot().toPath().resolve("out/users.db");
+        List<String> lines = new ArrayList<>();
+        lines.add("username,password,role");
+        lines.add("alice,pa,ss,USER");
+        lines.add("");
+        String prehashed = new PasswordHasher(10).hash("secret");
+        lines.add("bob," + prehashed + ",ADMIN");
+        Files.write(csv, lines, StandardCharsets.UTF_8);
+        
+        assertEquals("Two users should be written", 2, UserDatabaseTool.build(csv, file, HASHER));
+        try (MappedUserStore store = new MappedUserStore(file)) {
+            String aliceHash = store.find("alice").getPasswordHash();
+            assertTrue("Plain password should be stored hashed", PasswordHasher.isHash(aliceHash));
+            assertTrue("Password may contain commas", PasswordHasher.verify("pa,ss", aliceHash));
+            assertEquals("Existing hash should be kept as is", prehashed, store.find("bob").getPasswordHash());
+            assertEquals("Role should be the last field", "ADMIN", store.find("bob").getRole());
+        }
+    }
+    
+    @Test
+    public void testToolRejectsMalformedLine() throws IOException {
+        Path csv = folder.getRoot().toPath().resolve("users.csv");
+        Path file = folder.getRoot().toPath().resolve("users.db");
+        Files.write(csv, Arrays.asList("alice,pw,USER", "bob-without-fields"), StandardCharsets.UTF_8);
+        try {
+            UserDatabaseTool.build(csv, file, HASHER);
+            fail("Malformed line should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue("Message should name the line", e.getMessage().contains("Line 2"));
+        }
+        assertFalse("No database should be left behind", Files.exists(file));
+    }
+    
+    private static int count(UserStore store) {
+        int count = 0;
+        for (User user : store.users()) {
+            count++;
+        }
+        return count;
+    }
+    
+    private static void awaitCompaction(MappedUserStore store) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (store.isCompacting() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse("Compaction should finish", store.isCompacting());
+    }
+    
+    private static User user(String username, String passwordHash, String role) {
+        User user = new User(username, null, role);
+        user.setPasswordHash(passwordHash);
+        return user;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import com.example.login.security.PasswordHasher;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Compares getting a large user set ready to serve logins: parsing a CSV dump
+ * into the in-memory map on every start, versus building the database file
+ * once offline and memory-mapping it at startup. Also reports lookup rates
+ * once each store is up (the mapped store reads from a warm page cache here).
+ * The CSV carries already hashed passwords, as an export from a real system
+ * would, so neither path pays for PBKDF2.
+ *
+ * Run with: ant benchmark -Dbench.class=com.example.login.store.UserDatabaseStartupBenchmark
+ *     -Dbench.jvmargs=-Xmx4g
+ * Optional system properties: bench.users (default 10000000)
+ */
+public class UserDatabaseStartupBenchmark {
+    private static final String[] ROLES = {"USER", "ADMIN", "MANAGER"};
+    
+    public static void main(String[] args) throws IOException {
+        int users = Integer.getInteger("bench.users", 10_000_000);
+        Path dir = Files.createTempDirectory("user-db-bench");
+        try {
+            Path csv = dir.resolve("users.csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < users; i++) {
+                    writer.write("user" + i + "," + UserStoreFootprintBenchmark.fakeHash(i, 0) + "," + ROLES[i % ROLES.length] + "\n");
+                }
+            }
+            System.out.printf("%d users, CSV %.0f MB%n", users, Files.size(csv) / 1048576.0);
+            
+            long start = System.nanoTime();
+            PasswordHasher hasher = new PasswordHasher();
+            UserStore map = new ConcurrentUserStore(users);
+            try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    map.put(UserDatabaseTool.parse(line, ++lineNumber, hasher));
+                }
+            }
+            report("csv -> map startup", start);
+            double mapRate = lookups(map, users);
+            map = null;
+            
+            Path file = dir.resolve("users.db");
+            start = System.nanoTime();
+            UserDatabaseTool.build(csv, file, hasher);
+            report("offline build (once)", start);
+            System.out.printf("  database file %.0f MB%n", Files.size(file) / 1048576.0);
+            
+            System.gc();
+            start = System.nanoTime();
+            try (MappedUserStore mapped = new MappedUserStore(file)) {
+                User first = mapped.find("user" + (users / 2));
+                report("mapped startup + first lookup", start);
+                if (first == null) {
+                    throw new IllegalStateException("Lookup failed");
+                }
+                double mappedRate = lookups(mapped, users);
+                System.out.printf("%-32s %10.0f%n%-32s %10.0f%n", "map lookups/s", mapRate, "mapped lookups/s", mappedRate);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+    
+    private static void report(String name, long start) {
+        System.out.printf("%-32s %10.1f ms%n", name, (System.nanoTime() - start) / 1e6);
+    }
+    
+    private static double lookups(UserStore store, int users) {
+        Random random = new Random(3);
+        int iterations = 2_000_000;
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            checksum += store.find("user" + random.nextInt(users)).getPasswordHash().length();
+        }
+        double rate = iterations / ((System.nanoTime() - start) / 1e9);
+        return checksum == 0 ? 0 : rate;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.example.login.store;
+
+import com.example.login.model.User;
+import com.example.login.security.PasswordHasher;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Loads the same synthetic user set into the ConcurrentHashMap store and the
+ * compact store and reports the retained heap and direct memory, then runs a
+ * lookup workload with steady allocation churn and a trickle of updates and
+ * reports GC pause percentiles while each store is live.
+ *
+ * Pause times come from GC notifications and have millisecond resolution.
+ * Give the JVM room for the map, e.g. for 10M users:
+ * ant benchmark -Dbench.class=com.example.login.store.UserStoreFootprintBenchmark
+ *     -Dbench.jvmargs="-Xmx4g -XX:MaxDirectMemorySize=1g -XX:+UseG1GC"
+ * Optional system properties: bench.users (default 10000000), bench.seconds
+ * (default 20), bench.store (map, compact or both; default both)
+ */
+public class UserStoreFootprintBenchmark {
+    private static final String[] ROLES = {"USER", "ADMIN", "MANAGER"};
+    private static final List<Long> pauses = Collections.synchronizedList(new ArrayList<>());
+    
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("bench.users", 10_000_000);
+        int seconds = Integer.getInteger("bench.seconds", 20);
+        String which = System.getProperty("bench.store", "both");
+        listenForPauses();
+        
+        System.out.printf("%-8s %10s %10s %10s %9s %8s %8s %8s %8s %12s%n", "store", "users", "heap MB",
+                "B/user", "direct MB", "load s", "gcs", "p99 ms", "max ms", "lookups/s");
+        if (!"compact".equals(which)) {
+            run("map", ConcurrentUserStore::new, users, seconds);
+        }
+        if (!"map".equals(which)) {
+            run("compact", CompactUserStore::new, users, seconds);
+        }
+    }
+    
+    private static void run(String name, IntFunction<UserStore> factory, int users, int seconds) {
+        long heapBefore = settledHeap();
+        long directBefore = directBytes();
+        long start = System.nanoTime();
+        UserStore store = factory.apply(users);
+        for (int i = 0; i < users; i++) {
+            store.put(user(i, 0));
+        }
+        double loadSeconds = (System.nanoTime() - start) / 1e9;
+        long heap = settledHeap() - heapBefore;
+        long direct = directBytes() - directBefore;
+        
+        pauses.clear();
+        long lookups = churn(store, users, seconds);
+        List<Long> sorted = new ArrayList<>(pauses);
+        Collections.sort(sorted);
+        long p99 = sorted.isEmpty() ? 0 : sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(sorted.size() * 0.99) - 1));
+        long max = sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1);
+        
+        System.out.printf("%-8s %10d %10.1f %10.1f %9.1f %8.1f %8d %8d %8d %12.0f%n", name, users, heap / 1048576.0,
+                heap / (double) users, direct / 1048576.0, loadSeconds, sorted.size(), p99, max,
+                lookups / (double) seconds);
+    }
+    
+    // Lookups as authenticate does them, 1% password updates, and short-lived
+    // garbage with a ring of survivors so objects keep reaching the old generation
+    private static long churn(UserStore store, int users, int seconds) {
+        Random random = new Random(7);
+        byte[][] survivors = new byte[65_536][];
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long lookups = 0;
+        long checksum = 0;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 1_000; i++) {
+                int id = random.nextInt(users);
+                User user = store.find("user" + id);
+                checksum += user.getPasswordHash().length();
+                if (random.nextInt(100) == 0) {
+                    store.put(user(id, random.nextInt(1_000)));
+                }
+                survivors[random.nextInt(survivors.length)] = new byte[512];
+                lookups++;
+            }
+        }
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return lookups;
+    }
+    
+    // Real PBKDF2 would dominate the load time, so use strings of the same
+    // shape and length as PasswordHasher output
+    private static User user(int id, int version) {
+        User user = new User("user" + id, null, ROLES[id % ROLES.length]);
+        user.setPasswordHash(fakeHash(id, version));
+        return user;
+    }
+    
+    static String fakeHash(int id, int version) {
+        String salt = String.format("%022d", id);
+        String hash = String.format("%043d", (long) id * 1_000 + version);
+        return PasswordHasher.PREFIX + PasswordHasher.DEFAULT_ITERATIONS + "$" + salt + "$" + hash;
+    }
+    
+    private static long settledHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+    
+    private static long directBytes() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+    
+    // Records every collection except the explicit System.gc() calls
+    private static void listenForPauses() {
+        NotificationListener listener = (notification, handback) -> {
+            if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                if (!"System.gc()".equals(info.getGcCause())) {
+                    pauses.add(info.getGcInfo().getDuration());
+                }
+            }
+        };
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+        }
+    }
+}
\ No newline at end of file